@@ -283,8 +283,15 @@ class CglibAopProxy implements AopProxy, Serializable {
 		boolean isFrozen = this.advised.isFrozen();
 		boolean isStatic = this.advised.getTargetSource().isStatic();
 
+		// Precompute the advice chains for a frozen config with a static target,
+		// sparing the general purpose AOP callback the advice chain lookup on every call.
+		// A non-static target source may hand out targets of different classes.
+		Method[] methods = rootClass.getMethods();
+		FrozenAdviceChains frozenChains = (isFrozen && isStatic ?
+				FrozenAdviceChains.build(this.advised, methods, false) : null);
+
 		// Choose an "aop" interceptor (used for AOP calls).
-		Callback aopInterceptor = new DynamicAdvisedInterceptor(this.advised);
+		Callback aopInterceptor = new DynamicAdvisedInterceptor(this.advised, frozenChains);
 
 		// Choose a "straight to target" interceptor. (used for calls that are
 		// unadvised but can return this). May be required to expose the proxy.
@@ -320,13 +327,12 @@ class CglibAopProxy implements AopProxy, Serializable {
 		// then we can make some optimisations by sending the AOP calls
 		// direct to the target using the fixed chain for that method.
 		if (isStatic && isFrozen) {
-			Method[] methods = rootClass.getMethods();
 			Callback[] fixedCallbacks = new Callback[methods.length];
 			this.fixedInterceptorMap = new HashMap<String, Integer>(methods.length);
 
 			// TODO: small memory optimisation here (can skip creation for methods with no advice)
 			for (int x = 0; x < methods.length; x++) {
-				List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(methods[x], rootClass);
+				List<Object> chain = frozenChains.getEntry(methods[x]).getChain();
 				fixedCallbacks[x] = new FixedChainStaticTargetInterceptor(
 						chain, this.advised.getTargetSource().getTarget(), this.advised.getTargetClass());
 				this.fixedInterceptorMap.put(methods[x].toString(), x);
@@ -610,14 +616,18 @@ class CglibAopProxy implements AopProxy, Serializable {
 
 	/**
 	 * General purpose AOP callback. Used when the target is dynamic or when the
-	 * proxy is not frozen.
+	 * proxy is not frozen, as well as for frozen proxies exposing the proxy.
+	 * <p>For a frozen config, the advice chains are precomputed at proxy creation.
 	 */
 	private static class DynamicAdvisedInterceptor implements MethodInterceptor, Serializable {
 
 		private final AdvisedSupport advised;
 
-		public DynamicAdvisedInterceptor(AdvisedSupport advised) {
+		private final transient FrozenAdviceChains frozenChains;
+
+		public DynamicAdvisedInterceptor(AdvisedSupport advised, FrozenAdviceChains frozenChains) {
 			this.advised = advised;
+			this.frozenChains = frozenChains;
 		}
 
 		@Override
@@ -638,7 +648,7 @@ class CglibAopProxy implements AopProxy, Serializable {
 				if (target != null) {
 					targetClass = target.getClass();
 				}
-				List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+				List<Object> chain = getChain(method, targetClass);
 				Object retVal;
 				// Check whether we only have one InvokerInterceptor: that is,
 				// no real advice, but just reflective invocation of the target.
@@ -683,6 +693,16 @@ class CglibAopProxy implements AopProxy, Serializable {
 			return this.advised.hashCode();
 		}
 
+		private List<Object> getChain(Method method, Class<?> targetClass) {
+			if (this.frozenChains != null) {
+				FrozenAdviceChains.MethodEntry entry = this.frozenChains.getEntry(method);
+				if (entry != null) {
+					return entry.getChain();
+				}
+			}
+			return this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+		}
+
 		protected Object getTarget() throws Exception {
 			return this.advised.getTargetSource().getTarget();
 		}
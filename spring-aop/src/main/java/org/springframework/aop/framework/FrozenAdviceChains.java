@@ -0,0 +1,188 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.aop.TargetSource;
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.util.Assert;
+
+/**
+ * Advice chains precomputed per method for a {@link ProxyConfig#isFrozen() frozen}
+ * proxy configuration with a {@link TargetSource#isStatic() static} target source,
+ * built once at proxy creation time. Since the advisors of a frozen configuration
+ * cannot change and the target class of a static target source is fixed, proxies
+ * may look up the chain for an invoked method here instead of going through
+ * {@link AdvisedSupport#getInterceptorsAndDynamicInterceptionAdvice}, which allocates
+ * a cache key on every call. Chains for other target sources depend on the class
+ * of the target obtained per call and are not to be precomputed.
+ *
+ * <p>Public methods of a public target class may additionally be mapped to an
+ * index in a CGLIB {@link FastClass} for the target class, allowing the target
+ * method to be dispatched through generated bytecode rather than through
+ * {@link Method#invoke}.
+ *
+ * <p>Instances are immutable once built and may be shared across threads.
+ *
+ * @since 4.2.4
+ * @see JdkDynamicAopProxy
+ * @see CglibAopProxy
+ */
+final class FrozenAdviceChains {
+
+	private static final Log logger = LogFactory.getLog(FrozenAdviceChains.class);
+
+
+	private final Map<Method, MethodEntry> entries;
+
+	private final TargetSource targetSource;
+
+
+	private FrozenAdviceChains(Map<Method, MethodEntry> entries, TargetSource targetSource) {
+		this.entries = entries;
+		this.targetSource = targetSource;
+	}
+
+
+	/**
+	 * Return the precomputed entry for the given method.
+	 * @param method the invoked method
+	 * @return the entry, or {@code null} if the method has not been precomputed
+	 * (in which case the caller needs to fall back to the regular lookup)
+	 */
+	public MethodEntry getEntry(Method method) {
+		return this.entries.get(method);
+	}
+
+	/**
+	 * Return whether direct target dispatch may be used with the given target source,
+	 * i.e. whether it is still the static target source these chains were built for.
+	 */
+	public boolean isDirectDispatchTarget(TargetSource targetSource) {
+		return (this.targetSource != null && this.targetSource == targetSource);
+	}
+
+
+	/**
+	 * Precompute the advice chains for the given methods.
+	 * @param advised the frozen proxy configuration, with a static target source
+	 * @param methods the methods exposed by the proxy
+	 * @param directDispatch whether to prepare direct target dispatch through
+	 * generated bytecode
+	 * @return the precomputed chains
+	 */
+	public static FrozenAdviceChains build(AdvisedSupport advised, Method[] methods, boolean directDispatch) {
+		TargetSource targetSource = advised.getTargetSource();
+		Assert.isTrue(targetSource.isStatic(), "Advice chains can only be precomputed for a static TargetSource");
+		Class<?> targetClass = advised.getTargetClass();
+		FastClass fastClass = null;
+		if (directDispatch && targetClass != null &&
+				Modifier.isPublic(targetClass.getModifiers())) {
+			fastClass = createFastClass(targetClass);
+		}
+
+		Map<Method, MethodEntry> entries = new HashMap<Method, MethodEntry>(methods.length * 4 / 3 + 1);
+		for (Method method : methods) {
+			if (entries.containsKey(method)) {
+				continue;
+			}
+			List<Object> chain = advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+			int fastIndex = -1;
+			if (fastClass != null && Modifier.isPublic(method.getModifiers()) && !method.isVarArgs() &&
+					method.getDeclaringClass().isAssignableFrom(targetClass)) {
+				fastIndex = fastClass.getIndex(method.getName(), method.getParameterTypes());
+			}
+			entries.put(method, new MethodEntry(chain, (fastIndex >= 0 ? fastClass : null), fastIndex));
+		}
+		return new FrozenAdviceChains(entries, (fastClass != null ? targetSource : null));
+	}
+
+	private static FastClass createFastClass(Class<?> targetClass) {
+		try {
+			return FastClass.create(targetClass);
+		}
+		catch (Throwable ex) {
+			// Class generation not possible for this target class: e.g. ClassLoader not accessible.
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not generate fast dispatch class for target class [" +
+						targetClass.getName() + "] - falling back to reflective invocation", ex);
+			}
+			return null;
+		}
+	}
+
+
+	/**
+	 * Precomputed state for a single proxied method.
+	 */
+	static final class MethodEntry {
+
+		private final List<Object> chain;
+
+		private final FastClass fastClass;
+
+		private final int fastIndex;
+
+		MethodEntry(List<Object> chain, FastClass fastClass, int fastIndex) {
+			this.chain = chain;
+			this.fastClass = fastClass;
+			this.fastIndex = fastIndex;
+		}
+
+		/**
+		 * Return the interceptors (and dynamic method matchers) to apply.
+		 */
+		public List<Object> getChain() {
+			return this.chain;
+		}
+
+		/**
+		 * Return whether the target method can be invoked through generated bytecode.
+		 */
+		public boolean hasDirectDispatch() {
+			return (this.fastClass != null);
+		}
+
+		/**
+		 * Invoke the target method through generated bytecode.
+		 * <p>Only to be called if {@link #hasDirectDispatch()} returns {@code true},
+		 * for the static target that these chains have been built for.
+		 * @param target the target object
+		 * @param args the arguments for the method
+		 * @return the invocation result, if any
+		 * @throws Throwable exactly as thrown by the target method
+		 */
+		public Object invokeDirect(Object target, Object[] args) throws Throwable {
+			try {
+				return this.fastClass.invoke(this.fastIndex, target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,8 @@ import java.io.Serializable;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.aopalliance.intercept.MethodInvocation;
@@ -90,6 +92,12 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	 */
 	private boolean hashCodeDefined;
 
+	/**
+	 * Advice chains precomputed at proxy creation time, if the configuration is frozen
+	 * and the target source is static.
+	 */
+	private transient FrozenAdviceChains frozenChains;
+
 
 	/**
 	 * Construct a new JdkDynamicAopProxy for the given AOP configuration.
@@ -118,9 +126,26 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 		}
 		Class<?>[] proxiedInterfaces = AopProxyUtils.completeProxiedInterfaces(this.advised);
 		findDefinedEqualsAndHashCodeMethods(proxiedInterfaces);
+		if (this.advised.isFrozen() && this.advised.getTargetSource().isStatic() && this.frozenChains == null) {
+			this.frozenChains = FrozenAdviceChains.build(this.advised, getProxiedMethods(proxiedInterfaces), true);
+		}
 		return Proxy.newProxyInstance(classLoader, proxiedInterfaces, this);
 	}
 
+	/**
+	 * Collect the methods that the JDK proxy may pass to {@link #invoke}:
+	 * all methods of the proxied interfaces plus the public {@code Object} methods.
+	 * @param proxiedInterfaces the interfaces to introspect
+	 */
+	private Method[] getProxiedMethods(Class<?>[] proxiedInterfaces) {
+		List<Method> methods = new ArrayList<Method>();
+		for (Class<?> proxiedInterface : proxiedInterfaces) {
+			methods.addAll(Arrays.asList(proxiedInterface.getMethods()));
+		}
+		methods.addAll(Arrays.asList(Object.class.getMethods()));
+		return methods.toArray(new Method[methods.size()]);
+	}
+
 	/**
 	 * Finds any {@link #equals} or {@link #hashCode} method that may be defined
 	 * on the supplied set of interfaces.
@@ -189,12 +214,28 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 				targetClass = target.getClass();
 			}
 
-			// Get the interception chain for this method.
-			List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
-
+			// Get the interception chain for this method: precomputed if the config is frozen.
+			FrozenAdviceChains frozenChains = this.frozenChains;
+			FrozenAdviceChains.MethodEntry frozenEntry = (frozenChains != null ? frozenChains.getEntry(method) : null);
+			List<Object> chain = (frozenEntry != null ? frozenEntry.getChain() :
+					this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass));
+
+			if (frozenEntry != null && frozenEntry.hasDirectDispatch() &&
+					frozenChains.isDirectDispatchTarget(targetSource)) {
+				// Frozen config with a static target: dispatch to the target through
+				// generated bytecode instead of reflection, with or without advice.
+				if (chain.isEmpty()) {
+					retVal = frozenEntry.invokeDirect(target, args);
+				}
+				else {
+					invocation = new DirectDispatchMethodInvocation(
+							proxy, target, method, args, targetClass, chain, frozenEntry);
+					retVal = invocation.proceed();
+				}
+			}
 			// Check whether we have any advice. If we don't, we can fallback on direct
 			// reflective invocation of the target, and avoid creating a MethodInvocation.
-			if (chain.isEmpty()) {
+			else if (chain.isEmpty()) {
 				// We can skip creating a MethodInvocation: just invoke the target directly
 				// Note that the final invoker must be an InvokerInterceptor so we know it does
 				// nothing but a reflective operation on the target, and no hot swapping or fancy proxying.
@@ -278,4 +319,27 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 		return JdkDynamicAopProxy.class.hashCode() * 13 + this.advised.getTargetSource().hashCode();
 	}
 
+
+	/**
+	 * MethodInvocation for frozen configurations with a static target, invoking
+	 * the joinpoint through generated bytecode rather than through reflection.
+	 */
+	private static class DirectDispatchMethodInvocation extends ReflectiveMethodInvocation {
+
+		private final FrozenAdviceChains.MethodEntry methodEntry;
+
+		public DirectDispatchMethodInvocation(Object proxy, Object target, Method method, Object[] arguments,
+				Class<?> targetClass, List<Object> interceptorsAndDynamicMethodMatchers,
+				FrozenAdviceChains.MethodEntry methodEntry) {
+
+			super(proxy, target, method, arguments, targetClass, interceptorsAndDynamicMethodMatchers);
+			this.methodEntry = methodEntry;
+		}
+
+		@Override
+		protected Object invokeJoinpoint() throws Throwable {
+			return this.methodEntry.invokeDirect(this.target, this.arguments);
+		}
+	}
+
 }
@@ -46,6 +46,9 @@ import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.util.StringUtils;
 
 /**
@@ -436,36 +439,48 @@ public abstract class AbstractAutoProxyCreator extends ProxyProcessorSupport
 	protected Object createProxy(
 			Class<?> beanClass, String beanName, Object[] specificInterceptors, TargetSource targetSource) {
 
-		if (this.beanFactory instanceof ConfigurableListableBeanFactory) {
-			AutoProxyUtils.exposeTargetClass((ConfigurableListableBeanFactory) this.beanFactory, beanName, beanClass);
-		}
+		StartupStep proxyCreation = getApplicationStartup().start("spring.aop.proxy.create")
+				.tag("beanName", beanName).tag("beanClass", beanClass.getName());
+		try {
+			if (this.beanFactory instanceof ConfigurableListableBeanFactory) {
+				AutoProxyUtils.exposeTargetClass((ConfigurableListableBeanFactory) this.beanFactory, beanName, beanClass);
+			}
 
-		ProxyFactory proxyFactory = new ProxyFactory();
-		proxyFactory.copyFrom(this);
+			ProxyFactory proxyFactory = new ProxyFactory();
+			proxyFactory.copyFrom(this);
 
-		if (!proxyFactory.isProxyTargetClass()) {
-			if (shouldProxyTargetClass(beanClass, beanName)) {
-				proxyFactory.setProxyTargetClass(true);
+			if (!proxyFactory.isProxyTargetClass()) {
+				if (shouldProxyTargetClass(beanClass, beanName)) {
+					proxyFactory.setProxyTargetClass(true);
+				}
+				else {
+					evaluateProxyInterfaces(beanClass, proxyFactory);
+				}
 			}
-			else {
-				evaluateProxyInterfaces(beanClass, proxyFactory);
+
+			Advisor[] advisors = buildAdvisors(beanName, specificInterceptors);
+			for (Advisor advisor : advisors) {
+				proxyFactory.addAdvisor(advisor);
 			}
-		}
 
-		Advisor[] advisors = buildAdvisors(beanName, specificInterceptors);
-		for (Advisor advisor : advisors) {
-			proxyFactory.addAdvisor(advisor);
-		}
+			proxyFactory.setTargetSource(targetSource);
+			customizeProxyFactory(proxyFactory);
 
-		proxyFactory.setTargetSource(targetSource);
-		customizeProxyFactory(proxyFactory);
+			proxyFactory.setFrozen(this.freezeProxy);
+			if (advisorsPreFiltered()) {
+				proxyFactory.setPreFiltered(true);
+			}
 
-		proxyFactory.setFrozen(this.freezeProxy);
-		if (advisorsPreFiltered()) {
-			proxyFactory.setPreFiltered(true);
+			return proxyFactory.getProxy(getProxyClassLoader());
 		}
+		finally {
+			proxyCreation.end();
+		}
+	}
 
-		return proxyFactory.getProxy(getProxyClassLoader());
+	private ApplicationStartup getApplicationStartup() {
+		return (this.beanFactory instanceof AbstractBeanFactory ?
+				((AbstractBeanFactory) this.beanFactory).getApplicationStartup() : ApplicationStartup.DEFAULT);
 	}
 
 	/**
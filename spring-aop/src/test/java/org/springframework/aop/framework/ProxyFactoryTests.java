@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.aop.framework;
 
+import java.lang.reflect.Method;
+
 import javax.accessibility.Accessible;
 import javax.swing.JFrame;
 import javax.swing.RootPaneContainer;
@@ -31,6 +33,9 @@ import org.springframework.aop.support.AopUtils;
 import org.springframework.aop.support.DefaultIntroductionAdvisor;
 import org.springframework.aop.support.DefaultPointcutAdvisor;
 import org.springframework.aop.support.DelegatingIntroductionInterceptor;
+import org.springframework.aop.support.NameMatchMethodPointcut;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.aop.target.HotSwappableTargetSource;
 import org.springframework.tests.TimeStamped;
 import org.springframework.tests.aop.advice.CountingBeforeAdvice;
 import org.springframework.tests.aop.interceptor.NopInterceptor;
@@ -327,6 +332,75 @@ public final class ProxyFactoryTests {
 		assertEquals(TestBean.class, AopProxyUtils.ultimateTargetClass(proxy2));
 	}
 
+	@Test
+	public void testFrozenJdkProxyWithStaticTarget() throws Throwable {
+		TestBean target = new TestBean("tb", 11);
+		ProxyFactory pf = new ProxyFactory(target);
+		NopInterceptor nop = new NopInterceptor();
+		pf.addAdvisor(new DefaultPointcutAdvisor(new NameMatchMethodPointcut("setAge"), nop));
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+		assertTrue(AopUtils.isJdkDynamicProxy(proxy));
+
+		assertEquals(11, proxy.getAge());
+		assertEquals(0, nop.getCount());
+		proxy.setAge(12);
+		assertEquals(1, nop.getCount());
+		assertEquals(12, target.getAge());
+		assertSame(proxy, proxy.returnsThis());
+		assertEquals(target.toString(), proxy.toString());
+
+		IllegalStateException ex = new IllegalStateException();
+		try {
+			proxy.exceptional(ex);
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException actual) {
+			assertSame(ex, actual);
+		}
+	}
+
+	@Test
+	public void testFrozenCglibProxyExposingProxy() {
+		TestBean target = new TestBean("tb", 11);
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setProxyTargetClass(true);
+		pf.setExposeProxy(true);
+		NopInterceptor nop = new NopInterceptor();
+		pf.addAdvice(nop);
+		pf.setFrozen(true);
+		TestBean proxy = (TestBean) pf.getProxy();
+		assertTrue(AopUtils.isCglibProxy(proxy));
+
+		assertEquals(11, proxy.getAge());
+		proxy.setAge(12);
+		assertEquals(12, target.getAge());
+		assertEquals(2, nop.getCount());
+	}
+
+	@Test
+	public void testFrozenJdkProxyWithNonStaticTargetSource() {
+		HotSwappableTargetSource targetSource = new HotSwappableTargetSource(new TestBean("tb", 11));
+		ProxyFactory pf = new ProxyFactory();
+		pf.setTargetSource(targetSource);
+		pf.addInterface(ITestBean.class);
+		NopInterceptor nop = new NopInterceptor();
+		pf.addAdvisor(new DefaultPointcutAdvisor(new StaticMethodMatcherPointcut() {
+			@Override
+			public boolean matches(Method method, Class<?> targetClass) {
+				return (targetClass == SubTestBean.class && method.getName().equals("getAge"));
+			}
+		}, nop));
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		assertEquals(11, proxy.getAge());
+		assertEquals(0, nop.getCount());
+		targetSource.swap(new SubTestBean());
+		assertEquals(12, proxy.getAge());
+		assertEquals(1, nop.getCount());
+	}
+
 	@Test
 	@Ignore("Not implemented yet, see http://jira.springframework.org/browse/SPR-5708")
 	public void testExclusionOfNonPublicInterfaces() {
@@ -338,6 +412,14 @@ public final class ProxyFactoryTests {
 	}
 
 
+	public static class SubTestBean extends TestBean {
+
+		public SubTestBean() {
+			super("sub", 12);
+		}
+	}
+
+
 	@SuppressWarnings("serial")
 	private static class TimestampIntroductionInterceptor extends DelegatingIntroductionInterceptor
 			implements TimeStamped {
@@ -121,7 +121,7 @@ public class CachedIntrospectionResults {
 	 * This variant is being used for non-cache-safe bean classes.
 	 */
 	static final ConcurrentMap<Class<?>, CachedIntrospectionResults> softClassCache =
-			new ConcurrentReferenceHashMap<Class<?>, CachedIntrospectionResults>(64);
+			ConcurrentReferenceHashMap.forMetadataCache(64);
 
 
 	/**
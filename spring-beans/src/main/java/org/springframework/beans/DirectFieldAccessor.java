@@ -107,7 +107,7 @@ public class DirectFieldAccessor extends AbstractNestablePropertyAccessor {
 
 		@Override
 		public TypeDescriptor toTypeDescriptor() {
-			return new TypeDescriptor(this.field);
+			return TypeDescriptor.forField(this.field);
 		}
 
 		@Override
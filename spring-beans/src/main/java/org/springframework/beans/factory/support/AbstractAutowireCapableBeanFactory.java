@@ -74,6 +74,7 @@ import org.springframework.core.GenericTypeResolver;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
@@ -405,7 +406,15 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
 		Object result = existingBean;
 		for (BeanPostProcessor beanProcessor : getBeanPostProcessors()) {
-			result = beanProcessor.postProcessBeforeInitialization(result, beanName);
+			StartupStep postProcessStep = getApplicationStartup().start("spring.beans.post-process")
+					.tag("beanName", beanName).tag("postProcessor", beanProcessor.getClass().getName())
+					.tag("phase", "before-initialization");
+			try {
+				result = beanProcessor.postProcessBeforeInitialization(result, beanName);
+			}
+			finally {
+				postProcessStep.end();
+			}
 			if (result == null) {
 				return result;
 			}
@@ -419,7 +428,15 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
 		Object result = existingBean;
 		for (BeanPostProcessor beanProcessor : getBeanPostProcessors()) {
-			result = beanProcessor.postProcessAfterInitialization(result, beanName);
+			StartupStep postProcessStep = getApplicationStartup().start("spring.beans.post-process")
+					.tag("beanName", beanName).tag("postProcessor", beanProcessor.getClass().getName())
+					.tag("phase", "after-initialization");
+			try {
+				result = beanProcessor.postProcessAfterInitialization(result, beanName);
+			}
+			finally {
+				postProcessStep.end();
+			}
 			if (result == null) {
 				return result;
 			}
@@ -507,7 +524,13 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			instanceWrapper = this.factoryBeanInstanceCache.remove(beanName);
 		}
 		if (instanceWrapper == null) {
-			instanceWrapper = createBeanInstance(beanName, mbd, args);
+			StartupStep instantiateStep = getApplicationStartup().start("spring.beans.instantiate").tag("beanName", beanName);
+			try {
+				instanceWrapper = createBeanInstance(beanName, mbd, args);
+			}
+			finally {
+				instantiateStep.end();
+			}
 		}
 		final Object bean = (instanceWrapper != null ? instanceWrapper.getWrappedInstance() : null);
 		Class<?> beanType = (instanceWrapper != null ? instanceWrapper.getWrappedClass() : null);
@@ -540,9 +563,21 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		// Initialize the bean instance.
 		Object exposedObject = bean;
 		try {
-			populateBean(beanName, mbd, instanceWrapper);
+			StartupStep populateStep = getApplicationStartup().start("spring.beans.populate").tag("beanName", beanName);
+			try {
+				populateBean(beanName, mbd, instanceWrapper);
+			}
+			finally {
+				populateStep.end();
+			}
 			if (exposedObject != null) {
-				exposedObject = initializeBean(beanName, exposedObject, mbd);
+				StartupStep initializeStep = getApplicationStartup().start("spring.beans.initialize").tag("beanName", beanName);
+				try {
+					exposedObject = initializeBean(beanName, exposedObject, mbd);
+				}
+				finally {
+					initializeStep.end();
+				}
 			}
 		}
 		catch (Throwable ex) {
@@ -1570,6 +1605,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			wrappedBean = applyBeanPostProcessorsBeforeInitialization(wrappedBean, beanName);
 		}
 
+		StartupStep initMethodsStep = getApplicationStartup().start("spring.beans.init-methods").tag("beanName", beanName);
 		try {
 			invokeInitMethods(beanName, wrappedBean, mbd);
 		}
@@ -1578,6 +1614,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 					(mbd != null ? mbd.getResourceDescription() : null),
 					beanName, "Invocation of init method failed", ex);
 		}
+		finally {
+			initMethodsStep.end();
+		}
 
 		if (mbd == null || !mbd.isSynthetic()) {
 			wrappedBean = applyBeanPostProcessorsAfterInitialization(wrappedBean, beanName);
@@ -0,0 +1,827 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.BeanMetadataElement;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.Mergeable;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.cglib.core.ReflectUtils;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Serializable snapshot of the bean definitions in a {@link DefaultListableBeanFactory},
+ * typically taken once all bean factory post-processors have been applied, so that
+ * the post-processed definitions can be restored on a subsequent startup instead of
+ * being parsed and post-processed again.
+ *
+ * <p>A snapshot holds the merged form of each bean definition, including its resolved
+ * target type, autowire candidate status, qualifiers, constructor argument values and
+ * property values, as well as all aliases. Classes generated at runtime (e.g. enhanced
+ * {@code @Configuration} classes) are kept along with their bytecode, provided that it
+ * has been {@link #registerGeneratedClass registered} by the generating component,
+ * and are defined in the target ClassLoader again on {@link #restore}.
+ *
+ * <p>Only metadata that can be represented independently from a live bean factory
+ * is supported: plain and {@link Serializable} values, class references,
+ * {@link TypedStringValue TypedStringValues}, bean references, inner bean definitions,
+ * managed collections and lookup methods. {@link #capture} rejects any other content,
+ * e.g. replaced methods or non-serializable objects specified as argument values.
+ *
+ * <p>The fingerprint is opaque to this class: it is meant to identify the classpath and
+ * configuration that a snapshot has been taken for, with the caller discarding snapshots
+ * that do not match the current fingerprint. Note that a snapshot may contain bytecode;
+ * a stored snapshot needs to be protected like the application's own class files.
+ *
+ * @since 4.2.4
+ * @see #capture
+ * @see #restore
+ */
+public class BeanDefinitionSnapshot implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Bytecode of generated classes, retained as long as memory permits */
+	private static final Map<Class<?>, byte[]> generatedClassBytecode = new ConcurrentReferenceHashMap<Class<?>, byte[]>(
+			16, ConcurrentReferenceHashMap.ReferenceType.SOFT);
+
+
+	private final String fingerprint;
+
+	private final Map<String, byte[]> generatedClasses = new LinkedHashMap<String, byte[]>();
+
+	private final Map<String, DefinitionState> beanDefinitions = new LinkedHashMap<String, DefinitionState>();
+
+	private final Map<String, String> aliases = new LinkedHashMap<String, String>();
+
+
+	private BeanDefinitionSnapshot(String fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+
+
+	/**
+	 * Register the bytecode of the given class, generated at runtime, so that it can
+	 * be included in snapshots of bean definitions that refer to it.
+	 * @param generatedClass the generated class
+	 * @param bytecode the bytecode that the class has been defined with
+	 */
+	public static void registerGeneratedClass(Class<?> generatedClass, byte[] bytecode) {
+		generatedClassBytecode.put(generatedClass, bytecode);
+	}
+
+	/**
+	 * Take a snapshot of all bean definitions in the given bean factory.
+	 * <p>Resolves the target type of each non-abstract bean definition along the way,
+	 * without instantiating any beans, so that the restored definitions do not need
+	 * to determine it again.
+	 * @param beanFactory the bean factory to take the snapshot of
+	 * @param fingerprint the fingerprint to identify the snapshot with
+	 * @return the snapshot
+	 * @throws BeanDefinitionStoreException if a bean definition contains
+	 * metadata that cannot be represented in a snapshot
+	 */
+	public static BeanDefinitionSnapshot capture(DefaultListableBeanFactory beanFactory, String fingerprint)
+			throws BeanDefinitionStoreException {
+
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshot(fingerprint);
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			RootBeanDefinition mbd = beanFactory.getMergedLocalBeanDefinition(beanName);
+			if (!mbd.isAbstract() && mbd.getTargetType() == null) {
+				try {
+					beanFactory.determineTargetType(beanName, mbd);
+				}
+				catch (BeansException ex) {
+					// Leave target type unresolved -> to be determined at runtime
+				}
+			}
+			snapshot.beanDefinitions.put(beanName, snapshot.captureDefinition(mbd, beanName));
+			for (String alias : beanFactory.getAliases(beanName)) {
+				snapshot.aliases.put(alias, beanName);
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Compute a digest of the bean definitions and aliases currently registered in the
+	 * given bean factory, covering all of their state that a snapshot would keep.
+	 * <p>Meant for fingerprinting definitions that get registered before a snapshot is
+	 * restored, e.g. programmatically or from files outside the classpath. Unlike
+	 * {@link #capture}, this takes the definitions as registered, without merging
+	 * them or resolving their target types.
+	 * @param beanFactory the bean factory to compute the digest for
+	 * @return the digest, as hex String
+	 * @throws BeanDefinitionStoreException if a bean definition contains
+	 * metadata that cannot be represented in a snapshot
+	 */
+	public static String digest(DefaultListableBeanFactory beanFactory) throws BeanDefinitionStoreException {
+		BeanDefinitionSnapshot snapshot = new BeanDefinitionSnapshot(null);
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			snapshot.beanDefinitions.put(beanName,
+					snapshot.captureDefinition(beanFactory.getBeanDefinition(beanName), beanName));
+			for (String alias : beanFactory.getAliases(beanName)) {
+				snapshot.aliases.put(alias, beanName);
+			}
+		}
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try {
+			snapshot.writeTo(bos);
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException("Bean definitions contain a value that is not serializable", ex);
+		}
+		return DigestUtils.md5DigestAsHex(bos.toByteArray());
+	}
+
+	/**
+	 * Read a snapshot from the given stream, as written by {@link #writeTo}.
+	 * @param inputStream the stream to read from (not closed by this method)
+	 * @param classLoader the ClassLoader to resolve serialized values with
+	 * @return the snapshot
+	 * @throws IOException if the stream does not contain a readable snapshot
+	 */
+	public static BeanDefinitionSnapshot readFrom(InputStream inputStream, ClassLoader classLoader) throws IOException {
+		ObjectInputStream ois = new ConfigurableObjectInputStream(inputStream, classLoader);
+		try {
+			Object snapshot = ois.readObject();
+			if (!(snapshot instanceof BeanDefinitionSnapshot)) {
+				throw new IOException("Not a bean definition snapshot: " + snapshot);
+			}
+			return (BeanDefinitionSnapshot) snapshot;
+		}
+		catch (ClassNotFoundException ex) {
+			throw new IOException("Bean definition snapshot refers to unknown class", ex);
+		}
+	}
+
+
+	/**
+	 * Return the fingerprint that this snapshot has been taken with.
+	 */
+	public String getFingerprint() {
+		return this.fingerprint;
+	}
+
+	/**
+	 * Return the number of bean definitions in this snapshot.
+	 */
+	public int getBeanDefinitionCount() {
+		return this.beanDefinitions.size();
+	}
+
+	/**
+	 * Write this snapshot to the given stream.
+	 * @param outputStream the stream to write to (not closed by this method)
+	 * @throws IOException in case of I/O errors, or if a value is not serializable after all
+	 */
+	public void writeTo(OutputStream outputStream) throws IOException {
+		ObjectOutputStream oos = new ObjectOutputStream(outputStream);
+		oos.writeObject(this);
+		oos.flush();
+	}
+
+	/**
+	 * Restore the bean definitions and aliases of this snapshot into the given bean
+	 * factory, replacing any bean definitions of the same name.
+	 * <p>All generated classes are defined and all bean definitions are built
+	 * before the bean factory gets modified, so that a failure leaves it untouched.
+	 * @param beanFactory the bean factory to restore the snapshot into
+	 * @param classLoader the ClassLoader to resolve and define classes with
+	 * @throws BeanDefinitionStoreException if the snapshot cannot be restored,
+	 * e.g. because a class cannot be found
+	 */
+	public void restore(DefaultListableBeanFactory beanFactory, ClassLoader classLoader)
+			throws BeanDefinitionStoreException {
+
+		ClassLoader classLoaderToUse = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		for (Map.Entry<String, byte[]> entry : this.generatedClasses.entrySet()) {
+			if (!ClassUtils.isPresent(entry.getKey(), classLoaderToUse)) {
+				try {
+					registerGeneratedClass(ReflectUtils.defineClass(entry.getKey(), entry.getValue(), classLoaderToUse),
+							entry.getValue());
+				}
+				catch (Exception ex) {
+					throw new BeanDefinitionStoreException(
+							"Failed to define generated class [" + entry.getKey() + "] from snapshot", ex);
+				}
+			}
+		}
+
+		Map<String, AbstractBeanDefinition> definitions =
+				new LinkedHashMap<String, AbstractBeanDefinition>(this.beanDefinitions.size());
+		for (Map.Entry<String, DefinitionState> entry : this.beanDefinitions.entrySet()) {
+			try {
+				definitions.put(entry.getKey(), entry.getValue().restore(classLoaderToUse));
+			}
+			catch (ClassNotFoundException ex) {
+				throw new BeanDefinitionStoreException(entry.getValue().resourceDescription, entry.getKey(),
+						"Bean definition in snapshot refers to unknown class", ex);
+			}
+		}
+
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			beanFactory.removeBeanDefinition(beanName);
+		}
+		for (Map.Entry<String, AbstractBeanDefinition> entry : definitions.entrySet()) {
+			beanFactory.registerBeanDefinition(entry.getKey(), entry.getValue());
+		}
+		for (Map.Entry<String, String> entry : this.aliases.entrySet()) {
+			beanFactory.registerAlias(entry.getValue(), entry.getKey());
+		}
+	}
+
+
+	private DefinitionState captureDefinition(BeanDefinition bd, String beanName) {
+		if (!(bd instanceof AbstractBeanDefinition)) {
+			throw unsupported(bd, beanName, "bean definition of type [" + bd.getClass().getName() + "]");
+		}
+		AbstractBeanDefinition abd = (AbstractBeanDefinition) bd;
+		DefinitionState state = new DefinitionState();
+		if (abd.hasBeanClass()) {
+			state.beanClassName = captureClass(abd.getBeanClass(), bd, beanName);
+			state.beanClassResolved = true;
+		}
+		else {
+			state.beanClassName = abd.getBeanClassName();
+		}
+		state.parentName = abd.getParentName();
+		state.scope = abd.getScope();
+		state.abstractFlag = abd.isAbstract();
+		state.lazyInit = abd.isLazyInit();
+		state.autowireMode = abd.getAutowireMode();
+		state.dependencyCheck = abd.getDependencyCheck();
+		state.dependsOn = abd.getDependsOn();
+		state.autowireCandidate = abd.isAutowireCandidate();
+		state.primary = abd.isPrimary();
+		for (AutowireCandidateQualifier qualifier : abd.getQualifiers()) {
+			Map<String, Object> attributes = new LinkedHashMap<String, Object>();
+			for (String name : qualifier.attributeNames()) {
+				attributes.put(name, captureValue(qualifier.getAttribute(name), bd, beanName));
+			}
+			state.qualifiers.put(qualifier.getTypeName(), attributes);
+		}
+		state.nonPublicAccessAllowed = abd.isNonPublicAccessAllowed();
+		state.lenientConstructorResolution = abd.isLenientConstructorResolution();
+		ConstructorArgumentValues cargs = abd.getConstructorArgumentValues();
+		for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry : cargs.getIndexedArgumentValues().entrySet()) {
+			state.indexedArguments.put(entry.getKey(), captureArgument(entry.getValue(), bd, beanName));
+		}
+		for (ConstructorArgumentValues.ValueHolder valueHolder : cargs.getGenericArgumentValues()) {
+			state.genericArguments.add(captureArgument(valueHolder, bd, beanName));
+		}
+		for (PropertyValue pv : abd.getPropertyValues().getPropertyValueList()) {
+			state.propertyValues.add(new PropertyState(pv.getName(), captureValue(pv.getValue(), bd, beanName), pv.isOptional()));
+		}
+		for (MethodOverride override : abd.getMethodOverrides().getOverrides()) {
+			if (!(override instanceof LookupOverride)) {
+				throw unsupported(bd, beanName, "method override " + override);
+			}
+			state.lookupOverrides.put(override.getMethodName(), ((LookupOverride) override).getBeanName());
+		}
+		state.factoryBeanName = abd.getFactoryBeanName();
+		state.factoryMethodName = abd.getFactoryMethodName();
+		state.initMethodName = abd.getInitMethodName();
+		state.enforceInitMethod = abd.isEnforceInitMethod();
+		state.destroyMethodName = abd.getDestroyMethodName();
+		state.enforceDestroyMethod = abd.isEnforceDestroyMethod();
+		state.synthetic = abd.isSynthetic();
+		state.role = abd.getRole();
+		state.description = abd.getDescription();
+		state.resourceDescription = abd.getResourceDescription();
+		for (String name : abd.attributeNames()) {
+			state.attributes.put(name, captureValue(abd.getAttribute(name), bd, beanName));
+		}
+		if (abd instanceof RootBeanDefinition) {
+			RootBeanDefinition rbd = (RootBeanDefinition) abd;
+			state.factoryMethodUnique = rbd.isFactoryMethodUnique;
+			if (rbd.getTargetType() != null) {
+				state.targetTypeName = captureClass(rbd.getTargetType(), bd, beanName);
+			}
+			if (rbd.getDecoratedDefinition() != null) {
+				state.decoratedDefinition = captureHolder(rbd.getDecoratedDefinition(), bd, beanName);
+			}
+		}
+		return state;
+	}
+
+	private ArgumentState captureArgument(ConstructorArgumentValues.ValueHolder valueHolder, BeanDefinition bd, String beanName) {
+		return new ArgumentState(captureValue(valueHolder.getValue(), bd, beanName), valueHolder.getType(), valueHolder.getName());
+	}
+
+	private HolderState captureHolder(BeanDefinitionHolder holder, BeanDefinition bd, String beanName) {
+		return new HolderState(captureDefinition(holder.getBeanDefinition(), beanName),
+				holder.getBeanName(), holder.getAliases());
+	}
+
+	private Object captureValue(Object value, BeanDefinition bd, String beanName) {
+		if (value == null || value instanceof String || value instanceof Number ||
+				value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+			return value;
+		}
+		if (value instanceof Class) {
+			return new ClassState(captureClass((Class<?>) value, bd, beanName));
+		}
+		if (value instanceof TypedStringValue) {
+			TypedStringValue typedStringValue = (TypedStringValue) value;
+			return new TypedStringValueState(typedStringValue.getValue(), typedStringValue.getTargetTypeName(),
+					typedStringValue.getSpecifiedTypeName(), typedStringValue.isDynamic());
+		}
+		if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference reference = (RuntimeBeanReference) value;
+			return new BeanReferenceState(reference.getBeanName(), reference.isToParent(), false);
+		}
+		if (value instanceof RuntimeBeanNameReference) {
+			return new BeanReferenceState(((RuntimeBeanNameReference) value).getBeanName(), false, true);
+		}
+		if (value instanceof BeanDefinitionHolder) {
+			return captureHolder((BeanDefinitionHolder) value, bd, beanName);
+		}
+		if (value instanceof BeanDefinition) {
+			return captureDefinition((BeanDefinition) value, beanName);
+		}
+		if (value instanceof ManagedList || value instanceof ManagedSet) {
+			CollectionState state = new CollectionState();
+			state.set = (value instanceof ManagedSet);
+			state.array = (value instanceof ManagedArray);
+			state.elementTypeName = (value instanceof ManagedSet ?
+					((ManagedSet<?>) value).getElementTypeName() : ((ManagedList<?>) value).getElementTypeName());
+			state.mergeEnabled = ((Mergeable) value).isMergeEnabled();
+			for (Object element : (Collection<?>) value) {
+				state.elements.add(captureValue(element, bd, beanName));
+			}
+			return state;
+		}
+		if (value instanceof ManagedMap || value instanceof ManagedProperties) {
+			MapState state = new MapState();
+			state.properties = (value instanceof ManagedProperties);
+			if (value instanceof ManagedMap) {
+				state.keyTypeName = ((ManagedMap<?, ?>) value).getKeyTypeName();
+				state.valueTypeName = ((ManagedMap<?, ?>) value).getValueTypeName();
+			}
+			state.mergeEnabled = ((Mergeable) value).isMergeEnabled();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				state.keys.add(captureValue(entry.getKey(), bd, beanName));
+				state.values.add(captureValue(entry.getValue(), bd, beanName));
+			}
+			return state;
+		}
+		if (value instanceof Serializable && !(value instanceof BeanMetadataElement)) {
+			return value;
+		}
+		throw unsupported(bd, beanName, "value of type [" + value.getClass().getName() + "]");
+	}
+
+	private String captureClass(Class<?> clazz, BeanDefinition bd, String beanName) {
+		byte[] bytecode = generatedClassBytecode.get(clazz);
+		if (bytecode != null) {
+			this.generatedClasses.put(clazz.getName(), bytecode);
+		}
+		else if (!clazz.isPrimitive() && !clazz.isArray() && clazz.getClassLoader() != null &&
+				clazz.getClassLoader().getResource(ClassUtils.convertClassNameToResourcePath(clazz.getName()) +
+						ClassUtils.CLASS_FILE_SUFFIX) == null) {
+			throw unsupported(bd, beanName, "class [" + clazz.getName() + "] which has been generated at runtime");
+		}
+		return clazz.getName();
+	}
+
+	private static BeanDefinitionStoreException unsupported(BeanDefinition bd, String beanName, String content) {
+		return new BeanDefinitionStoreException(bd.getResourceDescription(), beanName,
+				"Bean definition cannot be captured in a snapshot since it contains " + content);
+	}
+
+	private static Object restoreValue(Object state, ClassLoader classLoader) throws ClassNotFoundException {
+		return (state instanceof ValueState ? ((ValueState) state).restore(classLoader) : state);
+	}
+
+
+	/**
+	 * Serializable representation of a value in a bean definition.
+	 */
+	private interface ValueState extends Serializable {
+
+		Object restore(ClassLoader classLoader) throws ClassNotFoundException;
+	}
+
+
+	/**
+	 * Serializable representation of an {@link AbstractBeanDefinition}.
+	 */
+	@SuppressWarnings("serial")
+	private static class DefinitionState implements ValueState {
+
+		String beanClassName;
+
+		boolean beanClassResolved;
+
+		String parentName;
+
+		String scope;
+
+		boolean abstractFlag;
+
+		boolean lazyInit;
+
+		int autowireMode;
+
+		int dependencyCheck;
+
+		String[] dependsOn;
+
+		boolean autowireCandidate;
+
+		boolean primary;
+
+		final Map<String, Map<String, Object>> qualifiers = new LinkedHashMap<String, Map<String, Object>>();
+
+		boolean nonPublicAccessAllowed;
+
+		boolean lenientConstructorResolution;
+
+		final Map<Integer, ArgumentState> indexedArguments = new LinkedHashMap<Integer, ArgumentState>();
+
+		final List<ArgumentState> genericArguments = new ArrayList<ArgumentState>();
+
+		final List<PropertyState> propertyValues = new ArrayList<PropertyState>();
+
+		final Map<String, String> lookupOverrides = new LinkedHashMap<String, String>();
+
+		String factoryBeanName;
+
+		String factoryMethodName;
+
+		boolean factoryMethodUnique;
+
+		String initMethodName;
+
+		boolean enforceInitMethod;
+
+		String destroyMethodName;
+
+		boolean enforceDestroyMethod;
+
+		boolean synthetic;
+
+		int role;
+
+		String description;
+
+		String resourceDescription;
+
+		final Map<String, Object> attributes = new LinkedHashMap<String, Object>();
+
+		String targetTypeName;
+
+		HolderState decoratedDefinition;
+
+		@Override
+		public AbstractBeanDefinition restore(ClassLoader classLoader) throws ClassNotFoundException {
+			AbstractBeanDefinition bd;
+			if (this.parentName != null) {
+				bd = new GenericBeanDefinition();
+				bd.setParentName(this.parentName);
+			}
+			else {
+				RootBeanDefinition rbd = new RootBeanDefinition();
+				if (this.targetTypeName != null) {
+					rbd.setTargetType(ClassUtils.forName(this.targetTypeName, classLoader));
+				}
+				if (this.decoratedDefinition != null) {
+					rbd.setDecoratedDefinition(this.decoratedDefinition.restore(classLoader));
+				}
+				bd = rbd;
+			}
+			if (this.beanClassResolved) {
+				bd.setBeanClass(ClassUtils.forName(this.beanClassName, classLoader));
+			}
+			else {
+				bd.setBeanClassName(this.beanClassName);
+			}
+			bd.setScope(this.scope);
+			bd.setAbstract(this.abstractFlag);
+			bd.setLazyInit(this.lazyInit);
+			bd.setAutowireMode(this.autowireMode);
+			bd.setDependencyCheck(this.dependencyCheck);
+			bd.setDependsOn(this.dependsOn);
+			bd.setAutowireCandidate(this.autowireCandidate);
+			bd.setPrimary(this.primary);
+			for (Map.Entry<String, Map<String, Object>> entry : this.qualifiers.entrySet()) {
+				AutowireCandidateQualifier qualifier = new AutowireCandidateQualifier(entry.getKey());
+				for (Map.Entry<String, Object> attribute : entry.getValue().entrySet()) {
+					qualifier.setAttribute(attribute.getKey(), restoreValue(attribute.getValue(), classLoader));
+				}
+				bd.addQualifier(qualifier);
+			}
+			bd.setNonPublicAccessAllowed(this.nonPublicAccessAllowed);
+			bd.setLenientConstructorResolution(this.lenientConstructorResolution);
+			ConstructorArgumentValues cargs = new ConstructorArgumentValues();
+			for (Map.Entry<Integer, ArgumentState> entry : this.indexedArguments.entrySet()) {
+				cargs.addIndexedArgumentValue(entry.getKey(), entry.getValue().restore(classLoader));
+			}
+			for (ArgumentState argument : this.genericArguments) {
+				cargs.addGenericArgumentValue(argument.restore(classLoader));
+			}
+			bd.setConstructorArgumentValues(cargs);
+			MutablePropertyValues pvs = new MutablePropertyValues();
+			for (PropertyState property : this.propertyValues) {
+				PropertyValue pv = new PropertyValue(property.name, restoreValue(property.value, classLoader));
+				pv.setOptional(property.optional);
+				pvs.addPropertyValue(pv);
+			}
+			bd.setPropertyValues(pvs);
+			for (Map.Entry<String, String> entry : this.lookupOverrides.entrySet()) {
+				bd.getMethodOverrides().addOverride(new LookupOverride(entry.getKey(), entry.getValue()));
+			}
+			bd.setFactoryBeanName(this.factoryBeanName);
+			if (this.factoryMethodUnique && bd instanceof RootBeanDefinition) {
+				((RootBeanDefinition) bd).setUniqueFactoryMethodName(this.factoryMethodName);
+			}
+			else {
+				bd.setFactoryMethodName(this.factoryMethodName);
+			}
+			bd.setInitMethodName(this.initMethodName);
+			bd.setEnforceInitMethod(this.enforceInitMethod);
+			bd.setDestroyMethodName(this.destroyMethodName);
+			bd.setEnforceDestroyMethod(this.enforceDestroyMethod);
+			bd.setSynthetic(this.synthetic);
+			bd.setRole(this.role);
+			bd.setDescription(this.description);
+			bd.setResourceDescription(this.resourceDescription);
+			for (Map.Entry<String, Object> entry : this.attributes.entrySet()) {
+				bd.setAttribute(entry.getKey(), restoreValue(entry.getValue(), classLoader));
+			}
+			return bd;
+		}
+	}
+
+
+	/**
+	 * Serializable representation of a {@link BeanDefinitionHolder}.
+	 */
+	@SuppressWarnings("serial")
+	private static class HolderState implements ValueState {
+
+		private final DefinitionState beanDefinition;
+
+		private final String beanName;
+
+		private final String[] aliases;
+
+		public HolderState(DefinitionState beanDefinition, String beanName, String[] aliases) {
+			this.beanDefinition = beanDefinition;
+			this.beanName = beanName;
+			this.aliases = aliases;
+		}
+
+		@Override
+		public BeanDefinitionHolder restore(ClassLoader classLoader) throws ClassNotFoundException {
+			return new BeanDefinitionHolder(this.beanDefinition.restore(classLoader), this.beanName, this.aliases);
+		}
+	}
+
+
+	/**
+	 * Serializable representation of a constructor argument value.
+	 */
+	@SuppressWarnings("serial")
+	private static class ArgumentState implements Serializable {
+
+		private final Object value;
+
+		private final String type;
+
+		private final String name;
+
+		public ArgumentState(Object value, String type, String name) {
+			this.value = value;
+			this.type = type;
+			this.name = name;
+		}
+
+		public ConstructorArgumentValues.ValueHolder restore(ClassLoader classLoader) throws ClassNotFoundException {
+			return new ConstructorArgumentValues.ValueHolder(restoreValue(this.value, classLoader), this.type, this.name);
+		}
+	}
+
+
+	/**
+	 * Serializable representation of a {@link PropertyValue}.
+	 */
+	@SuppressWarnings("serial")
+	private static class PropertyState implements Serializable {
+
+		private final String name;
+
+		private final Object value;
+
+		private final boolean optional;
+
+		public PropertyState(String name, Object value, boolean optional) {
+			this.name = name;
+			this.value = value;
+			this.optional = optional;
+		}
+	}
+
+
+	/**
+	 * Serializable representation of a class reference, resolved on restore.
+	 */
+	@SuppressWarnings("serial")
+	private static class ClassState implements ValueState {
+
+		private final String className;
+
+		public ClassState(String className) {
+			this.className = className;
+		}
+
+		@Override
+		public Object restore(ClassLoader classLoader) throws ClassNotFoundException {
+			return ClassUtils.forName(this.className, classLoader);
+		}
+	}
+
+
+	/**
+	 * Serializable representation of a {@link TypedStringValue}.
+	 */
+	@SuppressWarnings("serial")
+	private static class TypedStringValueState implements ValueState {
+
+		private final String value;
+
+		private final String targetTypeName;
+
+		private final String specifiedTypeName;
+
+		private final boolean dynamic;
+
+		public TypedStringValueState(String value, String targetTypeName, String specifiedTypeName, boolean dynamic) {
+			this.value = value;
+			this.targetTypeName = targetTypeName;
+			this.specifiedTypeName = specifiedTypeName;
+			this.dynamic = dynamic;
+		}
+
+		@Override
+		public Object restore(ClassLoader classLoader) {
+			TypedStringValue typedStringValue = new TypedStringValue(this.value);
+			if (this.targetTypeName != null) {
+				typedStringValue.setTargetTypeName(this.targetTypeName);
+			}
+			typedStringValue.setSpecifiedTypeName(this.specifiedTypeName);
+			if (this.dynamic) {
+				typedStringValue.setDynamic();
+			}
+			return typedStringValue;
+		}
+	}
+
+
+	/**
+	 * Serializable representation of a {@link RuntimeBeanReference}
+	 * or {@link RuntimeBeanNameReference}.
+	 */
+	@SuppressWarnings("serial")
+	private static class BeanReferenceState implements ValueState {
+
+		private final String beanName;
+
+		private final boolean toParent;
+
+		private final boolean nameOnly;
+
+		public BeanReferenceState(String beanName, boolean toParent, boolean nameOnly) {
+			this.beanName = beanName;
+			this.toParent = toParent;
+			this.nameOnly = nameOnly;
+		}
+
+		@Override
+		public Object restore(ClassLoader classLoader) {
+			return (this.nameOnly ? new RuntimeBeanNameReference(this.beanName) :
+					new RuntimeBeanReference(this.beanName, this.toParent));
+		}
+	}
+
+
+	/**
+	 * Serializable representation of a {@link ManagedList}, {@link ManagedSet}
+	 * or {@link ManagedArray}.
+	 */
+	@SuppressWarnings("serial")
+	private static class CollectionState implements ValueState {
+
+		boolean set;
+
+		boolean array;
+
+		String elementTypeName;
+
+		boolean mergeEnabled;
+
+		final List<Object> elements = new ArrayList<Object>();
+
+		@Override
+		public Object restore(ClassLoader classLoader) throws ClassNotFoundException {
+			if (this.set) {
+				ManagedSet<Object> managedSet = new ManagedSet<Object>(this.elements.size());
+				managedSet.setElementTypeName(this.elementTypeName);
+				managedSet.setMergeEnabled(this.mergeEnabled);
+				for (Object element : this.elements) {
+					managedSet.add(restoreValue(element, classLoader));
+				}
+				return managedSet;
+			}
+			ManagedList<Object> managedList = (this.array ? new ManagedArray(this.elementTypeName, this.elements.size()) :
+					new ManagedList<Object>(this.elements.size()));
+			managedList.setElementTypeName(this.elementTypeName);
+			managedList.setMergeEnabled(this.mergeEnabled);
+			for (Object element : this.elements) {
+				managedList.add(restoreValue(element, classLoader));
+			}
+			return managedList;
+		}
+	}
+
+
+	/**
+	 * Serializable representation of a {@link ManagedMap} or {@link ManagedProperties}.
+	 */
+	@SuppressWarnings("serial")
+	private static class MapState implements ValueState {
+
+		boolean properties;
+
+		String keyTypeName;
+
+		String valueTypeName;
+
+		boolean mergeEnabled;
+
+		final List<Object> keys = new ArrayList<Object>();
+
+		final List<Object> values = new ArrayList<Object>();
+
+		@Override
+		public Object restore(ClassLoader classLoader) throws ClassNotFoundException {
+			Map<Object, Object> map;
+			if (this.properties) {
+				ManagedProperties managedProperties = new ManagedProperties();
+				managedProperties.setMergeEnabled(this.mergeEnabled);
+				map = managedProperties;
+			}
+			else {
+				ManagedMap<Object, Object> managedMap = new ManagedMap<Object, Object>(this.keys.size());
+				managedMap.setKeyTypeName(this.keyTypeName);
+				managedMap.setValueTypeName(this.valueTypeName);
+				managedMap.setMergeEnabled(this.mergeEnabled);
+				map = managedMap;
+			}
+			for (int i = 0; i < this.keys.size(); i++) {
+				map.put(restoreValue(this.keys.get(i), classLoader), restoreValue(this.values.get(i), classLoader));
+			}
+			return map;
+		}
+	}
+
+}
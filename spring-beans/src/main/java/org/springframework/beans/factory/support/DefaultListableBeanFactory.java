@@ -41,11 +41,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Provider;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.PropertyValue;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCurrentlyInCreationException;
@@ -62,12 +69,15 @@ import org.springframework.beans.factory.SmartFactoryBean;
 import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.BeanReference;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
 import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.UsesJava8;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -178,6 +188,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether bean definition metadata may be cached for all beans */
 	private volatile boolean configurationFrozen = false;
 
+	/** Optional Executor for pre-instantiating independent singletons in parallel */
+	private Executor bootstrapExecutor;
+
 
 	/**
 	 * Create a new DefaultListableBeanFactory.
@@ -309,6 +322,34 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.autowireCandidateResolver;
 	}
 
+	/**
+	 * Set an {@link Executor} for {@link #preInstantiateSingletons() pre-instantiating}
+	 * singletons in parallel, typically a thread pool with a bounded number of threads.
+	 * <p>Singletons are grouped by the dependencies declared in their bean definitions:
+	 * their "depends-on" beans, factory beans, and bean references in constructor
+	 * arguments and property values. Independent groups are pre-instantiated in
+	 * parallel, each in registration order on a single thread. Dependencies that only
+	 * become apparent during creation, e.g. through autowiring, are resolved by waiting
+	 * for their creation in another thread; circular references between singletons
+	 * created by different threads get an early reference as usual.
+	 * {@link SmartInitializingSingleton} callbacks are still invoked after all singletons
+	 * have been created, in registration order.
+	 * <p>Default is none, pre-instantiating all singletons on the calling thread.
+	 * @since 4.2.4
+	 * @see #getSingletonCreationTimes()
+	 */
+	public void setBootstrapExecutor(Executor bootstrapExecutor) {
+		this.bootstrapExecutor = bootstrapExecutor;
+	}
+
+	/**
+	 * Return the {@link Executor} for pre-instantiating singletons in parallel, if any.
+	 * @since 4.2.4
+	 */
+	public Executor getBootstrapExecutor() {
+		return this.bootstrapExecutor;
+	}
+
 
 	@Override
 	public void copyConfigurationFrom(ConfigurableBeanFactory otherFactory) {
@@ -319,6 +360,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
 			this.autowireCandidateResolver = otherListableFactory.autowireCandidateResolver;
 			this.resolvableDependencies.putAll(otherListableFactory.resolvableDependencies);
+			this.bootstrapExecutor = otherListableFactory.bootstrapExecutor;
 		}
 	}
 
@@ -746,53 +788,269 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		List<String> beanNames = new ArrayList<String>(this.beanDefinitionNames);
 
 		// Trigger initialization of all non-lazy singleton beans...
+		Executor executor = getBootstrapExecutor();
+		if (executor != null) {
+			preInstantiateSingletonsInParallel(beanNames, executor);
+		}
+		else {
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
+			}
+		}
+
+		// Trigger post-initialization callback for all applicable beans...
 		for (String beanName : beanNames) {
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				if (isFactoryBean(beanName)) {
-					final FactoryBean<?> factory = (FactoryBean<?>) getBean(FACTORY_BEAN_PREFIX + beanName);
-					boolean isEagerInit;
-					if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-						isEagerInit = AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+			Object singletonInstance = getSingleton(beanName);
+			if (singletonInstance instanceof SmartInitializingSingleton) {
+				StartupStep smartInitialize = getApplicationStartup().start("spring.beans.smart-initialize")
+						.tag("beanName", beanName);
+				try {
+					final SmartInitializingSingleton smartSingleton = (SmartInitializingSingleton) singletonInstance;
+					if (System.getSecurityManager() != null) {
+						AccessController.doPrivileged(new PrivilegedAction<Object>() {
 							@Override
-							public Boolean run() {
-								return ((SmartFactoryBean<?>) factory).isEagerInit();
+							public Object run() {
+								smartSingleton.afterSingletonsInstantiated();
+								return null;
 							}
 						}, getAccessControlContext());
 					}
 					else {
-						isEagerInit = (factory instanceof SmartFactoryBean &&
-								((SmartFactoryBean<?>) factory).isEagerInit());
-					}
-					if (isEagerInit) {
-						getBean(beanName);
+						smartSingleton.afterSingletonsInstantiated();
 					}
 				}
-				else {
-					getBean(beanName);
+				finally {
+					smartInitialize.end();
 				}
 			}
 		}
 
-		// Trigger post-initialization callback for all applicable beans...
-		for (String beanName : beanNames) {
-			Object singletonInstance = getSingleton(beanName);
-			if (singletonInstance instanceof SmartInitializingSingleton) {
-				final SmartInitializingSingleton smartSingleton = (SmartInitializingSingleton) singletonInstance;
-				if (System.getSecurityManager() != null) {
-					AccessController.doPrivileged(new PrivilegedAction<Object>() {
+		if (this.logger.isDebugEnabled()) {
+			logSlowestSingletons(beanNames);
+		}
+	}
+
+	private void preInstantiateSingleton(String beanName) {
+		RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+		if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+			if (isFactoryBean(beanName)) {
+				final FactoryBean<?> factory = (FactoryBean<?>) getBean(FACTORY_BEAN_PREFIX + beanName);
+				boolean isEagerInit;
+				if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+					isEagerInit = AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
 						@Override
-						public Object run() {
-							smartSingleton.afterSingletonsInstantiated();
-							return null;
+						public Boolean run() {
+							return ((SmartFactoryBean<?>) factory).isEagerInit();
 						}
 					}, getAccessControlContext());
 				}
 				else {
-					smartSingleton.afterSingletonsInstantiated();
+					isEagerInit = (factory instanceof SmartFactoryBean &&
+							((SmartFactoryBean<?>) factory).isEagerInit());
+				}
+				if (isEagerInit) {
+					getBean(beanName);
 				}
 			}
+			else {
+				getBean(beanName);
+			}
+		}
+	}
+
+	private void preInstantiateSingletonsInParallel(List<String> beanNames, Executor executor) {
+		Collection<List<String>> groups = determineIndependentSingletonGroups(beanNames);
+		if (groups.size() < 2) {
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
+			}
+			return;
 		}
+		if (this.logger.isDebugEnabled()) {
+			this.logger.debug("Pre-instantiating " + groups.size() + " independent groups of singletons in parallel");
+		}
+
+		final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		List<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>(groups.size());
+		setParallelSingletonCreation(true);
+		try {
+			for (final List<String> group : groups) {
+				FutureTask<Object> task = new FutureTask<Object>(new Callable<Object>() {
+					@Override
+					public Object call() {
+						Thread currentThread = Thread.currentThread();
+						ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+						currentThread.setContextClassLoader(contextClassLoader);
+						try {
+							for (String beanName : group) {
+								preInstantiateSingleton(beanName);
+							}
+						}
+						finally {
+							currentThread.setContextClassLoader(originalClassLoader);
+						}
+						return null;
+					}
+				});
+				tasks.add(task);
+				try {
+					executor.execute(task);
+				}
+				catch (RejectedExecutionException ex) {
+					task.run();
+				}
+			}
+
+			Throwable failure = null;
+			boolean interrupted = false;
+			for (FutureTask<Object> task : tasks) {
+				while (true) {
+					try {
+						task.get();
+						break;
+					}
+					catch (ExecutionException ex) {
+						if (failure == null) {
+							failure = ex.getCause();
+						}
+						break;
+					}
+					catch (InterruptedException ex) {
+						// Keep waiting: singletons must not be created in parallel mode beyond this point
+						interrupted = true;
+					}
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			}
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+			if (failure != null) {
+				throw new BeanCreationException("Parallel pre-instantiation of singletons failed", failure);
+			}
+		}
+		finally {
+			setParallelSingletonCreation(false);
+		}
+	}
+
+	/**
+	 * Group the given singletons by the dependencies declared in their bean definitions,
+	 * with each group in registration order.
+	 * @param beanNames the names of all beans, in registration order
+	 * @return groups of singletons that do not declare dependencies on each other
+	 */
+	private Collection<List<String>> determineIndependentSingletonGroups(List<String> beanNames) {
+		Map<String, String> groupLinks = new HashMap<String, String>(beanNames.size());
+		for (String beanName : beanNames) {
+			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+				Set<String> dependencies = new LinkedHashSet<String>();
+				collectDeclaredDependencies(bd, dependencies);
+				String group = findGroup(groupLinks, beanName);
+				for (String dependency : dependencies) {
+					String dependencyGroup = findGroup(groupLinks, transformedBeanName(dependency));
+					if (!dependencyGroup.equals(group)) {
+						groupLinks.put(dependencyGroup, group);
+					}
+				}
+			}
+		}
+		Map<String, List<String>> groups = new LinkedHashMap<String, List<String>>();
+		for (String beanName : beanNames) {
+			if (groupLinks.containsKey(beanName)) {
+				String group = findGroup(groupLinks, beanName);
+				List<String> groupedBeanNames = groups.get(group);
+				if (groupedBeanNames == null) {
+					groupedBeanNames = new ArrayList<String>();
+					groups.put(group, groupedBeanNames);
+				}
+				groupedBeanNames.add(beanName);
+			}
+		}
+		return groups.values();
+	}
+
+	private String findGroup(Map<String, String> groupLinks, String beanName) {
+		String group = beanName;
+		String link = groupLinks.get(group);
+		while (link != null && !link.equals(group)) {
+			group = link;
+			link = groupLinks.get(group);
+		}
+		groupLinks.put(beanName, group);
+		return group;
+	}
+
+	private void collectDeclaredDependencies(BeanDefinition bd, Set<String> dependencies) {
+		if (bd.getDependsOn() != null) {
+			dependencies.addAll(Arrays.asList(bd.getDependsOn()));
+		}
+		if (bd.getFactoryBeanName() != null) {
+			dependencies.add(bd.getFactoryBeanName());
+		}
+		for (ConstructorArgumentValues.ValueHolder valueHolder :
+				bd.getConstructorArgumentValues().getIndexedArgumentValues().values()) {
+			collectDeclaredDependencies(valueHolder.getValue(), dependencies);
+		}
+		for (ConstructorArgumentValues.ValueHolder valueHolder :
+				bd.getConstructorArgumentValues().getGenericArgumentValues()) {
+			collectDeclaredDependencies(valueHolder.getValue(), dependencies);
+		}
+		for (PropertyValue pv : bd.getPropertyValues().getPropertyValueList()) {
+			collectDeclaredDependencies(pv.getValue(), dependencies);
+		}
+	}
+
+	private void collectDeclaredDependencies(Object value, Set<String> dependencies) {
+		if (value instanceof BeanReference) {
+			dependencies.add(((BeanReference) value).getBeanName());
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			collectDeclaredDependencies(((BeanDefinitionHolder) value).getBeanDefinition(), dependencies);
+		}
+		else if (value instanceof BeanDefinition) {
+			collectDeclaredDependencies((BeanDefinition) value, dependencies);
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				collectDeclaredDependencies(element, dependencies);
+			}
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				collectDeclaredDependencies(entry.getKey(), dependencies);
+				collectDeclaredDependencies(entry.getValue(), dependencies);
+			}
+		}
+	}
+
+	private void logSlowestSingletons(List<String> beanNames) {
+		final Map<String, Long> creationTimes = getSingletonCreationTimes();
+		List<String> createdBeanNames = new ArrayList<String>(beanNames.size());
+		for (String beanName : beanNames) {
+			if (creationTimes.containsKey(beanName)) {
+				createdBeanNames.add(beanName);
+			}
+		}
+		Collections.sort(createdBeanNames, new Comparator<String>() {
+			@Override
+			public int compare(String name1, String name2) {
+				return creationTimes.get(name2).compareTo(creationTimes.get(name1));
+			}
+		});
+		StringBuilder sb = new StringBuilder("Slowest singletons to create in ").append(this).append(": ");
+		for (int i = 0; i < createdBeanNames.size() && i < 10; i++) {
+			String beanName = createdBeanNames.get(i);
+			sb.append(i > 0 ? ", " : "").append(beanName).append(" (");
+			sb.append(TimeUnit.NANOSECONDS.toMillis(creationTimes.get(beanName))).append(" ms)");
+		}
+		this.logger.debug(sb.toString());
 	}
 
 
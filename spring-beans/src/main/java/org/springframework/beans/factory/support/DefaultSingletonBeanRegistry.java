@@ -35,6 +35,7 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -57,6 +58,12 @@ import org.springframework.util.StringUtils;
  * the {@link org.springframework.beans.factory.config.ConfigurableBeanFactory}
  * interface extends the {@link SingletonBeanRegistry} interface.
  *
+ * <p>As of 4.2.4, singletons may also be created by several threads at once while
+ * {@link #setParallelSingletonCreation parallel singleton creation} is active: each
+ * singleton is then created by a single thread, with other threads that request it
+ * waiting for its completion instead of holding the singleton mutex throughout.
+ * The time taken to create each singleton is recorded in any case.
+ *
  * <p>Note that this class assumes neither a bean definition concept
  * nor a specific creation process for bean instances, in contrast to
  * {@link AbstractBeanFactory} and {@link DefaultListableBeanFactory}
@@ -120,6 +127,27 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/** Map between depending bean names: bean name --> Set of bean names for the bean's dependencies */
 	private final Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<String, Set<String>>(64);
 
+	/** Flag that indicates whether singletons may currently be created by several threads at once */
+	private volatile boolean parallelSingletonCreation = false;
+
+	/** Singletons being created in parallel mode: bean name --> in-flight creation */
+	private final Map<String, SingletonCreation> singletonCreations = new HashMap<String, SingletonCreation>(16);
+
+	/** Singletons awaited in parallel mode: waiting thread --> bean name */
+	private final Map<Thread, String> awaitedSingletons = new HashMap<Thread, String>(16);
+
+	/** Creation time of singletons, excluding nested singletons: bean name --> nanoseconds */
+	private final Map<String, Long> singletonCreationTimes = new ConcurrentHashMap<String, Long>(64);
+
+	/** Time spent on nested singletons or waiting within the current creation, in nanoseconds */
+	private final ThreadLocal<long[]> nestedSingletonCreationTime =
+			new NamedThreadLocal<long[]>("Nested singleton creation time") {
+				@Override
+				protected long[] initialValue() {
+					return new long[1];
+				}
+			};
+
 
 	@Override
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
@@ -185,20 +213,29 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		Object singletonObject = this.singletonObjects.get(beanName);
 		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
 			synchronized (this.singletonObjects) {
-				singletonObject = this.earlySingletonObjects.get(beanName);
-				if (singletonObject == null && allowEarlyReference) {
-					ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
-					if (singletonFactory != null) {
-						singletonObject = singletonFactory.getObject();
-						this.earlySingletonObjects.put(beanName, singletonObject);
-						this.singletonFactories.remove(beanName);
-					}
+				if (isSingletonCreatedByOtherThread(beanName)) {
+					// Not a circular reference -> wait for the singleton in getSingleton(String, ObjectFactory)
+					return null;
 				}
+				singletonObject = getEarlySingleton(beanName, allowEarlyReference);
 			}
 		}
 		return (singletonObject != NULL_OBJECT ? singletonObject : null);
 	}
 
+	private Object getEarlySingleton(String beanName, boolean allowEarlyReference) {
+		Object singletonObject = this.earlySingletonObjects.get(beanName);
+		if (singletonObject == null && allowEarlyReference) {
+			ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+			if (singletonFactory != null) {
+				singletonObject = singletonFactory.getObject();
+				this.earlySingletonObjects.put(beanName, singletonObject);
+				this.singletonFactories.remove(beanName);
+			}
+		}
+		return singletonObject;
+	}
+
 	/**
 	 * Return the (raw) singleton object registered under the given name,
 	 * creating and registering a new one if none registered yet.
@@ -209,6 +246,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "'beanName' must not be null");
+		if (this.parallelSingletonCreation) {
+			return getSingletonInParallel(beanName, singletonFactory);
+		}
 		synchronized (this.singletonObjects) {
 			Object singletonObject = this.singletonObjects.get(beanName);
 			if (singletonObject == null) {
@@ -227,7 +267,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 					this.suppressedExceptions = new LinkedHashSet<Exception>();
 				}
 				try {
-					singletonObject = singletonFactory.getObject();
+					singletonObject = createSingleton(beanName, singletonFactory);
 					newSingleton = true;
 				}
 				catch (IllegalStateException ex) {
@@ -260,6 +300,155 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		}
 	}
 
+	/**
+	 * Variant of {@link #getSingleton(String, ObjectFactory)} for parallel mode:
+	 * creates the singleton without holding the singleton mutex, unless the current
+	 * thread holds it already, or waits for its creation by another thread.
+	 */
+	private Object getSingletonInParallel(String beanName, ObjectFactory<?> singletonFactory) {
+		Thread currentThread = Thread.currentThread();
+		synchronized (this.singletonObjects) {
+			Object singletonObject = this.singletonObjects.get(beanName);
+			while (singletonObject == null) {
+				if (this.singletonsCurrentlyInDestruction) {
+					throw new BeanCreationNotAllowedException(beanName,
+							"Singleton bean creation not allowed while the singletons of this factory are in destruction " +
+							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+				}
+				SingletonCreation creation = this.singletonCreations.get(beanName);
+				if (creation == null || creation.thread == currentThread) {
+					break;
+				}
+				if (isAwaitingSingletonOf(creation.thread, currentThread)) {
+					// Circular reference between singletons created by different threads
+					singletonObject = getEarlySingleton(beanName, true);
+					if (singletonObject == null) {
+						throw new BeanCurrentlyInCreationException(beanName);
+					}
+					return (singletonObject != NULL_OBJECT ? singletonObject : null);
+				}
+				awaitSingleton(beanName, currentThread);
+				// Only threads that waited for the failed creation get to see its failure:
+				// later requests try again, as they would in sequential mode
+				if (creation.failure != null) {
+					throw new BeanCreationException(beanName, "Singleton creation failed in another thread",
+							creation.failure);
+				}
+				singletonObject = this.singletonObjects.get(beanName);
+			}
+			if (singletonObject != null) {
+				return (singletonObject != NULL_OBJECT ? singletonObject : null);
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Creating shared instance of singleton bean '" + beanName + "' in thread [" +
+						currentThread.getName() + "]");
+			}
+			beforeSingletonCreation(beanName);
+			this.singletonCreations.put(beanName, new SingletonCreation(currentThread));
+		}
+
+		Object singletonObject = null;
+		boolean newSingleton = false;
+		Throwable failure = null;
+		try {
+			singletonObject = createSingleton(beanName, singletonFactory);
+			newSingleton = true;
+		}
+		catch (IllegalStateException ex) {
+			// Has the singleton object implicitly appeared in the meantime ->
+			// if yes, proceed with it since the exception indicates that state.
+			singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				failure = ex;
+				throw ex;
+			}
+		}
+		catch (RuntimeException ex) {
+			failure = ex;
+			throw ex;
+		}
+		catch (Error err) {
+			failure = err;
+			throw err;
+		}
+		finally {
+			synchronized (this.singletonObjects) {
+				try {
+					if (newSingleton) {
+						addSingleton(beanName, singletonObject);
+					}
+					afterSingletonCreation(beanName);
+				}
+				finally {
+					SingletonCreation creation = this.singletonCreations.remove(beanName);
+					creation.failure = failure;
+					this.singletonObjects.notifyAll();
+				}
+			}
+		}
+		return (singletonObject != NULL_OBJECT ? singletonObject : null);
+	}
+
+	/**
+	 * Determine whether the given thread, directly or through other threads,
+	 * awaits a singleton that is being created by the given target thread.
+	 */
+	private boolean isAwaitingSingletonOf(Thread thread, Thread targetThread) {
+		Set<Thread> seen = new HashSet<Thread>();
+		Thread threadToCheck = thread;
+		while (threadToCheck != null && seen.add(threadToCheck)) {
+			String awaitedSingleton = this.awaitedSingletons.get(threadToCheck);
+			if (awaitedSingleton == null) {
+				return false;
+			}
+			SingletonCreation creation = this.singletonCreations.get(awaitedSingleton);
+			threadToCheck = (creation != null ? creation.thread : null);
+			if (threadToCheck == targetThread) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Wait for another thread to complete or abandon the creation of the given singleton,
+	 * releasing the singleton mutex in the meantime.
+	 */
+	private void awaitSingleton(String beanName, Thread currentThread) {
+		this.awaitedSingletons.put(currentThread, beanName);
+		long startTime = System.nanoTime();
+		try {
+			this.singletonObjects.wait();
+		}
+		catch (InterruptedException ex) {
+			currentThread.interrupt();
+			throw new BeanCreationException(beanName, "Interrupted while waiting for singleton creation in another thread");
+		}
+		finally {
+			this.awaitedSingletons.remove(currentThread);
+			this.nestedSingletonCreationTime.get()[0] += System.nanoTime() - startTime;
+		}
+	}
+
+	/**
+	 * Obtain a new singleton from the given factory, recording its creation time
+	 * without the time spent on nested singletons.
+	 */
+	private Object createSingleton(String beanName, ObjectFactory<?> singletonFactory) {
+		long[] nestedTime = this.nestedSingletonCreationTime.get();
+		long outerNestedTime = nestedTime[0];
+		nestedTime[0] = 0;
+		long startTime = System.nanoTime();
+		try {
+			return singletonFactory.getObject();
+		}
+		finally {
+			long elapsedTime = System.nanoTime() - startTime;
+			this.singletonCreationTimes.put(beanName, Math.max(elapsedTime - nestedTime[0], 0));
+			nestedTime[0] = outerNestedTime + elapsedTime;
+		}
+	}
+
 	/**
 	 * Register an Exception that happened to get suppressed during the creation of a
 	 * singleton bean instance, e.g. a temporary circular reference resolution problem.
@@ -285,6 +474,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.singletonFactories.remove(beanName);
 			this.earlySingletonObjects.remove(beanName);
 			this.registeredSingletons.remove(beanName);
+			this.singletonCreationTimes.remove(beanName);
 		}
 	}
 
@@ -308,6 +498,46 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	}
 
 
+	/**
+	 * Set whether singletons may be created by several threads at once.
+	 * <p>While active, a singleton that is being created by another thread is not
+	 * exposed as early reference unless requested within a circular reference that
+	 * spans threads; instead, the requesting thread waits for its creation to complete.
+	 * Switched on for the duration of parallel pre-instantiation by
+	 * {@link DefaultListableBeanFactory}.
+	 * @since 4.2.4
+	 * @see DefaultListableBeanFactory#setBootstrapExecutor
+	 */
+	protected void setParallelSingletonCreation(boolean parallelSingletonCreation) {
+		synchronized (this.singletonObjects) {
+			this.parallelSingletonCreation = parallelSingletonCreation;
+		}
+	}
+
+	/**
+	 * Return whether singletons may currently be created by several threads at once.
+	 * @since 4.2.4
+	 */
+	protected boolean isParallelSingletonCreation() {
+		return this.parallelSingletonCreation;
+	}
+
+	private boolean isSingletonCreatedByOtherThread(String beanName) {
+		SingletonCreation creation = this.singletonCreations.get(beanName);
+		return (creation != null && creation.thread != Thread.currentThread());
+	}
+
+	/**
+	 * Return the time taken to create each singleton of this registry, excluding the
+	 * creation of other singletons that it triggered as well as waiting for singletons
+	 * being created by other threads.
+	 * @return the creation time per bean name, in nanoseconds
+	 * @since 4.2.4
+	 */
+	public Map<String, Long> getSingletonCreationTimes() {
+		return Collections.unmodifiableMap(this.singletonCreationTimes);
+	}
+
 	public void setCurrentlyInCreation(String beanName, boolean inCreation) {
 		Assert.notNull(beanName, "Bean name must not be null");
 		if (!inCreation) {
@@ -532,6 +762,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.singletonFactories.clear();
 			this.earlySingletonObjects.clear();
 			this.registeredSingletons.clear();
+			this.singletonCreationTimes.clear();
 			this.singletonsCurrentlyInDestruction = false;
 		}
 	}
@@ -617,4 +848,20 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		return this.singletonObjects;
 	}
 
+
+	/**
+	 * A singleton creation in progress in parallel mode, carrying its failure
+	 * to the threads that waited for it.
+	 */
+	private static class SingletonCreation {
+
+		private final Thread thread;
+
+		private Throwable failure;
+
+		public SingletonCreation(Thread thread) {
+			this.thread = thread;
+		}
+	}
+
 }
@@ -0,0 +1,387 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for parallel pre-instantiation of singletons through
+ * {@link DefaultListableBeanFactory#setBootstrapExecutor}.
+ */
+public class ParallelPreInstantiationTests {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+	private final List<String> initializedBeans = new CopyOnWriteArrayList<String>();
+
+
+	@After
+	public void shutdownExecutor() {
+		this.executor.shutdownNow();
+	}
+
+
+	@Test(timeout = 10000)
+	public void independentSingletonsCreatedInParallel() {
+		CyclicBarrier barrier = new CyclicBarrier(4);
+		for (int i = 0; i < 4; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(BarrierBean.class);
+			bd.getConstructorArgumentValues().addGenericArgumentValue(barrier);
+			this.beanFactory.registerBeanDefinition("bean" + i, bd);
+		}
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		this.beanFactory.preInstantiateSingletons();
+
+		for (int i = 0; i < 4; i++) {
+			assertTrue(this.beanFactory.getBean("bean" + i, BarrierBean.class).passed);
+		}
+	}
+
+	@Test
+	public void declaredDependenciesCreatedInSameThread() {
+		this.beanFactory.registerBeanDefinition("a", recordingBean(null));
+		this.beanFactory.registerBeanDefinition("b", recordingBean("a"));
+		RootBeanDefinition c = recordingBean(null);
+		c.setDependsOn("b");
+		this.beanFactory.registerBeanDefinition("c", c);
+		this.beanFactory.registerBeanDefinition("d", recordingBean(null));
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		this.beanFactory.preInstantiateSingletons();
+
+		RecordingBean a = this.beanFactory.getBean("a", RecordingBean.class);
+		RecordingBean b = this.beanFactory.getBean("b", RecordingBean.class);
+		RecordingBean c2 = this.beanFactory.getBean("c", RecordingBean.class);
+		assertSame(a, b.dependency);
+		assertSame(a.thread, b.thread);
+		assertSame(a.thread, c2.thread);
+		assertTrue(this.initializedBeans.indexOf("a") < this.initializedBeans.indexOf("b"));
+		assertTrue(this.initializedBeans.indexOf("b") < this.initializedBeans.indexOf("c"));
+		assertTrue(this.beanFactory.getBean("d", RecordingBean.class).initialized);
+	}
+
+	@Test(timeout = 10000)
+	public void autowiredDependencyAcrossGroups() {
+		RootBeanDefinition consumer = new RootBeanDefinition(AutowiredConsumer.class);
+		consumer.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_CONSTRUCTOR);
+		this.beanFactory.registerBeanDefinition("consumer", consumer);
+		this.beanFactory.registerBeanDefinition("slow", new RootBeanDefinition(SlowBean.class));
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		this.beanFactory.preInstantiateSingletons();
+
+		SlowBean slow = this.beanFactory.getBean("slow", SlowBean.class);
+		assertSame(slow, this.beanFactory.getBean("consumer", AutowiredConsumer.class).slowBean);
+		assertTrue(slow.initialized);
+		assertEquals(1, SlowBean.instanceCount(this.beanFactory));
+	}
+
+	@Test(timeout = 10000)
+	public void circularReferenceAcrossGroups() {
+		RootBeanDefinition left = new RootBeanDefinition(LeftBean.class);
+		left.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_BY_TYPE);
+		RootBeanDefinition right = new RootBeanDefinition(RightBean.class);
+		right.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_BY_TYPE);
+		this.beanFactory.registerBeanDefinition("left", left);
+		this.beanFactory.registerBeanDefinition("right", right);
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		this.beanFactory.preInstantiateSingletons();
+
+		LeftBean leftBean = this.beanFactory.getBean(LeftBean.class);
+		RightBean rightBean = this.beanFactory.getBean(RightBean.class);
+		assertSame(rightBean, leftBean.right);
+		assertSame(leftBean, rightBean.left);
+	}
+
+	@Test
+	public void smartInitializingSingletonsAfterAllSingletons() {
+		this.beanFactory.registerBeanDefinition("smart", new RootBeanDefinition(SmartBean.class));
+		this.beanFactory.registerBeanDefinition("a", recordingBean(null));
+		this.beanFactory.registerBeanDefinition("b", recordingBean(null));
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		this.beanFactory.preInstantiateSingletons();
+
+		assertTrue(this.beanFactory.getBean("smart", SmartBean.class).afterSingletonsInstantiatedCalled);
+	}
+
+	@Test
+	public void failureInOneGroup() {
+		this.beanFactory.registerBeanDefinition("a", recordingBean(null));
+		this.beanFactory.registerBeanDefinition("failing", new RootBeanDefinition(FailingBean.class));
+		this.beanFactory.registerBeanDefinition("b", recordingBean(null));
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		try {
+			this.beanFactory.preInstantiateSingletons();
+			fail("Should have thrown BeanCreationException");
+		}
+		catch (BeanCreationException ex) {
+			assertEquals("failing", ex.getBeanName());
+		}
+		assertFalse(this.beanFactory.containsSingleton("failing"));
+
+		// Back to regular creation afterwards
+		this.beanFactory.registerBeanDefinition("c", recordingBean("a"));
+		assertTrue(this.beanFactory.getBean("c", RecordingBean.class).initialized);
+	}
+
+	@Test
+	public void failedCreationRetriedWithinParallelPhase() {
+		RootBeanDefinition flaky = new RootBeanDefinition(FlakyBean.class);
+		flaky.getConstructorArgumentValues().addGenericArgumentValue(new AtomicInteger());
+		flaky.setLazyInit(true);
+		this.beanFactory.registerBeanDefinition("flaky", flaky);
+		this.beanFactory.registerBeanDefinition("retrying", new RootBeanDefinition(RetryingBean.class));
+		this.beanFactory.registerBeanDefinition("a", recordingBean(null));
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		this.beanFactory.preInstantiateSingletons();
+
+		RetryingBean retrying = this.beanFactory.getBean("retrying", RetryingBean.class);
+		assertNotNull(retrying.firstFailure);
+		assertSame(this.beanFactory.getBean("flaky"), retrying.flaky);
+	}
+
+	@Test
+	public void creationTimesExcludeNestedSingletons() {
+		this.beanFactory.registerBeanDefinition("slow", new RootBeanDefinition(SlowBean.class));
+		RootBeanDefinition consumer = new RootBeanDefinition(AutowiredConsumer.class);
+		consumer.getConstructorArgumentValues().addGenericArgumentValue(new RuntimeBeanReference("slow"));
+		this.beanFactory.registerBeanDefinition("consumer", consumer);
+		this.beanFactory.registerBeanDefinition("a", recordingBean(null));
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		this.beanFactory.preInstantiateSingletons();
+
+		long slowTime = this.beanFactory.getSingletonCreationTimes().get("slow");
+		long consumerTime = this.beanFactory.getSingletonCreationTimes().get("consumer");
+		assertTrue(slowTime >= TimeUnit.MILLISECONDS.toNanos(SlowBean.DELAY));
+		assertTrue(consumerTime < slowTime);
+		assertTrue(this.beanFactory.getSingletonCreationTimes().containsKey("a"));
+	}
+
+	@Test
+	public void creationTimesWithoutExecutor() {
+		this.beanFactory.registerBeanDefinition("slow", new RootBeanDefinition(SlowBean.class));
+		this.beanFactory.preInstantiateSingletons();
+		assertTrue(this.beanFactory.getSingletonCreationTimes().get("slow") >=
+				TimeUnit.MILLISECONDS.toNanos(SlowBean.DELAY));
+
+		this.beanFactory.destroySingletons();
+		assertTrue(this.beanFactory.getSingletonCreationTimes().isEmpty());
+	}
+
+
+	private RootBeanDefinition recordingBean(String dependency) {
+		RootBeanDefinition bd = new RootBeanDefinition(RecordingBean.class);
+		bd.getConstructorArgumentValues().addGenericArgumentValue(this.initializedBeans);
+		if (dependency != null) {
+			bd.getPropertyValues().add("dependency", new RuntimeBeanReference(dependency));
+		}
+		return bd;
+	}
+
+
+	public static class BarrierBean implements InitializingBean {
+
+		private final CyclicBarrier barrier;
+
+		boolean passed;
+
+		public BarrierBean(CyclicBarrier barrier) {
+			this.barrier = barrier;
+		}
+
+		@Override
+		public void afterPropertiesSet() throws Exception {
+			this.barrier.await(5, TimeUnit.SECONDS);
+			this.passed = true;
+		}
+	}
+
+
+	public static class RecordingBean implements BeanNameAware, InitializingBean {
+
+		private final List<String> initializedBeans;
+
+		private String beanName;
+
+		RecordingBean dependency;
+
+		Thread thread;
+
+		boolean initialized;
+
+		public RecordingBean(List<String> initializedBeans) {
+			this.initializedBeans = initializedBeans;
+		}
+
+		public void setDependency(RecordingBean dependency) {
+			this.dependency = dependency;
+		}
+
+		@Override
+		public void setBeanName(String beanName) {
+			this.beanName = beanName;
+		}
+
+		@Override
+		public void afterPropertiesSet() {
+			this.thread = Thread.currentThread();
+			this.initialized = true;
+			this.initializedBeans.add(this.beanName);
+		}
+	}
+
+
+	public static class SlowBean implements InitializingBean {
+
+		static final long DELAY = 100;
+
+		boolean initialized;
+
+		static int instanceCount(ListableBeanFactory beanFactory) {
+			return beanFactory.getBeansOfType(SlowBean.class).size();
+		}
+
+		@Override
+		public void afterPropertiesSet() throws InterruptedException {
+			Thread.sleep(DELAY);
+			this.initialized = true;
+		}
+	}
+
+
+	public static class AutowiredConsumer {
+
+		final SlowBean slowBean;
+
+		public AutowiredConsumer(SlowBean slowBean) {
+			this.slowBean = slowBean;
+		}
+	}
+
+
+	public static class LeftBean implements InitializingBean {
+
+		RightBean right;
+
+		public void setRight(RightBean right) {
+			this.right = right;
+		}
+
+		@Override
+		public void afterPropertiesSet() throws InterruptedException {
+			Thread.sleep(50);
+		}
+	}
+
+
+	public static class RightBean implements InitializingBean {
+
+		LeftBean left;
+
+		public void setLeft(LeftBean left) {
+			this.left = left;
+		}
+
+		@Override
+		public void afterPropertiesSet() throws InterruptedException {
+			Thread.sleep(50);
+		}
+	}
+
+
+	public static class SmartBean implements SmartInitializingSingleton, BeanFactoryAware {
+
+		private ListableBeanFactory beanFactory;
+
+		boolean afterSingletonsInstantiatedCalled;
+
+		@Override
+		public void setBeanFactory(BeanFactory beanFactory) {
+			this.beanFactory = (ListableBeanFactory) beanFactory;
+		}
+
+		@Override
+		public void afterSingletonsInstantiated() {
+			for (RecordingBean bean : this.beanFactory.getBeansOfType(RecordingBean.class).values()) {
+				assertTrue(bean.initialized);
+			}
+			this.afterSingletonsInstantiatedCalled = true;
+		}
+	}
+
+
+	public static class FlakyBean {
+
+		public FlakyBean(AtomicInteger attempts) {
+			if (attempts.getAndIncrement() == 0) {
+				throw new IllegalStateException("Expected failure on first attempt");
+			}
+		}
+	}
+
+
+	public static class RetryingBean implements BeanFactoryAware, InitializingBean {
+
+		private BeanFactory beanFactory;
+
+		BeanCreationException firstFailure;
+
+		FlakyBean flaky;
+
+		@Override
+		public void setBeanFactory(BeanFactory beanFactory) {
+			this.beanFactory = beanFactory;
+		}
+
+		@Override
+		public void afterPropertiesSet() {
+			try {
+				this.beanFactory.getBean("flaky");
+			}
+			catch (BeanCreationException ex) {
+				this.firstFailure = ex;
+			}
+			this.flaky = this.beanFactory.getBean("flaky", FlakyBean.class);
+		}
+	}
+
+
+	public static class FailingBean implements InitializingBean {
+
+		@Override
+		public void afterPropertiesSet() {
+			throw new IllegalStateException("Expected failure");
+		}
+	}
+
+}
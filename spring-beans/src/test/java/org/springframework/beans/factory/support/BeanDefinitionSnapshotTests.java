@@ -0,0 +1,262 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.cglib.core.DefaultGeneratorStrategy;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.NoOp;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link BeanDefinitionSnapshot}.
+ */
+public class BeanDefinitionSnapshotTests {
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+
+	@Test
+	public void restoreBeanDefinitions() throws IOException {
+		RootBeanDefinition spouse = new RootBeanDefinition(TestBean.class);
+		spouse.getConstructorArgumentValues().addIndexedArgumentValue(0, "Kerry");
+		spouse.getConstructorArgumentValues().addIndexedArgumentValue(1, new TypedStringValue("34"), "int");
+		spouse.setPrimary(true);
+		spouse.addQualifier(new AutowireCandidateQualifier("example.Qualifier", "special"));
+		spouse.setAttribute("custom", "value");
+		this.beanFactory.registerBeanDefinition("spouse", spouse);
+		this.beanFactory.registerAlias("spouse", "wife");
+
+		GenericBeanDefinition parent = new GenericBeanDefinition();
+		parent.setBeanClassName(TestBean.class.getName());
+		parent.setAbstract(true);
+		parent.getPropertyValues().add("name", "Rod");
+		this.beanFactory.registerBeanDefinition("parent", parent);
+
+		ManagedList<Object> friends = new ManagedList<Object>();
+		friends.add(new RuntimeBeanReference("spouse"));
+		friends.add(new BeanDefinitionHolder(new RootBeanDefinition(TestBean.class), "inner"));
+		ManagedMap<Object, Object> someMap = new ManagedMap<Object, Object>();
+		someMap.put(new TypedStringValue("key"), new TypedStringValue("value"));
+		GenericBeanDefinition child = new GenericBeanDefinition();
+		child.setParentName("parent");
+		child.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		child.setLazyInit(true);
+		child.setAutowireCandidate(false);
+		child.getPropertyValues().add("spouse", new RuntimeBeanReference("wife"));
+		child.getPropertyValues().add("friends", friends);
+		child.getPropertyValues().add("someMap", someMap);
+		this.beanFactory.registerBeanDefinition("child", child);
+
+		DefaultListableBeanFactory restored = roundTrip(this.beanFactory);
+
+		assertEquals(3, restored.getBeanDefinitionCount());
+		assertEquals(Arrays.asList("wife"), Arrays.asList(restored.getAliases("spouse")));
+		BeanDefinition restoredSpouse = restored.getBeanDefinition("spouse");
+		assertTrue(restoredSpouse.isPrimary());
+		assertEquals("value", restoredSpouse.getAttribute("custom"));
+		assertEquals("special", ((AbstractBeanDefinition) restoredSpouse).getQualifier("example.Qualifier")
+				.getAttribute(AutowireCandidateQualifier.VALUE_KEY));
+		assertEquals(TestBean.class, ((RootBeanDefinition) restoredSpouse).getTargetType());
+
+		BeanDefinition restoredChild = restored.getBeanDefinition("child");
+		assertNull(restoredChild.getParentName());
+		assertTrue(restoredChild.isPrototype());
+		assertTrue(restoredChild.isLazyInit());
+		assertFalse(restoredChild.isAutowireCandidate());
+		assertEquals("Rod", restoredChild.getPropertyValues().getPropertyValue("name").getValue());
+		assertTrue(restored.getBeanDefinition("parent").isAbstract());
+
+		TestBean kerry = restored.getBean("spouse", TestBean.class);
+		assertEquals("Kerry", kerry.getName());
+		assertEquals(34, kerry.getAge());
+		TestBean rod = restored.getBean("child", TestBean.class);
+		assertEquals("Rod", rod.getName());
+		assertSame(kerry, rod.getSpouse());
+		assertEquals(2, rod.getFriends().size());
+		assertSame(kerry, rod.getFriends().iterator().next());
+		assertEquals("value", rod.getSomeMap().get("key"));
+		assertNotSame(rod, restored.getBean("child"));
+	}
+
+	@Test
+	public void restoreResolvedFactoryMethodType() throws IOException {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBeanFactory.class);
+		bd.setUniqueFactoryMethodName("createTestBean");
+		this.beanFactory.registerBeanDefinition("testBean", bd);
+
+		DefaultListableBeanFactory restored = roundTrip(this.beanFactory);
+		RootBeanDefinition restoredBd = (RootBeanDefinition) restored.getBeanDefinition("testBean");
+		assertTrue(restoredBd.isFactoryMethodUnique);
+		assertEquals(TestBean.class, restoredBd.getTargetType());
+		assertEquals(TestBean.class, restored.getType("testBean"));
+		assertEquals("factory", restored.getBean("testBean", ITestBean.class).getName());
+	}
+
+	@Test
+	public void restoreLookupMethod() throws IOException {
+		RootBeanDefinition bd = new RootBeanDefinition(LookupBean.class);
+		bd.getMethodOverrides().addOverride(new LookupOverride("getTestBean", "testBean"));
+		this.beanFactory.registerBeanDefinition("lookupBean", bd);
+		this.beanFactory.registerBeanDefinition("testBean", new RootBeanDefinition(TestBean.class));
+
+		DefaultListableBeanFactory restored = roundTrip(this.beanFactory);
+		LookupBean lookupBean = restored.getBean("lookupBean", LookupBean.class);
+		assertSame(restored.getBean("testBean"), lookupBean.getTestBean());
+	}
+
+	@Test
+	public void restoreReplacesExistingBeanDefinitions() throws IOException {
+		this.beanFactory.registerBeanDefinition("testBean", new RootBeanDefinition(TestBean.class));
+		BeanDefinitionSnapshot snapshot = readSnapshot(writeSnapshot(this.beanFactory, "fingerprint"));
+
+		DefaultListableBeanFactory target = new DefaultListableBeanFactory();
+		target.setAllowBeanDefinitionOverriding(false);
+		target.registerBeanDefinition("testBean", new RootBeanDefinition(Object.class));
+		target.registerBeanDefinition("other", new RootBeanDefinition(Object.class));
+		snapshot.restore(target, getClass().getClassLoader());
+		assertEquals(Arrays.asList("testBean"), Arrays.asList(target.getBeanDefinitionNames()));
+		assertEquals(TestBean.class, target.getType("testBean"));
+	}
+
+	@Test
+	public void restoreGeneratedClass() throws Exception {
+		ClassLoader generatingClassLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+		Class<?> generatedClass = generateSubclass(TestBean.class, generatingClassLoader, true);
+		this.beanFactory.registerBeanDefinition("testBean", new RootBeanDefinition(generatedClass));
+		byte[] content = writeSnapshot(this.beanFactory, "fingerprint");
+
+		ClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+		DefaultListableBeanFactory target = new DefaultListableBeanFactory();
+		target.setBeanClassLoader(classLoader);
+		readSnapshot(content).restore(target, classLoader);
+		Object bean = target.getBean("testBean");
+		assertEquals(generatedClass.getName(), bean.getClass().getName());
+		assertNotSame(generatedClass, bean.getClass());
+		assertSame(classLoader, bean.getClass().getClassLoader());
+		assertTrue(bean instanceof TestBean);
+	}
+
+	@Test(expected = BeanDefinitionStoreException.class)
+	public void captureUnregisteredGeneratedClass() throws Exception {
+		Class<?> generatedClass = generateSubclass(TestBean.class, getClass().getClassLoader(), false);
+		this.beanFactory.registerBeanDefinition("testBean", new RootBeanDefinition(generatedClass));
+		BeanDefinitionSnapshot.capture(this.beanFactory, "fingerprint");
+	}
+
+	@Test(expected = BeanDefinitionStoreException.class)
+	public void captureReplacedMethod() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getMethodOverrides().addOverride(new ReplaceOverride("getName", "replacer"));
+		this.beanFactory.registerBeanDefinition("testBean", bd);
+		BeanDefinitionSnapshot.capture(this.beanFactory, "fingerprint");
+	}
+
+	@Test(expected = BeanDefinitionStoreException.class)
+	public void captureNonSerializableValue() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getConstructorArgumentValues().addGenericArgumentValue(new Object());
+		this.beanFactory.registerBeanDefinition("testBean", bd);
+		BeanDefinitionSnapshot.capture(this.beanFactory, "fingerprint");
+	}
+
+	@Test
+	public void fingerprint() throws IOException {
+		this.beanFactory.registerBeanDefinition("testBean", new RootBeanDefinition(TestBean.class));
+		BeanDefinitionSnapshot snapshot = readSnapshot(writeSnapshot(this.beanFactory, "fingerprint"));
+		assertEquals("fingerprint", snapshot.getFingerprint());
+		assertEquals(1, snapshot.getBeanDefinitionCount());
+	}
+
+	@Test(expected = IOException.class)
+	public void readInvalidContent() throws IOException {
+		readSnapshot(new byte[] {1, 2, 3});
+	}
+
+
+	private static DefaultListableBeanFactory roundTrip(DefaultListableBeanFactory beanFactory) throws IOException {
+		BeanDefinitionSnapshot snapshot = readSnapshot(writeSnapshot(beanFactory, "fingerprint"));
+		DefaultListableBeanFactory restored = new DefaultListableBeanFactory();
+		snapshot.restore(restored, BeanDefinitionSnapshotTests.class.getClassLoader());
+		return restored;
+	}
+
+	private static byte[] writeSnapshot(DefaultListableBeanFactory beanFactory, String fingerprint) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BeanDefinitionSnapshot.capture(beanFactory, fingerprint).writeTo(out);
+		return out.toByteArray();
+	}
+
+	private static BeanDefinitionSnapshot readSnapshot(byte[] content) throws IOException {
+		return BeanDefinitionSnapshot.readFrom(new ByteArrayInputStream(content),
+				BeanDefinitionSnapshotTests.class.getClassLoader());
+	}
+
+	private static Class<?> generateSubclass(Class<?> superclass, ClassLoader classLoader, boolean register) {
+		final List<byte[]> bytecode = new ArrayList<byte[]>();
+		Enhancer enhancer = new Enhancer();
+		enhancer.setSuperclass(superclass);
+		enhancer.setClassLoader(classLoader);
+		enhancer.setUseCache(false);
+		enhancer.setCallbackType(NoOp.class);
+		enhancer.setStrategy(new DefaultGeneratorStrategy() {
+			@Override
+			protected byte[] transform(byte[] b) {
+				bytecode.add(b);
+				return b;
+			}
+		});
+		Class<?> generatedClass = enhancer.createClass();
+		if (register) {
+			BeanDefinitionSnapshot.registerGeneratedClass(generatedClass, bytecode.get(0));
+		}
+		return generatedClass;
+	}
+
+
+	public static class TestBeanFactory {
+
+		public static TestBean createTestBean() {
+			return new TestBean("factory");
+		}
+	}
+
+
+	public static abstract class LookupBean {
+
+		public abstract TestBean getTestBean();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.ApplicationStartup;
 
 /**
  * SPI interface to be implemented by most if not all application contexts.
@@ -81,6 +82,12 @@ public interface ConfigurableApplicationContext extends ApplicationContext, Life
 	 */
 	String SYSTEM_ENVIRONMENT_BEAN_NAME = "systemEnvironment";
 
+	/**
+	 * Name of the {@link ApplicationStartup} bean in the factory.
+	 * @since 4.2.4
+	 */
+	String APPLICATION_STARTUP_BEAN_NAME = "applicationStartup";
+
 
 	/**
 	 * Set the unique id of this application context.
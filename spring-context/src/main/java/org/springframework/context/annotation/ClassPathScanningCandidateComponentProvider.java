@@ -18,6 +18,7 @@ package org.springframework.context.annotation;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -31,6 +32,8 @@ import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ResourceLoaderAware;
+import org.springframework.context.index.CandidateComponentsIndex;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
 import org.springframework.core.env.StandardEnvironment;
@@ -42,14 +45,17 @@ import org.springframework.core.io.support.ResourcePatternUtils;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.ParallelMetadataReading;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.TypeFilter;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Controller;
 import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.PathMatcher;
 
 /**
  * A component provider that scans the classpath from a base package. It then
@@ -59,6 +65,10 @@ import org.springframework.util.ClassUtils;
  * {@link org.springframework.core.type.classreading.MetadataReader MetadataReader}
  * facility, backed by an ASM {@link org.springframework.asm.ClassReader ClassReader}.
  *
+ * <p>As of 4.2.4, a {@link CandidateComponentsIndex} generated at build time is used
+ * instead of scanning the classpath if it covers all locations of the base package
+ * and all include filters select candidates by stereotype annotation.
+ *
  * @author Mark Fisher
  * @author Juergen Hoeller
  * @author Ramnivas Laddad
@@ -89,6 +99,12 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	private ConditionEvaluator conditionEvaluator;
 
+	private final PathMatcher indexPathMatcher = new AntPathMatcher();
+
+	private CandidateComponentsIndex componentsIndex;
+
+	private boolean componentsIndexResolved;
+
 
 	/**
 	 * Create a ClassPathScanningCandidateComponentProvider with a {@link StandardEnvironment}.
@@ -132,6 +148,7 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	public void setResourceLoader(ResourceLoader resourceLoader) {
 		this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
 		this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
+		this.componentsIndexResolved = false;
 	}
 
 	/**
@@ -259,62 +276,151 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	/**
 	 * Scan the class path for candidate components.
+	 * <p>As of 4.2.4, the candidates are taken from the
+	 * {@link CandidateComponentsIndex} instead, if it is applicable.
 	 * @param basePackage the package to check for annotated classes
 	 * @return a corresponding Set of autodetected bean definitions
 	 */
 	public Set<BeanDefinition> findCandidateComponents(String basePackage) {
+		CandidateComponentsIndex index = getComponentsIndex();
+		if (index != null) {
+			Set<String> stereotypes = determineIndexedStereotypes();
+			if (stereotypes != null) {
+				String packageSearchPath = resolveBasePackage(basePackage) + "/" + this.resourcePattern;
+				try {
+					if (index.isComplete(packageSearchPath, this.resourcePatternResolver.getClassLoader())) {
+						return addCandidateComponentsFromIndex(index, stereotypes, packageSearchPath);
+					}
+				}
+				catch (IOException ex) {
+					throw new BeanDefinitionStoreException("I/O failure during candidate component index lookup", ex);
+				}
+			}
+		}
+		return scanCandidateComponents(basePackage);
+	}
+
+	private CandidateComponentsIndex getComponentsIndex() {
+		if (!this.componentsIndexResolved) {
+			this.componentsIndex = CandidateComponentsIndexLoader.loadIndex(this.resourcePatternResolver.getClassLoader());
+			this.componentsIndexResolved = true;
+		}
+		return this.componentsIndex;
+	}
+
+	/**
+	 * Determine the stereotypes to look up in the index, provided that all include
+	 * filters match on indexed stereotype annotations of the candidate class itself.
+	 * @return the stereotype names, or {@code null} if the index cannot be used
+	 */
+	private Set<String> determineIndexedStereotypes() {
+		Set<String> stereotypes = new LinkedHashSet<String>();
+		for (TypeFilter filter : this.includeFilters) {
+			if (filter.getClass() != AnnotationTypeFilter.class) {
+				return null;
+			}
+			AnnotationTypeFilter annotationTypeFilter = (AnnotationTypeFilter) filter;
+			if (annotationTypeFilter.isConsiderInherited() || annotationTypeFilter.isConsiderInterfaces() ||
+					!CandidateComponentsIndex.isIndexedStereotype(annotationTypeFilter.getAnnotationType())) {
+				return null;
+			}
+			stereotypes.add(annotationTypeFilter.getAnnotationType().getName());
+		}
+		return stereotypes;
+	}
+
+	private Set<BeanDefinition> addCandidateComponentsFromIndex(CandidateComponentsIndex index,
+			Set<String> stereotypes, String packageSearchPath) {
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Using candidate component index for " + packageSearchPath);
+		}
+		Set<String> types = new LinkedHashSet<String>();
+		for (String stereotype : stereotypes) {
+			types.addAll(index.getCandidateTypes(stereotype));
+		}
+		List<Resource> resources = new ArrayList<Resource>(types.size());
+		for (String type : types) {
+			String resourcePath = ClassUtils.convertClassNameToResourcePath(type) + ClassUtils.CLASS_FILE_SUFFIX;
+			if (this.indexPathMatcher.match(packageSearchPath, resourcePath)) {
+				resources.add(this.resourcePatternResolver.getResource(ResourceLoader.CLASSPATH_URL_PREFIX + resourcePath));
+			}
+		}
+		Set<BeanDefinition> candidates = new LinkedHashSet<BeanDefinition>();
+		addCandidateComponents(resources.toArray(new Resource[resources.size()]), candidates);
+		return candidates;
+	}
+
+	private Set<BeanDefinition> scanCandidateComponents(String basePackage) {
 		Set<BeanDefinition> candidates = new LinkedHashSet<BeanDefinition>();
 		try {
 			String packageSearchPath = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
 					resolveBasePackage(basePackage) + "/" + this.resourcePattern;
 			Resource[] resources = this.resourcePatternResolver.getResources(packageSearchPath);
-			boolean traceEnabled = logger.isTraceEnabled();
-			boolean debugEnabled = logger.isDebugEnabled();
-			for (Resource resource : resources) {
-				if (traceEnabled) {
-					logger.trace("Scanning " + resource);
-				}
-				if (resource.isReadable()) {
-					try {
-						MetadataReader metadataReader = this.metadataReaderFactory.getMetadataReader(resource);
-						if (isCandidateComponent(metadataReader)) {
-							ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
-							sbd.setResource(resource);
-							sbd.setSource(resource);
-							if (isCandidateComponent(sbd)) {
-								if (debugEnabled) {
-									logger.debug("Identified candidate component class: " + resource);
-								}
-								candidates.add(sbd);
-							}
-							else {
-								if (debugEnabled) {
-									logger.debug("Ignored because not a concrete top-level class: " + resource);
-								}
-							}
-						}
-						else {
-							if (traceEnabled) {
-								logger.trace("Ignored because not matching any filter: " + resource);
-							}
+			addCandidateComponents(resources, candidates);
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException("I/O failure during classpath scanning", ex);
+		}
+		return candidates;
+	}
+
+	/**
+	 * Add the candidate components among the given resources, in their given order.
+	 * <p>The class metadata is read upfront in parallel if enabled through the
+	 * {@value ParallelMetadataReading#PARALLELISM_PROPERTY_NAME} property.
+	 */
+	private void addCandidateComponents(Resource[] resources, Set<BeanDefinition> candidates) {
+		MetadataReader[] metadataReaders = ParallelMetadataReading.getMetadataReaders(this.metadataReaderFactory, resources);
+		for (int i = 0; i < resources.length; i++) {
+			addCandidateComponent(resources[i], (metadataReaders != null ? metadataReaders[i] : null), candidates);
+		}
+	}
+
+	private void addCandidateComponent(Resource resource, MetadataReader prefetchedMetadataReader,
+			Set<BeanDefinition> candidates) {
+
+		boolean traceEnabled = logger.isTraceEnabled();
+		boolean debugEnabled = logger.isDebugEnabled();
+		if (traceEnabled) {
+			logger.trace("Scanning " + resource);
+		}
+		if (resource.isReadable()) {
+			try {
+				MetadataReader metadataReader = (prefetchedMetadataReader != null ? prefetchedMetadataReader :
+						this.metadataReaderFactory.getMetadataReader(resource));
+				if (isCandidateComponent(metadataReader)) {
+					ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
+					sbd.setResource(resource);
+					sbd.setSource(resource);
+					if (isCandidateComponent(sbd)) {
+						if (debugEnabled) {
+							logger.debug("Identified candidate component class: " + resource);
 						}
+						candidates.add(sbd);
 					}
-					catch (Throwable ex) {
-						throw new BeanDefinitionStoreException(
-								"Failed to read candidate component class: " + resource, ex);
+					else {
+						if (debugEnabled) {
+							logger.debug("Ignored because not a concrete top-level class: " + resource);
+						}
 					}
 				}
 				else {
 					if (traceEnabled) {
-						logger.trace("Ignored because not readable: " + resource);
+						logger.trace("Ignored because not matching any filter: " + resource);
 					}
 				}
 			}
+			catch (Throwable ex) {
+				throw new BeanDefinitionStoreException(
+						"Failed to read candidate component class: " + resource, ex);
+			}
 		}
-		catch (IOException ex) {
-			throw new BeanDefinitionStoreException("I/O failure during classpath scanning", ex);
+		else {
+			if (traceEnabled) {
+				logger.trace("Ignored because not readable: " + resource);
+			}
 		}
-		return candidates;
 	}
 
 
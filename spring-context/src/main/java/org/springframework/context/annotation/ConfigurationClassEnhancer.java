@@ -31,6 +31,7 @@ import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionSnapshot;
 import org.springframework.beans.factory.support.SimpleInstantiationStrategy;
 import org.springframework.cglib.core.ClassGenerator;
 import org.springframework.cglib.core.Constants;
@@ -98,13 +99,20 @@ class ConfigurationClassEnhancer {
 				logger.debug(String.format("Ignoring request to enhance %s as it has " +
 						"already been enhanced. This usually indicates that more than one " +
 						"ConfigurationClassPostProcessor has been registered (e.g. via " +
-						"<context:annotation-config>). This is harmless, but you may " +
+						"<context:annotation-config>) or that the bean definition has been " +
+						"restored from a snapshot. This is harmless, but you may " +
 						"want check your configuration and remove one CCPP if possible",
 						configClass.getName()));
 			}
+			// A class restored from a snapshot has been defined without callbacks
+			Enhancer.registerStaticCallbacks(configClass, CALLBACKS);
 			return configClass;
 		}
-		Class<?> enhancedClass = createClass(newEnhancer(configClass, classLoader));
+		BeanFactoryAwareGeneratorStrategy strategy = new BeanFactoryAwareGeneratorStrategy(classLoader);
+		Class<?> enhancedClass = createClass(newEnhancer(configClass, strategy));
+		if (strategy.bytecode != null) {
+			BeanDefinitionSnapshot.registerGeneratedClass(enhancedClass, strategy.bytecode);
+		}
 		if (logger.isDebugEnabled()) {
 			logger.debug(String.format("Successfully enhanced %s; enhanced class name is: %s",
 					configClass.getName(), enhancedClass.getName()));
@@ -115,13 +123,13 @@ class ConfigurationClassEnhancer {
 	/**
 	 * Creates a new CGLIB {@link Enhancer} instance.
 	 */
-	private Enhancer newEnhancer(Class<?> superclass, ClassLoader classLoader) {
+	private Enhancer newEnhancer(Class<?> superclass, BeanFactoryAwareGeneratorStrategy strategy) {
 		Enhancer enhancer = new Enhancer();
 		enhancer.setSuperclass(superclass);
 		enhancer.setInterfaces(new Class<?>[] {EnhancedConfiguration.class});
 		enhancer.setUseFactory(false);
 		enhancer.setNamingPolicy(SpringNamingPolicy.INSTANCE);
-		enhancer.setStrategy(new BeanFactoryAwareGeneratorStrategy(classLoader));
+		enhancer.setStrategy(strategy);
 		enhancer.setCallbackFilter(CALLBACK_FILTER);
 		enhancer.setCallbackTypes(CALLBACK_FILTER.getCallbackTypes());
 		return enhancer;
@@ -209,10 +217,19 @@ class ConfigurationClassEnhancer {
 
 		private final ClassLoader classLoader;
 
+		/** The bytecode of the generated class, for inclusion in bean definition snapshots */
+		byte[] bytecode;
+
 		public BeanFactoryAwareGeneratorStrategy(ClassLoader classLoader) {
 			this.classLoader = classLoader;
 		}
 
+		@Override
+		protected byte[] transform(byte[] bytecode) {
+			this.bytecode = bytecode;
+			return bytecode;
+		}
+
 		@Override
 		protected ClassGenerator transform(ClassGenerator cg) throws Exception {
 			ClassEmitterTransformer transformer = new ClassEmitterTransformer() {
@@ -49,6 +49,7 @@ import org.springframework.beans.factory.parsing.Location;
 import org.springframework.beans.factory.parsing.Problem;
 import org.springframework.beans.factory.parsing.ProblemReporter;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionReader;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanNameGenerator;
@@ -66,11 +67,14 @@ import org.springframework.core.env.PropertySource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.MethodMetadata;
 import org.springframework.core.type.StandardAnnotationMetadata;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.ParallelMetadataReading;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
@@ -126,6 +130,8 @@ class ConfigurationClassParser {
 
 	private final ConditionEvaluator conditionEvaluator;
 
+	private final ApplicationStartup applicationStartup;
+
 	private final Map<ConfigurationClass, ConfigurationClass> configurationClasses =
 			new LinkedHashMap<ConfigurationClass, ConfigurationClass>();
 
@@ -154,11 +160,14 @@ class ConfigurationClassParser {
 		this.componentScanParser = new ComponentScanAnnotationParser(
 				resourceLoader, environment, componentScanBeanNameGenerator, registry);
 		this.conditionEvaluator = new ConditionEvaluator(registry, environment, resourceLoader);
+		this.applicationStartup = (registry instanceof AbstractBeanFactory ?
+				((AbstractBeanFactory) registry).getApplicationStartup() : ApplicationStartup.DEFAULT);
 	}
 
 
 	public void parse(Set<BeanDefinitionHolder> configCandidates) {
 		this.deferredImportSelectors = new LinkedList<DeferredImportSelectorHolder>();
+		Map<String, MetadataReader> metadataReaders = readMetadata(configCandidates);
 
 		for (BeanDefinitionHolder holder : configCandidates) {
 			BeanDefinition bd = holder.getBeanDefinition();
@@ -170,7 +179,13 @@ class ConfigurationClassParser {
 					parse(((AbstractBeanDefinition) bd).getBeanClass(), holder.getBeanName());
 				}
 				else {
-					parse(bd.getBeanClassName(), holder.getBeanName());
+					MetadataReader reader = metadataReaders.get(bd.getBeanClassName());
+					if (reader != null) {
+						processConfigurationClass(new ConfigurationClass(reader, holder.getBeanName()));
+					}
+					else {
+						parse(bd.getBeanClassName(), holder.getBeanName());
+					}
 				}
 			}
 			catch (BeanDefinitionStoreException ex) {
@@ -185,6 +200,36 @@ class ConfigurationClassParser {
 		processDeferredImportSelectors();
 	}
 
+	/**
+	 * Read the metadata of those candidates that are only specified by class name
+	 * upfront, in parallel if enabled through the
+	 * {@value ParallelMetadataReading#PARALLELISM_PROPERTY_NAME} property.
+	 * @return the metadata readers per class name (never {@code null})
+	 */
+	private Map<String, MetadataReader> readMetadata(Set<BeanDefinitionHolder> configCandidates) {
+		Set<String> classNames = new LinkedHashSet<String>();
+		for (BeanDefinitionHolder holder : configCandidates) {
+			BeanDefinition bd = holder.getBeanDefinition();
+			if (!(bd instanceof AnnotatedBeanDefinition) &&
+					!(bd instanceof AbstractBeanDefinition && ((AbstractBeanDefinition) bd).hasBeanClass()) &&
+					bd.getBeanClassName() != null) {
+				classNames.add(bd.getBeanClassName());
+			}
+		}
+		String[] classNamesToRead = StringUtils.toStringArray(classNames);
+		MetadataReader[] readers = ParallelMetadataReading.getMetadataReaders(this.metadataReaderFactory, classNamesToRead);
+		if (readers == null) {
+			return Collections.emptyMap();
+		}
+		Map<String, MetadataReader> metadataReaders = new HashMap<String, MetadataReader>(readers.length);
+		for (int i = 0; i < readers.length; i++) {
+			if (readers[i] != null) {
+				metadataReaders.put(classNamesToRead[i], readers[i]);
+			}
+		}
+		return metadataReaders;
+	}
+
 	protected final void parse(String className, String beanName) throws IOException {
 		MetadataReader reader = this.metadataReaderFactory.getMetadataReader(className);
 		processConfigurationClass(new ConfigurationClass(reader, beanName));
@@ -263,8 +308,11 @@ class ConfigurationClassParser {
 		AnnotationAttributes componentScan = AnnotationConfigUtils.attributesFor(sourceClass.getMetadata(), ComponentScan.class);
 		if (componentScan != null && !this.conditionEvaluator.shouldSkip(sourceClass.getMetadata(), ConfigurationPhase.REGISTER_BEAN)) {
 			// The config class is annotated with @ComponentScan -> perform the scan immediately
+			StartupStep componentScanStep = this.applicationStartup.start("spring.context.component-scan")
+					.tag("configurationClass", sourceClass.getMetadata().getClassName());
 			Set<BeanDefinitionHolder> scannedBeanDefinitions =
 					this.componentScanParser.parse(componentScan, sourceClass.getMetadata().getClassName());
+			componentScanStep.tag("beanCount", String.valueOf(scannedBeanDefinitions.size())).end();
 			// Check the set of scanned definitions for any further config classes and parse recursively if necessary
 			for (BeanDefinitionHolder holder : scannedBeanDefinitions) {
 				if (ConfigurationClassUtils.checkConfigurationClassCandidate(holder.getBeanDefinition(), this.metadataReaderFactory)) {
@@ -597,9 +645,17 @@ class ConfigurationClassParser {
 	 * Factory method to obtain {@link SourceClass}s from class names.
 	 */
 	public Collection<SourceClass> asSourceClasses(String[] classNames) throws IOException {
-		List<SourceClass> annotatedClasses = new ArrayList<SourceClass>();
-		for (String className : classNames) {
-			annotatedClasses.add(asSourceClass(className));
+		MetadataReader[] metadataReaders =
+				ParallelMetadataReading.getMetadataReaders(this.metadataReaderFactory, classNames);
+		List<SourceClass> annotatedClasses = new ArrayList<SourceClass>(classNames.length);
+		for (int i = 0; i < classNames.length; i++) {
+			MetadataReader metadataReader = (metadataReaders != null ? metadataReaders[i] : null);
+			if (metadataReader != null && !classNames[i].startsWith("java")) {
+				annotatedClasses.add(new SourceClass(metadataReader));
+			}
+			else {
+				annotatedClasses.add(asSourceClass(classNames[i]));
+			}
 		}
 		return annotatedClasses;
 	}
@@ -836,6 +892,9 @@ class ConfigurationClassParser {
 				return Collections.emptySet();
 			}
 			String[] classNames = (String[]) annotationAttributes.get(attribute);
+			if (!(this.source instanceof Class<?>)) {
+				return new LinkedHashSet<SourceClass>(asSourceClasses(classNames));
+			}
 			Set<SourceClass> result = new LinkedHashSet<SourceClass>();
 			for (String className : classNames) {
 				result.add(getRelated(className));
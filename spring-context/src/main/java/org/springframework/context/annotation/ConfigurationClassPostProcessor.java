@@ -50,6 +50,7 @@ import org.springframework.beans.factory.parsing.PassThroughSourceExtractor;
 import org.springframework.beans.factory.parsing.ProblemReporter;
 import org.springframework.beans.factory.parsing.SourceExtractor;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.beans.factory.support.BeanNameGenerator;
@@ -57,12 +58,16 @@ import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.ConfigurationClassEnhancer.EnhancedConfiguration;
+import org.springframework.core.Conventions;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.StandardAnnotationMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
 import org.springframework.util.Assert;
@@ -100,6 +105,9 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	private static final String ENHANCED_CONFIGURATION_PROCESSOR_BEAN_NAME =
 			ConfigurationClassPostProcessor.class.getName() + ".enhancedConfigurationProcessor";
 
+	private static final String IMPORTING_CLASS_ATTRIBUTE =
+			Conventions.getQualifiedAttributeName(ConfigurationClassPostProcessor.class, "importingClass");
+
 
 	private final Log logger = LogFactory.getLog(getClass());
 
@@ -221,13 +229,17 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 	 */
 	@Override
 	public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
-		RootBeanDefinition iabpp = new RootBeanDefinition(ImportAwareBeanPostProcessor.class);
-		iabpp.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
-		registry.registerBeanDefinition(IMPORT_AWARE_PROCESSOR_BEAN_NAME, iabpp);
-
-		RootBeanDefinition ecbpp = new RootBeanDefinition(EnhancedConfigurationBeanPostProcessor.class);
-		ecbpp.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
-		registry.registerBeanDefinition(ENHANCED_CONFIGURATION_PROCESSOR_BEAN_NAME, ecbpp);
+		// Already present if the bean definitions have been restored from a snapshot
+		if (!registry.containsBeanDefinition(IMPORT_AWARE_PROCESSOR_BEAN_NAME)) {
+			RootBeanDefinition iabpp = new RootBeanDefinition(ImportAwareBeanPostProcessor.class);
+			iabpp.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+			registry.registerBeanDefinition(IMPORT_AWARE_PROCESSOR_BEAN_NAME, iabpp);
+		}
+		if (!registry.containsBeanDefinition(ENHANCED_CONFIGURATION_PROCESSOR_BEAN_NAME)) {
+			RootBeanDefinition ecbpp = new RootBeanDefinition(EnhancedConfigurationBeanPostProcessor.class);
+			ecbpp.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+			registry.registerBeanDefinition(ENHANCED_CONFIGURATION_PROCESSOR_BEAN_NAME, ecbpp);
+		}
 
 		int registryId = System.identityHashCode(registry);
 		if (this.registriesPostProcessed.contains(registryId)) {
@@ -317,21 +329,29 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 
 		Set<BeanDefinitionHolder> candidates = new LinkedHashSet<BeanDefinitionHolder>(configCandidates);
 		Set<ConfigurationClass> alreadyParsed = new HashSet<ConfigurationClass>(configCandidates.size());
+		ApplicationStartup applicationStartup = getApplicationStartup(registry);
 		do {
-			parser.parse(candidates);
-			parser.validate();
+			StartupStep processConfig = applicationStartup.start("spring.context.config-classes.parse");
+			try {
+				parser.parse(candidates);
+				parser.validate();
 
-			Set<ConfigurationClass> configClasses = new LinkedHashSet<ConfigurationClass>(parser.getConfigurationClasses());
-			configClasses.removeAll(alreadyParsed);
+				Set<ConfigurationClass> configClasses = new LinkedHashSet<ConfigurationClass>(parser.getConfigurationClasses());
+				configClasses.removeAll(alreadyParsed);
 
-			// Read the model and create bean definitions based on its content
-			if (this.reader == null) {
-				this.reader = new ConfigurationClassBeanDefinitionReader(
-						registry, this.sourceExtractor, this.resourceLoader, this.environment,
-						this.importBeanNameGenerator, parser.getImportRegistry());
+				// Read the model and create bean definitions based on its content
+				if (this.reader == null) {
+					this.reader = new ConfigurationClassBeanDefinitionReader(
+							registry, this.sourceExtractor, this.resourceLoader, this.environment,
+							this.importBeanNameGenerator, parser.getImportRegistry());
+				}
+				this.reader.loadBeanDefinitions(configClasses);
+				alreadyParsed.addAll(configClasses);
+				processConfig.tag("classCount", String.valueOf(configClasses.size()));
+			}
+			finally {
+				processConfig.end();
 			}
-			this.reader.loadBeanDefinitions(configClasses);
-			alreadyParsed.addAll(configClasses);
 
 			candidates.clear();
 			if (registry.getBeanDefinitionCount() > candidateNames.length) {
@@ -355,6 +375,19 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 		while (!candidates.isEmpty());
 
+		// Record the importing class of imported configuration classes, for ImportAware
+		// beans whose bean definitions get restored from a snapshot without ImportRegistry
+		for (ConfigurationClass configClass : alreadyParsed) {
+			String beanName = configClass.getBeanName();
+			if (configClass.isImported() && beanName != null && registry.containsBeanDefinition(beanName)) {
+				AnnotationMetadata importingClass =
+						parser.getImportRegistry().getImportingClassFor(configClass.getMetadata().getClassName());
+				if (importingClass != null) {
+					registry.getBeanDefinition(beanName).setAttribute(IMPORTING_CLASS_ATTRIBUTE, importingClass.getClassName());
+				}
+			}
+		}
+
 		// Register the ImportRegistry as a bean in order to support ImportAware @Configuration classes
 		if (singletonRegistry != null) {
 			if (!singletonRegistry.containsSingleton(IMPORT_REGISTRY_BEAN_NAME)) {
@@ -389,27 +422,39 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			// nothing to enhance -> return immediately
 			return;
 		}
-		ConfigurationClassEnhancer enhancer = new ConfigurationClassEnhancer();
-		for (Map.Entry<String, AbstractBeanDefinition> entry : configBeanDefs.entrySet()) {
-			AbstractBeanDefinition beanDef = entry.getValue();
-			// If a @Configuration class gets proxied, always proxy the target class
-			beanDef.setAttribute(AutoProxyUtils.PRESERVE_TARGET_CLASS_ATTRIBUTE, Boolean.TRUE);
-			try {
-				// Set enhanced subclass of the user-specified bean class
-				Class<?> configClass = beanDef.resolveBeanClass(this.beanClassLoader);
-				Class<?> enhancedClass = enhancer.enhance(configClass, this.beanClassLoader);
-				if (configClass != enhancedClass) {
-					if (logger.isDebugEnabled()) {
-						logger.debug(String.format("Replacing bean definition '%s' existing class '%s' with " +
-								"enhanced class '%s'", entry.getKey(), configClass.getName(), enhancedClass.getName()));
+		StartupStep enhanceConfigClasses = getApplicationStartup(beanFactory).start("spring.context.config-classes.enhance")
+				.tag("classCount", String.valueOf(configBeanDefs.size()));
+		try {
+			ConfigurationClassEnhancer enhancer = new ConfigurationClassEnhancer();
+			for (Map.Entry<String, AbstractBeanDefinition> entry : configBeanDefs.entrySet()) {
+				AbstractBeanDefinition beanDef = entry.getValue();
+				// If a @Configuration class gets proxied, always proxy the target class
+				beanDef.setAttribute(AutoProxyUtils.PRESERVE_TARGET_CLASS_ATTRIBUTE, Boolean.TRUE);
+				try {
+					// Set enhanced subclass of the user-specified bean class
+					Class<?> configClass = beanDef.resolveBeanClass(this.beanClassLoader);
+					Class<?> enhancedClass = enhancer.enhance(configClass, this.beanClassLoader);
+					if (configClass != enhancedClass) {
+						if (logger.isDebugEnabled()) {
+							logger.debug(String.format("Replacing bean definition '%s' existing class '%s' with " +
+									"enhanced class '%s'", entry.getKey(), configClass.getName(), enhancedClass.getName()));
+						}
+						beanDef.setBeanClass(enhancedClass);
 					}
-					beanDef.setBeanClass(enhancedClass);
+				}
+				catch (Throwable ex) {
+					throw new IllegalStateException("Cannot load configuration class: " + beanDef.getBeanClassName(), ex);
 				}
 			}
-			catch (Throwable ex) {
-				throw new IllegalStateException("Cannot load configuration class: " + beanDef.getBeanClassName(), ex);
-			}
 		}
+		finally {
+			enhanceConfigClasses.end();
+		}
+	}
+
+	private ApplicationStartup getApplicationStartup(Object beanFactory) {
+		return (beanFactory instanceof AbstractBeanFactory ?
+				((AbstractBeanFactory) beanFactory).getApplicationStartup() : ApplicationStartup.DEFAULT);
 	}
 
 
@@ -430,8 +475,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		@Override
 		public Object postProcessBeforeInitialization(Object bean, String beanName)  {
 			if (bean instanceof ImportAware) {
-				ImportRegistry importRegistry = this.beanFactory.getBean(IMPORT_REGISTRY_BEAN_NAME, ImportRegistry.class);
-				AnnotationMetadata importingClass = importRegistry.getImportingClassFor(bean.getClass().getSuperclass().getName());
+				AnnotationMetadata importingClass = getImportingClass(bean, beanName);
 				if (importingClass != null) {
 					((ImportAware) bean).setImportMetadata(importingClass);
 				}
@@ -439,6 +483,31 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			return bean;
 		}
 
+		private AnnotationMetadata getImportingClass(Object bean, String beanName) {
+			if (this.beanFactory.containsBean(IMPORT_REGISTRY_BEAN_NAME)) {
+				ImportRegistry importRegistry = this.beanFactory.getBean(IMPORT_REGISTRY_BEAN_NAME, ImportRegistry.class);
+				return importRegistry.getImportingClassFor(bean.getClass().getSuperclass().getName());
+			}
+			// No ImportRegistry: bean definitions restored from a snapshot
+			if (this.beanFactory instanceof ConfigurableListableBeanFactory) {
+				ConfigurableListableBeanFactory clbf = (ConfigurableListableBeanFactory) this.beanFactory;
+				if (clbf.containsBeanDefinition(beanName)) {
+					Object importingClassName = clbf.getMergedBeanDefinition(beanName).getAttribute(IMPORTING_CLASS_ATTRIBUTE);
+					if (importingClassName instanceof String) {
+						try {
+							return new StandardAnnotationMetadata(
+									ClassUtils.forName((String) importingClassName, clbf.getBeanClassLoader()), true);
+						}
+						catch (ClassNotFoundException ex) {
+							throw new IllegalStateException("Cannot load importing class [" + importingClassName +
+									"] for ImportAware bean '" + beanName + "'", ex);
+						}
+					}
+				}
+			}
+			return null;
+		}
+
 		@Override
 		public Object postProcessAfterInitialization(Object bean, String beanName) {
 			return bean;
@@ -37,10 +37,11 @@ import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.invoke.CompilingMethodInvokerFactory;
+import org.springframework.core.invoke.MethodInvoker;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
-import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -81,6 +82,8 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 
 	private EventListener eventListener;
 
+	private MethodInvoker methodInvoker;
+
 
 	public ApplicationListenerMethodAdapter(String beanName, Class<?> targetClass, Method method) {
 		this.beanName = beanName;
@@ -222,9 +225,8 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 	 */
 	protected Object doInvoke(Object... args) {
 		Object bean = getTargetBean();
-		ReflectionUtils.makeAccessible(this.bridgedMethod);
 		try {
-			return this.bridgedMethod.invoke(bean, args);
+			return getMethodInvoker().invoke(bean, args);
 		}
 		catch (IllegalArgumentException ex) {
 			assertTargetBean(this.bridgedMethod, bean, args);
@@ -246,6 +248,16 @@ public class ApplicationListenerMethodAdapter implements GenericApplicationListe
 		}
 	}
 
+	/**
+	 * Return the {@link MethodInvoker} for the bridged listener method.
+	 */
+	private MethodInvoker getMethodInvoker() {
+		if (this.methodInvoker == null) {
+			this.methodInvoker = CompilingMethodInvokerFactory.getSharedInstance().getMethodInvoker(this.bridgedMethod);
+		}
+		return this.methodInvoker;
+	}
+
 	/**
 	 * Return the target bean instance to use.
 	 */
@@ -19,6 +19,7 @@ package org.springframework.context.expression;
 import java.util.Map;
 
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.CachingSpelExpressionParser;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
@@ -44,10 +45,13 @@ public abstract class CachedExpressionEvaluator {
 	}
 
 	/**
-	 * Create a new instance with a default {@link SpelExpressionParser}.
+	 * Create a new instance with the {@link CachingSpelExpressionParser#getSharedInstance(Class)
+	 * SpEL expression parser shared} by all evaluators of the same type. Expressions
+	 * are only shared between evaluations on the same annotated element, since their
+	 * compiled form depends on the types of the element's arguments.
 	 */
 	protected CachedExpressionEvaluator() {
-		this(new SpelExpressionParser());
+		this.parser = CachingSpelExpressionParser.getSharedInstance(getClass());
 	}
 
 	/**
@@ -69,7 +73,13 @@ public abstract class CachedExpressionEvaluator {
 		ExpressionKey expressionKey = createKey(elementKey, expression);
 		Expression expr = cache.get(expressionKey);
 		if (expr == null) {
-			expr = getParser().parseExpression(expression);
+			SpelExpressionParser parser = getParser();
+			if (parser instanceof CachingSpelExpressionParser) {
+				expr = ((CachingSpelExpressionParser) parser).parseExpression(expression, null, elementKey);
+			}
+			else {
+				expr = parser.parseExpression(expression);
+			}
 			cache.put(expressionKey, expr);
 		}
 		return expr;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,7 +28,7 @@ import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.ParserContext;
 import org.springframework.expression.spel.SpelParserConfiguration;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.standard.CachingSpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.expression.spel.support.StandardTypeConverter;
 import org.springframework.expression.spel.support.StandardTypeLocator;
@@ -63,6 +63,9 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 
 	private final Map<String, Expression> expressionCache = new ConcurrentHashMap<String, Expression>(256);
 
+	/** Keeps expressions from a shared parser (and their compiled state) to this resolver */
+	private final Object expressionScope = new Object();
+
 	private final Map<BeanExpressionContext, StandardEvaluationContext> evaluationCache =
 			new ConcurrentHashMap<BeanExpressionContext, StandardEvaluationContext>(8);
 
@@ -86,7 +89,7 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 	 * Create a new {@code StandardBeanExpressionResolver} with default settings.
 	 */
 	public StandardBeanExpressionResolver() {
-		this.expressionParser = new SpelExpressionParser();
+		this.expressionParser = CachingSpelExpressionParser.getSharedInstance(StandardBeanExpressionResolver.class);
 	}
 
 	/**
@@ -95,7 +98,8 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 	 * @param beanClassLoader the factory's bean class loader
 	 */
 	public StandardBeanExpressionResolver(ClassLoader beanClassLoader) {
-		this.expressionParser = new SpelExpressionParser(new SpelParserConfiguration(null, beanClassLoader));
+		this.expressionParser = CachingSpelExpressionParser.getSharedInstance(
+				StandardBeanExpressionResolver.class, new SpelParserConfiguration(null, beanClassLoader));
 	}
 
 
@@ -121,8 +125,9 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 
 	/**
 	 * Specify the EL parser to use for expression parsing.
-	 * <p>Default is a {@link org.springframework.expression.spel.standard.SpelExpressionParser},
-	 * compatible with standard Unified EL style expression syntax.
+	 * <p>Default is the shared {@link CachingSpelExpressionParser} for the bean class
+	 * loader, compatible with standard Unified EL style expression syntax.
+	 * @see CachingSpelExpressionParser#getSharedInstance(Class, SpelParserConfiguration)
 	 */
 	public void setExpressionParser(ExpressionParser expressionParser) {
 		Assert.notNull(expressionParser, "ExpressionParser must not be null");
@@ -138,7 +143,13 @@ public class StandardBeanExpressionResolver implements BeanExpressionResolver {
 		try {
 			Expression expr = this.expressionCache.get(value);
 			if (expr == null) {
-				expr = this.expressionParser.parseExpression(value, this.beanExpressionParserContext);
+				if (this.expressionParser instanceof CachingSpelExpressionParser) {
+					expr = ((CachingSpelExpressionParser) this.expressionParser).parseExpression(
+							value, this.beanExpressionParserContext, this.expressionScope);
+				}
+				else {
+					expr = this.expressionParser.parseExpression(value, this.beanExpressionParserContext);
+				}
 				this.expressionCache.put(value, expr);
 			}
 			StandardEvaluationContext sec = this.evaluationCache.get(evalContext);
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+/**
+ * Provide access to the candidate components defined in
+ * {@value CandidateComponentsIndexLoader#COMPONENTS_RESOURCE_LOCATION} index files.
+ *
+ * <p>Each entry of an index file maps the fully qualified name of a class to a
+ * comma-separated list of its stereotypes, i.e. the annotation types present on the
+ * class, either directly or as meta-annotations. Candidate types are looked up by
+ * stereotype; their actual metadata still needs to be read and matched against the
+ * filters in use.
+ *
+ * <p>An index only covers the classpath location (jar file or classes directory) that
+ * it has been generated for. {@link #isComplete} checks whether all locations that
+ * contain a given package come with an index.
+ *
+ * @since 4.2.4
+ * @see CandidateComponentsIndexLoader
+ * @see CandidateComponentsIndexer
+ */
+public class CandidateComponentsIndex {
+
+	/**
+	 * Names of the annotation types that qualify a class for the index,
+	 * also when present as meta-annotation.
+	 */
+	static final Set<String> INDEXED_STEREOTYPES = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+			Component.class.getName(), "javax.annotation.ManagedBean", "javax.inject.Named")));
+
+	private final MultiValueMap<String, String> index = new LinkedMultiValueMap<String, String>();
+
+	private final Set<String> indexedLocations;
+
+
+	/**
+	 * Create a new {@code CandidateComponentsIndex} for the given index files.
+	 * @param indexes the content of each index file, keyed by the root location
+	 * (as URL String) of the classpath entry that it has been found in
+	 */
+	CandidateComponentsIndex(Map<String, Properties> indexes) {
+		for (Properties properties : indexes.values()) {
+			for (String type : properties.stringPropertyNames()) {
+				for (String stereotype : StringUtils.commaDelimitedListToStringArray(properties.getProperty(type))) {
+					this.index.add(stereotype.trim(), type);
+				}
+			}
+		}
+		this.indexedLocations = Collections.unmodifiableSet(new LinkedHashSet<String>(indexes.keySet()));
+	}
+
+
+	/**
+	 * Determine whether the index records all classes that carry the given annotation
+	 * type, i.e. whether it is {@link Component @Component}, JSR-250's
+	 * {@code @ManagedBean}, JSR-330's {@code @Named} or an annotation that is
+	 * meta-annotated with {@code @Component}.
+	 * @param annotationType the annotation type to check
+	 * @return {@code true} if candidates with that annotation can be taken from the index
+	 */
+	public static boolean isIndexedStereotype(Class<? extends Annotation> annotationType) {
+		return (INDEXED_STEREOTYPES.contains(annotationType.getName()) ||
+				AnnotationUtils.isAnnotationMetaPresent(annotationType, Component.class));
+	}
+
+
+	/**
+	 * Return the names of all indexed types that carry the given stereotype.
+	 * @param stereotype the fully qualified name of the stereotype annotation
+	 * @return the names of the candidate types (never {@code null})
+	 */
+	public Set<String> getCandidateTypes(String stereotype) {
+		List<String> candidates = this.index.get(stereotype);
+		return (candidates != null ? new LinkedHashSet<String>(candidates) : Collections.<String>emptySet());
+	}
+
+	/**
+	 * Determine whether every classpath location that contains the given package
+	 * comes with an index, so that the index may be used instead of scanning.
+	 * <p>For a package pattern, the locations of its root package (up to the first
+	 * wildcard) are checked; patterns that start with a wildcard cannot be checked
+	 * and are never considered complete.
+	 * @param packageSearchPath the package to check, as resource path
+	 * (e.g. "com/mycompany/**")
+	 * @param classLoader the ClassLoader to look up the locations with
+	 * @return {@code true} if the index covers all locations of the package
+	 * @throws IOException if the locations of the package cannot be determined
+	 */
+	public boolean isComplete(String packageSearchPath, ClassLoader classLoader) throws IOException {
+		String rootPath = determineRootPath(StringUtils.trimLeadingCharacter(packageSearchPath, '/'));
+		if (!StringUtils.hasLength(rootPath)) {
+			return false;
+		}
+		ClassLoader classLoaderToUse = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		Enumeration<URL> urls = (classLoaderToUse != null ? classLoaderToUse.getResources(rootPath) :
+				ClassLoader.getSystemResources(rootPath));
+		while (urls.hasMoreElements()) {
+			String location = StringUtils.trimTrailingCharacter(urls.nextElement().toString(), '/');
+			if (!location.endsWith(rootPath) ||
+					!this.indexedLocations.contains(location.substring(0, location.length() - rootPath.length()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String determineRootPath(String path) {
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (c == '*' || c == '?' || c == '{') {
+				int separatorIndex = path.lastIndexOf('/', i);
+				return (separatorIndex > 0 ? path.substring(0, separatorIndex) : "");
+			}
+		}
+		return StringUtils.trimTrailingCharacter(path, '/');
+	}
+
+	@Override
+	public String toString() {
+		return "CandidateComponentsIndex for " + this.indexedLocations;
+	}
+
+}
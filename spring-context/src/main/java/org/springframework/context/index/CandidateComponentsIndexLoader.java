@@ -0,0 +1,117 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Candidate components index loading mechanism for internal use within the framework.
+ *
+ * @since 4.2.4
+ * @see CandidateComponentsIndex
+ */
+public abstract class CandidateComponentsIndexLoader {
+
+	/**
+	 * The location to look for components index files.
+	 * Can be present in multiple JAR files.
+	 */
+	public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/spring.components";
+
+	/**
+	 * System property that instructs Spring to ignore the index, i.e.
+	 * to always return {@code null} from {@link #loadIndex(ClassLoader)}.
+	 * <p>The default is "false", allowing for regular use of the index. Switching this
+	 * flag to {@code true} enforces classpath scanning, e.g. in case of an index that
+	 * is out of date.
+	 */
+	public static final String IGNORE_INDEX = "spring.index.ignore";
+
+
+	private static final boolean shouldIgnoreIndex = SpringProperties.getFlag(IGNORE_INDEX);
+
+	private static final Log logger = LogFactory.getLog(CandidateComponentsIndexLoader.class);
+
+	private static final Map<ClassLoader, CandidateComponentsIndex> cache =
+			new ConcurrentReferenceHashMap<ClassLoader, CandidateComponentsIndex>();
+
+
+	/**
+	 * Load and instantiate the {@link CandidateComponentsIndex} from
+	 * {@value #COMPONENTS_RESOURCE_LOCATION}, using the given class loader. If no
+	 * index is available, return {@code null}.
+	 * @param classLoader the ClassLoader to use for loading (can be {@code null} to use the default)
+	 * @return the index to use or {@code null} if no index was found
+	 * @throws IllegalStateException if any index file cannot be loaded
+	 */
+	public static CandidateComponentsIndex loadIndex(ClassLoader classLoader) {
+		if (shouldIgnoreIndex) {
+			return null;
+		}
+		ClassLoader classLoaderToUse = classLoader;
+		if (classLoaderToUse == null) {
+			classLoaderToUse = CandidateComponentsIndexLoader.class.getClassLoader();
+		}
+		CandidateComponentsIndex index = cache.get(classLoaderToUse);
+		if (index == null && !cache.containsKey(classLoaderToUse)) {
+			index = doLoadIndex(classLoaderToUse);
+			cache.put(classLoaderToUse, index);
+		}
+		return index;
+	}
+
+	private static CandidateComponentsIndex doLoadIndex(ClassLoader classLoader) {
+		try {
+			Enumeration<URL> urls = classLoader.getResources(COMPONENTS_RESOURCE_LOCATION);
+			if (!urls.hasMoreElements()) {
+				return null;
+			}
+			Map<String, Properties> indexes = new LinkedHashMap<String, Properties>();
+			while (urls.hasMoreElements()) {
+				URL url = urls.nextElement();
+				String location = url.toString();
+				if (location.endsWith(COMPONENTS_RESOURCE_LOCATION)) {
+					Properties properties = PropertiesLoaderUtils.loadProperties(new UrlResource(url));
+					indexes.put(location.substring(0, location.length() - COMPONENTS_RESOURCE_LOCATION.length()),
+							properties);
+				}
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loaded " + indexes.size() + " candidate component index file(s)");
+			}
+			return new CandidateComponentsIndex(indexes);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unable to load indexes from location [" +
+					COMPONENTS_RESOURCE_LOCATION + "]", ex);
+		}
+	}
+
+}
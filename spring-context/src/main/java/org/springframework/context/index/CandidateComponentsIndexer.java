@@ -0,0 +1,213 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Build-time generator for {@value CandidateComponentsIndexLoader#COMPONENTS_RESOURCE_LOCATION}
+ * index files, to be consulted by
+ * {@link org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider}
+ * instead of scanning the classpath at runtime.
+ *
+ * <p>Reads every class file below a classes directory through the ASM-based
+ * {@link MetadataReaderFactory} and records each class that carries a stereotype,
+ * i.e. {@link Component @Component} (also as meta-annotation), JSR-250's
+ * {@code @ManagedBean} or JSR-330's {@code @Named}, along with the names of all
+ * annotation types present on it. The index is written to the {@code META-INF}
+ * directory of the classes directory, even if no candidates have been found.
+ *
+ * <p>Typically invoked after compilation, with the compiled classes and their
+ * dependencies on the classpath:
+ *
+ * <pre class="code">
+ * java org.springframework.context.index.CandidateComponentsIndexer build/classes/main
+ * </pre>
+ *
+ * <p>Every jar file or classes directory that contains classes within a scanned
+ * package needs an index of its own; otherwise that package is scanned as usual.
+ * An index needs to be regenerated whenever the classes that it covers change.
+ *
+ * @since 4.2.4
+ * @see CandidateComponentsIndex
+ * @see CandidateComponentsIndexLoader
+ */
+public class CandidateComponentsIndexer {
+
+	private static final String CLASS_FILE_SUFFIX = ".class";
+
+	private static final Log logger = LogFactory.getLog(CandidateComponentsIndexer.class);
+
+
+	private final MetadataReaderFactory metadataReaderFactory;
+
+
+	/**
+	 * Create a new {@code CandidateComponentsIndexer} for the given ClassLoader.
+	 * @param classLoader the ClassLoader to resolve annotation types with, which
+	 * needs to be able to load the classes to index and their annotations
+	 */
+	public CandidateComponentsIndexer(ClassLoader classLoader) {
+		this.metadataReaderFactory = new SimpleMetadataReaderFactory(classLoader);
+	}
+
+
+	/**
+	 * Create the index entries for the classes below the given directory.
+	 * @param classesDirectory the root directory of the compiled classes
+	 * @return the stereotypes of each candidate class, keyed and sorted by class name
+	 * @throws IOException if a class file cannot be read
+	 */
+	public SortedMap<String, Set<String>> createIndex(File classesDirectory) throws IOException {
+		Assert.isTrue(classesDirectory.isDirectory(), "Not a directory: " + classesDirectory);
+		SortedMap<String, Set<String>> index = new TreeMap<String, Set<String>>();
+		addCandidates(classesDirectory, index);
+		return index;
+	}
+
+	/**
+	 * Create the index for the classes below the given directory and write it to
+	 * {@value CandidateComponentsIndexLoader#COMPONENTS_RESOURCE_LOCATION} within
+	 * that directory, replacing any existing index.
+	 * @param classesDirectory the root directory of the compiled classes
+	 * @return the index file written
+	 * @throws IOException if a class file cannot be read or the index cannot be written
+	 */
+	public File writeIndex(File classesDirectory) throws IOException {
+		SortedMap<String, Set<String>> index = createIndex(classesDirectory);
+		File indexFile = new File(classesDirectory, CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+		File indexDirectory = indexFile.getParentFile();
+		if (!indexDirectory.isDirectory() && !indexDirectory.mkdirs()) {
+			throw new IOException("Unable to create directory " + indexDirectory);
+		}
+		Writer writer = new OutputStreamWriter(new FileOutputStream(indexFile), "ISO-8859-1");
+		try {
+			for (Map.Entry<String, Set<String>> entry : index.entrySet()) {
+				writer.write(escape(entry.getKey()));
+				writer.write('=');
+				writer.write(escape(StringUtils.collectionToCommaDelimitedString(entry.getValue())));
+				writer.write('\n');
+			}
+		}
+		finally {
+			writer.close();
+		}
+		if (logger.isInfoEnabled()) {
+			logger.info("Indexed " + index.size() + " candidate components in " + indexFile);
+		}
+		return indexFile;
+	}
+
+	private void addCandidates(File directory, Map<String, Set<String>> index) throws IOException {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			throw new IOException("Unable to list contents of directory " + directory);
+		}
+		Arrays.sort(files);
+		for (File file : files) {
+			if (file.isDirectory()) {
+				addCandidates(file, index);
+			}
+			else if (file.getName().endsWith(CLASS_FILE_SUFFIX)) {
+				MetadataReader metadataReader = this.metadataReaderFactory.getMetadataReader(new FileSystemResource(file));
+				Set<String> annotationTypes = getAnnotationTypes(metadataReader.getAnnotationMetadata());
+				if (!Collections.disjoint(annotationTypes, CandidateComponentsIndex.INDEXED_STEREOTYPES)) {
+					index.put(metadataReader.getClassMetadata().getClassName(), annotationTypes);
+				}
+			}
+		}
+	}
+
+	private Set<String> getAnnotationTypes(AnnotationMetadata metadata) {
+		Set<String> annotationTypes = new TreeSet<String>();
+		for (String annotationType : metadata.getAnnotationTypes()) {
+			addAnnotationType(annotationType, annotationTypes);
+			for (String metaAnnotationType : metadata.getMetaAnnotationTypes(annotationType)) {
+				addAnnotationType(metaAnnotationType, annotationTypes);
+			}
+		}
+		return annotationTypes;
+	}
+
+	private void addAnnotationType(String annotationType, Set<String> annotationTypes) {
+		if (!annotationType.startsWith("java.lang.annotation")) {
+			annotationTypes.add(annotationType);
+		}
+	}
+
+	private static String escape(String value) {
+		StringBuilder sb = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x20 || c > 0x7e) {
+				sb.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+
+	/**
+	 * Write an index into each of the given classes directories, resolving
+	 * annotation types against those directories and the current classpath.
+	 * @param args the classes directories to index
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage: CandidateComponentsIndexer <classes directory>...");
+			System.exit(1);
+		}
+		URL[] urls = new URL[args.length];
+		for (int i = 0; i < args.length; i++) {
+			urls[i] = new File(args[i]).toURI().toURL();
+		}
+		ClassLoader classLoader = new URLClassLoader(urls, CandidateComponentsIndexer.class.getClassLoader());
+		CandidateComponentsIndexer indexer = new CandidateComponentsIndexer(classLoader);
+		for (String directory : args) {
+			indexer.writeIndex(new File(directory));
+		}
+	}
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Support for a build-time index of candidate components, allowing
+ * classpath scanning to be skipped at runtime.
+ */
+package org.springframework.context.index;
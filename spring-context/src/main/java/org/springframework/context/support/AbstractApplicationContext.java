@@ -16,7 +16,15 @@
 
 package org.springframework.context.support;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -26,6 +34,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.logging.Log;
@@ -33,12 +42,16 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.CachedIntrospectionResults;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionSnapshot;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.support.ResourceEditorRegistrar;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
@@ -67,16 +80,26 @@ import org.springframework.context.weaving.LoadTimeWeaverAware;
 import org.springframework.context.weaving.LoadTimeWeaverAwareProcessor;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
 import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
 import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.invoke.CompilingMethodInvokerFactory;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.expression.spel.ast.ResolutionCache;
+import org.springframework.expression.spel.standard.CachingSpelExpressionParser;
 import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * Abstract implementation of the {@link org.springframework.context.ApplicationContext}
@@ -206,6 +229,18 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	/** ApplicationEvents published early */
 	private Set<ApplicationEvent> earlyApplicationEvents;
 
+	/** Application startup metrics */
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+	/** Executor to pre-instantiate independent singletons on, if any */
+	private Executor bootstrapExecutor;
+
+	/** File to keep a snapshot of the post-processed bean definitions in */
+	private File beanDefinitionSnapshotFile;
+
+	/** Fingerprint to write a new snapshot with during the current refresh, if any */
+	private String beanDefinitionSnapshotFingerprint;
+
 
 	/**
 	 * Create a new AbstractApplicationContext with no parent.
@@ -303,6 +338,50 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		this.environment = environment;
 	}
 
+	/**
+	 * Set the {@link ApplicationStartup} for this application context.
+	 * <p>This allows the application context to record metrics
+	 * during startup, e.g. for its refresh phases and for each bean.
+	 * <p>Default is {@link ApplicationStartup#DEFAULT}, not recording anything.
+	 * The given {@code ApplicationStartup} is passed on to the internal bean factory
+	 * on {@link #refresh()} and exposed as a bean named
+	 * {@value #APPLICATION_STARTUP_BEAN_NAME}.
+	 * @since 4.2.4
+	 * @see AbstractBeanFactory#setApplicationStartup
+	 */
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		Assert.notNull(applicationStartup, "ApplicationStartup must not be null");
+		this.applicationStartup = applicationStartup;
+	}
+
+	/**
+	 * Return the {@link ApplicationStartup} for this application context.
+	 * @since 4.2.4
+	 */
+	public ApplicationStartup getApplicationStartup() {
+		return this.applicationStartup;
+	}
+
+	/**
+	 * Specify an Executor to pre-instantiate independent singletons on in parallel
+	 * when this context is refreshed, e.g. a thread pool sized for startup only.
+	 * <p>Default is none, pre-instantiating all singletons on the calling thread.
+	 * The Executor is only used during {@link #refresh()}; its lifecycle is up to the caller.
+	 * @since 4.2.4
+	 * @see org.springframework.beans.factory.support.DefaultListableBeanFactory#setBootstrapExecutor
+	 */
+	public void setBootstrapExecutor(Executor bootstrapExecutor) {
+		this.bootstrapExecutor = bootstrapExecutor;
+	}
+
+	/**
+	 * Return the Executor to pre-instantiate independent singletons on, if any.
+	 * @since 4.2.4
+	 */
+	public Executor getBootstrapExecutor() {
+		return this.bootstrapExecutor;
+	}
+
 	/**
 	 * Return this context's internal bean factory as AutowireCapableBeanFactory,
 	 * if already available.
@@ -490,6 +569,36 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		return this.applicationListeners;
 	}
 
+	/**
+	 * Specify a file to keep a snapshot of the post-processed bean definitions in,
+	 * for faster restarts. On refresh, the bean definitions get restored from that
+	 * file if its snapshot matches the current classpath and configuration, skipping
+	 * the loading of bean definitions (for refreshable contexts) as well as the parsing
+	 * and enhancement of configuration classes. Otherwise, a new snapshot gets written
+	 * to the file once all BeanDefinitionRegistryPostProcessors have been applied, i.e.
+	 * before regular BeanFactoryPostProcessors such as placeholder configurers, which
+	 * therefore still resolve placeholders against current values after a restore.
+	 * <p>Default is none. No snapshot is written if a bean definition cannot be captured
+	 * in a {@link BeanDefinitionSnapshot}, or if property sources have been added during
+	 * bean factory post-processing (e.g. through {@code @PropertySource}). Note that
+	 * BeanDefinitionRegistryPostProcessors still get applied to restored bean definitions
+	 * and need to tolerate definitions that they have processed before, like the
+	 * framework's own post-processors do.
+	 * @since 4.2.4
+	 * @see #determineBeanDefinitionSnapshotFingerprint
+	 */
+	public void setBeanDefinitionSnapshotFile(File beanDefinitionSnapshotFile) {
+		this.beanDefinitionSnapshotFile = beanDefinitionSnapshotFile;
+	}
+
+	/**
+	 * Return the file to keep a snapshot of the post-processed bean definitions in, if any.
+	 * @since 4.2.4
+	 */
+	public File getBeanDefinitionSnapshotFile() {
+		return this.beanDefinitionSnapshotFile;
+	}
+
 	/**
 	 * Create and return a new {@link StandardEnvironment}.
 	 * <p>Subclasses may override this method in order to supply
@@ -502,64 +611,96 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	@Override
 	public void refresh() throws BeansException, IllegalStateException {
 		synchronized (this.startupShutdownMonitor) {
-			// Prepare this context for refreshing.
-			prepareRefresh();
+			StartupStep contextRefresh = this.applicationStartup.start("spring.context.refresh");
 
-			// Tell the subclass to refresh the internal bean factory.
-			ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
+			try {
+				// Prepare this context for refreshing.
+				prepareRefresh();
 
-			// Prepare the bean factory for use in this context.
-			prepareBeanFactory(beanFactory);
+				// Tell the subclass to refresh the internal bean factory.
+				ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
 
-			try {
-				// Allows post-processing of the bean factory in context subclasses.
-				postProcessBeanFactory(beanFactory);
+				// Prepare the bean factory for use in this context.
+				prepareBeanFactory(beanFactory);
 
-				// Invoke factory processors registered as beans in the context.
-				invokeBeanFactoryPostProcessors(beanFactory);
+				try {
+					// Allows post-processing of the bean factory in context subclasses.
+					postProcessBeanFactory(beanFactory);
 
-				// Register bean processors that intercept bean creation.
-				registerBeanPostProcessors(beanFactory);
+					// Invoke factory processors registered as beans in the context.
+					StartupStep beanFactoryPostProcess = this.applicationStartup.start("spring.context.beanfactory.post-processors");
+					try {
+						invokeBeanFactoryPostProcessors(beanFactory);
+					}
+					finally {
+						beanFactoryPostProcess.end();
+					}
 
-				// Initialize message source for this context.
-				initMessageSource();
+					// Register bean processors that intercept bean creation.
+					StartupStep beanPostProcessorsRegistration =
+							this.applicationStartup.start("spring.context.beans.post-processors.register");
+					try {
+						registerBeanPostProcessors(beanFactory);
+					}
+					finally {
+						beanPostProcessorsRegistration.end();
+					}
 
-				// Initialize event multicaster for this context.
-				initApplicationEventMulticaster();
+					// Initialize message source for this context.
+					initMessageSource();
 
-				// Initialize other special beans in specific context subclasses.
-				onRefresh();
+					// Initialize event multicaster for this context.
+					initApplicationEventMulticaster();
 
-				// Check for listener beans and register them.
-				registerListeners();
+					// Initialize other special beans in specific context subclasses.
+					onRefresh();
 
-				// Instantiate all remaining (non-lazy-init) singletons.
-				finishBeanFactoryInitialization(beanFactory);
+					// Check for listener beans and register them.
+					registerListeners();
 
-				// Last step: publish corresponding event.
-				finishRefresh();
-			}
+					// Instantiate all remaining (non-lazy-init) singletons.
+					StartupStep preInstantiation = this.applicationStartup.start("spring.context.beans.pre-instantiate");
+					try {
+						finishBeanFactoryInitialization(beanFactory);
+					}
+					finally {
+						preInstantiation.end();
+					}
 
-			catch (BeansException ex) {
-				if (logger.isWarnEnabled()) {
-					logger.warn("Exception encountered during context initialization - " +
-							"cancelling refresh attempt: " + ex);
+					// Last step: publish corresponding event.
+					StartupStep refreshFinish = this.applicationStartup.start("spring.context.refresh.finish");
+					try {
+						finishRefresh();
+					}
+					finally {
+						refreshFinish.end();
+					}
 				}
 
-				// Destroy already created singletons to avoid dangling resources.
-				destroyBeans();
+				catch (BeansException ex) {
+					if (logger.isWarnEnabled()) {
+						logger.warn("Exception encountered during context initialization - " +
+								"cancelling refresh attempt: " + ex);
+					}
 
-				// Reset 'active' flag.
-				cancelRefresh(ex);
+					// Destroy already created singletons to avoid dangling resources.
+					destroyBeans();
 
-				// Propagate exception to caller.
-				throw ex;
-			}
+					// Reset 'active' flag.
+					cancelRefresh(ex);
+
+					// Propagate exception to caller.
+					throw ex;
+				}
 
+				finally {
+					// Reset common introspection caches in Spring's core, since we
+					// might not ever need metadata for singleton beans anymore...
+					resetCommonCaches();
+				}
+			}
 			finally {
-				// Reset common introspection caches in Spring's core, since we
-				// might not ever need metadata for singleton beans anymore...
-				resetCommonCaches();
+				contextRefresh.end();
 			}
 		}
 	}
@@ -621,6 +762,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	protected void prepareBeanFactory(ConfigurableListableBeanFactory beanFactory) {
 		// Tell the internal bean factory to use the context's class loader etc.
 		beanFactory.setBeanClassLoader(getClassLoader());
+		if (beanFactory instanceof AbstractBeanFactory) {
+			((AbstractBeanFactory) beanFactory).setApplicationStartup(getApplicationStartup());
+		}
 		beanFactory.setBeanExpressionResolver(new StandardBeanExpressionResolver(beanFactory.getBeanClassLoader()));
 		beanFactory.addPropertyEditorRegistrar(new ResourceEditorRegistrar(this, getEnvironment()));
 
@@ -656,6 +800,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		if (!beanFactory.containsLocalBean(SYSTEM_ENVIRONMENT_BEAN_NAME)) {
 			beanFactory.registerSingleton(SYSTEM_ENVIRONMENT_BEAN_NAME, getEnvironment().getSystemEnvironment());
 		}
+		if (!beanFactory.containsLocalBean(APPLICATION_STARTUP_BEAN_NAME)) {
+			beanFactory.registerSingleton(APPLICATION_STARTUP_BEAN_NAME, getApplicationStartup());
+		}
 	}
 
 	/**
@@ -674,7 +821,199 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	 * <p>Must be called before singleton instantiation.
 	 */
 	protected void invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory beanFactory) {
-		PostProcessorRegistrationDelegate.invokeBeanFactoryPostProcessors(beanFactory, getBeanFactoryPostProcessors());
+		BeanFactoryPostProcessor snapshotWriter = null;
+		if (this.beanDefinitionSnapshotFingerprint != null) {
+			// Capture definitions before placeholders etc get resolved by regular post-processors
+			final Set<String> propertySourceNames = getPropertySourceNames();
+			snapshotWriter = new BeanFactoryPostProcessor() {
+				@Override
+				public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+					writeBeanDefinitionSnapshot(beanFactory, propertySourceNames);
+				}
+			};
+		}
+		PostProcessorRegistrationDelegate.invokeBeanFactoryPostProcessors(
+				beanFactory, getBeanFactoryPostProcessors(), snapshotWriter);
+	}
+
+	/**
+	 * Restore the bean definitions of the given bean factory from the
+	 * {@link #setBeanDefinitionSnapshotFile snapshot file}, if its snapshot matches the
+	 * {@link #determineBeanDefinitionSnapshotFingerprint current fingerprint}. To be
+	 * called by subclasses when refreshing their bean factory, before loading any
+	 * bean definitions into it.
+	 * <p>If no matching snapshot is available, a new one will be written once all
+	 * BeanDefinitionRegistryPostProcessors have been applied.
+	 * @param beanFactory the bean factory to restore the bean definitions into
+	 * @return {@code true} if the bean definitions have been restored, or
+	 * {@code false} if they need to be loaded as usual
+	 * @since 4.2.4
+	 */
+	protected boolean restoreBeanDefinitionSnapshot(DefaultListableBeanFactory beanFactory) {
+		this.beanDefinitionSnapshotFingerprint = null;
+		File snapshotFile = this.beanDefinitionSnapshotFile;
+		if (snapshotFile == null) {
+			return false;
+		}
+		String fingerprint;
+		try {
+			fingerprint = determineBeanDefinitionSnapshotFingerprint(beanFactory);
+		}
+		catch (BeanDefinitionStoreException ex) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Not using bean definition snapshot: " + ex.getMessage());
+			}
+			return false;
+		}
+		if (fingerprint == null) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Not using bean definition snapshot since the classpath of ClassLoader [" +
+						getClassLoader() + "] cannot be determined");
+			}
+			return false;
+		}
+		if (snapshotFile.isFile()) {
+			try {
+				BeanDefinitionSnapshot snapshot;
+				InputStream is = new BufferedInputStream(new FileInputStream(snapshotFile));
+				try {
+					snapshot = BeanDefinitionSnapshot.readFrom(is, getClassLoader());
+				}
+				finally {
+					is.close();
+				}
+				if (fingerprint.equals(snapshot.getFingerprint())) {
+					snapshot.restore(beanFactory, getClassLoader());
+					if (logger.isInfoEnabled()) {
+						logger.info("Restored " + snapshot.getBeanDefinitionCount() +
+								" bean definitions from snapshot [" + snapshotFile + "]");
+					}
+					return true;
+				}
+				if (logger.isDebugEnabled()) {
+					logger.debug("Bean definition snapshot [" + snapshotFile +
+							"] does not match current classpath and configuration - to be replaced");
+				}
+			}
+			catch (IOException ex) {
+				logger.warn("Could not read bean definition snapshot [" + snapshotFile + "] - to be replaced", ex);
+			}
+			catch (BeanDefinitionStoreException ex) {
+				logger.warn("Could not restore bean definition snapshot [" + snapshotFile + "] - to be replaced", ex);
+			}
+		}
+		this.beanDefinitionSnapshotFingerprint = fingerprint;
+		return false;
+	}
+
+	/**
+	 * Determine the fingerprint that a bean definition snapshot needs to match in order
+	 * to be restored, identifying the classpath and the sources of bean definitions.
+	 * <p>The default implementation covers the classpath of this context's ClassLoader,
+	 * the type of this context, its active and default profiles, the values of all
+	 * enumerable property sources of its environment (since conditions may depend on them),
+	 * and the full state of any bean definitions registered before refresh, since those
+	 * get replaced by their snapshot copies on restore. Subclasses should add further
+	 * configuration that their bean definitions derive from, e.g. config locations.
+	 * <p>Snapshots are not used at all if the classpath cannot be determined, e.g. for
+	 * a custom ClassLoader that does not expose its URLs, since they could then match
+	 * across changed classes.
+	 * @param beanFactory the bean factory to be refreshed
+	 * @return the fingerprint, or {@code null} if no snapshot can be used
+	 * @throws BeanDefinitionStoreException if a bean definition registered before
+	 * refresh cannot be represented in a snapshot, in which case no snapshot is used
+	 * @since 4.2.4
+	 * @see BeanDefinitionSnapshot#digest
+	 */
+	protected String determineBeanDefinitionSnapshotFingerprint(ConfigurableListableBeanFactory beanFactory) {
+		String classPathFingerprint = ClassPathFingerprint.compute(getClassLoader());
+		if (classPathFingerprint == null) {
+			return null;
+		}
+		StringBuilder sb = new StringBuilder(classPathFingerprint);
+		sb.append(";context=").append(getClass().getName());
+		sb.append(";profiles=").append(StringUtils.arrayToCommaDelimitedString(getEnvironment().getActiveProfiles()));
+		sb.append('/').append(StringUtils.arrayToCommaDelimitedString(getEnvironment().getDefaultProfiles()));
+		sb.append(";properties=").append(getPropertySourcesFingerprint());
+		if (beanFactory instanceof DefaultListableBeanFactory) {
+			sb.append(";definitions=").append(BeanDefinitionSnapshot.digest((DefaultListableBeanFactory) beanFactory));
+		}
+		else {
+			for (String beanName : beanFactory.getBeanDefinitionNames()) {
+				sb.append(';').append(beanName).append('=').append(beanFactory.getBeanDefinition(beanName).getBeanClassName());
+			}
+		}
+		return sb.toString();
+	}
+
+	private void writeBeanDefinitionSnapshot(ConfigurableListableBeanFactory beanFactory, Set<String> propertySourceNames) {
+		String fingerprint = this.beanDefinitionSnapshotFingerprint;
+		File snapshotFile = this.beanDefinitionSnapshotFile;
+		this.beanDefinitionSnapshotFingerprint = null;
+		if (snapshotFile == null || !(beanFactory instanceof DefaultListableBeanFactory)) {
+			return;
+		}
+		if (!propertySourceNames.equals(getPropertySourceNames())) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Not writing bean definition snapshot since property sources have been added " +
+						"during bean factory post-processing (e.g. through @PropertySource)");
+			}
+			return;
+		}
+		File tempFile = new File(snapshotFile.getPath() + ".tmp");
+		try {
+			BeanDefinitionSnapshot snapshot = BeanDefinitionSnapshot.capture((DefaultListableBeanFactory) beanFactory, fingerprint);
+			OutputStream os = new BufferedOutputStream(new FileOutputStream(tempFile));
+			try {
+				snapshot.writeTo(os);
+			}
+			finally {
+				os.close();
+			}
+			if (!tempFile.renameTo(snapshotFile) && !(snapshotFile.delete() && tempFile.renameTo(snapshotFile))) {
+				throw new IOException("Could not rename [" + tempFile + "] to [" + snapshotFile + "]");
+			}
+			if (logger.isInfoEnabled()) {
+				logger.info("Wrote snapshot of " + snapshot.getBeanDefinitionCount() +
+						" bean definitions to [" + snapshotFile + "]");
+			}
+		}
+		catch (BeanDefinitionStoreException ex) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Not writing bean definition snapshot: " + ex.getMessage());
+			}
+		}
+		catch (IOException ex) {
+			tempFile.delete();
+			logger.warn("Could not write bean definition snapshot [" + snapshotFile + "]", ex);
+		}
+	}
+
+	private String getPropertySourcesFingerprint() {
+		StringBuilder content = new StringBuilder();
+		for (PropertySource<?> propertySource : getEnvironment().getPropertySources()) {
+			content.append(propertySource.getName()).append('\n');
+			if (propertySource instanceof EnumerablePropertySource) {
+				for (String name : ((EnumerablePropertySource<?>) propertySource).getPropertyNames()) {
+					content.append(name).append('=').append(
+							ObjectUtils.nullSafeToString(propertySource.getProperty(name))).append('\n');
+				}
+			}
+		}
+		try {
+			return DigestUtils.md5DigestAsHex(content.toString().getBytes("UTF-8"));
+		}
+		catch (UnsupportedEncodingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private Set<String> getPropertySourceNames() {
+		Set<String> names = new LinkedHashSet<String>();
+		for (PropertySource<?> propertySource : getEnvironment().getPropertySources()) {
+			names.add(propertySource.getName());
+		}
+		return names;
 	}
 
 	/**
@@ -828,6 +1167,11 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 			getBean(weaverAwareName);
 		}
 
+		// Use the bootstrap executor for this context, if any.
+		if (this.bootstrapExecutor != null && beanFactory instanceof DefaultListableBeanFactory) {
+			((DefaultListableBeanFactory) beanFactory).setBootstrapExecutor(this.bootstrapExecutor);
+		}
+
 		// Stop using the temporary ClassLoader for type matching.
 		beanFactory.setTempClassLoader(null);
 
@@ -867,14 +1211,16 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	}
 
 	/**
-	 * Reset Spring's common core caches, in particular the {@link ResolvableType}
-	 * and the {@link CachedIntrospectionResults} caches.
+	 * Reset Spring's common core caches, in particular the {@link ResolvableType},
+	 * {@link TypeDescriptor} and the {@link CachedIntrospectionResults} caches.
 	 * @since 4.2
 	 * @see ResolvableType#clearCache()
+	 * @see TypeDescriptor#clearCache()
 	 * @see CachedIntrospectionResults#clearClassLoader(ClassLoader)
 	 */
 	protected void resetCommonCaches() {
 		ResolvableType.clearCache();
+		TypeDescriptor.clearCache();
 		CachedIntrospectionResults.clearClassLoader(getClassLoader());
 	}
 
@@ -981,6 +1327,12 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 			// Close the state of this context itself.
 			closeBeanFactory();
 
+			// Release shared expression parsers, resolutions and method invokers
+			// that would keep our ClassLoader alive.
+			CachingSpelExpressionParser.clearClassLoader(getClassLoader());
+			ResolutionCache.clearClassLoader(getClassLoader());
+			CompilingMethodInvokerFactory.getSharedInstance().clearClassLoader(getClassLoader());
+
 			// Let subclasses do some final clean-up if they wish...
 			onClose();
 
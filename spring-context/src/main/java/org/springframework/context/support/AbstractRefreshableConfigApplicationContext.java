@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,16 @@
 
 package org.springframework.context.support;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -122,6 +128,52 @@ public abstract class AbstractRefreshableConfigApplicationContext extends Abstra
 		return getEnvironment().resolveRequiredPlaceholders(path);
 	}
 
+	/**
+	 * This implementation adds the config locations to the fingerprint, along with
+	 * a digest of the content of the resources that they resolve to. Resources
+	 * imported from those files are covered through the classpath fingerprint
+	 * if they reside on the classpath.
+	 */
+	@Override
+	protected String determineBeanDefinitionSnapshotFingerprint(ConfigurableListableBeanFactory beanFactory) {
+		String fingerprint = super.determineBeanDefinitionSnapshotFingerprint(beanFactory);
+		if (fingerprint == null) {
+			return null;
+		}
+		StringBuilder sb = new StringBuilder(fingerprint);
+		sb.append(";configLocations=");
+		String[] configLocations = getConfigLocations();
+		if (configLocations != null) {
+			for (String location : configLocations) {
+				sb.append(location).append('[');
+				appendResourceDigests(location, sb);
+				sb.append(']');
+			}
+		}
+		return sb.toString();
+	}
+
+	private void appendResourceDigests(String location, StringBuilder sb) {
+		try {
+			for (Resource resource : getResources(location)) {
+				if (resource.exists()) {
+					InputStream is = resource.getInputStream();
+					try {
+						DigestUtils.appendMd5DigestAsHex(is, sb);
+					}
+					finally {
+						is.close();
+					}
+				}
+				sb.append(',');
+			}
+		}
+		catch (IOException ex) {
+			// Not resolvable or not readable -> covered by the location only
+			sb.append('-');
+		}
+	}
+
 
 	@Override
 	public void setId(String id) {
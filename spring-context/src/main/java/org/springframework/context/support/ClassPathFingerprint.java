@@ -0,0 +1,147 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.util.DigestUtils;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Computes a fingerprint of the classpath visible to a given ClassLoader,
+ * identifying bean definition snapshots that have been taken against the
+ * same classes and resources.
+ *
+ * <p>Covers the URLs of all {@link URLClassLoader URLClassLoaders} in the hierarchy
+ * as well as the entries of the {@code java.class.path} and {@code jdk.module.path}
+ * system properties: jar files by size and last-modified timestamp, directories by
+ * the relative path, size and timestamp of each file within them, and any other
+ * locations by their URL only. The JDK's own classes are covered by its version.
+ *
+ * <p>No fingerprint can be computed if the hierarchy contains any other kind of
+ * ClassLoader, apart from the JDK's built-in application ClassLoader and its parents,
+ * since the classes and resources visible through it cannot be determined.
+ *
+ * @since 4.2.4
+ * @see AbstractApplicationContext#determineBeanDefinitionSnapshotFingerprint
+ */
+abstract class ClassPathFingerprint {
+
+	/**
+	 * Compute the fingerprint of the classpath of the given ClassLoader.
+	 * @param classLoader the ClassLoader to inspect (may be {@code null})
+	 * @return the fingerprint, as hex String, or {@code null} if the classpath
+	 * of the given ClassLoader cannot be determined
+	 */
+	public static String compute(ClassLoader classLoader) {
+		Set<String> locations = new LinkedHashSet<String>();
+		for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+			if (cl instanceof URLClassLoader) {
+				for (URL url : ((URLClassLoader) cl).getURLs()) {
+					locations.add(url.toString());
+				}
+			}
+			else if (!isBuiltInClassLoader(cl)) {
+				return null;
+			}
+		}
+		addPathEntries(System.getProperty("java.class.path"), locations);
+		addPathEntries(System.getProperty("jdk.module.path"), locations);
+
+		StringBuilder content = new StringBuilder();
+		content.append(System.getProperty("java.version")).append('\n');
+		for (String location : locations) {
+			content.append(location).append('\n');
+			File file = getFile(location);
+			if (file != null) {
+				appendFile(file, "", content);
+			}
+		}
+		try {
+			return DigestUtils.md5DigestAsHex(content.toString().getBytes("UTF-8"));
+		}
+		catch (UnsupportedEncodingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Determine whether the given ClassLoader is the JDK's application ClassLoader,
+	 * which loads from {@code java.class.path} and {@code jdk.module.path} unless
+	 * replaced through {@code java.system.class.loader}, or one of its parents.
+	 */
+	private static boolean isBuiltInClassLoader(ClassLoader classLoader) {
+		ClassLoader systemClassLoader;
+		try {
+			systemClassLoader = ClassLoader.getSystemClassLoader();
+		}
+		catch (Throwable ex) {
+			// Cannot access system ClassLoader - e.g. within a security manager
+			return false;
+		}
+		if (classLoader == systemClassLoader) {
+			return (System.getProperty("java.system.class.loader") == null);
+		}
+		for (ClassLoader cl = systemClassLoader; cl != null; cl = cl.getParent()) {
+			if (cl == classLoader) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void addPathEntries(String path, Set<String> locations) {
+		if (path != null) {
+			for (String entry : StringUtils.tokenizeToStringArray(path, File.pathSeparator)) {
+				locations.add(entry);
+			}
+		}
+	}
+
+	private static File getFile(String location) {
+		try {
+			return (ResourceUtils.isUrl(location) ? ResourceUtils.getFile(new URL(location)) : new File(location));
+		}
+		catch (Exception ex) {
+			// Not a file system location -> covered by its URL only
+			return null;
+		}
+	}
+
+	private static void appendFile(File file, String path, StringBuilder content) {
+		if (file.isDirectory()) {
+			File[] files = file.listFiles();
+			if (files != null) {
+				Arrays.sort(files);
+				for (File child : files) {
+					appendFile(child, path + "/" + child.getName(), content);
+				}
+			}
+		}
+		else if (file.exists()) {
+			content.append(path).append(':').append(file.length()).append(':').append(file.lastModified()).append('\n');
+		}
+	}
+
+}
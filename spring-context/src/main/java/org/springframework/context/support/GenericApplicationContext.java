@@ -242,6 +242,7 @@ public class GenericApplicationContext extends AbstractApplicationContext implem
 					"GenericApplicationContext does not support multiple refresh attempts: just call 'refresh' once");
 		}
 		this.beanFactory.setSerializationId(getId());
+		restoreBeanDefinitionSnapshot(this.beanFactory);
 	}
 
 	@Override
@@ -35,6 +35,7 @@ import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
@@ -45,6 +46,8 @@ import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 
 /**
  * Delegate for AbstractApplicationContext's post-processor handling.
@@ -57,6 +60,18 @@ class PostProcessorRegistrationDelegate {
 	public static void invokeBeanFactoryPostProcessors(
 			ConfigurableListableBeanFactory beanFactory, List<BeanFactoryPostProcessor> beanFactoryPostProcessors) {
 
+		invokeBeanFactoryPostProcessors(beanFactory, beanFactoryPostProcessors, null);
+	}
+
+	/**
+	 * Invoke the given BeanFactoryPostProcessors as well as those defined as beans,
+	 * calling back the given {@code registryPostProcessingCallback} (if any) once all
+	 * BeanDefinitionRegistryPostProcessors have been applied, before any regular
+	 * BeanFactoryPostProcessor gets applied.
+	 */
+	public static void invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory beanFactory,
+			List<BeanFactoryPostProcessor> beanFactoryPostProcessors, BeanFactoryPostProcessor registryPostProcessingCallback) {
+
 		// Invoke BeanDefinitionRegistryPostProcessors first, if any.
 		Set<String> processedBeans = new HashSet<String>();
 
@@ -70,7 +85,7 @@ class PostProcessorRegistrationDelegate {
 				if (postProcessor instanceof BeanDefinitionRegistryPostProcessor) {
 					BeanDefinitionRegistryPostProcessor registryPostProcessor =
 							(BeanDefinitionRegistryPostProcessor) postProcessor;
-					registryPostProcessor.postProcessBeanDefinitionRegistry(registry);
+					invokeBeanDefinitionRegistryPostProcessor(registryPostProcessor, registry);
 					registryPostProcessors.add(registryPostProcessor);
 				}
 				else {
@@ -120,7 +135,7 @@ class PostProcessorRegistrationDelegate {
 						BeanDefinitionRegistryPostProcessor pp = beanFactory.getBean(ppName, BeanDefinitionRegistryPostProcessor.class);
 						registryPostProcessors.add(pp);
 						processedBeans.add(ppName);
-						pp.postProcessBeanDefinitionRegistry(registry);
+						invokeBeanDefinitionRegistryPostProcessor(pp, registry);
 						reiterate = true;
 					}
 				}
@@ -128,10 +143,16 @@ class PostProcessorRegistrationDelegate {
 
 			// Now, invoke the postProcessBeanFactory callback of all processors handled so far.
 			invokeBeanFactoryPostProcessors(registryPostProcessors, beanFactory);
+			if (registryPostProcessingCallback != null) {
+				registryPostProcessingCallback.postProcessBeanFactory(beanFactory);
+			}
 			invokeBeanFactoryPostProcessors(regularPostProcessors, beanFactory);
 		}
 
 		else {
+			if (registryPostProcessingCallback != null) {
+				registryPostProcessingCallback.postProcessBeanFactory(beanFactory);
+			}
 			// Invoke factory processors registered with the context instance.
 			invokeBeanFactoryPostProcessors(beanFactoryPostProcessors, beanFactory);
 		}
@@ -270,8 +291,25 @@ class PostProcessorRegistrationDelegate {
 			Collection<? extends BeanDefinitionRegistryPostProcessor> postProcessors, BeanDefinitionRegistry registry) {
 
 		for (BeanDefinitionRegistryPostProcessor postProcessor : postProcessors) {
+			invokeBeanDefinitionRegistryPostProcessor(postProcessor, registry);
+		}
+	}
+
+	/**
+	 * Invoke the given BeanDefinitionRegistryPostProcessor bean,
+	 * recording a startup step for it.
+	 */
+	private static void invokeBeanDefinitionRegistryPostProcessor(
+			BeanDefinitionRegistryPostProcessor postProcessor, BeanDefinitionRegistry registry) {
+
+		StartupStep postProcessStep = getApplicationStartup(registry).start("spring.context.beandef-registry.post-process")
+				.tag("postProcessor", postProcessor.getClass().getName());
+		try {
 			postProcessor.postProcessBeanDefinitionRegistry(registry);
 		}
+		finally {
+			postProcessStep.end();
+		}
 	}
 
 	/**
@@ -281,7 +319,14 @@ class PostProcessorRegistrationDelegate {
 			Collection<? extends BeanFactoryPostProcessor> postProcessors, ConfigurableListableBeanFactory beanFactory) {
 
 		for (BeanFactoryPostProcessor postProcessor : postProcessors) {
-			postProcessor.postProcessBeanFactory(beanFactory);
+			StartupStep postProcessStep = getApplicationStartup(beanFactory).start("spring.context.beanfactory.post-process")
+					.tag("postProcessor", postProcessor.getClass().getName());
+			try {
+				postProcessor.postProcessBeanFactory(beanFactory);
+			}
+			finally {
+				postProcessStep.end();
+			}
 		}
 	}
 
@@ -296,6 +341,14 @@ class PostProcessorRegistrationDelegate {
 		}
 	}
 
+	/**
+	 * Return the ApplicationStartup of the given bean factory, if supported.
+	 */
+	private static ApplicationStartup getApplicationStartup(Object beanFactory) {
+		return (beanFactory instanceof AbstractBeanFactory ?
+				((AbstractBeanFactory) beanFactory).getApplicationStartup() : ApplicationStartup.DEFAULT);
+	}
+
 
 	/**
 	 * BeanPostProcessor that logs an info message when a bean is created during
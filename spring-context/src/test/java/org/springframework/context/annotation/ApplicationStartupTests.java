@@ -0,0 +1,231 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.BufferingApplicationStartup;
+import org.springframework.core.metrics.BufferingApplicationStartup.RecordedStep;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ApplicationStartup} instrumentation of an application context refresh.
+ */
+public class ApplicationStartupTests {
+
+	@Test
+	public void refreshSteps() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(1000);
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setApplicationStartup(applicationStartup);
+		context.register(StartupConfig.class);
+		context.refresh();
+
+		assertSame(applicationStartup, context.getDefaultListableBeanFactory().getApplicationStartup());
+		assertSame(applicationStartup, context.getBean(ConfigurableApplicationContext.APPLICATION_STARTUP_BEAN_NAME));
+
+		List<RecordedStep> steps = applicationStartup.getRecordedSteps();
+		Map<Long, RecordedStep> stepsById = new HashMap<Long, RecordedStep>();
+		for (RecordedStep step : steps) {
+			stepsById.put(step.getId(), step);
+		}
+		RecordedStep refresh = findStep(steps, "spring.context.refresh", null);
+		assertNull(refresh.getParentId());
+		RecordedStep parse = findStep(steps, "spring.context.config-classes.parse", null);
+		assertEquals("spring.context.beandef-registry.post-process", stepsById.get(parse.getParentId()).getName());
+		assertEquals(ConfigurationClassPostProcessor.class.getName(),
+				stepsById.get(parse.getParentId()).getTags().get("postProcessor"));
+		assertNotNull(findStep(steps, "spring.context.config-classes.enhance", null));
+
+		RecordedStep preInstantiate = findStep(steps, "spring.context.beans.pre-instantiate", null);
+		assertEquals(Long.valueOf(refresh.getId()), preInstantiate.getParentId());
+		RecordedStep instantiate = findStep(steps, "spring.beans.instantiate", "testBean");
+		RecordedStep populate = findStep(steps, "spring.beans.populate", "testBean");
+		RecordedStep initialize = findStep(steps, "spring.beans.initialize", "testBean");
+		assertEquals(instantiate.getParentId(), initialize.getParentId());
+		assertEquals(populate.getParentId(), initialize.getParentId());
+
+		RecordedStep postProcess = null;
+		for (RecordedStep step : steps) {
+			if (step.getName().equals("spring.beans.post-process") &&
+					RecordingBeanPostProcessor.class.getName().equals(step.getTags().get("postProcessor")) &&
+					"testBean".equals(step.getTags().get("beanName")) &&
+					"after-initialization".equals(step.getTags().get("phase"))) {
+				postProcess = step;
+			}
+		}
+		assertNotNull(postProcess);
+		assertEquals(Long.valueOf(initialize.getId()), postProcess.getParentId());
+		assertTrue(initialize.getDuration() >= postProcess.getDuration());
+
+		context.close();
+	}
+
+	@Test
+	public void refreshStepsEndedOnFailure() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(1000);
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setApplicationStartup(applicationStartup);
+		context.register(FailingConfig.class);
+		try {
+			context.refresh();
+			fail("Should have thrown BeanCreationException");
+		}
+		catch (BeanCreationException ex) {
+			// expected
+		}
+
+		List<RecordedStep> steps = applicationStartup.getRecordedSteps();
+		RecordedStep refresh = findStep(steps, "spring.context.refresh", null);
+		RecordedStep preInstantiate = findStep(steps, "spring.context.beans.pre-instantiate", null);
+		assertEquals(Long.valueOf(refresh.getId()), preInstantiate.getParentId());
+	}
+
+	@Test
+	public void refreshStepEndedOnFailedBeanFactoryRefresh() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(1000);
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setApplicationStartup(applicationStartup);
+		context.register(StartupConfig.class);
+		context.refresh();
+		try {
+			// Does not support multiple refresh attempts
+			context.refresh();
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+
+		int refreshCount = 0;
+		for (RecordedStep step : applicationStartup.getRecordedSteps()) {
+			if (step.getName().equals("spring.context.refresh")) {
+				assertNull(step.getParentId());
+				refreshCount++;
+			}
+		}
+		assertEquals(2, refreshCount);
+		context.close();
+	}
+
+	@Test
+	public void postProcessStepEndedOnFailure() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(1000);
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setApplicationStartup(applicationStartup);
+		context.addBeanFactoryPostProcessor(new FailingBeanFactoryPostProcessor());
+		try {
+			context.refresh();
+			fail("Should have thrown FatalBeanException");
+		}
+		catch (FatalBeanException ex) {
+			// expected
+		}
+
+		List<RecordedStep> steps = applicationStartup.getRecordedSteps();
+		RecordedStep postProcessors = findStep(steps, "spring.context.beanfactory.post-processors", null);
+		RecordedStep postProcess = null;
+		for (RecordedStep step : steps) {
+			if (step.getName().equals("spring.context.beanfactory.post-process") &&
+					FailingBeanFactoryPostProcessor.class.getName().equals(step.getTags().get("postProcessor"))) {
+				postProcess = step;
+			}
+		}
+		assertNotNull(postProcess);
+		assertEquals(Long.valueOf(postProcessors.getId()), postProcess.getParentId());
+	}
+
+	@Test
+	public void defaultApplicationStartup() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(StartupConfig.class);
+		assertSame(ApplicationStartup.DEFAULT, context.getApplicationStartup());
+		assertSame(ApplicationStartup.DEFAULT, context.getDefaultListableBeanFactory().getApplicationStartup());
+		context.close();
+	}
+
+
+	private static RecordedStep findStep(List<RecordedStep> steps, String name, String beanName) {
+		for (RecordedStep step : steps) {
+			if (step.getName().equals(name) && (beanName == null || beanName.equals(step.getTags().get("beanName")))) {
+				return step;
+			}
+		}
+		throw new AssertionError("No step '" + name + "' recorded for bean '" + beanName + "': " + steps);
+	}
+
+
+	@Configuration
+	static class StartupConfig {
+
+		@Bean
+		public static RecordingBeanPostProcessor recordingBeanPostProcessor() {
+			return new RecordingBeanPostProcessor();
+		}
+
+		@Bean
+		public StringBuilder testBean() {
+			return new StringBuilder("test");
+		}
+	}
+
+
+	@Configuration
+	static class FailingConfig {
+
+		@Bean
+		public StringBuilder failingBean() {
+			throw new IllegalStateException("Cannot create");
+		}
+	}
+
+
+	static class FailingBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+
+		@Override
+		public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+			throw new FatalBeanException("Cannot post-process");
+		}
+	}
+
+
+	static class RecordingBeanPostProcessor implements BeanPostProcessor {
+
+		@Override
+		public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+			return bean;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+			return bean;
+		}
+	}
+
+}
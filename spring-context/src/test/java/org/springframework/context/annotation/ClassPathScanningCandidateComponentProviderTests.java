@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2010 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,15 @@
 
 package org.springframework.context.annotation;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -33,11 +40,18 @@ import example.scannable.NamedStubDao;
 import example.scannable.ServiceInvocationCounter;
 import example.scannable.StubFooDao;
 import org.aspectj.lang.annotation.Aspect;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.context.index.CandidateComponentsIndexer;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.type.classreading.ParallelMetadataReading;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.core.type.filter.RegexPatternTypeFilter;
@@ -45,6 +59,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Controller;
 import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
+import org.springframework.util.FileCopyUtils;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
@@ -60,6 +75,9 @@ public class ClassPathScanningCandidateComponentProviderTests {
 	private static final String TEST_PROFILE_PACKAGE = "example.profilescan";
 	private static final String TEST_DEFAULT_PROFILE_NAME = "testDefault";
 
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 
 	@Test
 	public void testWithDefaults() {
@@ -304,6 +322,101 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		}
 	}
 
+	@Test
+	public void testWithParallelMetadataReading() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		List<String> expectedClassNames = getBeanClassNames(provider.findCandidateComponents(TEST_BASE_PACKAGE));
+		System.setProperty(ParallelMetadataReading.PARALLELISM_PROPERTY_NAME, "4");
+		try {
+			provider = new ClassPathScanningCandidateComponentProvider(true);
+			Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
+			assertEquals(expectedClassNames, getBeanClassNames(candidates));
+			assertTrue(containsBeanClass(candidates, FooServiceImpl.class));
+		}
+		finally {
+			System.clearProperty(ParallelMetadataReading.PARALLELISM_PROPERTY_NAME);
+		}
+	}
+
+	@Test
+	public void testWithComponentsIndex() throws IOException {
+		File classesDirectory = copyScannableClasses("classes");
+		new CandidateComponentsIndexer(getClass().getClassLoader()).writeIndex(classesDirectory);
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(new IndexedClassLoader(classesDirectory)));
+		Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
+		assertEquals(6, candidates.size());
+		assertTrue(containsBeanClass(candidates, NamedComponent.class));
+		assertTrue(containsBeanClass(candidates, FooServiceImpl.class));
+		assertTrue(containsBeanClass(candidates, StubFooDao.class));
+		assertTrue(containsBeanClass(candidates, NamedStubDao.class));
+		assertTrue(containsBeanClass(candidates, ServiceInvocationCounter.class));
+	}
+
+	@Test
+	public void testWithPartialComponentsIndex() throws IOException {
+		File classesDirectory = copyScannableClasses("classes");
+		writeIndex(classesDirectory, FooServiceImpl.class.getName() + "=" +
+				Service.class.getName() + "," + Component.class.getName());
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(new IndexedClassLoader(classesDirectory)));
+		Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
+		assertEquals(1, candidates.size());
+		assertTrue(containsBeanClass(candidates, FooServiceImpl.class));
+	}
+
+	@Test
+	public void testWithComponentsIndexAndNonStereotypeFilter() throws IOException {
+		File classesDirectory = copyScannableClasses("classes");
+		writeIndex(classesDirectory, FooServiceImpl.class.getName() + "=" +
+				Service.class.getName() + "," + Component.class.getName());
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false);
+		provider.setResourceLoader(new DefaultResourceLoader(new IndexedClassLoader(classesDirectory)));
+		provider.addIncludeFilter(new AssignableTypeFilter(FooDao.class));
+		Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
+		assertEquals(1, candidates.size());
+		assertTrue(containsBeanClass(candidates, StubFooDao.class));
+	}
+
+	@Test
+	public void testWithComponentsIndexNotCoveringBasePackage() throws IOException {
+		File classesDirectory = copyScannableClasses("classes");
+		File indexDirectory = this.temporaryFolder.newFolder("index");
+		writeIndex(indexDirectory, FooServiceImpl.class.getName() + "=" +
+				Service.class.getName() + "," + Component.class.getName());
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(new IndexedClassLoader(classesDirectory, indexDirectory)));
+		Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
+		assertEquals(6, candidates.size());
+	}
+
+	private File copyScannableClasses(String folderName) throws IOException {
+		File classesDirectory = this.temporaryFolder.newFolder(folderName);
+		File sourceDirectory = new ClassPathResource("example/scannable/FooServiceImpl.class").getFile().getParentFile();
+		File packageDirectory = new File(classesDirectory, "example/scannable");
+		assertTrue(packageDirectory.mkdirs());
+		for (File file : sourceDirectory.listFiles()) {
+			if (file.getName().endsWith(".class")) {
+				FileCopyUtils.copy(file, new File(packageDirectory, file.getName()));
+			}
+		}
+		return classesDirectory;
+	}
+
+	private void writeIndex(File directory, String content) throws IOException {
+		File indexFile = new File(directory, CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+		assertTrue(indexFile.getParentFile().mkdirs());
+		FileCopyUtils.copy(content.getBytes("ISO-8859-1"), indexFile);
+	}
+
+	private List<String> getBeanClassNames(Set<BeanDefinition> candidates) {
+		List<String> beanClassNames = new ArrayList<String>();
+		for (BeanDefinition candidate : candidates) {
+			beanClassNames.add(candidate.getBeanClassName());
+		}
+		return beanClassNames;
+	}
+
 	private boolean containsBeanClass(Set<BeanDefinition> candidates, Class<?> beanClass) {
 		for (BeanDefinition candidate : candidates) {
 			ScannedGenericBeanDefinition definition = (ScannedGenericBeanDefinition) candidate;
@@ -343,4 +456,33 @@ public class ClassPathScanningCandidateComponentProviderTests {
 	public @interface DevProfile {
 	}
 
+
+	/**
+	 * Exposes the scannable package and the components index from the given
+	 * directories only, hiding the locations of the regular test classpath.
+	 */
+	private static class IndexedClassLoader extends URLClassLoader {
+
+		public IndexedClassLoader(File... directories) throws IOException {
+			super(toUrls(directories), ClassPathScanningCandidateComponentProviderTests.class.getClassLoader());
+		}
+
+		@Override
+		public Enumeration<URL> getResources(String name) throws IOException {
+			if (name.startsWith(TEST_BASE_PACKAGE.replace('.', '/')) ||
+					name.equals(CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION)) {
+				return findResources(name);
+			}
+			return super.getResources(name);
+		}
+
+		private static URL[] toUrls(File... directories) throws IOException {
+			URL[] urls = new URL[directories.length];
+			for (int i = 0; i < directories.length; i++) {
+				urls[i] = directories[i].toURI().toURL();
+			}
+			return urls;
+		}
+	}
+
 }
@@ -26,6 +26,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ConfigurationClassPostProcessor;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.type.classreading.ParallelMetadataReading;
 import org.springframework.tests.sample.beans.ITestBean;
 import org.springframework.tests.sample.beans.TestBean;
 
@@ -180,6 +181,33 @@ public class ImportTests {
 		assertThat(beanFactory.getBean("foo", ITestBean.class).getName(), equalTo("foo2"));
 	}
 
+	@Test
+	public void testImportAnnotationWithMultipleArgumentsAndParallelMetadataReading() {
+		String[] expectedNames = processConfigurationClassesByName().getBeanDefinitionNames();
+		System.setProperty(ParallelMetadataReading.PARALLELISM_PROPERTY_NAME, "4");
+		try {
+			for (int i = 0; i < 10; i++) {
+				DefaultListableBeanFactory beanFactory = processConfigurationClassesByName();
+				assertArrayEquals(expectedNames, beanFactory.getBeanDefinitionNames());
+				assertThat(beanFactory.getBean("foo", ITestBean.class).getName(), equalTo("foo2"));
+			}
+		}
+		finally {
+			System.clearProperty(ParallelMetadataReading.PARALLELISM_PROPERTY_NAME);
+		}
+	}
+
+	private DefaultListableBeanFactory processConfigurationClassesByName() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerBeanDefinition("config", new RootBeanDefinition(
+				WithMultipleArgumentsThatWillCauseDuplication.class.getName()));
+		beanFactory.registerBeanDefinition("other", new RootBeanDefinition(
+				WithMultipleArgumentsToImportAnnotation.class.getName()));
+		ConfigurationClassPostProcessor pp = new ConfigurationClassPostProcessor();
+		pp.postProcessBeanFactory(beanFactory);
+		return beanFactory;
+	}
+
 	@Configuration
 	@Import({Foo1.class, Foo2.class})
 	static class WithMultipleArgumentsThatWillCauseDuplication {
@@ -35,6 +35,7 @@ import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanExpressionContext;
 import org.springframework.beans.factory.config.PropertyPlaceholderConfigurer;
 import org.springframework.beans.factory.config.Scope;
 import org.springframework.beans.factory.config.TypedStringValue;
@@ -50,6 +51,7 @@ import org.springframework.core.convert.support.GenericConversionService;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.EncodedResource;
+import org.springframework.expression.spel.standard.CachingSpelExpressionParser;
 import org.springframework.tests.Assume;
 import org.springframework.tests.TestGroup;
 import org.springframework.tests.sample.beans.TestBean;
@@ -324,6 +326,18 @@ public class ApplicationContextExpressionTests {
 		assertTrue(str.startsWith("test-"));
 	}
 
+	@Test
+	public void expressionsNotSharedAcrossResolvers() {
+		CachingSpelExpressionParser parser = new CachingSpelExpressionParser();
+		for (int i = 0; i < 2; i++) {
+			DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+			StandardBeanExpressionResolver resolver = new StandardBeanExpressionResolver();
+			resolver.setExpressionParser(parser);
+			assertEquals(2, resolver.evaluate("#{1 + 1}", new BeanExpressionContext(bf, null)));
+		}
+		assertEquals(2, parser.getCacheSize());
+	}
+
 	@Test
 	public void resourceInjection() throws IOException {
 		System.setProperty("logfile", "log4j.properties");
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+
+import example.scannable.CustomStereotype;
+import example.scannable.FooDao;
+import example.scannable.FooServiceImpl;
+import example.scannable.NamedComponent;
+import example.scannable.NamedStubDao;
+import example.scannable.StubFooDao;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileCopyUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CandidateComponentsIndexer} and {@link CandidateComponentsIndex}.
+ */
+public class CandidateComponentsIndexerTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File classesDirectory;
+
+	private final CandidateComponentsIndexer indexer = new CandidateComponentsIndexer(getClass().getClassLoader());
+
+
+	@Before
+	public void setUp() throws IOException {
+		this.classesDirectory = this.temporaryFolder.newFolder("classes");
+		copyScannableClasses(this.classesDirectory);
+	}
+
+
+	@Test
+	public void createIndex() throws IOException {
+		SortedMap<String, Set<String>> index = this.indexer.createIndex(this.classesDirectory);
+		// 6 concrete components plus 2 stereotype annotations that are meta-annotated with @Component
+		assertEquals(8, index.size());
+		assertTrue(index.containsKey(CustomStereotype.class.getName()));
+		assertTrue(index.get(FooServiceImpl.class.getName()).contains(Service.class.getName()));
+		assertTrue(index.get(FooServiceImpl.class.getName()).contains(Component.class.getName()));
+		assertTrue(index.get(NamedStubDao.class.getName()).contains(Repository.class.getName()));
+		assertTrue(index.containsKey(NamedComponent.class.getName()));
+		assertTrue(index.containsKey(StubFooDao.class.getName()));
+		assertFalse(index.containsKey(FooDao.class.getName()));
+		for (Set<String> stereotypes : index.values()) {
+			assertFalse(stereotypes.contains("java.lang.annotation.Retention"));
+		}
+	}
+
+	@Test
+	public void writeIndex() throws IOException {
+		File indexFile = this.indexer.writeIndex(this.classesDirectory);
+		assertEquals(new File(this.classesDirectory, CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION),
+				indexFile);
+		Properties properties = PropertiesLoaderUtils.loadProperties(new FileSystemResource(indexFile));
+		assertEquals(this.indexer.createIndex(this.classesDirectory).keySet(), properties.stringPropertyNames());
+
+		CandidateComponentsIndex index = new CandidateComponentsIndex(
+				Collections.singletonMap(this.classesDirectory.toURI().toString(), properties));
+		Set<String> repositories = index.getCandidateTypes(Repository.class.getName());
+		assertTrue(repositories.contains(NamedStubDao.class.getName()));
+		assertFalse(repositories.contains(FooServiceImpl.class.getName()));
+		assertEquals(8, index.getCandidateTypes(Component.class.getName()).size());
+		assertTrue(index.getCandidateTypes("com.example.Unknown").isEmpty());
+	}
+
+	@Test
+	public void indexCompleteForIndexedLocations() throws IOException {
+		this.indexer.writeIndex(this.classesDirectory);
+		File otherDirectory = this.temporaryFolder.newFolder("other");
+		copyScannableClasses(otherDirectory);
+
+		ClassLoader classLoader = new URLClassLoader(new URL[] {this.classesDirectory.toURI().toURL()}, null);
+		CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(classLoader);
+		assertNotNull(index);
+		assertSame(index, CandidateComponentsIndexLoader.loadIndex(classLoader));
+		assertTrue(index.isComplete("example/scannable/**/*.class", classLoader));
+		assertTrue(index.isComplete("example/scann*/**/*.class", classLoader));
+		assertFalse(index.isComplete("**/*.class", classLoader));
+
+		ClassLoader otherClassLoader = new URLClassLoader(new URL[] {this.classesDirectory.toURI().toURL(),
+				otherDirectory.toURI().toURL()}, null);
+		CandidateComponentsIndex partialIndex = CandidateComponentsIndexLoader.loadIndex(otherClassLoader);
+		assertNotNull(partialIndex);
+		assertFalse(partialIndex.isComplete("example/scannable/**/*.class", otherClassLoader));
+	}
+
+	@Test
+	public void noIndex() {
+		ClassLoader classLoader = new URLClassLoader(new URL[0], null);
+		assertNull(CandidateComponentsIndexLoader.loadIndex(classLoader));
+		assertNull(CandidateComponentsIndexLoader.loadIndex(classLoader));
+	}
+
+	@Test
+	public void indexedStereotypes() {
+		assertTrue(CandidateComponentsIndex.isIndexedStereotype(Component.class));
+		assertTrue(CandidateComponentsIndex.isIndexedStereotype(Service.class));
+		assertTrue(CandidateComponentsIndex.isIndexedStereotype(javax.inject.Named.class));
+		assertFalse(CandidateComponentsIndex.isIndexedStereotype(Deprecated.class));
+	}
+
+
+	private static void copyScannableClasses(File targetDirectory) throws IOException {
+		File sourceDirectory = new ClassPathResource("example/scannable/FooServiceImpl.class").getFile().getParentFile();
+		File packageDirectory = new File(targetDirectory, "example/scannable");
+		assertTrue(packageDirectory.mkdirs());
+		for (File file : sourceDirectory.listFiles()) {
+			if (file.getName().endsWith(".class")) {
+				FileCopyUtils.copy(file, new File(packageDirectory, file.getName()));
+			}
+		}
+	}
+
+}
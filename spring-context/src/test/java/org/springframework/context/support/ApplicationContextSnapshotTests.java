@@ -0,0 +1,347 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportAware;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.util.FileCopyUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for restoring bean definitions from a snapshot file, as specified through
+ * {@link AbstractApplicationContext#setBeanDefinitionSnapshotFile}.
+ */
+public class ApplicationContextSnapshotTests {
+
+	private static final String IMPORT_REGISTRY_BEAN_NAME =
+			"org.springframework.context.annotation.ConfigurationClassPostProcessor.importRegistry";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File snapshotFile;
+
+
+	@Before
+	public void setUp() throws IOException {
+		this.snapshotFile = new File(this.temporaryFolder.getRoot(), "beans.snapshot");
+	}
+
+
+	@Test
+	public void configurationClasses() {
+		AnnotationConfigApplicationContext context = annotationContext(MainConfig.class);
+		assertTrue(this.snapshotFile.isFile());
+		assertTrue(context.getBeanFactory().containsSingleton(IMPORT_REGISTRY_BEAN_NAME));
+		assertConfigurationClasses(context);
+		Class<?> enhancedClass = context.getBean(MainConfig.class).getClass();
+		context.close();
+
+		context = annotationContext(MainConfig.class);
+		assertFalse(context.getBeanFactory().containsSingleton(IMPORT_REGISTRY_BEAN_NAME));
+		assertConfigurationClasses(context);
+		assertSame(enhancedClass, context.getBean(MainConfig.class).getClass());
+		context.close();
+	}
+
+	@Test
+	public void differentConfiguration() {
+		annotationContext(MainConfig.class).close();
+
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setBeanDefinitionSnapshotFile(this.snapshotFile);
+		context.getEnvironment().setActiveProfiles("other");
+		context.register(MainConfig.class);
+		context.refresh();
+		assertTrue(context.getBeanFactory().containsSingleton(IMPORT_REGISTRY_BEAN_NAME));
+		context.close();
+
+		context = annotationContext(ImportedConfig.class);
+		assertTrue(context.getBeanFactory().containsSingleton(IMPORT_REGISTRY_BEAN_NAME));
+		assertFalse(context.containsBean("mainConfig"));
+		context.close();
+	}
+
+	@Test
+	public void corruptSnapshotFile() throws IOException {
+		FileCopyUtils.copy(new byte[] {1, 2, 3}, this.snapshotFile);
+		AnnotationConfigApplicationContext context = annotationContext(MainConfig.class);
+		assertConfigurationClasses(context);
+		context.close();
+		assertTrue(this.snapshotFile.length() > 3);
+	}
+
+	@Test
+	public void propertySourceAddedDuringPostProcessing() {
+		annotationContext(PropertySourceConfig.class).close();
+		assertFalse(this.snapshotFile.exists());
+	}
+
+	@Test
+	public void classLoaderWithUnknownClassPath() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setBeanDefinitionSnapshotFile(this.snapshotFile);
+		context.setClassLoader(new ClassLoader(getClass().getClassLoader()) {});
+		context.register(MainConfig.class);
+		context.refresh();
+		assertConfigurationClasses(context);
+		context.close();
+		assertFalse(this.snapshotFile.exists());
+	}
+
+	@Test
+	public void xmlBeanDefinitions() throws IOException {
+		File xmlFile = this.temporaryFolder.newFile("beans.xml");
+		File propertiesFile = this.temporaryFolder.newFile("beans.properties");
+		writeXml(xmlFile, "<bean id=\"spouse\" class=\"" + TestBean.class.getName() + "\">" +
+				"<property name=\"age\" value=\"${spouse.age}\"/></bean>", propertiesFile);
+		FileCopyUtils.copy("spouse.age=42", new FileWriter(propertiesFile));
+
+		FileSystemXmlApplicationContext context = xmlContext(xmlFile);
+		assertXmlBeans(context, 42);
+		context.close();
+		long snapshotTimestamp = markSnapshotFile();
+
+		// Restored with placeholders resolved against current values
+		FileCopyUtils.copy("spouse.age=43", new FileWriter(propertiesFile));
+		context = xmlContext(xmlFile);
+		assertXmlBeans(context, 43);
+		context.close();
+		assertEquals(snapshotTimestamp, this.snapshotFile.lastModified());
+	}
+
+	@Test
+	public void xmlBeanDefinitionsChanged() throws IOException {
+		File xmlFile = this.temporaryFolder.newFile("beans.xml");
+		writeXml(xmlFile, "<bean id=\"spouse\" class=\"" + TestBean.class.getName() + "\">" +
+				"<property name=\"age\" value=\"42\"/></bean>", null);
+		FileSystemXmlApplicationContext context = xmlContext(xmlFile);
+		assertXmlBeans(context, 42);
+		context.close();
+		long snapshotTimestamp = markSnapshotFile();
+
+		writeXml(xmlFile, "<bean id=\"spouse\" class=\"" + TestBean.class.getName() + "\">" +
+				"<property name=\"age\" value=\"43\"/></bean>", null);
+		context = xmlContext(xmlFile);
+		assertXmlBeans(context, 43);
+		context.close();
+		assertNotEquals(snapshotTimestamp, this.snapshotFile.lastModified());
+	}
+
+	@Test
+	public void preRegisteredBeanDefinitionChanged() {
+		GenericApplicationContext context = genericContext(42);
+		assertEquals(42, context.getBean("spouse", TestBean.class).getAge());
+		context.close();
+		long snapshotTimestamp = markSnapshotFile();
+
+		context = genericContext(42);
+		assertEquals(42, context.getBean("spouse", TestBean.class).getAge());
+		context.close();
+		assertEquals(snapshotTimestamp, this.snapshotFile.lastModified());
+
+		context = genericContext(43);
+		assertEquals(43, context.getBean("spouse", TestBean.class).getAge());
+		context.close();
+		assertNotEquals(snapshotTimestamp, this.snapshotFile.lastModified());
+	}
+
+	@Test
+	public void environmentPropertyChanged() {
+		AnnotationConfigApplicationContext context = conditionalContext("on");
+		assertTrue(context.containsBean("feature"));
+		context.close();
+		long snapshotTimestamp = markSnapshotFile();
+
+		context = conditionalContext("off");
+		assertFalse(context.containsBean("feature"));
+		assertTrue(context.getBeanFactory().containsSingleton(IMPORT_REGISTRY_BEAN_NAME));
+		context.close();
+		assertNotEquals(snapshotTimestamp, this.snapshotFile.lastModified());
+	}
+
+
+	private AnnotationConfigApplicationContext annotationContext(Class<?> configClass) {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setBeanDefinitionSnapshotFile(this.snapshotFile);
+		context.register(configClass);
+		context.refresh();
+		return context;
+	}
+
+	private static void assertConfigurationClasses(AnnotationConfigApplicationContext context) {
+		TestBean spouse = context.getBean("spouse", TestBean.class);
+		assertSame(spouse, context.getBean("testBean", TestBean.class).getSpouse());
+		assertSame(spouse, context.getBean(ImportedConfig.class).spouse);
+		AnnotationMetadata importMetadata = context.getBean(ImportedConfig.class).importMetadata;
+		assertNotNull(importMetadata);
+		assertEquals(MainConfig.class.getName(), importMetadata.getClassName());
+		assertEquals("main", importMetadata.getAnnotationAttributes(EnableImported.class.getName()).get("value"));
+	}
+
+	private FileSystemXmlApplicationContext xmlContext(File xmlFile) {
+		FileSystemXmlApplicationContext context =
+				new FileSystemXmlApplicationContext(new String[] {xmlFile.toURI().toString()}, false);
+		context.setBeanDefinitionSnapshotFile(this.snapshotFile);
+		context.refresh();
+		return context;
+	}
+
+	private GenericApplicationContext genericContext(int spouseAge) {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.setBeanDefinitionSnapshotFile(this.snapshotFile);
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getPropertyValues().add("age", spouseAge);
+		context.registerBeanDefinition("spouse", bd);
+		context.refresh();
+		return context;
+	}
+
+	private AnnotationConfigApplicationContext conditionalContext(String feature) {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.setBeanDefinitionSnapshotFile(this.snapshotFile);
+		context.getEnvironment().getPropertySources().addFirst(
+				new MapPropertySource("test", Collections.<String, Object>singletonMap("feature", feature)));
+		context.register(ConditionalConfig.class);
+		context.refresh();
+		return context;
+	}
+
+	/**
+	 * Move the timestamp of the snapshot file into the past, so that a rewrite is detectable.
+	 */
+	private long markSnapshotFile() {
+		assertTrue(this.snapshotFile.isFile());
+		long timestamp = this.snapshotFile.lastModified() - 60 * 1000;
+		assertTrue(this.snapshotFile.setLastModified(timestamp));
+		return this.snapshotFile.lastModified();
+	}
+
+	private static void writeXml(File xmlFile, String beans, File propertiesFile) throws IOException {
+		FileCopyUtils.copy("<beans xmlns=\"http://www.springframework.org/schema/beans\"" +
+				" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=" +
+				"\"http://www.springframework.org/schema/beans http://www.springframework.org/schema/beans/spring-beans.xsd\">" +
+				"<bean id=\"testBean\" class=\"" + TestBean.class.getName() + "\">" +
+				"<property name=\"name\" value=\"${user.name}\"/><property name=\"spouse\" ref=\"spouse\"/></bean>" +
+				beans + "<bean class=\"" + PropertySourcesPlaceholderConfigurer.class.getName() + "\">" +
+				(propertiesFile != null ? "<property name=\"location\" value=\"" + propertiesFile.toURI() + "\"/>" : "") +
+				"</bean></beans>", new FileWriter(xmlFile));
+	}
+
+	private static void assertXmlBeans(FileSystemXmlApplicationContext context, int spouseAge) {
+		TestBean testBean = context.getBean("testBean", TestBean.class);
+		assertEquals(System.getProperty("user.name"), testBean.getName());
+		assertEquals(spouseAge, testBean.getSpouse().getAge());
+	}
+
+
+	@Target(ElementType.TYPE)
+	@Retention(RetentionPolicy.RUNTIME)
+	@Import(ImportedConfig.class)
+	public @interface EnableImported {
+
+		String value();
+	}
+
+
+	@Configuration
+	@EnableImported("main")
+	public static class MainConfig {
+
+		@Bean
+		public TestBean testBean() {
+			TestBean testBean = new TestBean("main");
+			testBean.setSpouse(spouse());
+			return testBean;
+		}
+
+		@Bean
+		public TestBean spouse() {
+			return new TestBean("spouse");
+		}
+	}
+
+
+	@Configuration
+	public static class ImportedConfig implements ImportAware {
+
+		AnnotationMetadata importMetadata;
+
+		@Autowired(required = false)
+		TestBean spouse;
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+			this.importMetadata = importMetadata;
+		}
+	}
+
+
+	@Configuration
+	@PropertySource("classpath:org/springframework/context/annotation/p1.properties")
+	public static class PropertySourceConfig {
+	}
+
+
+	@Configuration
+	public static class ConditionalConfig {
+
+		@Bean
+		@Conditional(FeatureCondition.class)
+		public TestBean feature() {
+			return new TestBean("feature");
+		}
+	}
+
+
+	static class FeatureCondition implements Condition {
+
+		@Override
+		public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+			return "on".equals(context.getEnvironment().getProperty("feature"));
+		}
+	}
+
+}
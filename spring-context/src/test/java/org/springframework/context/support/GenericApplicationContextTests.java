@@ -21,6 +21,7 @@ import org.junit.Test;
 import org.springframework.beans.factory.NoUniqueBeanDefinitionException;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
 import static org.junit.Assert.*;
 
@@ -85,4 +86,27 @@ public class GenericApplicationContextTests {
 		}
 	}
 
+	@Test
+	public void bootstrapExecutor() {
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+		GenericApplicationContext ac = new GenericApplicationContext();
+		ac.setBootstrapExecutor(executor);
+		ac.registerBeanDefinition("testBean1", new RootBeanDefinition(StringBuilder.class));
+		ac.registerBeanDefinition("testBean2", new RootBeanDefinition(StringBuilder.class));
+		ac.refresh();
+
+		assertSame(executor, ac.getDefaultListableBeanFactory().getBootstrapExecutor());
+		assertTrue(ac.getDefaultListableBeanFactory().containsSingleton("testBean1"));
+		assertTrue(ac.getDefaultListableBeanFactory().containsSingleton("testBean2"));
+	}
+
+	@Test
+	public void bootstrapExecutorBeanNotPickedUpByName() {
+		GenericApplicationContext ac = new GenericApplicationContext();
+		ac.registerBeanDefinition("bootstrapExecutor", new RootBeanDefinition(SimpleAsyncTaskExecutor.class));
+		ac.refresh();
+
+		assertNull(ac.getDefaultListableBeanFactory().getBootstrapExecutor());
+	}
+
 }
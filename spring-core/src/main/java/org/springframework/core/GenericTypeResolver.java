@@ -46,7 +46,7 @@ public abstract class GenericTypeResolver {
 	/** Cache from Class to TypeVariable Map */
 	@SuppressWarnings("rawtypes")
 	private static final Map<Class<?>, Map<TypeVariable, Type>> typeVariableCache =
-			new ConcurrentReferenceHashMap<Class<?>, Map<TypeVariable, Type>>();
+			ConcurrentReferenceHashMap.forMetadataCache(16);
 
 
 	/**
@@ -90,7 +90,23 @@ public class ResolvableType implements Serializable {
 	private static final ResolvableType[] EMPTY_TYPES_ARRAY = new ResolvableType[0];
 
 	private static final ConcurrentReferenceHashMap<ResolvableType, ResolvableType> cache =
-			new ConcurrentReferenceHashMap<ResolvableType, ResolvableType>(256);
+			ConcurrentReferenceHashMap.forMetadataCache(256);
+
+	/** Canonical instances for {@link #forClass(Class)} */
+	private static final ConcurrentReferenceHashMap<Class<?>, ResolvableType> classCache =
+			ConcurrentReferenceHashMap.forMetadataCache(256);
+
+	/** Canonical instances for {@link #forField(Field)} */
+	private static final ConcurrentReferenceHashMap<Field, ResolvableType> fieldCache =
+			ConcurrentReferenceHashMap.forMetadataCache(256);
+
+	/** Canonical instances for {@link #forMethodParameter(MethodParameter)} */
+	private static final ConcurrentReferenceHashMap<MethodParameter, CachedMethodParameterType> methodParameterCache =
+			ConcurrentReferenceHashMap.forMetadataCache(256);
+
+	/** Whether a MethodParameter class derives its generic type from the parameter declaration only */
+	private static final ConcurrentReferenceHashMap<Class<?>, Boolean> declaredGenericTypeCache =
+			new ConcurrentReferenceHashMap<Class<?>, Boolean>(16);
 
 
 	/**
@@ -923,6 +939,7 @@ public class ResolvableType implements Serializable {
 	 * Return a {@link ResolvableType} for the specified {@link Class},
 	 * using the full generic type information for assignability checks.
 	 * For example: {@code ResolvableType.forClass(MyArrayList.class)}.
+	 * <p>As of 4.2.4, a canonical instance is returned for each class.
 	 * @param sourceClass the source class ({@code null} is semantically
 	 * equivalent to {@code Object.class} for typical use cases here}
 	 * @return a {@link ResolvableType} for the specified class
@@ -930,7 +947,13 @@ public class ResolvableType implements Serializable {
 	 * @see #forClassWithGenerics(Class, Class...)
 	 */
 	public static ResolvableType forClass(Class<?> sourceClass) {
-		return new ResolvableType(sourceClass);
+		Class<?> clazz = (sourceClass != null ? sourceClass : Object.class);
+		ResolvableType resolvableType = classCache.get(clazz);
+		if (resolvableType == null) {
+			resolvableType = new ResolvableType(clazz);
+			classCache.put(clazz, resolvableType);
+		}
+		return resolvableType;
 	}
 
 	/**
@@ -1035,13 +1058,19 @@ public class ResolvableType implements Serializable {
 
 	/**
 	 * Return a {@link ResolvableType} for the specified {@link Field}.
+	 * <p>As of 4.2.4, a canonical instance is returned for each field.
 	 * @param field the source field
 	 * @return a {@link ResolvableType} for the specified field
 	 * @see #forField(Field, Class)
 	 */
 	public static ResolvableType forField(Field field) {
 		Assert.notNull(field, "Field must not be null");
-		return forType(null, new FieldTypeProvider(field), null);
+		ResolvableType resolvableType = fieldCache.get(field);
+		if (resolvableType == null) {
+			resolvableType = forType(null, new FieldTypeProvider(field), null);
+			fieldCache.put(field, resolvableType);
+		}
+		return resolvableType;
 	}
 
 	/**
@@ -1200,12 +1229,44 @@ public class ResolvableType implements Serializable {
 
 	/**
 	 * Return a {@link ResolvableType} for the specified {@link MethodParameter}.
+	 * <p>As of 4.2.4, a canonical instance is returned for a parameter at the
+	 * outer nesting level, per method or constructor parameter and containing class.
 	 * @param methodParameter the source method parameter (must not be {@code null})
 	 * @return a {@link ResolvableType} for the specified method parameter
 	 * @see #forMethodParameter(Method, int)
 	 */
 	public static ResolvableType forMethodParameter(MethodParameter methodParameter) {
-		return forMethodParameter(methodParameter, (Type) null);
+		Assert.notNull(methodParameter, "MethodParameter must not be null");
+		if (methodParameter.getNestingLevel() != 1 || !hasDeclaredGenericType(methodParameter.getClass())) {
+			return forMethodParameter(methodParameter, (Type) null);
+		}
+		// Same method or constructor parameter, resolved against the same containing class?
+		Class<?> containingClass = methodParameter.getContainingClass();
+		CachedMethodParameterType cached = methodParameterCache.get(methodParameter);
+		if (cached != null && cached.containingClass == containingClass) {
+			return cached.resolvableType;
+		}
+		ResolvableType resolvableType = forMethodParameter(methodParameter, (Type) null);
+		methodParameterCache.put(methodParameter, new CachedMethodParameterType(containingClass, resolvableType));
+		return resolvableType;
+	}
+
+	/**
+	 * Determine whether {@link MethodParameter#getGenericParameterType()} is
+	 * left as is by the given {@code MethodParameter} class, i.e. whether
+	 * it only depends on the method or constructor parameter.
+	 */
+	private static boolean hasDeclaredGenericType(Class<?> methodParameterClass) {
+		if (methodParameterClass == MethodParameter.class) {
+			return true;
+		}
+		Boolean declared = declaredGenericTypeCache.get(methodParameterClass);
+		if (declared == null) {
+			Method method = ClassUtils.getMethod(methodParameterClass, "getGenericParameterType");
+			declared = (method.getDeclaringClass() == MethodParameter.class);
+			declaredGenericTypeCache.put(methodParameterClass, declared);
+		}
+		return declared;
 	}
 
 	/**
@@ -1334,11 +1395,16 @@ public class ResolvableType implements Serializable {
 	}
 
 	/**
-	 * Clear the internal {@code ResolvableType} cache.
+	 * Clear the internal {@code ResolvableType} caches, including the canonical
+	 * instances for classes, fields and method parameters.
 	 * @since 4.2
 	 */
 	public static void clearCache() {
 		cache.clear();
+		classCache.clear();
+		fieldCache.clear();
+		methodParameterCache.clear();
+		declaredGenericTypeCache.clear();
 	}
 
 
@@ -1452,6 +1518,23 @@ public class ResolvableType implements Serializable {
 	}
 
 
+	/**
+	 * Cached {@code ResolvableType} for a method parameter, along with the
+	 * containing class that it has been resolved against.
+	 */
+	private static class CachedMethodParameterType {
+
+		private final Class<?> containingClass;
+
+		private final ResolvableType resolvableType;
+
+		public CachedMethodParameterType(Class<?> containingClass, ResolvableType resolvableType) {
+			this.containingClass = containingClass;
+			this.resolvableType = resolvableType;
+		}
+	}
+
+
 	/**
 	 * Internal helper to handle bounds from {@link WildcardType}s.
 	 */
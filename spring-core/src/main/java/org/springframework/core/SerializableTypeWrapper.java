@@ -60,7 +60,7 @@ abstract class SerializableTypeWrapper {
 			GenericArrayType.class, ParameterizedType.class, TypeVariable.class, WildcardType.class};
 
 	private static final ConcurrentReferenceHashMap<Type, Type> cache =
-			new ConcurrentReferenceHashMap<Type, Type>(256);
+			ConcurrentReferenceHashMap.forMetadataCache(256);
 
 
 	/**
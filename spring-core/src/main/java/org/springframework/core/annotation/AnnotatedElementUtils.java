@@ -18,6 +18,7 @@ package org.springframework.core.annotation;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -26,11 +27,14 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.core.BridgeMethodResolver;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.ObjectUtils;
 
 /**
  * General utility methods for finding annotations and meta-annotations on
@@ -83,6 +87,15 @@ import org.springframework.util.MultiValueMap;
  * traverses type and method hierarchies and thereby implicitly supports
  * annotation inheritance without the need for {@code @Inherited}.
  *
+ * <h3>Caching</h3>
+ * <p>The results of the {@code getMergedAnnotation*()} and
+ * {@code findMergedAnnotation*()} methods are cached per annotated element,
+ * annotation type and search algorithm, in a cache that is bounded in size and
+ * does not prevent elements from being garbage collected. Synthesized annotations
+ * are returned as cached, whereas callers receive their own copy of cached
+ * {@code AnnotationAttributes}. See {@link #getMergedAnnotationCacheHitCount()}
+ * and {@link #getMergedAnnotationCacheMissCount()} for the effectiveness of the cache.
+ *
  * @author Phillip Webb
  * @author Juergen Hoeller
  * @author Sam Brannen
@@ -96,6 +109,18 @@ public class AnnotatedElementUtils {
 
 	private static final Boolean CONTINUE = null;
 
+	private static final int MERGED_ANNOTATION_CACHE_LIMIT = 16384;
+
+	/** Cached result for a merged annotation that is not present */
+	private static final Object NOT_FOUND = new Object();
+
+	private static final Map<MergedAnnotationCacheKey, Object> mergedAnnotationCache =
+			ConcurrentReferenceHashMap.forMetadataCache(256);
+
+	private static final AtomicLong mergedAnnotationCacheHits = new AtomicLong();
+
+	private static final AtomicLong mergedAnnotationCacheMisses = new AtomicLong();
+
 
 	/**
 	 * Get the fully qualified class names of all meta-annotation types
@@ -294,9 +319,17 @@ public class AnnotatedElementUtils {
 	 * @see #findMergedAnnotation(AnnotatedElement, Class)
 	 * @see AnnotationUtils#synthesizeAnnotation(Map, Class, AnnotatedElement)
 	 */
+	@SuppressWarnings("unchecked")
 	public static <A extends Annotation> A getMergedAnnotation(AnnotatedElement element, Class<A> annotationType) {
-		AnnotationAttributes attributes = getMergedAnnotationAttributes(element, annotationType);
-		return (attributes != null ? AnnotationUtils.synthesizeAnnotation(attributes, annotationType, element) : null);
+		MergedAnnotationCacheKey cacheKey = new MergedAnnotationCacheKey(element, annotationType, false, false, false, true);
+		Object result = getCachedResult(cacheKey);
+		if (result == null) {
+			// Search directly rather than through the cached attributes: a miss counts once
+			AnnotationAttributes attributes = doGetMergedAnnotationAttributes(element, annotationType);
+			result = cacheResult(cacheKey, (attributes != null ?
+					AnnotationUtils.synthesizeAnnotation(attributes, annotationType, element) : null));
+		}
+		return (result != NOT_FOUND ? (A) result : null);
 	}
 
 	/**
@@ -320,6 +353,17 @@ public class AnnotatedElementUtils {
 			AnnotatedElement element, Class<? extends Annotation> annotationType) {
 
 		Assert.notNull(annotationType, "annotationType must not be null");
+		MergedAnnotationCacheKey cacheKey = new MergedAnnotationCacheKey(element, annotationType, false, false, false, false);
+		Object result = getCachedResult(cacheKey);
+		if (result == null) {
+			result = cacheResult(cacheKey, doGetMergedAnnotationAttributes(element, annotationType));
+		}
+		return copyAttributes(result);
+	}
+
+	private static AnnotationAttributes doGetMergedAnnotationAttributes(
+			AnnotatedElement element, Class<? extends Annotation> annotationType) {
+
 		AnnotationAttributes attributes = searchWithGetSemantics(element, annotationType, null,
 				new MergedAnnotationAttributesProcessor(annotationType, null, false, false));
 		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, false, false);
@@ -377,10 +421,16 @@ public class AnnotatedElementUtils {
 	public static AnnotationAttributes getMergedAnnotationAttributes(AnnotatedElement element,
 			String annotationName, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
 
-		AnnotationAttributes attributes = searchWithGetSemantics(element, null, annotationName,
-				new MergedAnnotationAttributesProcessor(null, annotationName, classValuesAsString, nestedAnnotationsAsMap));
-		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
-		return attributes;
+		MergedAnnotationCacheKey cacheKey = new MergedAnnotationCacheKey(
+				element, annotationName, false, classValuesAsString, nestedAnnotationsAsMap, false);
+		Object result = getCachedResult(cacheKey);
+		if (result == null) {
+			AnnotationAttributes attributes = searchWithGetSemantics(element, null, annotationName,
+					new MergedAnnotationAttributesProcessor(null, annotationName, classValuesAsString, nestedAnnotationsAsMap));
+			AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
+			result = cacheResult(cacheKey, attributes);
+		}
+		return copyAttributes(result);
 	}
 
 	/**
@@ -398,11 +448,18 @@ public class AnnotatedElementUtils {
 	 * @see #findMergedAnnotationAttributes(AnnotatedElement, String, boolean, boolean)
 	 * @see #getMergedAnnotationAttributes(AnnotatedElement, Class)
 	 */
+	@SuppressWarnings("unchecked")
 	public static <A extends Annotation> A findMergedAnnotation(AnnotatedElement element, Class<A> annotationType) {
 		Assert.notNull(annotationType, "annotationType must not be null");
-		AnnotationAttributes attributes = findMergedAnnotationAttributes(element, annotationType, false, false);
-		return (attributes != null ?
-				AnnotationUtils.synthesizeAnnotation(attributes, annotationType, element) : null);
+		MergedAnnotationCacheKey cacheKey = new MergedAnnotationCacheKey(element, annotationType, true, false, false, true);
+		Object result = getCachedResult(cacheKey);
+		if (result == null) {
+			// Search directly rather than through the cached attributes: a miss counts once
+			AnnotationAttributes attributes = doFindMergedAnnotationAttributes(element, annotationType, false, false);
+			result = cacheResult(cacheKey, (attributes != null ?
+					AnnotationUtils.synthesizeAnnotation(attributes, annotationType, element) : null));
+		}
+		return (result != NOT_FOUND ? (A) result : null);
 	}
 
 	/**
@@ -465,6 +522,19 @@ public class AnnotatedElementUtils {
 	public static AnnotationAttributes findMergedAnnotationAttributes(AnnotatedElement element,
 			Class<? extends Annotation> annotationType, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
 
+		MergedAnnotationCacheKey cacheKey = new MergedAnnotationCacheKey(
+				element, annotationType, true, classValuesAsString, nestedAnnotationsAsMap, false);
+		Object result = getCachedResult(cacheKey);
+		if (result == null) {
+			result = cacheResult(cacheKey,
+					doFindMergedAnnotationAttributes(element, annotationType, classValuesAsString, nestedAnnotationsAsMap));
+		}
+		return copyAttributes(result);
+	}
+
+	private static AnnotationAttributes doFindMergedAnnotationAttributes(AnnotatedElement element,
+			Class<? extends Annotation> annotationType, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
+
 		AnnotationAttributes attributes = searchWithFindSemantics(element, annotationType, annotationType.getName(),
 				new MergedAnnotationAttributesProcessor(annotationType, null, classValuesAsString, nestedAnnotationsAsMap));
 		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
@@ -501,10 +571,16 @@ public class AnnotatedElementUtils {
 	public static AnnotationAttributes findMergedAnnotationAttributes(AnnotatedElement element,
 			String annotationName, boolean classValuesAsString, boolean nestedAnnotationsAsMap) {
 
-		AnnotationAttributes attributes = searchWithFindSemantics(element, null, annotationName,
-				new MergedAnnotationAttributesProcessor(null, annotationName, classValuesAsString, nestedAnnotationsAsMap));
-		AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
-		return attributes;
+		MergedAnnotationCacheKey cacheKey = new MergedAnnotationCacheKey(
+				element, annotationName, true, classValuesAsString, nestedAnnotationsAsMap, false);
+		Object result = getCachedResult(cacheKey);
+		if (result == null) {
+			AnnotationAttributes attributes = searchWithFindSemantics(element, null, annotationName,
+					new MergedAnnotationAttributesProcessor(null, annotationName, classValuesAsString, nestedAnnotationsAsMap));
+			AnnotationUtils.postProcessAnnotationAttributes(element, attributes, classValuesAsString, nestedAnnotationsAsMap);
+			result = cacheResult(cacheKey, attributes);
+		}
+		return copyAttributes(result);
 	}
 
 	/**
@@ -585,6 +661,96 @@ public class AnnotatedElementUtils {
 		return (!attributesMap.isEmpty() ? attributesMap : null);
 	}
 
+	/**
+	 * Return the number of merged annotation lookups that have been served
+	 * from the cache since startup or the last {@link #clearMergedAnnotationCache()}.
+	 * @since 4.2.4
+	 */
+	public static long getMergedAnnotationCacheHitCount() {
+		return mergedAnnotationCacheHits.get();
+	}
+
+	/**
+	 * Return the number of merged annotation lookups that had to search the
+	 * annotation hierarchy since startup or the last {@link #clearMergedAnnotationCache()}.
+	 * @since 4.2.4
+	 */
+	public static long getMergedAnnotationCacheMissCount() {
+		return mergedAnnotationCacheMisses.get();
+	}
+
+	/**
+	 * Clear the cache of merged annotation lookups and reset its hit and miss counts.
+	 * @since 4.2.4
+	 */
+	public static void clearMergedAnnotationCache() {
+		mergedAnnotationCache.clear();
+		mergedAnnotationCacheHits.set(0);
+		mergedAnnotationCacheMisses.set(0);
+	}
+
+	/**
+	 * Get the cached result for the given key, recording a cache hit or miss.
+	 * @return the cached annotation or attributes, {@link #NOT_FOUND},
+	 * or {@code null} if not cached
+	 */
+	private static Object getCachedResult(MergedAnnotationCacheKey cacheKey) {
+		Object result = mergedAnnotationCache.get(cacheKey);
+		if (result != null) {
+			mergedAnnotationCacheHits.incrementAndGet();
+		}
+		else {
+			mergedAnnotationCacheMisses.incrementAndGet();
+		}
+		return result;
+	}
+
+	/**
+	 * Cache the given result, clearing the cache first if it reached its limit.
+	 * @return the cached result, i.e. the given result or {@link #NOT_FOUND}
+	 */
+	private static Object cacheResult(MergedAnnotationCacheKey cacheKey, Object result) {
+		if (mergedAnnotationCache.size() >= MERGED_ANNOTATION_CACHE_LIMIT) {
+			mergedAnnotationCache.clear();
+		}
+		Object resultToCache = (result != null ? result : NOT_FOUND);
+		mergedAnnotationCache.put(cacheKey, resultToCache);
+		return resultToCache;
+	}
+
+	/**
+	 * Create a copy of the given cached attributes, so that callers are free
+	 * to modify the returned {@code AnnotationAttributes} and nested values.
+	 * @return the copy, or {@code null} for {@link #NOT_FOUND}
+	 */
+	private static AnnotationAttributes copyAttributes(Object cachedAttributes) {
+		if (cachedAttributes == NOT_FOUND) {
+			return null;
+		}
+		AnnotationAttributes attributes = (AnnotationAttributes) cachedAttributes;
+		AnnotationAttributes copy = (attributes.annotationType() != null ?
+				new AnnotationAttributes(attributes.annotationType()) : new AnnotationAttributes(attributes.size()));
+		for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+			copy.put(entry.getKey(), copyValue(entry.getValue()));
+		}
+		return copy;
+	}
+
+	private static Object copyValue(Object value) {
+		if (value instanceof AnnotationAttributes) {
+			return copyAttributes(value);
+		}
+		if (value != null && value.getClass().isArray()) {
+			int length = Array.getLength(value);
+			Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+			for (int i = 0; i < length; i++) {
+				Array.set(copy, i, copyValue(Array.get(value, i)));
+			}
+			return copy;
+		}
+		return value;
+	}
+
 	/**
 	 * Search for annotations of the specified {@code annotationName} on
 	 * the specified {@code element}, following <em>get semantics</em>.
@@ -1039,4 +1205,61 @@ public class AnnotatedElementUtils {
 		}
 	}
 
+
+	/**
+	 * Cache key for merged annotation lookups.
+	 */
+	private static class MergedAnnotationCacheKey {
+
+		private final AnnotatedElement element;
+
+		/** The annotation type or the fully qualified class name of the annotation type */
+		private final Object annotation;
+
+		private final boolean findSemantics;
+
+		private final boolean classValuesAsString;
+
+		private final boolean nestedAnnotationsAsMap;
+
+		private final boolean synthesized;
+
+		public MergedAnnotationCacheKey(AnnotatedElement element, Object annotation, boolean findSemantics,
+				boolean classValuesAsString, boolean nestedAnnotationsAsMap, boolean synthesized) {
+
+			this.element = element;
+			this.annotation = annotation;
+			this.findSemantics = findSemantics;
+			this.classValuesAsString = classValuesAsString;
+			this.nestedAnnotationsAsMap = nestedAnnotationsAsMap;
+			this.synthesized = synthesized;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof MergedAnnotationCacheKey)) {
+				return false;
+			}
+			MergedAnnotationCacheKey otherKey = (MergedAnnotationCacheKey) other;
+			return (ObjectUtils.nullSafeEquals(this.element, otherKey.element) &&
+					ObjectUtils.nullSafeEquals(this.annotation, otherKey.annotation) &&
+					this.findSemantics == otherKey.findSemantics &&
+					this.classValuesAsString == otherKey.classValuesAsString &&
+					this.nestedAnnotationsAsMap == otherKey.nestedAnnotationsAsMap &&
+					this.synthesized == otherKey.synthesized);
+		}
+
+		@Override
+		public int hashCode() {
+			int hashCode = ObjectUtils.nullSafeHashCode(this.element) * 29 + ObjectUtils.nullSafeHashCode(this.annotation);
+			hashCode = hashCode * 29 + (this.findSemantics ? 1 : 0);
+			hashCode = hashCode * 29 + (this.classValuesAsString ? 1 : 0);
+			hashCode = hashCode * 29 + (this.nestedAnnotationsAsMap ? 1 : 0);
+			return hashCode * 29 + (this.synthesized ? 1 : 0);
+		}
+	}
+
 }
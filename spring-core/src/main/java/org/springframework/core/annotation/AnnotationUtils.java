@@ -113,25 +113,25 @@ public abstract class AnnotationUtils {
 
 
 	private static final Map<AnnotationCacheKey, Annotation> findAnnotationCache =
-			new ConcurrentReferenceHashMap<AnnotationCacheKey, Annotation>(256);
+			ConcurrentReferenceHashMap.forMetadataCache(256);
 
 	private static final Map<AnnotationCacheKey, Boolean> metaPresentCache =
-			new ConcurrentReferenceHashMap<AnnotationCacheKey, Boolean>(256);
+			ConcurrentReferenceHashMap.forMetadataCache(256);
 
 	private static final Map<Class<?>, Boolean> annotatedInterfaceCache =
-			new ConcurrentReferenceHashMap<Class<?>, Boolean>(256);
+			ConcurrentReferenceHashMap.forMetadataCache(256);
 
 	private static final Map<Class<? extends Annotation>, Boolean> synthesizableCache =
-			new ConcurrentReferenceHashMap<Class<? extends Annotation>, Boolean>(256);
+			ConcurrentReferenceHashMap.forMetadataCache(256);
 
 	private static final Map<Class<? extends Annotation>, Map<String, List<String>>> attributeAliasesCache =
-			new ConcurrentReferenceHashMap<Class<? extends Annotation>, Map<String, List<String>>>(256);
+			ConcurrentReferenceHashMap.forMetadataCache(256);
 
 	private static final Map<Class<? extends Annotation>, List<Method>> attributeMethodsCache =
-			new ConcurrentReferenceHashMap<Class<? extends Annotation>, List<Method>>(256);
+			ConcurrentReferenceHashMap.forMetadataCache(256);
 
 	private static final Map<Method, AliasDescriptor> aliasDescriptorCache =
-			new ConcurrentReferenceHashMap<Method, AliasDescriptor>(256);
+			ConcurrentReferenceHashMap.forMetadataCache(256);
 
 	private static transient Log logger;
 
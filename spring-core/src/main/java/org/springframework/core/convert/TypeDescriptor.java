@@ -19,6 +19,7 @@ package org.springframework.core.convert;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.HashMap;
@@ -31,6 +32,7 @@ import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.lang.UsesJava8;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 
 /**
@@ -59,6 +61,19 @@ public class TypeDescriptor implements Serializable {
 			double.class, Double.class, int.class, Integer.class, long.class, Long.class,
 			float.class, Float.class, short.class, Short.class, String.class, Object.class};
 
+	private static final Map<Class<?>, TypeDescriptor> classCache =
+			ConcurrentReferenceHashMap.forMetadataCache(256);
+
+	private static final Map<Field, TypeDescriptor> fieldCache =
+			ConcurrentReferenceHashMap.forMetadataCache(256);
+
+	private static final Map<MethodParameter, CachedMethodParameterDescriptor> methodParameterCache =
+			ConcurrentReferenceHashMap.forMetadataCache(256);
+
+	/** Whether a MethodParameter class derives its types from the parameter declaration only */
+	private static final Map<Class<?>, Boolean> declaredTypesCache =
+			new ConcurrentReferenceHashMap<Class<?>, Boolean>(16);
+
 	static {
 		for (Class<?> preCachedClass : CACHED_COMMON_TYPES) {
 			commonTypesCache.put(preCachedClass, valueOf(preCachedClass));
@@ -514,7 +529,77 @@ public class TypeDescriptor implements Serializable {
 			type = Object.class;
 		}
 		TypeDescriptor desc = commonTypesCache.get(type);
-		return (desc != null ? desc : new TypeDescriptor(ResolvableType.forClass(type), null, null));
+		if (desc == null) {
+			desc = classCache.get(type);
+			if (desc == null) {
+				desc = new TypeDescriptor(ResolvableType.forClass(type), null, null);
+				classCache.put(type, desc);
+			}
+		}
+		return desc;
+	}
+
+	/**
+	 * Return a type descriptor for the given {@link MethodParameter}, equivalent
+	 * to {@link #TypeDescriptor(MethodParameter)} but reusing a canonical instance
+	 * per method or constructor parameter and containing class where possible,
+	 * i.e. for parameters at the outer nesting level.
+	 * @param methodParameter the method parameter
+	 * @return the corresponding type descriptor
+	 * @since 4.2.4
+	 */
+	public static TypeDescriptor forMethodParameter(MethodParameter methodParameter) {
+		Assert.notNull(methodParameter, "MethodParameter must not be null");
+		if (methodParameter.getNestingLevel() != 1 || !hasDeclaredTypes(methodParameter.getClass())) {
+			return new TypeDescriptor(methodParameter);
+		}
+		Class<?> containingClass = methodParameter.getContainingClass();
+		CachedMethodParameterDescriptor cached = methodParameterCache.get(methodParameter);
+		if (cached != null && cached.containingClass == containingClass &&
+				cached.methodParameterClass == methodParameter.getClass()) {
+			return cached.typeDescriptor;
+		}
+		TypeDescriptor typeDescriptor = new TypeDescriptor(methodParameter);
+		methodParameterCache.put(methodParameter,
+				new CachedMethodParameterDescriptor(containingClass, methodParameter.getClass(), typeDescriptor));
+		return typeDescriptor;
+	}
+
+	/**
+	 * Return a type descriptor for the given {@link Field}, equivalent to
+	 * {@link #TypeDescriptor(Field)} but reusing a canonical instance per field.
+	 * @param field the field
+	 * @return the corresponding type descriptor
+	 * @since 4.2.4
+	 */
+	public static TypeDescriptor forField(Field field) {
+		Assert.notNull(field, "Field must not be null");
+		TypeDescriptor typeDescriptor = fieldCache.get(field);
+		if (typeDescriptor == null) {
+			typeDescriptor = new TypeDescriptor(field);
+			fieldCache.put(field, typeDescriptor);
+		}
+		return typeDescriptor;
+	}
+
+	/**
+	 * Determine whether the parameter types exposed by the given {@code MethodParameter}
+	 * class only depend on the method or constructor parameter, as opposed to
+	 * e.g. an actual return value.
+	 */
+	private static boolean hasDeclaredTypes(Class<?> methodParameterClass) {
+		if (methodParameterClass == MethodParameter.class) {
+			return true;
+		}
+		Boolean declared = declaredTypesCache.get(methodParameterClass);
+		if (declared == null) {
+			Method parameterTypeMethod = ClassUtils.getMethod(methodParameterClass, "getParameterType");
+			Method genericParameterTypeMethod = ClassUtils.getMethod(methodParameterClass, "getGenericParameterType");
+			declared = (parameterTypeMethod.getDeclaringClass() == MethodParameter.class &&
+					genericParameterTypeMethod.getDeclaringClass() == MethodParameter.class);
+			declaredTypesCache.put(methodParameterClass, declared);
+		}
+		return declared;
 	}
 
 	/**
@@ -606,7 +691,7 @@ public class TypeDescriptor implements Serializable {
 			throw new IllegalArgumentException("MethodParameter nesting level must be 1: " +
 					"use the nestingLevel parameter to specify the desired nestingLevel for nested type traversal");
 		}
-		return nested(new TypeDescriptor(methodParameter), nestingLevel);
+		return nested(forMethodParameter(methodParameter), nestingLevel);
 	}
 
 	/**
@@ -630,7 +715,7 @@ public class TypeDescriptor implements Serializable {
 	 * level are not of collection, array, or map types
 	 */
 	public static TypeDescriptor nested(Field field, int nestingLevel) {
-		return nested(new TypeDescriptor(field), nestingLevel);
+		return nested(forField(field), nestingLevel);
 	}
 
 	/**
@@ -671,6 +756,19 @@ public class TypeDescriptor implements Serializable {
 		return (source != null ? valueOf(source.getClass()) : null);
 	}
 
+	/**
+	 * Clear the internal caches of canonical {@code TypeDescriptor} instances
+	 * for classes, fields and method parameters.
+	 * @since 4.2.4
+	 * @see ResolvableType#clearCache()
+	 */
+	public static void clearCache() {
+		classCache.clear();
+		fieldCache.clear();
+		methodParameterCache.clear();
+		declaredTypesCache.clear();
+	}
+
 	private static TypeDescriptor nested(TypeDescriptor typeDescriptor, int nestingLevel) {
 		ResolvableType nested = typeDescriptor.resolvableType;
 		for (int i = 0; i < nestingLevel; i++) {
@@ -696,6 +794,28 @@ public class TypeDescriptor implements Serializable {
 	}
 
 
+	/**
+	 * Cached type descriptor for a method parameter, along with the containing
+	 * class and the {@code MethodParameter} class that it has been built for.
+	 */
+	private static class CachedMethodParameterDescriptor {
+
+		private final Class<?> containingClass;
+
+		private final Class<?> methodParameterClass;
+
+		private final TypeDescriptor typeDescriptor;
+
+		public CachedMethodParameterDescriptor(Class<?> containingClass, Class<?> methodParameterClass,
+				TypeDescriptor typeDescriptor) {
+
+			this.containingClass = containingClass;
+			this.methodParameterClass = methodParameterClass;
+			this.typeDescriptor = typeDescriptor;
+		}
+	}
+
+
 	/**
 	 * Inner class to avoid a hard dependency on Java 8.
 	 */
@@ -19,6 +19,7 @@ package org.springframework.core.convert.support;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -26,6 +27,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.convert.ConversionException;
@@ -51,6 +53,13 @@ import org.springframework.util.StringUtils;
  * Indirectly implements {@link ConverterRegistry} as registration API through the
  * {@link ConfigurableConversionService} interface.
  *
+ * <p>Once all converters have been registered, typically after startup, the service
+ * may be {@link #freeze() frozen}: Registered converters are then indexed by their
+ * source and target classes, avoiding class hierarchy searches for each new
+ * combination of source and target {@link TypeDescriptor TypeDescriptors}, and
+ * exact matches for plain {@link Converter Converters} are resolved without
+ * consulting the converter cache.
+ *
  * @author Keith Donald
  * @author Juergen Hoeller
  * @author Chris Beams
@@ -91,6 +100,12 @@ public class GenericConversionService implements ConfigurableConversionService {
 	private final Map<ConverterCacheKey, GenericConverter> converterCache =
 			new ConcurrentReferenceHashMap<ConverterCacheKey, GenericConverter>(64);
 
+	private volatile FrozenConverters frozenConverters;
+
+	private final AtomicLong cacheHitCount = new AtomicLong();
+
+	private final AtomicLong cacheMissCount = new AtomicLong();
+
 
 	// ConverterRegistry implementation
 
@@ -110,6 +125,7 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	@Override
 	public void addConverter(GenericConverter converter) {
+		Assert.state(!isFrozen(), "Cannot add converters to a frozen ConversionService");
 		this.converters.add(converter);
 		invalidateCache();
 	}
@@ -125,10 +141,49 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	@Override
 	public void removeConvertible(Class<?> sourceType, Class<?> targetType) {
+		Assert.state(!isFrozen(), "Cannot remove converters from a frozen ConversionService");
 		this.converters.remove(sourceType, targetType);
 		invalidateCache();
 	}
 
+	/**
+	 * Freeze the registered converters, indexing them by source and target class.
+	 * <p>Any subsequent attempt to add or remove converters results in an
+	 * {@link IllegalStateException}.
+	 * @since 4.2.4
+	 */
+	public void freeze() {
+		if (this.frozenConverters == null) {
+			this.frozenConverters = new FrozenConverters(this.converters);
+		}
+	}
+
+	/**
+	 * Return whether the registered converters have been {@link #freeze() frozen}.
+	 * @since 4.2.4
+	 */
+	public boolean isFrozen() {
+		return (this.frozenConverters != null);
+	}
+
+	/**
+	 * Return the number of converter lookups served from the converter cache
+	 * or, for a frozen service, from the index of exact matches.
+	 * @since 4.2.4
+	 */
+	public long getConverterCacheHitCount() {
+		return this.cacheHitCount.get();
+	}
+
+	/**
+	 * Return the number of converter lookups that required a search for a
+	 * matching converter.
+	 * @since 4.2.4
+	 */
+	public long getConverterCacheMissCount() {
+		return this.cacheMissCount.get();
+	}
+
 
 	// ConversionService implementation
 
@@ -239,7 +294,8 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	/**
 	 * Hook method to lookup the converter for a given sourceType/targetType pair.
-	 * First queries this ConversionService's converter cache.
+	 * For a frozen ConversionService, first checks for an exact match of a plain Converter.
+	 * Then queries this ConversionService's converter cache.
 	 * On a cache miss, then performs an exhaustive search for a matching converter.
 	 * If no converter matches, returns the default converter.
 	 * @param sourceType the source type to convert from
@@ -249,13 +305,26 @@ public class GenericConversionService implements ConfigurableConversionService {
 	 * @see #getDefaultConverter(TypeDescriptor, TypeDescriptor)
 	 */
 	protected GenericConverter getConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		FrozenConverters frozenConverters = this.frozenConverters;
+		GenericConverter converter;
+		if (frozenConverters != null) {
+			converter = frozenConverters.findExactMatch(sourceType, targetType);
+			if (converter != null) {
+				this.cacheHitCount.incrementAndGet();
+				return converter;
+			}
+		}
+
 		ConverterCacheKey key = new ConverterCacheKey(sourceType, targetType);
-		GenericConverter converter = this.converterCache.get(key);
+		converter = this.converterCache.get(key);
 		if (converter != null) {
+			this.cacheHitCount.incrementAndGet();
 			return (converter != NO_MATCH ? converter : null);
 		}
 
-		converter = this.converters.find(sourceType, targetType);
+		this.cacheMissCount.incrementAndGet();
+		converter = (frozenConverters != null ? frozenConverters.find(sourceType, targetType) :
+				this.converters.find(sourceType, targetType));
 		if (converter == null) {
 			converter = getDefaultConverter(sourceType, targetType);
 		}
@@ -375,6 +444,14 @@ public class GenericConversionService implements ConfigurableConversionService {
 			return this.converter.convert(source);
 		}
 
+		/**
+		 * Whether this adapter {@link #matches} any non-generic target type
+		 * of its raw target class.
+		 */
+		public boolean isUnconditional() {
+			return !(this.converter instanceof ConditionalConverter);
+		}
+
 		@Override
 		public String toString() {
 			return (this.typeInfo + " : " + this.converter);
@@ -555,6 +632,41 @@ public class GenericConversionService implements ConfigurableConversionService {
 			return null;
 		}
 
+		/**
+		 * Return all converters that {@link #find} considers for the given raw
+		 * source and target types, in the order of the search, assuming that the
+		 * conditions of global converters only depend on the {@link TypeDescriptor
+		 * TypeDescriptors} to convert between.
+		 * @param sourceType the source type
+		 * @param targetType the target type
+		 * @return the ordered candidates (never {@code null})
+		 */
+		public ConverterCandidates getCandidates(Class<?> sourceType, Class<?> targetType) {
+			List<GenericConverter> candidates = new ArrayList<GenericConverter>();
+			List<Boolean> conditional = new ArrayList<Boolean>();
+			boolean globalConvertersAdded = false;
+			for (Class<?> sourceCandidate : getClassHierarchy(sourceType)) {
+				for (Class<?> targetCandidate : getClassHierarchy(targetType)) {
+					ConvertersForPair convertersForPair =
+							this.converters.get(new ConvertiblePair(sourceCandidate, targetCandidate));
+					if (convertersForPair != null) {
+						for (GenericConverter converter : convertersForPair.converters) {
+							candidates.add(converter);
+							conditional.add(converter instanceof ConditionalGenericConverter);
+						}
+					}
+					if (!globalConvertersAdded) {
+						for (GenericConverter globalConverter : this.globalConverters) {
+							candidates.add(globalConverter);
+							conditional.add(Boolean.TRUE);
+						}
+						globalConvertersAdded = true;
+					}
+				}
+			}
+			return new ConverterCandidates(candidates, conditional);
+		}
+
 		/**
 		 * Returns an ordered class hierarchy for the given type.
 		 * @param type the type
@@ -657,6 +769,103 @@ public class GenericConversionService implements ConfigurableConversionService {
 	}
 
 
+	/**
+	 * Index of the converters of a frozen ConversionService: exact matches of
+	 * unconditional converters by source and target class, and the flattened
+	 * {@link Converters#getCandidates candidates} for each pair of raw types.
+	 */
+	private static class FrozenConverters {
+
+		private final Converters converters;
+
+		private final Map<Class<?>, Map<Class<?>, GenericConverter>> exactMatches =
+				new HashMap<Class<?>, Map<Class<?>, GenericConverter>>();
+
+		private final Map<ConvertiblePair, ConverterCandidates> candidatesCache =
+				new ConcurrentReferenceHashMap<ConvertiblePair, ConverterCandidates>(64);
+
+		public FrozenConverters(Converters converters) {
+			this.converters = converters;
+			for (Map.Entry<ConvertiblePair, ConvertersForPair> entry : converters.converters.entrySet()) {
+				if (entry.getValue().converters.isEmpty()) {
+					continue;
+				}
+				// Only the most recently added converter can be an exact match
+				GenericConverter converter = entry.getValue().converters.getFirst();
+				if (converter instanceof ConverterAdapter && ((ConverterAdapter) converter).isUnconditional()) {
+					ConvertiblePair pair = entry.getKey();
+					Map<Class<?>, GenericConverter> byTargetType = this.exactMatches.get(pair.getSourceType());
+					if (byTargetType == null) {
+						byTargetType = new HashMap<Class<?>, GenericConverter>();
+						this.exactMatches.put(pair.getSourceType(), byTargetType);
+					}
+					byTargetType.put(pair.getTargetType(), converter);
+				}
+			}
+		}
+
+		/**
+		 * Find an unconditional converter for exactly the given source and
+		 * non-generic target type, without allocating a cache key.
+		 * @return the converter, or {@code null} if the regular search applies
+		 */
+		public GenericConverter findExactMatch(TypeDescriptor sourceType, TypeDescriptor targetType) {
+			Map<Class<?>, GenericConverter> byTargetType = this.exactMatches.get(sourceType.getObjectType());
+			if (byTargetType == null) {
+				return null;
+			}
+			GenericConverter converter = byTargetType.get(targetType.getObjectType());
+			if (converter == null || !(targetType.getResolvableType().getType() instanceof Class)) {
+				return null;
+			}
+			return converter;
+		}
+
+		/**
+		 * Find a {@link GenericConverter} like {@link Converters#find}, using
+		 * the cached candidates for the raw source and target types.
+		 */
+		public GenericConverter find(TypeDescriptor sourceType, TypeDescriptor targetType) {
+			ConvertiblePair pair = new ConvertiblePair(sourceType.getType(), targetType.getType());
+			ConverterCandidates candidates = this.candidatesCache.get(pair);
+			if (candidates == null) {
+				candidates = this.converters.getCandidates(sourceType.getType(), targetType.getType());
+				this.candidatesCache.put(pair, candidates);
+			}
+			return candidates.find(sourceType, targetType);
+		}
+	}
+
+
+	/**
+	 * Flattened, ordered converters to consider for a pair of raw types.
+	 */
+	private static class ConverterCandidates {
+
+		private final GenericConverter[] converters;
+
+		private final boolean[] conditional;
+
+		public ConverterCandidates(List<GenericConverter> converters, List<Boolean> conditional) {
+			this.converters = converters.toArray(new GenericConverter[converters.size()]);
+			this.conditional = new boolean[conditional.size()];
+			for (int i = 0; i < this.conditional.length; i++) {
+				this.conditional[i] = conditional.get(i);
+			}
+		}
+
+		public GenericConverter find(TypeDescriptor sourceType, TypeDescriptor targetType) {
+			for (int i = 0; i < this.converters.length; i++) {
+				if (!this.conditional[i] ||
+						((ConditionalConverter) this.converters[i]).matches(sourceType, targetType)) {
+					return this.converters[i];
+				}
+			}
+			return null;
+		}
+	}
+
+
 	/**
 	 * Internal converter that performs no operation.
 	 */
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.invoke;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Base superclass for {@link MethodInvoker} classes generated by
+ * {@link CompilingMethodInvokerFactory}, calling the target method directly
+ * rather than through reflection.
+ *
+ * <p>Null targets and argument counts that do not match the method are handed
+ * to {@link Method#invoke} up front, and so are arguments that the generated code
+ * fails to cast or unbox (e.g. where reflection would apply a widening conversion),
+ * so that error reporting and argument conversion match plain reflection.
+ *
+ * <p>Only meant to be extended by generated classes; it is public because these
+ * classes are defined in a child ClassLoader of the target class's ClassLoader.
+ *
+ * @since 4.2.4
+ */
+public abstract class CompiledMethodInvoker implements MethodInvoker {
+
+	private final Method method;
+
+	private final boolean staticMethod;
+
+	private final int parameterCount;
+
+
+	protected CompiledMethodInvoker(Method method) {
+		this.method = method;
+		this.staticMethod = Modifier.isStatic(method.getModifiers());
+		this.parameterCount = method.getParameterTypes().length;
+	}
+
+
+	@Override
+	public final Method getMethod() {
+		return this.method;
+	}
+
+	@Override
+	public final Object invoke(Object target, Object... args)
+			throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+
+		if ((target == null && !this.staticMethod) || (args != null ? args.length : 0) != this.parameterCount) {
+			return invokeReflectively(target, args);
+		}
+		return doInvoke(target, args);
+	}
+
+	/**
+	 * Call the target method directly, as generated for the specific method.
+	 * <p>The target is known to be non-null for instance methods, and the number
+	 * of arguments is known to match.
+	 * @param target the target object
+	 * @param args the arguments for the method
+	 * @return the (boxed) result of the invocation
+	 * @throws InvocationTargetException wrapping any exception thrown by the method
+	 */
+	protected abstract Object doInvoke(Object target, Object[] args)
+			throws IllegalAccessException, IllegalArgumentException, InvocationTargetException;
+
+	/**
+	 * Invoke the target method through reflection. Called by the generated code
+	 * when a target or argument cannot be cast to the type expected by the method.
+	 */
+	protected final Object invokeReflectively(Object target, Object[] args)
+			throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+
+		return this.method.invoke(target, args);
+	}
+
+	@Override
+	public String toString() {
+		return "CompiledMethodInvoker for " + this.method;
+	}
+
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.invoke;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * {@link MethodInvokerFactory} that generates a {@link CompiledMethodInvoker}
+ * class per method, calling the method through a direct {@code invokevirtual},
+ * {@code invokeinterface} or {@code invokestatic} instruction instead of through
+ * {@link Method#invoke}. This avoids the reflective call overhead and allows the
+ * JIT compiler to inline the target method into hot invocation paths.
+ *
+ * <p>Methods that cannot be called from a generated class fall back to a
+ * {@link ReflectiveMethodInvoker}: bridge methods, non-public methods, methods
+ * of non-public classes, methods with non-public parameter types, and methods
+ * of classes whose ClassLoader does not see this package (e.g. JDK classes).
+ *
+ * <p>Invokers are cached per method. Generated classes are defined in a child
+ * ClassLoader of the declaring class's ClassLoader, one per such ClassLoader.
+ * Since that child refers to its parent, both can be released per ClassLoader
+ * through {@link #clearClassLoader}.
+ *
+ * @since 4.2.4
+ * @see #getSharedInstance()
+ */
+public class CompilingMethodInvokerFactory implements MethodInvokerFactory {
+
+	private static final Log logger = LogFactory.getLog(CompilingMethodInvokerFactory.class);
+
+	private static final CompilingMethodInvokerFactory sharedInstance = new CompilingMethodInvokerFactory();
+
+	private static final String SUPERCLASS_NAME = Type.getInternalName(CompiledMethodInvoker.class);
+
+	private static final String DO_INVOKE_DESCRIPTOR = "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+	private static final String[] DO_INVOKE_EXCEPTIONS = new String[] {"java/lang/IllegalAccessException",
+			"java/lang/IllegalArgumentException", "java/lang/reflect/InvocationTargetException"};
+
+
+	/**
+	 * Return the shared CompilingMethodInvokerFactory instance.
+	 */
+	public static CompilingMethodInvokerFactory getSharedInstance() {
+		return sharedInstance;
+	}
+
+
+	private final Map<Method, MethodInvoker> invokerCache = new ConcurrentReferenceHashMap<Method, MethodInvoker>(256);
+
+	private final Map<ClassLoader, InvokerClassLoader> classLoaders =
+			new ConcurrentReferenceHashMap<ClassLoader, InvokerClassLoader>(16);
+
+
+	@Override
+	public MethodInvoker getMethodInvoker(Method method) {
+		Assert.notNull(method, "Method must not be null");
+		MethodInvoker invoker = this.invokerCache.get(method);
+		if (invoker == null) {
+			invoker = createMethodInvoker(method);
+			this.invokerCache.put(method, invoker);
+		}
+		return invoker;
+	}
+
+	/**
+	 * Remove all invokers for methods declared by classes of the given ClassLoader
+	 * or one of its children, along with the ClassLoaders defining their generated
+	 * classes. Those would otherwise keep the given ClassLoader alive until the
+	 * cache entries get cleared under memory pressure, e.g. after shutdown of a
+	 * web application.
+	 * @param classLoader the ClassLoader to clear the cache for
+	 */
+	public void clearClassLoader(ClassLoader classLoader) {
+		if (classLoader == null) {
+			return;
+		}
+		for (Iterator<Method> it = this.invokerCache.keySet().iterator(); it.hasNext();) {
+			Method method = it.next();
+			if (isUnderneathClassLoader(method.getDeclaringClass().getClassLoader(), classLoader)) {
+				it.remove();
+			}
+		}
+		synchronized (this.classLoaders) {
+			for (Iterator<ClassLoader> it = this.classLoaders.keySet().iterator(); it.hasNext();) {
+				ClassLoader registeredLoader = it.next();
+				if (isUnderneathClassLoader(registeredLoader, classLoader)) {
+					it.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Create an invoker for the given method: a compiled one if possible,
+	 * falling back to a {@link ReflectiveMethodInvoker} otherwise.
+	 * @param method the method to invoke
+	 * @return the invoker
+	 */
+	protected MethodInvoker createMethodInvoker(Method method) {
+		if (isCompilable(method)) {
+			try {
+				Constructor<? extends CompiledMethodInvoker> ctor =
+						getInvokerClassLoader(method.getDeclaringClass().getClassLoader()).getInvokerConstructor(method);
+				return ctor.newInstance(method);
+			}
+			catch (Throwable ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Could not generate invoker class for method [" + method +
+							"] - falling back to reflective invocation", ex);
+				}
+			}
+		}
+		return new ReflectiveMethodInvoker(method);
+	}
+
+	/**
+	 * Determine whether the given method can be called from a generated class.
+	 * @param method the method to check
+	 * @return {@code true} for a compiled invoker, {@code false} for reflection
+	 */
+	protected boolean isCompilable(Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (method.isBridge() || !Modifier.isPublic(method.getModifiers()) ||
+				!Modifier.isPublic(declaringClass.getModifiers())) {
+			return false;
+		}
+		if (declaringClass.isInterface() && Modifier.isStatic(method.getModifiers())) {
+			return false;
+		}
+		for (Class<?> paramType : method.getParameterTypes()) {
+			while (paramType.isArray()) {
+				paramType = paramType.getComponentType();
+			}
+			if (!Modifier.isPublic(paramType.getModifiers())) {
+				return false;
+			}
+		}
+		ClassLoader classLoader = declaringClass.getClassLoader();
+		return (classLoader != null && ClassUtils.isVisible(CompiledMethodInvoker.class, classLoader));
+	}
+
+	private InvokerClassLoader getInvokerClassLoader(ClassLoader classLoader) {
+		synchronized (this.classLoaders) {
+			InvokerClassLoader invokerClassLoader = this.classLoaders.get(classLoader);
+			if (invokerClassLoader == null) {
+				invokerClassLoader = new InvokerClassLoader(classLoader);
+				this.classLoaders.put(classLoader, invokerClassLoader);
+			}
+			return invokerClassLoader;
+		}
+	}
+
+	/**
+	 * Check whether the given ClassLoader is underneath the given parent,
+	 * that is, whether the parent is within the candidate's hierarchy.
+	 */
+	private static boolean isUnderneathClassLoader(ClassLoader candidate, ClassLoader parent) {
+		ClassLoader classLoaderToCheck = candidate;
+		while (classLoaderToCheck != null) {
+			if (classLoaderToCheck == parent) {
+				return true;
+			}
+			classLoaderToCheck = classLoaderToCheck.getParent();
+		}
+		return false;
+	}
+
+
+	/**
+	 * Generate the bytecode for a {@link CompiledMethodInvoker} subclass
+	 * that calls the given method directly.
+	 */
+	static byte[] generateInvokerClass(String className, Method method, final ClassLoader classLoader) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES) {
+			@Override
+			protected ClassLoader getClassLoader() {
+				return classLoader;
+			}
+		};
+		cw.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER,
+				className, null, SUPERCLASS_NAME, null);
+
+		// Constructor taking the Method, passed on to CompiledMethodInvoker
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "(Ljava/lang/reflect/Method;)V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, SUPERCLASS_NAME, "<init>", "(Ljava/lang/reflect/Method;)V", false);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "doInvoke", DO_INVOKE_DESCRIPTOR, null, DO_INVOKE_EXCEPTIONS);
+		mv.visitCode();
+		generateDoInvoke(mv, className, method);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void generateDoInvoke(MethodVisitor mv, String className, Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		String owner = Type.getInternalName(declaringClass);
+		boolean isStatic = Modifier.isStatic(method.getModifiers());
+		Class<?>[] paramTypes = method.getParameterTypes();
+		boolean hasCasts = (!isStatic || paramTypes.length > 0);
+
+		Label castStart = new Label();
+		Label castEnd = new Label();
+		Label callEnd = new Label();
+		Label castFailed = new Label();
+		Label callFailed = new Label();
+		if (hasCasts) {
+			mv.visitTryCatchBlock(castStart, castEnd, castFailed, "java/lang/ClassCastException");
+			mv.visitTryCatchBlock(castStart, castEnd, castFailed, "java/lang/NullPointerException");
+		}
+		mv.visitTryCatchBlock(castEnd, callEnd, callFailed, "java/lang/Throwable");
+
+		// Cast target and arguments: any failure here gets handed to reflection
+		mv.visitLabel(castStart);
+		if (!isStatic) {
+			mv.visitVarInsn(Opcodes.ALOAD, 1);
+			mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+		}
+		for (int i = 0; i < paramTypes.length; i++) {
+			mv.visitVarInsn(Opcodes.ALOAD, 2);
+			pushInt(mv, i);
+			mv.visitInsn(Opcodes.AALOAD);
+			unboxOrCast(mv, paramTypes[i]);
+		}
+		mv.visitLabel(castEnd);
+
+		// Call the method: exceptions thrown by the method get wrapped, as with reflection
+		if (isStatic) {
+			mv.visitMethodInsn(Opcodes.INVOKESTATIC, owner, method.getName(),
+					Type.getMethodDescriptor(method), false);
+		}
+		else if (declaringClass.isInterface()) {
+			mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, owner, method.getName(),
+					Type.getMethodDescriptor(method), true);
+		}
+		else {
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, owner, method.getName(),
+					Type.getMethodDescriptor(method), false);
+		}
+		mv.visitLabel(callEnd);
+		box(mv, method.getReturnType());
+		mv.visitInsn(Opcodes.ARETURN);
+
+		if (hasCasts) {
+			mv.visitLabel(castFailed);
+			mv.visitInsn(Opcodes.POP);
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			mv.visitVarInsn(Opcodes.ALOAD, 1);
+			mv.visitVarInsn(Opcodes.ALOAD, 2);
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, className, "invokeReflectively", DO_INVOKE_DESCRIPTOR, false);
+			mv.visitInsn(Opcodes.ARETURN);
+		}
+
+		mv.visitLabel(callFailed);
+		mv.visitVarInsn(Opcodes.ASTORE, 3);
+		mv.visitTypeInsn(Opcodes.NEW, "java/lang/reflect/InvocationTargetException");
+		mv.visitInsn(Opcodes.DUP);
+		mv.visitVarInsn(Opcodes.ALOAD, 3);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/reflect/InvocationTargetException",
+				"<init>", "(Ljava/lang/Throwable;)V", false);
+		mv.visitInsn(Opcodes.ATHROW);
+	}
+
+	private static void pushInt(MethodVisitor mv, int value) {
+		if (value <= 5) {
+			mv.visitInsn(Opcodes.ICONST_0 + value);
+		}
+		else if (value <= Byte.MAX_VALUE) {
+			mv.visitIntInsn(Opcodes.BIPUSH, value);
+		}
+		else {
+			mv.visitIntInsn(Opcodes.SIPUSH, value);
+		}
+	}
+
+	private static void unboxOrCast(MethodVisitor mv, Class<?> paramType) {
+		if (paramType.isPrimitive()) {
+			String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(paramType));
+			mv.visitTypeInsn(Opcodes.CHECKCAST, wrapper);
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapper, paramType.getName() + "Value",
+					"()" + Type.getDescriptor(paramType), false);
+		}
+		else if (paramType != Object.class) {
+			mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(paramType));
+		}
+	}
+
+	private static void box(MethodVisitor mv, Class<?> returnType) {
+		if (returnType == void.class) {
+			mv.visitInsn(Opcodes.ACONST_NULL);
+		}
+		else if (returnType.isPrimitive()) {
+			String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(returnType));
+			mv.visitMethodInsn(Opcodes.INVOKESTATIC, wrapper, "valueOf",
+					"(" + Type.getDescriptor(returnType) + ")L" + wrapper + ";", false);
+		}
+	}
+
+
+	/**
+	 * Child ClassLoader defining the generated invoker classes for methods
+	 * declared by classes of its parent ClassLoader.
+	 */
+	private static class InvokerClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		private final Map<Method, Constructor<? extends CompiledMethodInvoker>> invokerConstructors =
+				new HashMap<Method, Constructor<? extends CompiledMethodInvoker>>();
+
+		private int counter;
+
+		public InvokerClassLoader(ClassLoader parent) {
+			super(NO_URLS, parent);
+		}
+
+		@SuppressWarnings("unchecked")
+		public synchronized Constructor<? extends CompiledMethodInvoker> getInvokerConstructor(Method method)
+				throws NoSuchMethodException {
+
+			Constructor<? extends CompiledMethodInvoker> ctor = this.invokerConstructors.get(method);
+			if (ctor == null) {
+				String className = "spring/invoke/MethodInvoker" + (++this.counter);
+				byte[] bytes = generateInvokerClass(className, method, this);
+				Class<?> invokerClass = defineClass(className.replace('/', '.'), bytes, 0, bytes.length);
+				ctor = ((Class<? extends CompiledMethodInvoker>) invokerClass).getConstructor(Method.class);
+				this.invokerConstructors.put(method, ctor);
+			}
+			return ctor;
+		}
+	}
+
+}
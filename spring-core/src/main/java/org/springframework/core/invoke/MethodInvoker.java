@@ -0,0 +1,58 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.invoke;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Strategy for invoking a specific method on a target object.
+ *
+ * <p>Implementations follow the contract of {@link Method#invoke}, so that
+ * callers may switch from plain reflection without changing their exception
+ * handling: exceptions thrown by the method itself are wrapped in an
+ * {@link InvocationTargetException}, whereas an unsuitable target or unsuitable
+ * arguments lead to a {@link NullPointerException} or {@link IllegalArgumentException}.
+ *
+ * @since 4.2.4
+ * @see MethodInvokerFactory
+ * @see ReflectiveMethodInvoker
+ * @see CompiledMethodInvoker
+ */
+public interface MethodInvoker {
+
+	/**
+	 * Return the method that this invoker calls.
+	 */
+	Method getMethod();
+
+	/**
+	 * Invoke the method on the given target object.
+	 * @param target the target object (ignored for static methods)
+	 * @param args the arguments for the method
+	 * @return the result of the invocation, boxed if primitive,
+	 * or {@code null} for a {@code void} method
+	 * @throws IllegalAccessException if the method is not accessible
+	 * @throws IllegalArgumentException if the target or the arguments do not
+	 * match the method
+	 * @throws InvocationTargetException if the method itself threw an exception
+	 * @see Method#invoke(Object, Object...)
+	 */
+	Object invoke(Object target, Object... args)
+			throws IllegalAccessException, IllegalArgumentException, InvocationTargetException;
+
+}
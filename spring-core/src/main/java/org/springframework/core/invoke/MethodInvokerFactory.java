@@ -0,0 +1,36 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.invoke;
+
+import java.lang.reflect.Method;
+
+/**
+ * Strategy interface for obtaining a {@link MethodInvoker} for a given method.
+ *
+ * @since 4.2.4
+ * @see CompilingMethodInvokerFactory
+ */
+public interface MethodInvokerFactory {
+
+	/**
+	 * Return an invoker for the given method.
+	 * @param method the method to invoke
+	 * @return the corresponding invoker (never {@code null})
+	 */
+	MethodInvoker getMethodInvoker(Method method);
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.invoke;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link MethodInvoker} implementation based on {@link Method#invoke}.
+ * Makes the method accessible if necessary.
+ *
+ * @since 4.2.4
+ */
+public class ReflectiveMethodInvoker implements MethodInvoker {
+
+	private final Method method;
+
+
+	/**
+	 * Create a new ReflectiveMethodInvoker for the given method.
+	 * @param method the method to invoke
+	 */
+	public ReflectiveMethodInvoker(Method method) {
+		Assert.notNull(method, "Method must not be null");
+		ReflectionUtils.makeAccessible(method);
+		this.method = method;
+	}
+
+
+	@Override
+	public Method getMethod() {
+		return this.method;
+	}
+
+	@Override
+	public Object invoke(Object target, Object... args)
+			throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+
+		return this.method.invoke(target, args);
+	}
+
+	@Override
+	public String toString() {
+		return "ReflectiveMethodInvoker for " + this.method;
+	}
+
+}
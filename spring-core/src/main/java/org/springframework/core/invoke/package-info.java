@@ -0,0 +1,5 @@
+/**
+ * SPI for invoking methods on a target object, with a reflective implementation
+ * and one that generates a direct-call invoker class per method.
+ */
+package org.springframework.core.invoke;
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationStartup} implementation that buffers {@link StartupStep steps}
+ * in memory and records their timestamp and duration.
+ *
+ * <p>Steps are tracked per thread: a step started while another step is active
+ * on the same thread is recorded as its child. Steps started on other threads,
+ * e.g. by parallel singleton pre-instantiation, show up as separate roots that
+ * carry the name of their thread.
+ *
+ * <p>The buffer has a fixed capacity; steps ending once it is full are dropped
+ * and merely {@link #getDroppedStepCount() counted}. The recorded steps can be
+ * retrieved as {@link RecordedStep} objects or exported as a JSON document whose
+ * events follow the structure of Java Flight Recorder events, i.e. a start time,
+ * a duration, the thread they occurred on and their individual fields (tags).
+ *
+ * @since 4.2.4
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+	private final BlockingQueue<RecordedStep> recordedSteps;
+
+	private final AtomicLong stepIdSequence = new AtomicLong();
+
+	private final AtomicInteger droppedStepCount = new AtomicInteger();
+
+	private final ThreadLocal<BufferedStartupStep> currentStep =
+			new NamedThreadLocal<BufferedStartupStep>("Current startup step");
+
+
+	/**
+	 * Create a new buffered {@link ApplicationStartup} with a limited capacity.
+	 * @param capacity the maximum number of steps to keep in the buffer
+	 */
+	public BufferingApplicationStartup(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.recordedSteps = new ArrayBlockingQueue<RecordedStep>(capacity);
+	}
+
+
+	@Override
+	public StartupStep start(String name) {
+		Assert.notNull(name, "Step name must not be null");
+		BufferedStartupStep step =
+				new BufferedStartupStep(this.stepIdSequence.incrementAndGet(), name, this.currentStep.get());
+		this.currentStep.set(step);
+		return step;
+	}
+
+	private void record(BufferedStartupStep step, long endNanos) {
+		if (this.currentStep.get() == step) {
+			BufferedStartupStep parent = step.parent;
+			while (parent != null && parent.ended) {
+				parent = parent.parent;
+			}
+			if (parent != null) {
+				this.currentStep.set(parent);
+			}
+			else {
+				this.currentStep.remove();
+			}
+		}
+		RecordedStep recordedStep = new RecordedStep(step.id, (step.parent != null ? step.parent.id : null),
+				step.name, step.threadName, step.startTime, endNanos - step.startNanos, step.getTags());
+		if (!this.recordedSteps.offer(recordedStep)) {
+			this.droppedStepCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Return a snapshot of the steps that have ended so far,
+	 * in the order they have been started.
+	 */
+	public List<RecordedStep> getRecordedSteps() {
+		List<RecordedStep> steps = new ArrayList<RecordedStep>(this.recordedSteps);
+		Collections.sort(steps, RecordedStepComparator.INSTANCE);
+		return steps;
+	}
+
+	/**
+	 * Return the steps that have ended so far, in the order they have been started,
+	 * removing them from the buffer in order to make room for further steps.
+	 */
+	public List<RecordedStep> drainRecordedSteps() {
+		List<RecordedStep> steps = new ArrayList<RecordedStep>(this.recordedSteps.size());
+		this.recordedSteps.drainTo(steps);
+		Collections.sort(steps, RecordedStepComparator.INSTANCE);
+		return steps;
+	}
+
+	/**
+	 * Return the number of steps that could not be recorded since the buffer was full.
+	 */
+	public int getDroppedStepCount() {
+		return this.droppedStepCount.get();
+	}
+
+	/**
+	 * Write the {@link #getRecordedSteps() recorded steps} to the given Writer
+	 * as a JSON document.
+	 * <p>The document contains an "events" array with an entry per step, specifying
+	 * its "name", "id", "parentId", "eventThread", "startTime" (in milliseconds since
+	 * the epoch), "duration" (in nanoseconds) and "tags", as well as the number of
+	 * "droppedSteps". The Writer is not closed.
+	 * @param writer the Writer to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeJson(Writer writer) throws IOException {
+		writer.write("{\"events\":[");
+		boolean first = true;
+		for (RecordedStep step : getRecordedSteps()) {
+			if (!first) {
+				writer.write(',');
+			}
+			first = false;
+			writer.write("\n{\"name\":");
+			writeJsonString(writer, step.getName());
+			writer.write(",\"id\":" + step.getId());
+			writer.write(",\"parentId\":" + step.getParentId());
+			writer.write(",\"eventThread\":");
+			writeJsonString(writer, step.getThreadName());
+			writer.write(",\"startTime\":" + step.getStartTime());
+			writer.write(",\"duration\":" + step.getDuration());
+			writer.write(",\"tags\":{");
+			boolean firstTag = true;
+			for (Map.Entry<String, String> tag : step.getTags().entrySet()) {
+				if (!firstTag) {
+					writer.write(',');
+				}
+				firstTag = false;
+				writeJsonString(writer, tag.getKey());
+				writer.write(':');
+				writeJsonString(writer, tag.getValue());
+			}
+			writer.write("}}");
+		}
+		writer.write("\n],\"droppedSteps\":" + getDroppedStepCount() + "}");
+		writer.flush();
+	}
+
+	/**
+	 * Return the {@link #getRecordedSteps() recorded steps} as a JSON document.
+	 * @see #writeJson(Writer)
+	 */
+	public String toJson() {
+		StringWriter writer = new StringWriter();
+		try {
+			writeJson(writer);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unexpected I/O exception for StringWriter", ex);
+		}
+		return writer.toString();
+	}
+
+	private static void writeJsonString(Writer writer, String value) throws IOException {
+		if (value == null) {
+			writer.write("null");
+			return;
+		}
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				writer.write('\\');
+				writer.write(c);
+			}
+			else if (c == '\n') {
+				writer.write("\\n");
+			}
+			else if (c == '\r') {
+				writer.write("\\r");
+			}
+			else if (c == '\t') {
+				writer.write("\\t");
+			}
+			else if (c < 0x20) {
+				writer.write(String.format("\\u%04x", (int) c));
+			}
+			else {
+				writer.write(c);
+			}
+		}
+		writer.write('"');
+	}
+
+
+	/**
+	 * {@link StartupStep} implementation that is recorded in the buffer when ended.
+	 */
+	private class BufferedStartupStep implements StartupStep {
+
+		private final long id;
+
+		private final String name;
+
+		private final BufferedStartupStep parent;
+
+		private final String threadName = Thread.currentThread().getName();
+
+		private final long startTime = System.currentTimeMillis();
+
+		private final long startNanos = System.nanoTime();
+
+		private Map<String, String> tags;
+
+		private volatile boolean ended;
+
+		public BufferedStartupStep(long id, String name, BufferedStartupStep parent) {
+			this.id = id;
+			this.name = name;
+			this.parent = parent;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public long getId() {
+			return this.id;
+		}
+
+		@Override
+		public Long getParentId() {
+			return (this.parent != null ? this.parent.id : null);
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			Assert.notNull(key, "Tag key must not be null");
+			Assert.state(!this.ended, "StartupStep has already ended");
+			if (this.tags == null) {
+				this.tags = new LinkedHashMap<String, String>(4);
+			}
+			this.tags.put(key, value);
+			return this;
+		}
+
+		@Override
+		public Map<String, String> getTags() {
+			return (this.tags != null ? Collections.unmodifiableMap(this.tags) :
+					Collections.<String, String>emptyMap());
+		}
+
+		@Override
+		public void end() {
+			long endNanos = System.nanoTime();
+			Assert.state(!this.ended, "StartupStep has already ended");
+			this.ended = true;
+			record(this, endNanos);
+		}
+
+		@Override
+		public String toString() {
+			return "StartupStep '" + this.name + "' (" + this.id + ")";
+		}
+	}
+
+
+	/**
+	 * Immutable record of an ended {@link StartupStep}.
+	 */
+	public static final class RecordedStep {
+
+		private final long id;
+
+		private final Long parentId;
+
+		private final String name;
+
+		private final String threadName;
+
+		private final long startTime;
+
+		private final long duration;
+
+		private final Map<String, String> tags;
+
+		RecordedStep(long id, Long parentId, String name, String threadName, long startTime, long duration,
+				Map<String, String> tags) {
+
+			this.id = id;
+			this.parentId = parentId;
+			this.name = name;
+			this.threadName = threadName;
+			this.startTime = startTime;
+			this.duration = duration;
+			this.tags = tags;
+		}
+
+		/**
+		 * Return the unique id of the step.
+		 */
+		public long getId() {
+			return this.id;
+		}
+
+		/**
+		 * Return the id of the parent step, or {@code null} if none.
+		 */
+		public Long getParentId() {
+			return this.parentId;
+		}
+
+		/**
+		 * Return the name of the step.
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Return the name of the thread that the step has been started on.
+		 */
+		public String getThreadName() {
+			return this.threadName;
+		}
+
+		/**
+		 * Return the time that the step has been started at, in milliseconds since the epoch.
+		 */
+		public long getStartTime() {
+			return this.startTime;
+		}
+
+		/**
+		 * Return the duration of the step in nanoseconds, including nested steps.
+		 */
+		public long getDuration() {
+			return this.duration;
+		}
+
+		/**
+		 * Return the tags of the step, in the order of addition.
+		 */
+		public Map<String, String> getTags() {
+			return this.tags;
+		}
+
+		@Override
+		public String toString() {
+			return this.name + " (" + this.id + ") " + this.tags + ": " + this.duration + " ns";
+		}
+	}
+
+
+	private static class RecordedStepComparator implements Comparator<RecordedStep> {
+
+		public static final RecordedStepComparator INSTANCE = new RecordedStepComparator();
+
+		@Override
+		public int compare(RecordedStep step1, RecordedStep step2) {
+			return (step1.getId() < step2.getId() ? -1 : (step1.getId() == step2.getId() ? 0 : 1));
+		}
+	}
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Support for recording the steps of an application startup,
+ * e.g. the phases of an ApplicationContext refresh and the creation of beans.
+ */
+package org.springframework.core.metrics;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,17 +17,22 @@
 package org.springframework.core.type.classreading;
 
 import java.io.IOException;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  * Caching implementation of the {@link MetadataReaderFactory} interface,
  * caching {@link MetadataReader} per Spring {@link Resource} handle
  * (i.e. per ".class" file).
  *
+ * <p>As of 4.2.4, this factory is safe for concurrent use: the cache is a
+ * {@link ConcurrentReferenceHashMap} bounded to the {@link #setCacheLimit cache limit},
+ * so that metadata may be read from several threads without serializing on the cache.
+ * The limit is approximate since entries are evicted per segment of the map.
+ *
  * @author Juergen Hoeller
  * @author Costin Leau
  * @since 2.5
@@ -40,14 +45,8 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 
 	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
 
-	@SuppressWarnings("serial")
-	private final Map<Resource, MetadataReader> metadataReaderCache =
-			new LinkedHashMap<Resource, MetadataReader>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<Resource, MetadataReader> eldest) {
-					return size() > getCacheLimit();
-				}
-			};
+	private volatile ConcurrentMap<Resource, MetadataReader> metadataReaderCache =
+			createMetadataReaderCache(DEFAULT_CACHE_LIMIT);
 
 
 	/**
@@ -80,7 +79,10 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 	 * Default is 256.
 	 */
 	public void setCacheLimit(int cacheLimit) {
-		this.cacheLimit = cacheLimit;
+		if (cacheLimit != this.cacheLimit) {
+			this.metadataReaderCache = createMetadataReaderCache(cacheLimit);
+			this.cacheLimit = cacheLimit;
+		}
 	}
 
 	/**
@@ -96,23 +98,32 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 		if (getCacheLimit() <= 0) {
 			return super.getMetadataReader(resource);
 		}
-		synchronized (this.metadataReaderCache) {
-			MetadataReader metadataReader = this.metadataReaderCache.get(resource);
-			if (metadataReader == null) {
-				metadataReader = super.getMetadataReader(resource);
-				this.metadataReaderCache.put(resource, metadataReader);
+		ConcurrentMap<Resource, MetadataReader> cache = this.metadataReaderCache;
+		MetadataReader metadataReader = cache.get(resource);
+		if (metadataReader == null) {
+			metadataReader = super.getMetadataReader(resource);
+			MetadataReader existing = cache.putIfAbsent(resource, metadataReader);
+			if (existing != null) {
+				metadataReader = existing;
 			}
-			return metadataReader;
 		}
+		return metadataReader;
 	}
 
 	/**
 	 * Clear the entire MetadataReader cache, removing all cached class metadata.
 	 */
 	public void clearCache() {
-		synchronized (this.metadataReaderCache) {
-			this.metadataReaderCache.clear();
+		this.metadataReaderCache.clear();
+	}
+
+	private static ConcurrentMap<Resource, MetadataReader> createMetadataReaderCache(int cacheLimit) {
+		if (cacheLimit <= 0) {
+			return new ConcurrentReferenceHashMap<Resource, MetadataReader>(1);
 		}
+		int concurrencyLevel = Math.min(cacheLimit, 16);
+		return new ConcurrentReferenceHashMap<Resource, MetadataReader>(Math.min(cacheLimit, DEFAULT_CACHE_LIMIT),
+				0.75f, concurrencyLevel, ConcurrentReferenceHashMap.ReferenceType.SOFT, cacheLimit);
 	}
 
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+
+/**
+ * Opt-in support for reading the metadata of several classes at once, e.g. for
+ * the candidates found by classpath scanning or for imported configuration classes.
+ *
+ * <p>Enabled through the {@value #PARALLELISM_PROPERTY_NAME} property, specifying the
+ * number of threads of a shared pool of daemon threads; disabled by default. The pool
+ * is created on first use, with the parallelism specified at that time. The metadata
+ * is read into an array in the order of the given resources or class names, so that
+ * callers can process the results in their original order.
+ *
+ * <p>Reading errors are not propagated: a {@code null} entry indicates that the
+ * metadata could not be read, in which case the caller is expected to read it again
+ * on its own thread in order to handle the exception in its usual context.
+ *
+ * @since 4.2.4
+ * @see CachingMetadataReaderFactory
+ */
+public abstract class ParallelMetadataReading {
+
+	/**
+	 * System property that specifies the number of threads to read class metadata
+	 * with, e.g. "spring.metadataReading.parallelism=4". Not set by default,
+	 * leaving metadata to be read on the calling thread.
+	 * <p>May also be specified in a {@code spring.properties} file in the root
+	 * of the classpath.
+	 * @see SpringProperties
+	 */
+	public static final String PARALLELISM_PROPERTY_NAME = "spring.metadataReading.parallelism";
+
+	private static volatile ThreadPoolExecutor executor;
+
+
+	/**
+	 * Determine whether metadata is to be read in parallel,
+	 * i.e. whether a parallelism of more than 1 has been specified.
+	 */
+	public static boolean isEnabled() {
+		return (getParallelism() > 1);
+	}
+
+	/**
+	 * Read the metadata for the given resources in parallel, if {@link #isEnabled() enabled}.
+	 * @param metadataReaderFactory the factory to read the metadata with,
+	 * which needs to be safe for concurrent use
+	 * @param resources the class file resources to read
+	 * @return the metadata readers in the order of the given resources, with
+	 * {@code null} entries for resources that could not be read; or {@code null}
+	 * if not enabled or not worth parallelizing (i.e. for less than 2 resources)
+	 */
+	public static MetadataReader[] getMetadataReaders(
+			final MetadataReaderFactory metadataReaderFactory, Resource[] resources) {
+
+		if (resources.length < 2 || !isEnabled()) {
+			return null;
+		}
+		List<Callable<MetadataReader>> tasks = new ArrayList<Callable<MetadataReader>>(resources.length);
+		for (final Resource resource : resources) {
+			tasks.add(new Callable<MetadataReader>() {
+				@Override
+				public MetadataReader call() throws Exception {
+					return metadataReaderFactory.getMetadataReader(resource);
+				}
+			});
+		}
+		return invokeAll(tasks);
+	}
+
+	/**
+	 * Read the metadata for the given classes in parallel, if {@link #isEnabled() enabled}.
+	 * @param metadataReaderFactory the factory to read the metadata with,
+	 * which needs to be safe for concurrent use
+	 * @param classNames the names of the classes to read
+	 * @return the metadata readers in the order of the given class names, with
+	 * {@code null} entries for classes that could not be read; or {@code null}
+	 * if not enabled or not worth parallelizing (i.e. for less than 2 classes)
+	 */
+	public static MetadataReader[] getMetadataReaders(
+			final MetadataReaderFactory metadataReaderFactory, String[] classNames) {
+
+		if (classNames.length < 2 || !isEnabled()) {
+			return null;
+		}
+		List<Callable<MetadataReader>> tasks = new ArrayList<Callable<MetadataReader>>(classNames.length);
+		for (final String className : classNames) {
+			tasks.add(new Callable<MetadataReader>() {
+				@Override
+				public MetadataReader call() throws Exception {
+					return metadataReaderFactory.getMetadataReader(className);
+				}
+			});
+		}
+		return invokeAll(tasks);
+	}
+
+	private static MetadataReader[] invokeAll(List<Callable<MetadataReader>> tasks) {
+		ThreadPoolExecutor executorToUse = getExecutor();
+		List<Future<MetadataReader>> futures = new ArrayList<Future<MetadataReader>>(tasks.size());
+		for (Callable<MetadataReader> task : tasks) {
+			futures.add(executorToUse.submit(task));
+		}
+		MetadataReader[] metadataReaders = new MetadataReader[futures.size()];
+		for (int i = 0; i < metadataReaders.length; i++) {
+			try {
+				metadataReaders[i] = futures.get(i).get();
+			}
+			catch (ExecutionException ex) {
+				// Leave null -> to be read again by the caller
+			}
+			catch (InterruptedException ex) {
+				// Leave remaining entries null -> to be read by the caller
+				Thread.currentThread().interrupt();
+				for (int j = i; j < metadataReaders.length; j++) {
+					futures.get(j).cancel(false);
+				}
+				break;
+			}
+		}
+		return metadataReaders;
+	}
+
+	private static ThreadPoolExecutor getExecutor() {
+		ThreadPoolExecutor executorToUse = executor;
+		if (executorToUse == null) {
+			synchronized (ParallelMetadataReading.class) {
+				executorToUse = executor;
+				if (executorToUse == null) {
+					int parallelism = Math.max(getParallelism(), 1);
+					executorToUse = new ThreadPoolExecutor(parallelism, parallelism, 10, TimeUnit.SECONDS,
+							new LinkedBlockingQueue<Runnable>(), new MetadataReadingThreadFactory());
+					executorToUse.allowCoreThreadTimeOut(true);
+					executor = executorToUse;
+				}
+			}
+		}
+		return executorToUse;
+	}
+
+	private static int getParallelism() {
+		String value = SpringProperties.getProperty(PARALLELISM_PROPERTY_NAME);
+		if (StringUtils.hasText(value)) {
+			try {
+				return Integer.parseInt(value.trim());
+			}
+			catch (NumberFormatException ex) {
+				// Not a valid number -> read metadata on the calling thread
+			}
+		}
+		return 0;
+	}
+
+
+	/**
+	 * ThreadFactory for the daemon threads of the shared metadata reading pool.
+	 */
+	private static class MetadataReadingThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "spring-metadata-reading-" + this.threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
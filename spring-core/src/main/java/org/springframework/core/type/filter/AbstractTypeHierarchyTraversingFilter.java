@@ -52,6 +52,22 @@ public abstract class AbstractTypeHierarchyTraversingFilter implements TypeFilte
 	}
 
 
+	/**
+	 * Return whether this filter also matches based on superclasses.
+	 * @since 4.2.4
+	 */
+	public final boolean isConsiderInherited() {
+		return this.considerInherited;
+	}
+
+	/**
+	 * Return whether this filter also matches based on implemented interfaces.
+	 * @since 4.2.4
+	 */
+	public final boolean isConsiderInterfaces() {
+		return this.considerInterfaces;
+	}
+
 	@Override
 	public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory)
 			throws IOException {
@@ -77,6 +77,14 @@ public class AnnotationTypeFilter extends AbstractTypeHierarchyTraversingFilter
 	}
 
 
+	/**
+	 * Return the annotation type that this filter matches.
+	 * @since 4.2.4
+	 */
+	public final Class<? extends Annotation> getAnnotationType() {
+		return this.annotationType;
+	}
+
 	@Override
 	protected boolean matchSelf(MetadataReader metadataReader) {
 		AnnotationMetadata metadata = metadataReader.getAnnotationMetadata();
@@ -0,0 +1,668 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * {@link AntPathMatcher} variant that parses each pattern once into a
+ * precompiled program of path segments, each of which is a literal, a glob
+ * made up of literals, {@code ?}, {@code *} and <code>{var}</code> captures,
+ * a {@code **} wildcard, or &mdash; for segments with <code>{var:regex}</code>
+ * captures only &mdash; a regular expression.
+ *
+ * <p>Paths are matched against the compiled program without tokenizing them into
+ * a {@code String[]} and without {@code java.util.regex} for all but regex
+ * segments, following the exact semantics of {@link AntPathMatcher}, including
+ * {@link #setTrimTokens trimming}, {@link #setCaseSensitive case sensitivity},
+ * URI template variable extraction, and the {@link #combine},
+ * {@link #extractPathWithinPattern} and {@link #getPatternComparator} algorithms
+ * inherited from {@code AntPathMatcher}.
+ *
+ * <p>Compiled patterns are held in a cache with soft references, unless
+ * {@link #setCachePatterns "cachePatterns"} is set to {@code false}. In contrast
+ * to {@code AntPathMatcher}, the cache is not turned off when encountering a large
+ * number of patterns, leaving it to the garbage collector to evict patterns.
+ *
+ * @since 4.2.4
+ */
+public class CompiledAntPathMatcher extends AntPathMatcher {
+
+	private static final int LITERAL = 0;
+
+	private static final int ANY_CHAR = 1;
+
+	private static final int ANY_STRING = 2;
+
+	private static final int VARIABLE = 3;
+
+
+	private String pathSeparator = DEFAULT_PATH_SEPARATOR;
+
+	private boolean caseSensitive = true;
+
+	private boolean trimTokens = true;
+
+	private volatile boolean cachePatterns = true;
+
+	final Map<String, CompiledPattern> compiledPatternCache = new ConcurrentReferenceHashMap<String, CompiledPattern>(256);
+
+
+	/**
+	 * Create a new instance with the {@link #DEFAULT_PATH_SEPARATOR}.
+	 */
+	public CompiledAntPathMatcher() {
+		super();
+	}
+
+	/**
+	 * A convenient, alternative constructor to use with a custom path separator.
+	 * @param pathSeparator the path separator to use, must not be {@code null}.
+	 */
+	public CompiledAntPathMatcher(String pathSeparator) {
+		super(pathSeparator);
+		this.pathSeparator = pathSeparator;
+	}
+
+
+	@Override
+	public void setPathSeparator(String pathSeparator) {
+		super.setPathSeparator(pathSeparator);
+		this.pathSeparator = (pathSeparator != null ? pathSeparator : DEFAULT_PATH_SEPARATOR);
+		this.compiledPatternCache.clear();
+	}
+
+	@Override
+	public void setCaseSensitive(boolean caseSensitive) {
+		super.setCaseSensitive(caseSensitive);
+		this.caseSensitive = caseSensitive;
+		this.compiledPatternCache.clear();
+	}
+
+	@Override
+	public void setTrimTokens(boolean trimTokens) {
+		super.setTrimTokens(trimTokens);
+		this.trimTokens = trimTokens;
+		this.compiledPatternCache.clear();
+	}
+
+	@Override
+	public void setCachePatterns(boolean cachePatterns) {
+		super.setCachePatterns(cachePatterns);
+		this.cachePatterns = cachePatterns;
+		if (!cachePatterns) {
+			this.compiledPatternCache.clear();
+		}
+	}
+
+
+	@Override
+	protected boolean doMatch(String pattern, String path, boolean fullMatch, Map<String, String> uriTemplateVariables) {
+		if (path.startsWith(this.pathSeparator) != pattern.startsWith(this.pathSeparator)) {
+			return false;
+		}
+		return getCompiledPattern(pattern).match(path, fullMatch, uriTemplateVariables);
+	}
+
+	/**
+	 * Build or retrieve the compiled form of the given pattern.
+	 */
+	private CompiledPattern getCompiledPattern(String pattern) {
+		CompiledPattern compiled = (this.cachePatterns ? this.compiledPatternCache.get(pattern) : null);
+		if (compiled == null) {
+			compiled = new CompiledPattern(pattern);
+			if (this.cachePatterns) {
+				this.compiledPatternCache.put(pattern, compiled);
+			}
+		}
+		return compiled;
+	}
+
+	private boolean isSeparator(char c) {
+		return (this.pathSeparator.length() == 1 ? c == this.pathSeparator.charAt(0) :
+				this.pathSeparator.indexOf(c) != -1);
+	}
+
+	/**
+	 * Find the next token in the given String, as per
+	 * {@link StringUtils#tokenizeToStringArray(String, String, boolean, boolean)}
+	 * with empty tokens ignored.
+	 * @return the start index in the upper and the end index in the lower 32 bits,
+	 * followed by the index to continue from in {@code next[0]}; or -1 if none
+	 */
+	private long nextToken(String str, int from, int[] next) {
+		int length = str.length();
+		int pos = from;
+		while (pos < length) {
+			while (pos < length && isSeparator(str.charAt(pos))) {
+				pos++;
+			}
+			int start = pos;
+			while (pos < length && !isSeparator(str.charAt(pos))) {
+				pos++;
+			}
+			int end = pos;
+			if (this.trimTokens) {
+				while (start < end && str.charAt(start) <= ' ') {
+					start++;
+				}
+				while (end > start && str.charAt(end - 1) <= ' ') {
+					end--;
+				}
+			}
+			if (start < end) {
+				next[0] = pos;
+				return ((long) start << 32) | end;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Tokenize the given path into start and end indexes of its segments.
+	 */
+	private int[] tokenizeToBounds(String path) {
+		int[] bounds = new int[8];
+		int count = 0;
+		int[] next = new int[1];
+		long token = nextToken(path, 0, next);
+		while (token != -1) {
+			if (count == bounds.length) {
+				int[] newBounds = new int[count * 2];
+				System.arraycopy(bounds, 0, newBounds, 0, count);
+				bounds = newBounds;
+			}
+			bounds[count++] = (int) (token >>> 32);
+			bounds[count++] = (int) token;
+			token = nextToken(path, next[0], next);
+		}
+		int[] result = new int[count];
+		System.arraycopy(bounds, 0, result, 0, count);
+		return result;
+	}
+
+	private boolean charsMatch(char patternChar, char pathChar) {
+		if (patternChar == pathChar) {
+			return true;
+		}
+		if (this.caseSensitive || patternChar >= 128 || pathChar >= 128) {
+			// Case-insensitive matching applies to US-ASCII only, as with Pattern.CASE_INSENSITIVE
+			return false;
+		}
+		return (toLowerCase(patternChar) == toLowerCase(pathChar));
+	}
+
+	private boolean regionMatches(String literal, String path, int offset) {
+		for (int i = 0; i < literal.length(); i++) {
+			if (!charsMatch(literal.charAt(i), path.charAt(offset + i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static char toLowerCase(char c) {
+		return (c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+	}
+
+	/**
+	 * Whether the given character is a line terminator, which {@code ?} and
+	 * {@code *} do not match, as with {@code .} in a regular expression.
+	 */
+	private static boolean isLineTerminator(char c) {
+		return (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029');
+	}
+
+
+	/**
+	 * A pattern compiled into segments, matched with the algorithm of
+	 * {@link AntPathMatcher#doMatch}.
+	 */
+	private class CompiledPattern {
+
+		private final Segment[] segments;
+
+		private final boolean hasDoubleWildcard;
+
+		private final boolean endsWithSeparator;
+
+		public CompiledPattern(String pattern) {
+			List<Segment> segments = new ArrayList<Segment>();
+			boolean hasDoubleWildcard = false;
+			int[] next = new int[1];
+			long token = nextToken(pattern, 0, next);
+			while (token != -1) {
+				String segment = pattern.substring((int) (token >>> 32), (int) token);
+				if ("**".equals(segment)) {
+					hasDoubleWildcard = true;
+				}
+				segments.add(compileSegment(segment));
+				token = nextToken(pattern, next[0], next);
+			}
+			this.segments = segments.toArray(new Segment[segments.size()]);
+			this.hasDoubleWildcard = hasDoubleWildcard;
+			this.endsWithSeparator = pattern.endsWith(pathSeparator);
+		}
+
+		public boolean match(String path, boolean fullMatch, Map<String, String> uriTemplateVariables) {
+			return (this.hasDoubleWildcard ? matchWithDoubleWildcards(path, fullMatch, uriTemplateVariables) :
+					matchForward(path, fullMatch, uriTemplateVariables));
+		}
+
+		/**
+		 * Match a pattern without {@code **} segments, reading path segments
+		 * one at a time.
+		 */
+		private boolean matchForward(String path, boolean fullMatch, Map<String, String> uriTemplateVariables) {
+			int[] next = new int[1];
+			long token = nextToken(path, 0, next);
+			int pattIdx = 0;
+			while (pattIdx < this.segments.length && token != -1) {
+				if (!this.segments[pattIdx].matches(path, (int) (token >>> 32), (int) token, uriTemplateVariables)) {
+					return false;
+				}
+				pattIdx++;
+				token = nextToken(path, next[0], next);
+			}
+			if (token != -1) {
+				// Path not exhausted, but pattern is. Failure.
+				return false;
+			}
+			if (pattIdx == this.segments.length) {
+				return (this.endsWithSeparator ? path.endsWith(pathSeparator) : !path.endsWith(pathSeparator));
+			}
+			if (!fullMatch) {
+				return true;
+			}
+			return (pattIdx == this.segments.length - 1 && this.segments[pattIdx].isSingleWildcard() &&
+					path.endsWith(pathSeparator));
+		}
+
+		private boolean matchWithDoubleWildcards(String path, boolean fullMatch,
+				Map<String, String> uriTemplateVariables) {
+
+			Segment[] pattDirs = this.segments;
+			int[] pathBounds = tokenizeToBounds(path);
+
+			int pattIdxStart = 0;
+			int pattIdxEnd = pattDirs.length - 1;
+			int pathIdxStart = 0;
+			int pathIdxEnd = pathBounds.length / 2 - 1;
+
+			// Match all elements up to the first **
+			while (pattIdxStart <= pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+				Segment pattDir = pattDirs[pattIdxStart];
+				if (pattDir.isDoubleWildcard()) {
+					break;
+				}
+				if (!matchSegment(pattDir, path, pathBounds, pathIdxStart, uriTemplateVariables)) {
+					return false;
+				}
+				pattIdxStart++;
+				pathIdxStart++;
+			}
+
+			if (pathIdxStart > pathIdxEnd) {
+				// Path is exhausted, only match if rest of pattern is * or **'s
+				if (pattIdxStart > pattIdxEnd) {
+					return (this.endsWithSeparator ? path.endsWith(pathSeparator) : !path.endsWith(pathSeparator));
+				}
+				if (!fullMatch) {
+					return true;
+				}
+				if (pattIdxStart == pattIdxEnd && pattDirs[pattIdxStart].isSingleWildcard() &&
+						path.endsWith(pathSeparator)) {
+					return true;
+				}
+				return onlyDoubleWildcards(pattIdxStart, pattIdxEnd);
+			}
+			else if (pattIdxStart > pattIdxEnd) {
+				// String not exhausted, but pattern is. Failure.
+				return false;
+			}
+			else if (!fullMatch && pattDirs[pattIdxStart].isDoubleWildcard()) {
+				// Path start definitely matches due to "**" part in pattern.
+				return true;
+			}
+
+			// up to last '**'
+			while (pattIdxStart <= pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+				Segment pattDir = pattDirs[pattIdxEnd];
+				if (pattDir.isDoubleWildcard()) {
+					break;
+				}
+				if (!matchSegment(pattDir, path, pathBounds, pathIdxEnd, uriTemplateVariables)) {
+					return false;
+				}
+				pattIdxEnd--;
+				pathIdxEnd--;
+			}
+			if (pathIdxStart > pathIdxEnd) {
+				// String is exhausted
+				return onlyDoubleWildcards(pattIdxStart, pattIdxEnd);
+			}
+
+			while (pattIdxStart != pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+				int patIdxTmp = -1;
+				for (int i = pattIdxStart + 1; i <= pattIdxEnd; i++) {
+					if (pattDirs[i].isDoubleWildcard()) {
+						patIdxTmp = i;
+						break;
+					}
+				}
+				if (patIdxTmp == pattIdxStart + 1) {
+					// '**/**' situation, so skip one
+					pattIdxStart++;
+					continue;
+				}
+				// Find the pattern between padIdxStart & padIdxTmp in str between
+				// strIdxStart & strIdxEnd
+				int patLength = (patIdxTmp - pattIdxStart - 1);
+				int strLength = (pathIdxEnd - pathIdxStart + 1);
+				int foundIdx = -1;
+
+				strLoop:
+				for (int i = 0; i <= strLength - patLength; i++) {
+					for (int j = 0; j < patLength; j++) {
+						Segment subPat = pattDirs[pattIdxStart + j + 1];
+						if (!matchSegment(subPat, path, pathBounds, pathIdxStart + i + j, uriTemplateVariables)) {
+							continue strLoop;
+						}
+					}
+					foundIdx = pathIdxStart + i;
+					break;
+				}
+
+				if (foundIdx == -1) {
+					return false;
+				}
+
+				pattIdxStart = patIdxTmp;
+				pathIdxStart = foundIdx + patLength;
+			}
+
+			return onlyDoubleWildcards(pattIdxStart, pattIdxEnd);
+		}
+
+		private boolean matchSegment(Segment segment, String path, int[] pathBounds, int pathIdx,
+				Map<String, String> uriTemplateVariables) {
+
+			return segment.matches(path, pathBounds[pathIdx * 2], pathBounds[pathIdx * 2 + 1], uriTemplateVariables);
+		}
+
+		private boolean onlyDoubleWildcards(int fromIdx, int toIdx) {
+			for (int i = fromIdx; i <= toIdx; i++) {
+				if (!this.segments[i].isDoubleWildcard()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+
+	/**
+	 * Compile a single pattern segment, parsing globs and URI template variables
+	 * the same way as {@link AntPathStringMatcher}.
+	 */
+	private Segment compileSegment(String segment) {
+		if ("**".equals(segment)) {
+			return new DoubleWildcardSegment();
+		}
+		List<Integer> types = new ArrayList<Integer>();
+		List<String> values = new ArrayList<String>();
+		Matcher matcher = AntPathStringMatcher.GLOB_PATTERN.matcher(segment);
+		int end = 0;
+		while (matcher.find()) {
+			if (matcher.start() > end) {
+				types.add(LITERAL);
+				values.add(segment.substring(end, matcher.start()));
+			}
+			String match = matcher.group();
+			if ("?".equals(match)) {
+				types.add(ANY_CHAR);
+				values.add(null);
+			}
+			else if ("*".equals(match)) {
+				types.add(ANY_STRING);
+				values.add(null);
+			}
+			else if (match.indexOf(':') != -1) {
+				// Custom regular expression for a URI template variable
+				return new RegexSegment(segment, new AntPathStringMatcher(segment, this.caseSensitive));
+			}
+			else {
+				types.add(VARIABLE);
+				values.add(matcher.group(1));
+			}
+			end = matcher.end();
+		}
+		if (types.isEmpty()) {
+			return new LiteralSegment(segment);
+		}
+		if (end < segment.length()) {
+			types.add(LITERAL);
+			values.add(segment.substring(end));
+		}
+		return new GlobSegment(segment, types, values);
+	}
+
+
+	/**
+	 * A compiled pattern segment.
+	 */
+	private abstract class Segment {
+
+		private final String pattern;
+
+		protected Segment(String pattern) {
+			this.pattern = pattern;
+		}
+
+		public boolean isDoubleWildcard() {
+			return false;
+		}
+
+		public boolean isSingleWildcard() {
+			return "*".equals(this.pattern);
+		}
+
+		/**
+		 * Match the given region of the path, adding URI template variables
+		 * to the given Map, if any.
+		 */
+		public abstract boolean matches(String path, int start, int end, Map<String, String> uriTemplateVariables);
+
+		@Override
+		public String toString() {
+			return this.pattern;
+		}
+	}
+
+
+	private class DoubleWildcardSegment extends Segment {
+
+		public DoubleWildcardSegment() {
+			super("**");
+		}
+
+		@Override
+		public boolean isDoubleWildcard() {
+			return true;
+		}
+
+		@Override
+		public boolean matches(String path, int start, int end, Map<String, String> uriTemplateVariables) {
+			throw new IllegalStateException("Double wildcard segments are matched structurally");
+		}
+	}
+
+
+	private class LiteralSegment extends Segment {
+
+		private final String literal;
+
+		public LiteralSegment(String literal) {
+			super(literal);
+			this.literal = literal;
+		}
+
+		@Override
+		public boolean matches(String path, int start, int end, Map<String, String> uriTemplateVariables) {
+			return (end - start == this.literal.length() && regionMatches(this.literal, path, start));
+		}
+	}
+
+
+	/**
+	 * A segment with {@code ?}, {@code *} and <code>{var}</code> elements, matched
+	 * with the same greedy semantics as the corresponding regular expression.
+	 */
+	private class GlobSegment extends Segment {
+
+		private final int[] types;
+
+		private final String[] values;
+
+		/** Minimum number of characters needed to match the elements from a given index */
+		private final int[] minLengths;
+
+		private final int variableCount;
+
+		public GlobSegment(String pattern, List<Integer> types, List<String> values) {
+			super(pattern);
+			this.types = new int[types.size()];
+			this.values = values.toArray(new String[values.size()]);
+			this.minLengths = new int[types.size() + 1];
+			int variableCount = 0;
+			for (int i = 0; i < this.types.length; i++) {
+				this.types[i] = types.get(i);
+				if (this.types[i] == VARIABLE) {
+					variableCount++;
+				}
+			}
+			for (int i = this.types.length - 1; i >= 0; i--) {
+				int length = (this.types[i] == LITERAL ? this.values[i].length() : this.types[i] == ANY_CHAR ? 1 : 0);
+				this.minLengths[i] = this.minLengths[i + 1] + length;
+			}
+			this.variableCount = variableCount;
+		}
+
+		@Override
+		public boolean matches(String path, int start, int end, Map<String, String> uriTemplateVariables) {
+			if (end - start < this.minLengths[0]) {
+				return false;
+			}
+			if (uriTemplateVariables == null || this.variableCount == 0) {
+				return matchElements(0, path, start, end, null);
+			}
+			int[] captures = new int[this.types.length * 2];
+			if (!matchElements(0, path, start, end, captures)) {
+				return false;
+			}
+			for (int i = 0; i < this.types.length; i++) {
+				if (this.types[i] == VARIABLE) {
+					uriTemplateVariables.put(this.values[i], path.substring(captures[i * 2], captures[i * 2 + 1]));
+				}
+			}
+			return true;
+		}
+
+		private boolean matchElements(int index, String path, int pos, int end, int[] captures) {
+			while (index < this.types.length) {
+				int type = this.types[index];
+				if (type == LITERAL) {
+					String literal = this.values[index];
+					if (end - pos < literal.length() || !regionMatches(literal, path, pos)) {
+						return false;
+					}
+					pos += literal.length();
+				}
+				else if (type == ANY_CHAR) {
+					if (pos >= end || isLineTerminator(path.charAt(pos))) {
+						return false;
+					}
+					// Like '.' in a regular expression, consume a full code point
+					pos += Character.charCount(path.codePointAt(pos));
+				}
+				else {
+					// Greedy match for '*' and '{var}': try the longest candidate first
+					int max = pos;
+					while (max < end && !isLineTerminator(path.charAt(max))) {
+						max++;
+					}
+					max = Math.min(max, end - this.minLengths[index + 1]);
+					if (index == this.types.length - 1) {
+						if (max != end) {
+							return false;
+						}
+						capture(captures, index, pos, end);
+						return true;
+					}
+					for (int candidate = max; candidate >= pos; candidate--) {
+						if (splitsSurrogatePair(path, candidate)) {
+							continue;
+						}
+						if (matchElements(index + 1, path, candidate, end, captures)) {
+							capture(captures, index, pos, candidate);
+							return true;
+						}
+					}
+					return false;
+				}
+				index++;
+			}
+			return (pos == end);
+		}
+
+		private boolean splitsSurrogatePair(String path, int pos) {
+			return (pos > 0 && pos < path.length() &&
+					Character.isLowSurrogate(path.charAt(pos)) && Character.isHighSurrogate(path.charAt(pos - 1)));
+		}
+
+		private void capture(int[] captures, int index, int start, int end) {
+			if (captures != null) {
+				captures[index * 2] = start;
+				captures[index * 2 + 1] = end;
+			}
+		}
+	}
+
+
+	/**
+	 * A segment with <code>{var:regex}</code> elements, matched through
+	 * {@link AntPathStringMatcher}.
+	 */
+	private class RegexSegment extends Segment {
+
+		private final AntPathStringMatcher matcher;
+
+		public RegexSegment(String pattern, AntPathStringMatcher matcher) {
+			super(pattern);
+			this.matcher = matcher;
+		}
+
+		@Override
+		public boolean matches(String path, int start, int end, Map<String, String> uriTemplateVariables) {
+			return this.matcher.matchStrings(path.substring(start, end), uriTemplateVariables);
+		}
+	}
+
+}
@@ -31,6 +31,7 @@ import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -51,6 +52,12 @@ import java.util.concurrent.locks.ReentrantLock;
  * <p>If not explicitly specified, this implementation will use
  * {@linkplain SoftReference soft entry references}.
  *
+ * <p>As of 4.2.4, the map can optionally be bounded to a maximum number of entries.
+ * Each segment then evicts entries according to a CLOCK approximation of LRU, and
+ * hit, miss and eviction statistics are recorded for the map. Framework metadata
+ * caches created through {@link #forMetadataCache(int)} are bounded according to the
+ * {@value #METADATA_CACHE_MAX_ENTRIES_PROPERTY_NAME} system property.
+ *
  * @author Phillip Webb
  * @since 3.2
  * @param <K> the key type
@@ -58,6 +65,21 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
 
+	/**
+	 * System property that specifies the maximum number of entries in each
+	 * framework metadata cache, e.g. "spring.metadataCache.maxEntries=4096".
+	 * Not set by default, leaving those caches unbounded.
+	 * @since 4.2.4
+	 * @see #forMetadataCache(int)
+	 */
+	public static final String METADATA_CACHE_MAX_ENTRIES_PROPERTY_NAME = "spring.metadataCache.maxEntries";
+
+	/**
+	 * Value for the maximum number of entries indicating an unbounded map.
+	 * @since 4.2.4
+	 */
+	public static final int UNBOUNDED = -1;
+
 	private static final int DEFAULT_INITIAL_CAPACITY = 16;
 
 	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
@@ -91,6 +113,11 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 	 */
 	private final int shift;
 
+	/**
+	 * The maximum number of entries per segment, or {@link #UNBOUNDED}.
+	 */
+	private final int maxSegmentEntries;
+
 	/**
 	 * Late binding entry set.
 	 */
@@ -162,19 +189,44 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 	 * write to the map
 	 * @param referenceType the reference type used for entries (soft or weak)
 	 */
-	@SuppressWarnings("unchecked")
 	public ConcurrentReferenceHashMap(int initialCapacity, float loadFactor, int concurrencyLevel,
 			ReferenceType referenceType) {
 
+		this(initialCapacity, loadFactor, concurrencyLevel, referenceType, UNBOUNDED);
+	}
+
+	/**
+	 * Create a new {@code ConcurrentReferenceHashMap} instance.
+	 * <p>A bounded map evicts entries on a per-segment basis once a segment exceeds its
+	 * share of {@code maxEntries}, preferring entries that have not been accessed recently.
+	 * Since the limit is divided among the segments, the map may not be filled completely
+	 * before the first eviction, and the limit is effectively rounded up to a multiple of
+	 * the number of segments.
+	 * @param initialCapacity the initial capacity of the map
+	 * @param loadFactor the load factor. When the average number of references per
+	 * table exceeds this value, resize will be attempted.
+	 * @param concurrencyLevel the expected number of threads that will concurrently
+	 * write to the map
+	 * @param referenceType the reference type used for entries (soft or weak)
+	 * @param maxEntries the maximum number of entries to hold, or {@link #UNBOUNDED}
+	 * @since 4.2.4
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentReferenceHashMap(int initialCapacity, float loadFactor, int concurrencyLevel,
+			ReferenceType referenceType, int maxEntries) {
+
 		Assert.isTrue(initialCapacity >= 0, "Initial capacity must not be negative");
 		Assert.isTrue(loadFactor > 0f, "Load factor must be positive");
 		Assert.isTrue(concurrencyLevel > 0, "Concurrency level must be positive");
 		Assert.notNull(referenceType, "Reference type must not be null");
+		Assert.isTrue(maxEntries > 0 || maxEntries == UNBOUNDED, "Max entries must be positive or UNBOUNDED");
 		this.loadFactor = loadFactor;
 		this.shift = calculateShift(concurrencyLevel, MAXIMUM_CONCURRENCY_LEVEL);
 		int size = 1 << this.shift;
 		this.referenceType = referenceType;
-		int roundedUpSegmentCapacity = (int) ((initialCapacity + size - 1L) / size);
+		this.maxSegmentEntries = (maxEntries != UNBOUNDED ? (int) ((maxEntries + size - 1L) / size) : UNBOUNDED);
+		int capacity = (maxEntries != UNBOUNDED ? Math.min(initialCapacity, maxEntries) : initialCapacity);
+		int roundedUpSegmentCapacity = (int) ((capacity + size - 1L) / size);
 		this.segments = (Segment[]) Array.newInstance(Segment.class, size);
 		for (int i = 0; i < this.segments.length; i++) {
 			this.segments[i] = new Segment(roundedUpSegmentCapacity);
@@ -194,6 +246,54 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 		return this.segments[index];
 	}
 
+	/**
+	 * Return whether this map is bounded to a maximum number of entries.
+	 * @since 4.2.4
+	 */
+	public final boolean isBounded() {
+		return (this.maxSegmentEntries != UNBOUNDED);
+	}
+
+	/**
+	 * Return the number of {@link #get} calls that found an entry.
+	 * Only recorded for a {@link #isBounded() bounded} map.
+	 * @since 4.2.4
+	 */
+	public long getHitCount() {
+		long hitCount = 0;
+		for (Segment segment : this.segments) {
+			hitCount += segment.getHitCount();
+		}
+		return hitCount;
+	}
+
+	/**
+	 * Return the number of {@link #get} calls that did not find an entry.
+	 * Only recorded for a {@link #isBounded() bounded} map.
+	 * @since 4.2.4
+	 */
+	public long getMissCount() {
+		long missCount = 0;
+		for (Segment segment : this.segments) {
+			missCount += segment.getMissCount();
+		}
+		return missCount;
+	}
+
+	/**
+	 * Return the number of entries that have been evicted in order to stay within
+	 * the maximum number of entries of a {@link #isBounded() bounded} map. Entries
+	 * that have been garbage collected are not included.
+	 * @since 4.2.4
+	 */
+	public long getEvictionCount() {
+		long evictionCount = 0;
+		for (Segment segment : this.segments) {
+			evictionCount += segment.getEvictionCount();
+		}
+		return evictionCount;
+	}
+
 	/**
 	 * Factory method that returns the {@link ReferenceManager}.
 	 * This method will be called once for each {@link Segment}.
@@ -223,8 +323,13 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 
 	@Override
 	public V get(Object key) {
-		Reference<K, V> reference = getReference(key, Restructure.WHEN_NECESSARY);
+		int hash = getHash(key);
+		Segment segment = getSegmentForHash(hash);
+		Reference<K, V> reference = segment.getReference(key, hash, Restructure.WHEN_NECESSARY);
 		Entry<K, V> entry = (reference != null ? reference.get() : null);
+		if (this.maxSegmentEntries != UNBOUNDED) {
+			segment.recordAccess(entry);
+		}
 		return (entry != null ? entry.getValue() : null);
 	}
 
@@ -265,6 +370,7 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 					V previousValue = entry.getValue();
 					if (overwriteExisting) {
 						entry.setValue(value);
+						entry.accessed = true;
 					}
 					return previousValue;
 				}
@@ -377,6 +483,38 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 		return this.segments[(hash >>> (32 - this.shift)) & (this.segments.length - 1)];
 	}
 
+	/**
+	 * Create a {@code ConcurrentReferenceHashMap} for use as a framework metadata cache,
+	 * bounded to the number of entries specified through the
+	 * {@value #METADATA_CACHE_MAX_ENTRIES_PROPERTY_NAME} system property, if any.
+	 * @param initialCapacity the initial capacity of the map
+	 * @return a new map, unbounded unless the system property specifies a positive value
+	 * @since 4.2.4
+	 */
+	public static <K, V> ConcurrentReferenceHashMap<K, V> forMetadataCache(int initialCapacity) {
+		return new ConcurrentReferenceHashMap<K, V>(initialCapacity, DEFAULT_LOAD_FACTOR,
+				DEFAULT_CONCURRENCY_LEVEL, DEFAULT_REFERENCE_TYPE, getMetadataCacheMaxEntries());
+	}
+
+	private static int getMetadataCacheMaxEntries() {
+		try {
+			String value = System.getProperty(METADATA_CACHE_MAX_ENTRIES_PROPERTY_NAME);
+			if (StringUtils.hasText(value)) {
+				int maxEntries = Integer.parseInt(value.trim());
+				if (maxEntries > 0) {
+					return maxEntries;
+				}
+			}
+		}
+		catch (NumberFormatException ex) {
+			// Not a valid limit -> leave metadata caches unbounded
+		}
+		catch (SecurityException ex) {
+			// Not allowed to read system properties -> leave metadata caches unbounded
+		}
+		return UNBOUNDED;
+	}
+
 	/**
 	 * Calculate a shift value that can be used to create a power-of-two value between
 	 * the specified maximum and minimum values.
@@ -437,10 +575,24 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 		 */
 		private int resizeThreshold;
 
+		/**
+		 * The table index at which the next eviction sweep starts (bounded maps only).
+		 */
+		private int clockHand;
+
+		private final AtomicLong hitCount;
+
+		private final AtomicLong missCount;
+
+		private volatile long evictionCount;
+
 		public Segment(int initialCapacity) {
 			this.referenceManager = createReferenceManager();
 			this.initialSize = 1 << calculateShift(initialCapacity, MAXIMUM_SEGMENT_SIZE);
 			setReferences(createReferenceArray(this.initialSize));
+			boolean bounded = (maxSegmentEntries != UNBOUNDED);
+			this.hitCount = (bounded ? new AtomicLong() : null);
+			this.missCount = (bounded ? new AtomicLong() : null);
 		}
 
 		public Reference<K, V> getReference(Object key, int hash, Restructure restructure) {
@@ -487,6 +639,9 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 						Reference<K, V> newReference = Segment.this.referenceManager.createReference(newEntry, hash, head);
 						Segment.this.references[index] = newReference;
 						Segment.this.count++;
+						if (maxSegmentEntries != UNBOUNDED && Segment.this.count > maxSegmentEntries) {
+							evict(newEntry);
+						}
 					}
 				};
 				return task.execute(reference, entry, entries);
@@ -582,6 +737,75 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 			}
 		}
 
+		/**
+		 * Record a lookup against this segment of a bounded map, marking the
+		 * found entry as recently accessed.
+		 * @param entry the entry found, or {@code null} if none
+		 */
+		void recordAccess(Entry<K, V> entry) {
+			if (entry != null) {
+				if (!entry.accessed) {
+					entry.accessed = true;
+				}
+				this.hitCount.incrementAndGet();
+			}
+			else {
+				this.missCount.incrementAndGet();
+			}
+		}
+
+		/**
+		 * Evict a single entry that has not been accessed since the last sweep,
+		 * clearing the access marks of the entries that the clock hand passes.
+		 * Must be called while holding the segment lock.
+		 * @param newEntry the entry just added, not to be evicted
+		 */
+		private void evict(Entry<K, V> newEntry) {
+			Reference<K, V>[] references = this.references;
+			// Two full sweeps at most, since the first one clears all access marks
+			for (int i = 0; i <= 2 * references.length; i++) {
+				int index = (this.clockHand & (references.length - 1));
+				this.clockHand = index + 1;
+				Reference<K, V> victim = null;
+				for (Reference<K, V> reference = references[index]; reference != null; reference = reference.getNext()) {
+					Entry<K, V> entry = reference.get();
+					if (entry != null && entry != newEntry) {
+						if (entry.accessed) {
+							entry.accessed = false;
+						}
+						else if (victim == null) {
+							victim = reference;
+						}
+					}
+				}
+				if (victim != null) {
+					references[index] = removeFromChain(references[index], victim);
+					this.count--;
+					this.evictionCount++;
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Unlink the given reference from its chain. References are immutable, so the
+		 * ones in front of it are recreated; garbage collected references among them
+		 * are dropped and left for purging. Must be called while holding the segment lock.
+		 * @param head the head of the chain
+		 * @param victim the reference to remove
+		 * @return the new head of the chain
+		 */
+		private Reference<K, V> removeFromChain(Reference<K, V> head, Reference<K, V> victim) {
+			Reference<K, V> chain = victim.getNext();
+			for (Reference<K, V> reference = head; reference != victim; reference = reference.getNext()) {
+				Entry<K, V> entry = reference.get();
+				if (entry != null) {
+					chain = this.referenceManager.createReference(entry, reference.getHash(), chain);
+				}
+			}
+			return chain;
+		}
+
 		private Reference<K, V> findInChain(Reference<K, V> reference, Object key, int hash) {
 			while (reference != null) {
 				if (reference.getHash() == hash) {
@@ -629,6 +853,18 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 		public final int getCount() {
 			return this.count;
 		}
+
+		final long getHitCount() {
+			return (this.hitCount != null ? this.hitCount.get() : 0);
+		}
+
+		final long getMissCount() {
+			return (this.missCount != null ? this.missCount.get() : 0);
+		}
+
+		final long getEvictionCount() {
+			return this.evictionCount;
+		}
 	}
 
 
@@ -674,6 +910,12 @@ public class ConcurrentReferenceHashMap<K, V> extends AbstractMap<K, V> implemen
 
 		private volatile V value;
 
+		/**
+		 * Whether the entry has been accessed since the last eviction sweep
+		 * (bounded maps only).
+		 */
+		private volatile boolean accessed;
+
 		public Entry(K key, V value) {
 			this.key = key;
 			this.value = value;
@@ -1287,6 +1287,41 @@ public class ResolvableTypeTests {
 		assertThat(((ParameterizedType) type).getActualTypeArguments()[0], is(equalTo(String.class)));
 	}
 
+	@Test
+	public void canonicalInstances() throws Exception {
+		assertThat(ResolvableType.forClass(Fields.class), sameInstance(ResolvableType.forClass(Fields.class)));
+		Field field = Fields.class.getField("classType");
+		assertThat(ResolvableType.forField(field), sameInstance(ResolvableType.forField(field)));
+		Method method = Methods.class.getMethod("charSequenceParameter", List.class);
+		assertThat(ResolvableType.forMethodParameter(new MethodParameter(method, 0)),
+				sameInstance(ResolvableType.forMethodParameter(new MethodParameter(method, 0))));
+
+		ResolvableType.clearCache();
+		assertThat(ResolvableType.forField(field), equalTo(ResolvableType.forField(field)));
+	}
+
+	@Test
+	public void canonicalInstancesPerContainingClass() throws Exception {
+		Method method = Methods.class.getMethod("typedParameter", Object.class);
+		MethodParameter methodParameter = new MethodParameter(method, 0);
+		assertThat(ResolvableType.forMethodParameter(methodParameter).resolve(), nullValue());
+		methodParameter = new MethodParameter(method, 0);
+		methodParameter.setContainingClass(TypedMethods.class);
+		assertThat(ResolvableType.forMethodParameter(methodParameter).resolve(), equalTo((Class) String.class));
+		assertThat(ResolvableType.forMethodParameter(new MethodParameter(method, 0)).resolve(), nullValue());
+	}
+
+	@Test
+	public void noCanonicalInstanceForNestedMethodParameter() throws Exception {
+		Method method = Methods.class.getMethod("charSequenceParameter", List.class);
+		MethodParameter methodParameter = new MethodParameter(method, 0);
+		ResolvableType outer = ResolvableType.forMethodParameter(methodParameter);
+		methodParameter.increaseNestingLevel();
+		ResolvableType nested = ResolvableType.forMethodParameter(methodParameter);
+		assertThat(nested, not(sameInstance(outer)));
+		assertThat(nested.resolve(), equalTo((Class) CharSequence.class));
+	}
+
 
 	private ResolvableType testSerialization(ResolvableType type) throws Exception {
 		ByteArrayOutputStream bos = new ByteArrayOutputStream();
@@ -635,6 +635,45 @@ public class AnnotatedElementUtilsTests {
 		assertArrayEquals("classes for " + element, new Class<?>[] { Number.class }, contextConfig.classes());
 	}
 
+	@Test
+	public void mergedAnnotationLookupsAreCached() {
+		clearMergedAnnotationCache();
+		Class<?> element = ComponentScanWithBasePackagesAndValueAliasClass.class;
+
+		ComponentScan componentScan = findMergedAnnotation(element, ComponentScan.class);
+		assertNotNull(componentScan);
+		assertEquals(1, getMergedAnnotationCacheMissCount());
+		assertEquals(0, getMergedAnnotationCacheHitCount());
+
+		assertSame(componentScan, findMergedAnnotation(element, ComponentScan.class));
+		assertNull(getMergedAnnotation(NonAnnotatedClass.class, Transactional.class));
+		assertNull(getMergedAnnotation(NonAnnotatedClass.class, Transactional.class));
+		assertEquals(2, getMergedAnnotationCacheHitCount());
+		assertEquals(2, getMergedAnnotationCacheMissCount());
+
+		clearMergedAnnotationCache();
+		assertEquals(0, getMergedAnnotationCacheHitCount());
+		assertEquals(0, getMergedAnnotationCacheMissCount());
+	}
+
+	@Test
+	public void cachedMergedAnnotationAttributesAreCopied() {
+		Class<?> element = TestComponentScanClass.class;
+		AnnotationAttributes attributes = AnnotatedElementUtils.findMergedAnnotationAttributes(
+				element, ComponentScan.class, false, true);
+		attributes.getStringArray("basePackages")[0] = "modified";
+		attributes.getAnnotationArray("excludeFilters")[0].put("pattern", "modified");
+		attributes.put("value", "modified");
+
+		AnnotationAttributes cached = AnnotatedElementUtils.findMergedAnnotationAttributes(
+				element, ComponentScan.class, false, true);
+		assertNotSame(attributes, cached);
+		assertEquals(ComponentScan.class, cached.annotationType());
+		assertArrayEquals(asArray("com.example.app.test"), cached.getStringArray("basePackages"));
+		assertEquals("*Test", cached.getAnnotationArray("excludeFilters")[0].getString("pattern"));
+		assertArrayEquals(asArray("com.example.app.test"), cached.getStringArray("value"));
+	}
+
 
 	private Set<String> names(Class<?>... classes) {
 		return stream(classes).map(Class::getName).collect(toSet());
@@ -26,6 +26,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -985,4 +987,38 @@ public class TypeDescriptorTests {
 		assertThat(TypeDescriptor.valueOf(Integer.class).getSource(), equalTo((Object) Integer.class));
 	}
 
+	@Test
+	public void canonicalInstances() throws Exception {
+		assertThat(TypeDescriptor.valueOf(Date.class), sameInstance(TypeDescriptor.valueOf(Date.class)));
+		Field field = getClass().getField("listOfString");
+		assertThat(TypeDescriptor.forField(field), sameInstance(TypeDescriptor.forField(field)));
+		assertThat(TypeDescriptor.forField(field), equalTo(new TypeDescriptor(field)));
+		Method method = getClass().getMethod("testParameterListNoParamTypes", List.class);
+		TypeDescriptor typeDescriptor = TypeDescriptor.forMethodParameter(new MethodParameter(method, 0));
+		assertThat(TypeDescriptor.forMethodParameter(new MethodParameter(method, 0)), sameInstance(typeDescriptor));
+		assertThat(typeDescriptor, equalTo(new TypeDescriptor(new MethodParameter(method, 0))));
+
+		TypeDescriptor.clearCache();
+		assertThat(TypeDescriptor.forField(field), equalTo(new TypeDescriptor(field)));
+	}
+
+	@Test
+	public void noCanonicalInstanceForOverriddenParameterType() throws Exception {
+		Method method = getClass().getMethod("testParameterListNoParamTypes", List.class);
+		MethodParameter methodParameter = new MethodParameter(method, 0) {
+			@Override
+			public Class<?> getParameterType() {
+				return String.class;
+			}
+			@Override
+			public Type getGenericParameterType() {
+				return String.class;
+			}
+		};
+		TypeDescriptor typeDescriptor = TypeDescriptor.forMethodParameter(methodParameter);
+		assertEquals(String.class, typeDescriptor.getType());
+		assertThat(TypeDescriptor.forMethodParameter(methodParameter), not(sameInstance(typeDescriptor)));
+		assertEquals(List.class, TypeDescriptor.forMethodParameter(new MethodParameter(method, 0)).getType());
+	}
+
 }
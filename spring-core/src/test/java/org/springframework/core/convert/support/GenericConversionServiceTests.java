@@ -628,6 +628,68 @@ public class GenericConversionServiceTests {
 				conversionService.convert("test", TypeDescriptor.valueOf(String.class), new TypeDescriptor(getClass().getField("integerCollection"))));
 	}
 
+	@Test
+	public void frozenConversionService() throws Exception {
+		DefaultConversionService.addDefaultConverters(conversionService);
+		conversionService.addConverter(new ColorConverter());
+		conversionService.addConverter(new MyStringToStringCollectionConverter());
+		conversionService.addConverter(new MyStringToIntegerCollectionConverter());
+		conversionService.freeze();
+		assertTrue(conversionService.isFrozen());
+
+		assertEquals(Color.BLACK, conversionService.convert("#000000", Color.class));
+		assertEquals(Integer.valueOf(3), conversionService.convert("3", Integer.class));
+		assertEquals(Integer.valueOf(3), conversionService.convert("3", int.class));
+		assertEquals("3", conversionService.convert(3L, String.class));
+		assertEquals(MyEnum.A, conversionService.convert("A", MyEnum.class));
+		assertEquals("B", conversionService.convert(MyEnum.B, String.class));
+		assertArrayEquals(new Integer[] {1, 2}, conversionService.convert("1,2", Integer[].class));
+		assertEquals(Collections.singleton("testX"),
+				conversionService.convert("test", TypeDescriptor.valueOf(String.class), new TypeDescriptor(getClass().getField("stringCollection"))));
+		assertEquals(Collections.singleton(4),
+				conversionService.convert("test", TypeDescriptor.valueOf(String.class), new TypeDescriptor(getClass().getField("integerCollection"))));
+		assertTrue(conversionService.canBypassConvert(TypeDescriptor.valueOf(Color.class), TypeDescriptor.valueOf(Object.class)));
+		assertFalse(conversionService.canConvert(Color.class, Integer.class));
+	}
+
+	@Test
+	public void frozenConversionServiceWithConditionalConverter() {
+		MyConditionalConverter converter = new MyConditionalConverter();
+		conversionService.addConverter(new ColorConverter());
+		conversionService.addConverter(converter);
+		conversionService.freeze();
+		assertEquals(Color.BLACK, conversionService.convert("#000000", Color.class));
+		assertTrue(converter.getMatchAttempts() > 0);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void addConverterToFrozenConversionService() {
+		conversionService.freeze();
+		conversionService.addConverter(new ColorConverter());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void removeConvertibleFromFrozenConversionService() {
+		conversionService.addConverter(new ColorConverter());
+		conversionService.freeze();
+		conversionService.removeConvertible(String.class, Color.class);
+	}
+
+	@Test
+	public void converterCacheHitAndMissCounts() {
+		conversionService.addConverter(new ColorConverter());
+		conversionService.convert("#000000", Color.class);
+		conversionService.convert("#000000", Color.class);
+		assertEquals(1, conversionService.getConverterCacheMissCount());
+		assertEquals(1, conversionService.getConverterCacheHitCount());
+
+		conversionService.freeze();
+		conversionService.convert("#000000", Color.class);
+		conversionService.canConvert(Integer.class, Number.class);
+		assertEquals(2, conversionService.getConverterCacheMissCount());
+		assertEquals(2, conversionService.getConverterCacheHitCount());
+	}
+
 
 	@Retention(RetentionPolicy.RUNTIME)
 	private static @interface ExampleAnnotation {}
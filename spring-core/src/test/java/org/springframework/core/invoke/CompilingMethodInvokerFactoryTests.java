@@ -0,0 +1,247 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.invoke;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.tests.Assume;
+import org.springframework.tests.TestGroup;
+import org.springframework.util.StopWatch;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CompilingMethodInvokerFactory}.
+ */
+public class CompilingMethodInvokerFactoryTests {
+
+	private final CompilingMethodInvokerFactory factory = new CompilingMethodInvokerFactory();
+
+
+	@Test
+	public void compiledInvokerForPublicMethod() throws Exception {
+		Method method = Sample.class.getMethod("concat", String.class, int.class);
+		MethodInvoker invoker = this.factory.getMethodInvoker(method);
+		assertThat(invoker, instanceOf(CompiledMethodInvoker.class));
+		assertSame(method, invoker.getMethod());
+		assertEquals("a3", invoker.invoke(new Sample(), "a", 3));
+	}
+
+	@Test
+	public void invokerIsCachedPerMethod() throws Exception {
+		Method method = Sample.class.getMethod("concat", String.class, int.class);
+		assertSame(this.factory.getMethodInvoker(method), this.factory.getMethodInvoker(method));
+	}
+
+	@Test
+	public void invokersClearedForClassLoader() throws Exception {
+		Method method = Sample.class.getMethod("concat", String.class, int.class);
+		MethodInvoker invoker = this.factory.getMethodInvoker(method);
+		this.factory.clearClassLoader(new URLClassLoader(new URL[0], getClass().getClassLoader()));
+		assertSame(invoker, this.factory.getMethodInvoker(method));
+
+		this.factory.clearClassLoader(getClass().getClassLoader());
+		MethodInvoker newInvoker = this.factory.getMethodInvoker(method);
+		assertNotSame(invoker, newInvoker);
+		assertNotSame(invoker.getClass().getClassLoader(), newInvoker.getClass().getClassLoader());
+		assertEquals("a3", newInvoker.invoke(new Sample(), "a", 3));
+	}
+
+	@Test
+	public void primitiveReturnValueIsBoxed() throws Exception {
+		MethodInvoker invoker = this.factory.getMethodInvoker(Sample.class.getMethod("add", long.class, long.class));
+		assertEquals(5L, invoker.invoke(new Sample(), 2L, 3L));
+	}
+
+	@Test
+	public void voidMethodReturnsNull() throws Exception {
+		Sample sample = new Sample();
+		MethodInvoker invoker = this.factory.getMethodInvoker(Sample.class.getMethod("setName", String.class));
+		assertNull(invoker.invoke(sample, "foo"));
+		assertEquals("foo", sample.name);
+	}
+
+	@Test
+	public void staticMethod() throws Exception {
+		MethodInvoker invoker = this.factory.getMethodInvoker(Sample.class.getMethod("twice", int.class));
+		assertThat(invoker, instanceOf(CompiledMethodInvoker.class));
+		assertEquals(8, invoker.invoke(null, 4));
+	}
+
+	@Test
+	public void interfaceMethod() throws Exception {
+		MethodInvoker invoker = this.factory.getMethodInvoker(Named.class.getMethod("getName"));
+		assertThat(invoker, instanceOf(CompiledMethodInvoker.class));
+		Sample sample = new Sample();
+		sample.setName("bar");
+		assertEquals("bar", invoker.invoke(sample));
+	}
+
+	@Test
+	public void widenedArgumentFallsBackToReflection() throws Exception {
+		MethodInvoker invoker = this.factory.getMethodInvoker(Sample.class.getMethod("add", long.class, long.class));
+		assertEquals(5L, invoker.invoke(new Sample(), 2, (short) 3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void argumentTypeMismatch() throws Exception {
+		MethodInvoker invoker = this.factory.getMethodInvoker(Sample.class.getMethod("concat", String.class, int.class));
+		invoker.invoke(new Sample(), 1, "a");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nullForPrimitiveArgument() throws Exception {
+		MethodInvoker invoker = this.factory.getMethodInvoker(Sample.class.getMethod("concat", String.class, int.class));
+		invoker.invoke(new Sample(), "a", null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void wrongNumberOfArguments() throws Exception {
+		MethodInvoker invoker = this.factory.getMethodInvoker(Sample.class.getMethod("concat", String.class, int.class));
+		invoker.invoke(new Sample(), "a");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void targetOfWrongType() throws Exception {
+		MethodInvoker invoker = this.factory.getMethodInvoker(Sample.class.getMethod("concat", String.class, int.class));
+		invoker.invoke("not a sample", "a", 1);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void nullTarget() throws Exception {
+		MethodInvoker invoker = this.factory.getMethodInvoker(Sample.class.getMethod("concat", String.class, int.class));
+		invoker.invoke(null, "a", 1);
+	}
+
+	@Test
+	public void exceptionIsWrapped() throws Exception {
+		MethodInvoker invoker = this.factory.getMethodInvoker(Sample.class.getMethod("fail", String.class));
+		try {
+			invoker.invoke(new Sample(), "boom");
+			fail("Should have thrown InvocationTargetException");
+		}
+		catch (InvocationTargetException ex) {
+			assertThat(ex.getTargetException(), instanceOf(IllegalStateException.class));
+			assertEquals("boom", ex.getTargetException().getMessage());
+		}
+	}
+
+	@Test
+	public void nonPublicMethodUsesReflection() throws Exception {
+		Method method = Sample.class.getDeclaredMethod("hidden");
+		MethodInvoker invoker = this.factory.getMethodInvoker(method);
+		assertThat(invoker, instanceOf(ReflectiveMethodInvoker.class));
+		assertEquals("hidden", invoker.invoke(new Sample()));
+	}
+
+	@Test
+	public void nonPublicParameterTypeUsesReflection() throws Exception {
+		MethodInvoker invoker = this.factory.getMethodInvoker(Sample.class.getMethod("hiddenType", HiddenType.class));
+		assertThat(invoker, instanceOf(ReflectiveMethodInvoker.class));
+	}
+
+	@Test
+	public void jdkMethodUsesReflection() throws Exception {
+		MethodInvoker invoker = this.factory.getMethodInvoker(List.class.getMethod("size"));
+		assertThat(invoker, instanceOf(ReflectiveMethodInvoker.class));
+	}
+
+	@Test
+	public void invocationPerformance() throws Exception {
+		Assume.group(TestGroup.PERFORMANCE);
+		Method method = Sample.class.getMethod("concat", String.class, int.class);
+		MethodInvoker reflective = new ReflectiveMethodInvoker(method);
+		MethodInvoker compiled = this.factory.getMethodInvoker(method);
+		Sample sample = new Sample();
+		int iterations = 5000000;
+
+		StopWatch sw = new StopWatch();
+		for (int round = 0; round < 2; round++) {
+			sw.start("ReflectiveMethodInvoker " + round);
+			invokeAll(reflective, sample, iterations);
+			sw.stop();
+			sw.start("CompiledMethodInvoker " + round);
+			invokeAll(compiled, sample, iterations);
+			sw.stop();
+		}
+		System.out.println(sw.prettyPrint());
+		assertTrue("Compiled invocation slower than reflection: " + sw.prettyPrint(),
+				sw.getTaskInfo()[3].getTimeMillis() < sw.getTaskInfo()[2].getTimeMillis());
+	}
+
+	private void invokeAll(MethodInvoker invoker, Sample sample, int iterations) throws Exception {
+		for (int i = 0; i < iterations; i++) {
+			invoker.invoke(sample, "a", i);
+		}
+	}
+
+
+	public interface Named {
+
+		String getName();
+	}
+
+
+	public static class Sample implements Named {
+
+		private String name;
+
+		public static int twice(int value) {
+			return value * 2;
+		}
+
+		public String concat(String text, int count) {
+			return text + count;
+		}
+
+		public long add(long a, long b) {
+			return a + b;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		public void fail(String message) {
+			throw new IllegalStateException(message);
+		}
+
+		public void hiddenType(HiddenType value) {
+		}
+
+		String hidden() {
+			return "hidden";
+		}
+	}
+
+
+	static class HiddenType {
+	}
+
+}
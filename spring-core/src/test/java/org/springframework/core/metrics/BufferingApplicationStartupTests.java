@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import org.springframework.core.metrics.BufferingApplicationStartup.RecordedStep;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link BufferingApplicationStartup} and {@link ApplicationStartup#DEFAULT}.
+ */
+public class BufferingApplicationStartupTests {
+
+	private final BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(3);
+
+
+	@Test
+	public void defaultApplicationStartup() {
+		StartupStep step = ApplicationStartup.DEFAULT.start("spring.test").tag("key", "value");
+		assertSame(step, ApplicationStartup.DEFAULT.start("spring.other"));
+		assertTrue(step.getTags().isEmpty());
+		assertNull(step.getParentId());
+		step.end();
+		step.end();
+	}
+
+	@Test
+	public void nestedSteps() {
+		StartupStep outer = this.applicationStartup.start("spring.outer").tag("beanName", "outer");
+		StartupStep inner = this.applicationStartup.start("spring.inner");
+		assertEquals(Long.valueOf(outer.getId()), inner.getParentId());
+		inner.end();
+		StartupStep sibling = this.applicationStartup.start("spring.sibling");
+		assertEquals(Long.valueOf(outer.getId()), sibling.getParentId());
+		sibling.end();
+		outer.end();
+
+		List<RecordedStep> steps = this.applicationStartup.getRecordedSteps();
+		assertEquals(3, steps.size());
+		assertEquals("spring.outer", steps.get(0).getName());
+		assertNull(steps.get(0).getParentId());
+		assertEquals("outer", steps.get(0).getTags().get("beanName"));
+		assertEquals(Thread.currentThread().getName(), steps.get(0).getThreadName());
+		assertEquals("spring.inner", steps.get(1).getName());
+		assertEquals(Long.valueOf(steps.get(0).getId()), steps.get(1).getParentId());
+		assertTrue(steps.get(0).getDuration() >= steps.get(1).getDuration() + steps.get(2).getDuration());
+		assertNull(this.applicationStartup.start("spring.next").getParentId());
+	}
+
+	@Test
+	public void stepsOnOtherThread() throws InterruptedException {
+		StartupStep outer = this.applicationStartup.start("spring.outer");
+		final AtomicReference<StartupStep> otherStep = new AtomicReference<StartupStep>();
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				StartupStep step = applicationStartup.start("spring.other");
+				otherStep.set(step);
+				step.end();
+			}
+		});
+		thread.start();
+		thread.join();
+		outer.end();
+
+		assertNull(otherStep.get().getParentId());
+		assertEquals(2, this.applicationStartup.getRecordedSteps().size());
+	}
+
+	@Test
+	public void bufferCapacity() {
+		for (int i = 0; i < 5; i++) {
+			this.applicationStartup.start("spring.step" + i).end();
+		}
+		assertEquals(3, this.applicationStartup.getRecordedSteps().size());
+		assertEquals(2, this.applicationStartup.getDroppedStepCount());
+
+		List<RecordedStep> drained = this.applicationStartup.drainRecordedSteps();
+		assertEquals(3, drained.size());
+		assertEquals("spring.step0", drained.get(0).getName());
+		assertTrue(this.applicationStartup.getRecordedSteps().isEmpty());
+		this.applicationStartup.start("spring.step5").end();
+		assertEquals(1, this.applicationStartup.getRecordedSteps().size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void tagAfterEnd() {
+		StartupStep step = this.applicationStartup.start("spring.test");
+		step.end();
+		step.tag("key", "value");
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void endTwice() {
+		StartupStep step = this.applicationStartup.start("spring.test");
+		step.end();
+		step.end();
+	}
+
+	@Test
+	public void json() {
+		StartupStep outer = this.applicationStartup.start("spring.outer").tag("beanName", "my \"bean\"\n");
+		this.applicationStartup.start("spring.inner").end();
+		outer.end();
+
+		String json = this.applicationStartup.toJson();
+		assertTrue(json.startsWith("{\"events\":["));
+		assertTrue(json.contains("\"name\":\"spring.outer\",\"id\":" + outer.getId() + ",\"parentId\":null"));
+		assertTrue(json.contains("\"name\":\"spring.inner\",\"id\":" + (outer.getId() + 1) +
+				",\"parentId\":" + outer.getId()));
+		assertTrue(json.contains("\"tags\":{\"beanName\":\"my \\\"bean\\\"\\n\"}"));
+		assertTrue(json.contains("\"eventThread\":\"" + Thread.currentThread().getName() + "\""));
+		assertTrue(json.endsWith("\"droppedSteps\":0}"));
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ParallelMetadataReading} and concurrent use of
+ * {@link CachingMetadataReaderFactory}.
+ */
+public class ParallelMetadataReadingTests {
+
+	private static final String[] CLASS_NAMES = {String.class.getName(), List.class.getName(),
+			ParallelMetadataReading.class.getName(), MetadataReader.class.getName(), Integer.class.getName()};
+
+	private final CachingMetadataReaderFactory metadataReaderFactory = new CachingMetadataReaderFactory();
+
+
+	@After
+	public void clearParallelism() {
+		System.clearProperty(ParallelMetadataReading.PARALLELISM_PROPERTY_NAME);
+	}
+
+
+	@Test
+	public void disabledByDefault() {
+		assertFalse(ParallelMetadataReading.isEnabled());
+		assertNull(ParallelMetadataReading.getMetadataReaders(this.metadataReaderFactory, CLASS_NAMES));
+	}
+
+	@Test
+	public void disabledForSingleThread() {
+		System.setProperty(ParallelMetadataReading.PARALLELISM_PROPERTY_NAME, "1");
+		assertFalse(ParallelMetadataReading.isEnabled());
+		System.setProperty(ParallelMetadataReading.PARALLELISM_PROPERTY_NAME, "many");
+		assertFalse(ParallelMetadataReading.isEnabled());
+	}
+
+	@Test
+	public void classNamesInOrder() {
+		System.setProperty(ParallelMetadataReading.PARALLELISM_PROPERTY_NAME, "3");
+		assertTrue(ParallelMetadataReading.isEnabled());
+		MetadataReader[] metadataReaders =
+				ParallelMetadataReading.getMetadataReaders(this.metadataReaderFactory, CLASS_NAMES);
+		assertEquals(CLASS_NAMES.length, metadataReaders.length);
+		for (int i = 0; i < CLASS_NAMES.length; i++) {
+			assertEquals(CLASS_NAMES[i], metadataReaders[i].getClassMetadata().getClassName());
+		}
+		assertNull(ParallelMetadataReading.getMetadataReaders(this.metadataReaderFactory, new String[] {CLASS_NAMES[0]}));
+	}
+
+	@Test
+	public void resourcesInOrderWithUnreadableResource() throws IOException {
+		System.setProperty(ParallelMetadataReading.PARALLELISM_PROPERTY_NAME, "3");
+		Resource[] resources = new Resource[] {classResource(String.class), new ClassPathResource("bogus/Bogus.class"),
+				classResource(Integer.class)};
+		MetadataReader[] metadataReaders =
+				ParallelMetadataReading.getMetadataReaders(this.metadataReaderFactory, resources);
+		assertEquals(String.class.getName(), metadataReaders[0].getClassMetadata().getClassName());
+		assertNull(metadataReaders[1]);
+		assertEquals(Integer.class.getName(), metadataReaders[2].getClassMetadata().getClassName());
+		assertSame(metadataReaders[2], this.metadataReaderFactory.getMetadataReader(resources[2]));
+	}
+
+	@Test
+	public void concurrentCachingMetadataReaderFactory() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<MetadataReader>> futures = new ArrayList<Future<MetadataReader>>();
+			for (int i = 0; i < 200; i++) {
+				final String className = CLASS_NAMES[i % CLASS_NAMES.length];
+				futures.add(executor.submit(new Callable<MetadataReader>() {
+					@Override
+					public MetadataReader call() throws Exception {
+						return metadataReaderFactory.getMetadataReader(className);
+					}
+				}));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				MetadataReader metadataReader = futures.get(i).get();
+				assertEquals(CLASS_NAMES[i % CLASS_NAMES.length], metadataReader.getClassMetadata().getClassName());
+				assertSame(metadataReader, this.metadataReaderFactory.getMetadataReader(CLASS_NAMES[i % CLASS_NAMES.length]));
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void cachingMetadataReaderFactoryLimit() throws IOException {
+		this.metadataReaderFactory.setCacheLimit(0);
+		MetadataReader metadataReader = this.metadataReaderFactory.getMetadataReader(CLASS_NAMES[0]);
+		assertNotSame(metadataReader, this.metadataReaderFactory.getMetadataReader(CLASS_NAMES[0]));
+
+		this.metadataReaderFactory.setCacheLimit(2);
+		metadataReader = this.metadataReaderFactory.getMetadataReader(CLASS_NAMES[0]);
+		assertSame(metadataReader, this.metadataReaderFactory.getMetadataReader(CLASS_NAMES[0]));
+		this.metadataReaderFactory.clearCache();
+		assertNotSame(metadataReader, this.metadataReaderFactory.getMetadataReader(CLASS_NAMES[0]));
+	}
+
+
+	private Resource classResource(Class<?> clazz) {
+		return new ClassPathResource(ClassUtils.convertClassNameToResourcePath(clazz.getName()) + ClassUtils.CLASS_FILE_SUFFIX);
+	}
+
+}
@@ -42,12 +42,17 @@ import static org.junit.Assert.*;
  */
 public class AntPathMatcherTests {
 
-	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+	protected final AntPathMatcher pathMatcher = createPathMatcher();
 
 	@Rule
 	public final ExpectedException exception = ExpectedException.none();
 
 
+	protected AntPathMatcher createPathMatcher() {
+		return new AntPathMatcher();
+	}
+
+
 	@Test
 	public void match() {
 		// test exact matching
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.tests.Assume;
+import org.springframework.tests.TestGroup;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CompiledAntPathMatcher}, running all {@link AntPathMatcher} tests
+ * against the compiled variant.
+ */
+public class CompiledAntPathMatcherTests extends AntPathMatcherTests {
+
+	private static final List<String> PATTERNS = Arrays.asList(
+			"/hotels/{hotel}", "/hotels/{hotel}/bookings/{booking}", "/hotels/**", "/**/*.html",
+			"/*/{name}.{extension}", "/a*b*c/{x}?{y}", "/{x}{y}/{z}", "/docs/*/{page}-*.pdf",
+			"/**/bookings/**/{id}", "*", "/*", "/{a}/**/b/**/{c}", "/x/{x:[a-z]+}/y", "/A*/b?", "/a/**/");
+
+	private static final List<String> PATHS = Arrays.asList(
+			"/hotels/1", "/hotels/1/bookings/2", "/hotels/", "/hotels", "/a/b/c/index.html", "/x/file.tar.gz",
+			"/abbcbc/xQy", "/abc/12/c", "/docs/2015/page-1-2.pdf", "/docs/2015/page.pdf", "/a/bookings/c/d/7",
+			"/A/b/c", "/a/x/b/y/b/c", "/x/abc/y", "/x/ABC/y", "/aB/bc", "/a/ /b", "/a\n/b", "/a/b/");
+
+
+	@Override
+	protected AntPathMatcher createPathMatcher() {
+		return new CompiledAntPathMatcher();
+	}
+
+	@Override
+	@Test
+	public void defaultCacheSetting() {
+		match();
+		assertTrue(compiledPatternCache().size() > 20);
+
+		for (int i = 0; i < 65536; i++) {
+			pathMatcher.match("test" + i, "test");
+		}
+		// Soft references in the cache instead of a threshold
+		assertFalse(compiledPatternCache().isEmpty());
+	}
+
+	@Override
+	@Test
+	public void cachePatternsSetToTrue() {
+		pathMatcher.setCachePatterns(true);
+		match();
+		assertTrue(compiledPatternCache().size() > 20);
+	}
+
+	@Override
+	@Test
+	public void cachePatternsSetToFalse() {
+		pathMatcher.setCachePatterns(false);
+		match();
+		assertTrue(compiledPatternCache().isEmpty());
+	}
+
+	@Test
+	public void cacheClearedOnConfigurationChange() {
+		assertTrue(pathMatcher.match("/Hotels/*", "/Hotels/1"));
+		assertFalse(pathMatcher.match("/hotels/*", "/Hotels/1"));
+		assertFalse(compiledPatternCache().isEmpty());
+
+		pathMatcher.setCaseSensitive(false);
+		assertTrue(compiledPatternCache().isEmpty());
+		assertTrue(pathMatcher.match("/hotels/*", "/Hotels/1"));
+	}
+
+	@Test
+	public void wildcardsDoNotMatchLineTerminators() {
+		assertFalse(pathMatcher.match("/a?c", "/a\nc"));
+		assertFalse(pathMatcher.match("/a*c", "/a\r\nc"));
+		assertFalse(pathMatcher.match("/{name}", "/a\u2028b"));
+		assertTrue(pathMatcher.match("/a*c", "/a\tc"));
+	}
+
+	@Test
+	public void wildcardsMatchSupplementaryCharacters() {
+		String path = "/a\uD83D\uDE00c";
+		assertTrue(pathMatcher.match("/a?c", path));
+		assertFalse(pathMatcher.match("/a??c", path));
+		assertTrue(pathMatcher.match("/*?c", path));
+		Map<String, String> variables = pathMatcher.extractUriTemplateVariables("/{x}?c", path);
+		assertEquals("a", variables.get("x"));
+	}
+
+	@Test
+	public void consistentWithAntPathMatcher() {
+		AntPathMatcher expected = new AntPathMatcher();
+		for (String pattern : PATTERNS) {
+			for (String path : PATHS) {
+				String description = "pattern '" + pattern + "' and path '" + path + "'";
+				assertEquals("match " + description, expected.match(pattern, path), pathMatcher.match(pattern, path));
+				assertEquals("matchStart " + description,
+						expected.matchStart(pattern, path), pathMatcher.matchStart(pattern, path));
+				Map<String, String> expectedVariables = new LinkedHashMap<String, String>();
+				Map<String, String> actualVariables = new LinkedHashMap<String, String>();
+				expected.doMatch(pattern, path, true, expectedVariables);
+				pathMatcher.doMatch(pattern, path, true, actualVariables);
+				assertEquals("variables for " + description, expectedVariables, actualVariables);
+			}
+		}
+	}
+
+	@Test
+	public void matchPerformance() {
+		Assume.group(TestGroup.PERFORMANCE);
+		AntPathMatcher antPathMatcher = new AntPathMatcher();
+		int iterations = 20000;
+
+		StopWatch sw = new StopWatch();
+		for (int round = 0; round < 2; round++) {
+			sw.start("AntPathMatcher " + round);
+			matchAll(antPathMatcher, iterations);
+			sw.stop();
+			sw.start("CompiledAntPathMatcher " + round);
+			matchAll(pathMatcher, iterations);
+			sw.stop();
+		}
+		System.out.println(sw.prettyPrint());
+		assertTrue("Compiled matching slower than AntPathMatcher: " + sw.prettyPrint(),
+				sw.getTaskInfo()[3].getTimeMillis() < sw.getTaskInfo()[2].getTimeMillis());
+	}
+
+	private void matchAll(AntPathMatcher matcher, int iterations) {
+		for (int i = 0; i < iterations; i++) {
+			for (String pattern : PATTERNS) {
+				for (String path : PATHS) {
+					matcher.match(pattern, path);
+				}
+			}
+		}
+	}
+
+	private Map<String, ?> compiledPatternCache() {
+		return ((CompiledAntPathMatcher) pathMatcher).compiledPatternCache;
+	}
+
+}
@@ -36,6 +36,7 @@ import org.junit.rules.ExpectedException;
 
 import org.springframework.util.ConcurrentReferenceHashMap.Entry;
 import org.springframework.util.ConcurrentReferenceHashMap.Reference;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
 import org.springframework.util.ConcurrentReferenceHashMap.Restructure;
 import org.springframework.util.comparator.ComparableComparator;
 import org.springframework.util.comparator.NullSafeComparator;
@@ -125,6 +126,15 @@ public class ConcurrentReferenceHashMapTests {
 		new TestWeakConcurrentCache<Integer, String>(1, 0);
 	}
 
+	@Test
+	public void shouldNeedPositiveOrUnboundedMaxEntries() throws Exception {
+		new ConcurrentReferenceHashMap<Integer, String>(1, 0.75f, 1, ReferenceType.SOFT, 1);
+		new ConcurrentReferenceHashMap<Integer, String>(1, 0.75f, 1, ReferenceType.SOFT, ConcurrentReferenceHashMap.UNBOUNDED);
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("Max entries must be positive or UNBOUNDED");
+		new ConcurrentReferenceHashMap<Integer, String>(1, 0.75f, 1, ReferenceType.SOFT, 0);
+	}
+
 	@Test
 	public void shouldPutAndGet() throws Exception {
 		// NOTE we are using mock references so we don't need to worry about GC
@@ -482,6 +492,92 @@ public class ConcurrentReferenceHashMapTests {
 		assertThat(this.map.get(2), is("2b"));
 	}
 
+	@Test
+	public void shouldEvictEntriesNotRecentlyAccessedWhenBounded() throws Exception {
+		ConcurrentReferenceHashMap<Integer, String> map =
+				new ConcurrentReferenceHashMap<Integer, String>(16, 0.75f, 1, ReferenceType.SOFT, 4);
+		assertThat(map.isBounded(), is(true));
+		for (int i = 1; i <= 4; i++) {
+			map.put(i, String.valueOf(i));
+		}
+		map.get(1);
+		map.get(2);
+		map.get(3);
+		map.put(5, "5");
+		assertThat(map.size(), is(4));
+		assertThat(map.containsKey(4), is(false));
+		assertThat(map.get(5), is("5"));
+		assertThat(map.getEvictionCount(), is(1L));
+
+		for (int i = 6; i < 100; i++) {
+			map.put(i, String.valueOf(i));
+			assertThat(map.get(i), is(String.valueOf(i)));
+		}
+		assertThat(map.size(), is(4));
+		assertThat(map.getEvictionCount(), is(95L));
+	}
+
+	@Test
+	public void shouldEvictPerSegmentWhenBounded() throws Exception {
+		ConcurrentReferenceHashMap<Integer, String> map =
+				new ConcurrentReferenceHashMap<Integer, String>(16, 0.75f, 4, ReferenceType.SOFT, 16);
+		for (int i = 0; i < 1000; i++) {
+			map.put(i, String.valueOf(i));
+		}
+		assertThat(map.size(), is(lessThanOrEqualTo(16)));
+		assertThat(map.getEvictionCount(), is((long) (1000 - map.size())));
+	}
+
+	@Test
+	public void shouldRecordStatisticsWhenBounded() throws Exception {
+		ConcurrentReferenceHashMap<Integer, String> map =
+				new ConcurrentReferenceHashMap<Integer, String>(16, 0.75f, 1, ReferenceType.SOFT, 8);
+		map.put(1, "1");
+		map.get(1);
+		map.get(1);
+		map.get(2);
+		assertThat(map.getHitCount(), is(2L));
+		assertThat(map.getMissCount(), is(1L));
+		assertThat(map.getEvictionCount(), is(0L));
+	}
+
+	@Test
+	public void shouldNotRecordStatisticsWhenUnbounded() throws Exception {
+		ConcurrentReferenceHashMap<Integer, String> map = new ConcurrentReferenceHashMap<Integer, String>();
+		assertThat(map.isBounded(), is(false));
+		map.put(1, "1");
+		map.get(1);
+		map.get(2);
+		assertThat(map.getHitCount(), is(0L));
+		assertThat(map.getMissCount(), is(0L));
+	}
+
+	@Test
+	public void shouldBoundMetadataCacheViaSystemProperty() throws Exception {
+		String propertyName = ConcurrentReferenceHashMap.METADATA_CACHE_MAX_ENTRIES_PROPERTY_NAME;
+		String originalValue = System.clearProperty(propertyName);
+		try {
+			assertThat(ConcurrentReferenceHashMap.forMetadataCache(16).isBounded(), is(false));
+			System.setProperty(propertyName, "64");
+			ConcurrentReferenceHashMap<Integer, String> map = ConcurrentReferenceHashMap.forMetadataCache(16);
+			assertThat(map.isBounded(), is(true));
+			for (int i = 0; i < 1000; i++) {
+				map.put(i, String.valueOf(i));
+			}
+			assertThat(map.size(), is(lessThanOrEqualTo(64)));
+			System.setProperty(propertyName, "unlimited");
+			assertThat(ConcurrentReferenceHashMap.forMetadataCache(16).isBounded(), is(false));
+		}
+		finally {
+			if (originalValue != null) {
+				System.setProperty(propertyName, originalValue);
+			}
+			else {
+				System.clearProperty(propertyName);
+			}
+		}
+	}
+
 	@Test
 	@Ignore("Intended for use during development only")
 	public void shouldBeFasterThanSynchronizedMap() throws Exception {
@@ -45,6 +45,14 @@ public class CodeFlow implements Opcodes {
 	 */
 	private final Stack<ArrayList<String>> compilationScopes;
 
+	/**
+	 * Record the local variables holding the active context objects of nested scopes,
+	 * e.g. the current element whilst evaluating the criteria of a selection. If there
+	 * is no such scope, the target passed to the generated method is the active context
+	 * object.
+	 */
+	private final Stack<Integer> activeContextObjects;
+
 	/**
 	 * The current class being generated
 	 */
@@ -79,24 +87,77 @@ public class CodeFlow implements Opcodes {
 
 	/**
 	 * When code generation requires an intermediate variable within a method,
-	 * this method records the next available variable (variable 0 is 'this').
+	 * this method records the next available variable (variable 0 is 'this',
+	 * variables 1 and 2 are the target and the evaluation context).
 	 */
-	private int nextFreeVariableId = 1;
+	private int nextFreeVariableId = 3;
 
 	public CodeFlow(String clazzName, ClassWriter cw) {
 		this.compilationScopes = new Stack<ArrayList<String>>();
 		this.compilationScopes.add(new ArrayList<String>());
+		this.activeContextObjects = new Stack<Integer>();
 		this.cw = cw;
 		this.clazzName = clazzName;
 	}
 
+	/**
+	 * Prepare for generating the evaluation method of a further expression into the
+	 * same class, as done when compiling several expressions in one batch: compilation
+	 * scopes and local variables start afresh, whereas registered fields and static
+	 * initializer code are retained for the class as a whole.
+	 * @since 4.2.4
+	 */
+	public void beginMethod() {
+		this.compilationScopes.clear();
+		this.compilationScopes.add(new ArrayList<String>());
+		this.activeContextObjects.clear();
+		this.nextFreeVariableId = 3;
+	}
+
 	/**
 	 * Push the byte code to load the target (i.e. what was passed as the first argument
-	 * to CompiledExpression.getValue(target, context))
+	 * to CompiledExpression.getValue(target, context)), or the active context object
+	 * if within a scope entered through {@link #enterActiveContextObjectScope}.
 	 * @param mv the visitor into which the load instruction should be inserted
 	 */
 	public void loadTarget(MethodVisitor mv) {
-		mv.visitVarInsn(ALOAD, 1);
+		if (this.activeContextObjects.isEmpty()) {
+			mv.visitVarInsn(ALOAD, 1);
+		}
+		else {
+			mv.visitVarInsn(ALOAD, this.activeContextObjects.peek());
+		}
+	}
+
+	/**
+	 * Push the byte code to load the evaluation context (i.e. what was passed as the
+	 * second argument to CompiledExpression.getValue(target, context)).
+	 * @param mv the visitor into which the load instruction should be inserted
+	 * @since 4.2.4
+	 */
+	public void loadEvaluationContext(MethodVisitor mv) {
+		mv.visitVarInsn(ALOAD, 2);
+	}
+
+	/**
+	 * Enter a scope in which the object held in the specified local variable is the
+	 * active context object, usually due to evaluating an expression against each
+	 * element of a collection. Within this scope {@link #loadTarget} loads that object.
+	 * @param variableId the local variable holding the active context object
+	 * (variable 1 being the target passed to the generated method)
+	 * @since 4.2.4
+	 * @see #nextFreeVariableId()
+	 */
+	public void enterActiveContextObjectScope(int variableId) {
+		this.activeContextObjects.push(variableId);
+	}
+
+	/**
+	 * Exit a scope entered through {@link #enterActiveContextObjectScope}.
+	 * @since 4.2.4
+	 */
+	public void exitActiveContextObjectScope() {
+		this.activeContextObjects.pop();
 	}
 
 	/**
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+/**
+ * Hit and miss statistics for the inline caches that property, field and method
+ * references keep of their resolved accessors and executors.
+ *
+ * <p>A hit means that a previously resolved accessor or executor was reused for the
+ * receiver type (and argument types) at hand, either from the cache of the AST node
+ * itself or - once the node has seen too many different types to cache them all,
+ * i.e. has become megamorphic - from the cache shared per evaluation context.
+ * A miss means that the property accessors or method resolvers of the evaluation
+ * context had to be consulted.
+ *
+ * @since 4.2.4
+ * @see org.springframework.expression.spel.standard.SpelExpression#getInlineCacheStatistics()
+ */
+public class InlineCacheStatistics {
+
+	private final long hitCount;
+
+	private final long sharedHitCount;
+
+	private final long missCount;
+
+	private final int cacheCount;
+
+	private final int megamorphicCacheCount;
+
+
+	/**
+	 * Create a new {@code InlineCacheStatistics} instance.
+	 * @param hitCount the number of hits in per-node caches
+	 * @param sharedHitCount the number of hits in shared per-context caches
+	 * @param missCount the number of misses
+	 * @param cacheCount the number of per-node caches covered
+	 * @param megamorphicCacheCount the number of those caches that have become megamorphic
+	 */
+	public InlineCacheStatistics(long hitCount, long sharedHitCount, long missCount,
+			int cacheCount, int megamorphicCacheCount) {
+
+		this.hitCount = hitCount;
+		this.sharedHitCount = sharedHitCount;
+		this.missCount = missCount;
+		this.cacheCount = cacheCount;
+		this.megamorphicCacheCount = megamorphicCacheCount;
+	}
+
+
+	/**
+	 * Return the number of lookups served by the cache of the AST node itself.
+	 */
+	public long getHitCount() {
+		return this.hitCount;
+	}
+
+	/**
+	 * Return the number of lookups of megamorphic AST nodes that were served
+	 * by the cache shared per evaluation context.
+	 */
+	public long getSharedHitCount() {
+		return this.sharedHitCount;
+	}
+
+	/**
+	 * Return the number of lookups that required a full resolution.
+	 */
+	public long getMissCount() {
+		return this.missCount;
+	}
+
+	/**
+	 * Return the fraction of lookups that were served by any cache,
+	 * or 0 if there were no lookups at all.
+	 */
+	public double getHitRatio() {
+		long total = this.hitCount + this.sharedHitCount + this.missCount;
+		return (total > 0 ? (double) (this.hitCount + this.sharedHitCount) / total : 0);
+	}
+
+	/**
+	 * Return the number of per-node caches, i.e. of property, field and method
+	 * references, that these statistics cover.
+	 */
+	public int getCacheCount() {
+		return this.cacheCount;
+	}
+
+	/**
+	 * Return the number of per-node caches that have become megamorphic.
+	 */
+	public int getMegamorphicCacheCount() {
+		return this.megamorphicCacheCount;
+	}
+
+	/**
+	 * Combine these statistics with the given ones.
+	 * @param other the statistics to add
+	 * @return new statistics holding the sums of both
+	 */
+	public InlineCacheStatistics combine(InlineCacheStatistics other) {
+		return new InlineCacheStatistics(this.hitCount + other.hitCount, this.sharedHitCount + other.sharedHitCount,
+				this.missCount + other.missCount, this.cacheCount + other.cacheCount,
+				this.megamorphicCacheCount + other.megamorphicCacheCount);
+	}
+
+
+	@Override
+	public String toString() {
+		return "hits=" + this.hitCount + ", sharedHits=" + this.sharedHitCount + ", misses=" + this.missCount +
+				", caches=" + this.cacheCount + ", megamorphicCaches=" + this.megamorphicCacheCount;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,12 @@
 
 package org.springframework.expression.spel.ast;
 
+import java.lang.reflect.Modifier;
+
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 
 /**
@@ -39,7 +43,14 @@ public class Assign extends SpelNodeImpl {
 	@Override
 	public TypedValue getValueInternal(ExpressionState state) throws EvaluationException {
 		TypedValue newValue = this.children[1].getValueInternal(state);
-		getChild(0).setValue(state, newValue.getValue());
+		Object value = newValue.getValue();
+		getChild(0).setValue(state, value);
+		if (value == null || !Modifier.isPublic(value.getClass().getModifiers())) {
+			this.exitTypeDescriptor = "Ljava/lang/Object";
+		}
+		else {
+			this.exitTypeDescriptor = CodeFlow.toDescriptorFromObject(value);
+		}
 		return newValue;
 	}
 
@@ -48,4 +59,33 @@ public class Assign extends SpelNodeImpl {
 		return getChild(0).toStringAST() + "=" + getChild(1).toStringAST();
 	}
 
+	/**
+	 * Assignments are only compiled when assigning to a variable,
+	 * e.g. {@code #result = name}.
+	 */
+	@Override
+	public boolean isCompilable() {
+		return (this.exitTypeDescriptor != null && this.children[0] instanceof VariableReference &&
+				((VariableReference) this.children[0]).isVariable() && this.children[1].isCompilable());
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		cf.enterCompilationScope();
+		this.children[1].generateCode(mv, cf);
+		String valueDescriptor = cf.lastDescriptor();
+		cf.exitCompilationScope();
+		if (CodeFlow.isPrimitive(valueDescriptor)) {
+			CodeFlow.insertBoxIfNecessary(mv, valueDescriptor.charAt(0));
+		}
+		else if (!this.exitTypeDescriptor.equals(valueDescriptor)) {
+			CodeFlow.insertCheckCast(mv, this.exitTypeDescriptor);
+		}
+		mv.visitInsn(DUP);
+		int value = cf.nextFreeVariableId();
+		mv.visitVarInsn(ASTORE, value);
+		((VariableReference) this.children[0]).generateSetValueCode(mv, cf, value);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
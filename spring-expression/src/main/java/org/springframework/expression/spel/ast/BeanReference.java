@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,15 @@
 
 package org.springframework.expression.spel.ast;
 
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.AccessException;
 import org.springframework.expression.BeanResolver;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -49,7 +54,16 @@ public class BeanReference extends SpelNodeImpl {
 		}
 
 		try {
-			return new TypedValue(beanResolver.resolve(state.getEvaluationContext(), this.beanName));
+			Object bean = beanResolver.resolve(state.getEvaluationContext(), this.beanName);
+			if (bean == null || !Modifier.isPublic(bean.getClass().getModifiers()) ||
+					Proxy.isProxyClass(bean.getClass())) {
+				// Avoid a checkcast to a type that cannot be accessed or resolved by name
+				this.exitTypeDescriptor = "Ljava/lang/Object";
+			}
+			else {
+				this.exitTypeDescriptor = CodeFlow.toDescriptorFromObject(bean);
+			}
+			return new TypedValue(bean);
 		}
 		catch (AccessException ex) {
 			throw new SpelEvaluationException(getStartPosition(), ex, SpelMessage.EXCEPTION_DURING_BEAN_RESOLUTION,
@@ -69,4 +83,22 @@ public class BeanReference extends SpelNodeImpl {
 		return sb.toString();
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return (this.exitTypeDescriptor != null);
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		cf.loadEvaluationContext(mv);
+		mv.visitMethodInsn(INVOKEINTERFACE, "org/springframework/expression/EvaluationContext",
+				"getBeanResolver", "()Lorg/springframework/expression/BeanResolver;", true);
+		cf.loadEvaluationContext(mv);
+		mv.visitLdcInsn(this.beanName);
+		mv.visitMethodInsn(INVOKEINTERFACE, "org/springframework/expression/BeanResolver", "resolve",
+				"(Lorg/springframework/expression/EvaluationContext;Ljava/lang/String;)Ljava/lang/Object;", true);
+		CodeFlow.insertCheckCast(mv, this.exitTypeDescriptor);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -242,17 +242,12 @@ public class Indexer extends SpelNodeImpl {
 						//depthPlusOne(exitTypeDescriptor)+"Ljava/lang/Object;");
 				insn = AALOAD;
 			}
-			SpelNodeImpl index = this.children[0];
-			cf.enterCompilationScope();
-			index.generateCode(mv, cf);
-			cf.exitCompilationScope();
+			generateIndexCode(mv, cf);
 			mv.visitInsn(insn);
 		}
 		else if (this.indexedType == IndexedType.LIST) {
 			mv.visitTypeInsn(CHECKCAST, "java/util/List");
-			cf.enterCompilationScope();
-			this.children[0].generateCode(mv, cf);
-			cf.exitCompilationScope();
+			generateIndexCode(mv, cf);
 			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "get", "(I)Ljava/lang/Object;", true);
 		}
 		else if (this.indexedType == IndexedType.MAP) {
@@ -265,9 +260,7 @@ public class Indexer extends SpelNodeImpl {
 				mv.visitLdcInsn(mapKeyName);
 			}
 			else {
-				cf.enterCompilationScope();
-				this.children[0].generateCode(mv, cf);
-				cf.exitCompilationScope();
+				generateIndexCode(mv, cf);
 			}
 			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "get", "(Ljava/lang/Object;)Ljava/lang/Object;", true);
 		} 
@@ -298,6 +291,15 @@ public class Indexer extends SpelNodeImpl {
 		cf.pushDescriptor(this.exitTypeDescriptor);
 	}
 
+	private void generateIndexCode(MethodVisitor mv, CodeFlow cf) {
+		// As in getValueRef, the index is evaluated against the root object (variable 1)
+		cf.enterCompilationScope();
+		cf.enterActiveContextObjectScope(1);
+		this.children[0].generateCode(mv, cf);
+		cf.exitActiveContextObjectScope();
+		cf.exitCompilationScope();
+	}
+
 	@Override
 	public String toStringAST() {
 		StringBuilder sb = new StringBuilder("[");
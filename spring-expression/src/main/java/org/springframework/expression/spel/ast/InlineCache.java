@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.ast;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.InlineCacheStatistics;
+
+/**
+ * Bounded polymorphic inline cache for the resolution results of a single AST node,
+ * typically keyed by receiver type (plus argument types for method references).
+ *
+ * <p>Holds up to {@link #MAX_ENTRIES} entries. Once a node has seen more distinct keys
+ * than that, it is considered megamorphic: no further entries are added locally and
+ * lookups fall back to the {@link ResolutionCache} shared by all nodes evaluated
+ * against the same {@link EvaluationContext}.
+ *
+ * @since 4.2.4
+ */
+class InlineCache<K, V> {
+
+	/**
+	 * The maximum number of entries held per AST node.
+	 */
+	static final int MAX_ENTRIES = 4;
+
+
+	// Copy-on-write array of immutable entries
+	private volatile Entry[] entries = new Entry[0];
+
+	private volatile boolean megamorphic;
+
+	// The shared cache used last, for repeated evaluation against the same context
+	private volatile SharedCacheHolder lastSharedCache;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong sharedHitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+
+	/**
+	 * Look up the value for the given key, consulting the shared cache for the
+	 * given context if this cache has gone megamorphic.
+	 * @param key the key to look up
+	 * @param evaluationContext the context that the lookup happens in
+	 * @return the cached value, or {@code null} if none (a miss)
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(K key, EvaluationContext evaluationContext) {
+		for (Entry entry : this.entries) {
+			if (entry.key.equals(key)) {
+				this.hitCount.incrementAndGet();
+				return (V) entry.value;
+			}
+		}
+		if (this.megamorphic) {
+			ResolutionCache sharedCache = getSharedCache(evaluationContext, false);
+			Object value = (sharedCache != null ? sharedCache.get(key) : null);
+			if (value != null) {
+				this.sharedHitCount.incrementAndGet();
+				return (V) value;
+			}
+		}
+		this.missCount.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Cache the given value, locally if there is room left or in the shared cache
+	 * for the given context otherwise.
+	 * @param key the key to cache the value under
+	 * @param value the resolved value
+	 * @param evaluationContext the context that the value was resolved in
+	 */
+	public void put(K key, V value, EvaluationContext evaluationContext) {
+		synchronized (this) {
+			Entry[] current = this.entries;
+			for (int i = 0; i < current.length; i++) {
+				if (current[i].key.equals(key)) {
+					Entry[] updated = current.clone();
+					updated[i] = new Entry(key, value);
+					this.entries = updated;
+					return;
+				}
+			}
+			if (current.length < MAX_ENTRIES) {
+				Entry[] updated = new Entry[current.length + 1];
+				System.arraycopy(current, 0, updated, 0, current.length);
+				updated[current.length] = new Entry(key, value);
+				this.entries = updated;
+				return;
+			}
+			this.megamorphic = true;
+		}
+		getSharedCache(evaluationContext, true).put(key, value);
+	}
+
+	/**
+	 * Remove a stale value, locally as well as from the shared cache for the given context.
+	 * @param key the key of the value to remove
+	 * @param evaluationContext the context that the value turned out to be stale in
+	 */
+	public void remove(K key, EvaluationContext evaluationContext) {
+		synchronized (this) {
+			Entry[] current = this.entries;
+			for (int i = 0; i < current.length; i++) {
+				if (current[i].key.equals(key)) {
+					Entry[] updated = new Entry[current.length - 1];
+					System.arraycopy(current, 0, updated, 0, i);
+					System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+					this.entries = updated;
+					break;
+				}
+			}
+		}
+		if (this.megamorphic) {
+			ResolutionCache sharedCache = getSharedCache(evaluationContext, false);
+			if (sharedCache != null) {
+				sharedCache.remove(key);
+			}
+		}
+	}
+
+	private ResolutionCache getSharedCache(EvaluationContext evaluationContext, boolean create) {
+		SharedCacheHolder holder = this.lastSharedCache;
+		if (holder != null && holder.context.get() == evaluationContext && holder.cache.isValidFor(evaluationContext)) {
+			return holder.cache;
+		}
+		ResolutionCache cache = (create ? ResolutionCache.forContext(evaluationContext) :
+				ResolutionCache.getIfPresent(evaluationContext));
+		if (cache != null) {
+			this.lastSharedCache = new SharedCacheHolder(evaluationContext, cache);
+		}
+		return cache;
+	}
+
+	/**
+	 * Return the hit and miss statistics of this cache.
+	 */
+	public InlineCacheStatistics getStatistics() {
+		return new InlineCacheStatistics(this.hitCount.get(), this.sharedHitCount.get(), this.missCount.get(),
+				1, (this.megamorphic ? 1 : 0));
+	}
+
+
+	private static class SharedCacheHolder {
+
+		final WeakReference<EvaluationContext> context;
+
+		final ResolutionCache cache;
+
+		public SharedCacheHolder(EvaluationContext context, ResolutionCache cache) {
+			this.context = new WeakReference<EvaluationContext>(context);
+			this.cache = cache;
+		}
+	}
+
+
+	private static class Entry {
+
+		final Object key;
+
+		final Object value;
+
+		public Entry(Object key, Object value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+}
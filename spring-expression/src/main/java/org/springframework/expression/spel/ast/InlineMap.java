@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,8 +20,11 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelNode;
 
@@ -107,6 +110,7 @@ public class InlineMap extends SpelNodeImpl {
 
 	@Override
 	public TypedValue getValueInternal(ExpressionState expressionState) throws EvaluationException {
+		this.exitTypeDescriptor = "Ljava/util/Map";
 		if (this.constant != null) {
 			return this.constant;
 		}
@@ -159,4 +163,108 @@ public class InlineMap extends SpelNodeImpl {
 		return (Map<Object,Object>) this.constant.getValue();
 	}
 
+	@Override
+	public boolean isCompilable() {
+		if (isConstant()) {
+			return true;
+		}
+		if (this.exitTypeDescriptor == null) {
+			return false;
+		}
+		for (int c = 0; c < this.children.length; c++) {
+			SpelNodeImpl child = this.children[c];
+			if (!(c % 2 == 0 && child instanceof PropertyOrFieldReference) && !child.isCompilable()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		if (isConstant()) {
+			final String constantFieldName = "inlineMap$" + codeflow.nextFieldId();
+			final String clazzname = codeflow.getClassname();
+			codeflow.registerNewField(new CodeFlow.FieldAdder() {
+				public void generateField(ClassWriter cw, CodeFlow codeflow) {
+					cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, constantFieldName, "Ljava/util/Map;", null, null);
+				}
+			});
+			codeflow.registerNewClinit(new CodeFlow.ClinitAdder() {
+				public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+					generateClinitCode(mv, codeflow);
+					mv.visitFieldInsn(PUTSTATIC, clazzname, constantFieldName, "Ljava/util/Map;");
+				}
+			});
+			mv.visitFieldInsn(GETSTATIC, clazzname, constantFieldName, "Ljava/util/Map;");
+		}
+		else {
+			mv.visitTypeInsn(NEW, "java/util/LinkedHashMap");
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/util/LinkedHashMap", "<init>", "()V", false);
+			for (int c = 0; c < this.children.length; c++) {
+				mv.visitInsn(DUP);
+				SpelNodeImpl keyChild = this.children[c++];
+				if (keyChild instanceof PropertyOrFieldReference) {
+					mv.visitLdcInsn(((PropertyOrFieldReference) keyChild).getName());
+				}
+				else {
+					generateEntryCode(keyChild, mv, codeflow);
+				}
+				generateEntryCode(this.children[c], mv, codeflow);
+				mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "put",
+						"(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", true);
+				mv.visitInsn(POP);
+			}
+		}
+		codeflow.pushDescriptor("Ljava/util/Map");
+	}
+
+	private void generateEntryCode(SpelNodeImpl child, MethodVisitor mv, CodeFlow codeflow) {
+		codeflow.enterCompilationScope();
+		child.generateCode(mv, codeflow);
+		if (CodeFlow.isPrimitive(codeflow.lastDescriptor())) {
+			CodeFlow.insertBoxIfNecessary(mv, codeflow.lastDescriptor().charAt(0));
+		}
+		codeflow.exitCompilationScope();
+	}
+
+	/**
+	 * Build the unmodifiable constant map on the stack, from within a static initializer.
+	 * Nested constant lists and maps are built directly rather than through
+	 * {@link #generateCode}, which would register further static initializer code.
+	 */
+	void generateClinitCode(MethodVisitor mv, CodeFlow codeflow) {
+		mv.visitTypeInsn(NEW, "java/util/LinkedHashMap");
+		mv.visitInsn(DUP);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/util/LinkedHashMap", "<init>", "()V", false);
+		for (int c = 0; c < this.children.length; c++) {
+			mv.visitInsn(DUP);
+			SpelNodeImpl keyChild = this.children[c++];
+			if (keyChild instanceof PropertyOrFieldReference) {
+				mv.visitLdcInsn(((PropertyOrFieldReference) keyChild).getName());
+			}
+			else {
+				generateEntryCode(keyChild, mv, codeflow);
+			}
+			SpelNodeImpl valueChild = this.children[c];
+			if (valueChild instanceof InlineList) {
+				((InlineList) valueChild).generateClinitCode(null, null, mv, codeflow, true);
+				mv.visitMethodInsn(INVOKESTATIC, "java/util/Collections", "unmodifiableList",
+						"(Ljava/util/List;)Ljava/util/List;", false);
+			}
+			else if (valueChild instanceof InlineMap) {
+				((InlineMap) valueChild).generateClinitCode(mv, codeflow);
+			}
+			else {
+				generateEntryCode(valueChild, mv, codeflow);
+			}
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "put",
+					"(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", true);
+			mv.visitInsn(POP);
+		}
+		mv.visitMethodInsn(INVOKESTATIC, "java/util/Collections", "unmodifiableMap",
+				"(Ljava/util/Map;)Ljava/util/Map;", false);
+	}
+
 }
@@ -34,6 +34,7 @@ import org.springframework.expression.MethodResolver;
 import org.springframework.expression.TypedValue;
 import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
+import org.springframework.expression.spel.InlineCacheStatistics;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
 import org.springframework.expression.spel.support.ReflectiveMethodExecutor;
@@ -52,7 +53,11 @@ public class MethodReference extends SpelNodeImpl {
 
 	private final boolean nullSafe;
 
-	private volatile CachedMethodExecutor cachedExecutor;
+	// The executor used by the most recent invocation, determining compilation
+	private volatile MethodExecutor cachedExecutor;
+
+	private final InlineCache<ExecutorCacheKey, MethodExecutor> executorCache =
+			new InlineCache<ExecutorCacheKey, MethodExecutor>();
 
 
 	public MethodReference(boolean nullSafe, String methodName, int pos, SpelNodeImpl... arguments) {
@@ -66,6 +71,15 @@ public class MethodReference extends SpelNodeImpl {
 		return this.name;
 	}
 
+	/**
+	 * Return the hit and miss statistics of the cache of method executors
+	 * that this node keeps per receiver and argument types.
+	 * @since 4.2.4
+	 */
+	public InlineCacheStatistics getInlineCacheStatistics() {
+		return this.executorCache.getStatistics();
+	}
+
 	@Override
 	protected ValueRef getValueRef(ExpressionState state) throws EvaluationException {
 		Object[] arguments = getArguments(state);
@@ -96,8 +110,13 @@ public class MethodReference extends SpelNodeImpl {
 			return TypedValue.NULL;
 		}
 
-		MethodExecutor executorToUse = getCachedExecutor(evaluationContext, value, targetType, argumentTypes);
+		ExecutorCacheKey cacheKey = (isCachingPossible(evaluationContext) ?
+				new ExecutorCacheKey(this.name, value, targetType, argumentTypes) : null);
+		MethodExecutor executorToUse = (cacheKey != null ? this.executorCache.get(cacheKey, evaluationContext) : null);
 		if (executorToUse != null) {
+			if (this.cachedExecutor != executorToUse) {
+				this.cachedExecutor = executorToUse;
+			}
 			try {
 				return executorToUse.execute(evaluationContext, value, arguments);
 			}
@@ -117,14 +136,17 @@ public class MethodReference extends SpelNodeImpl {
 
 				// At this point we know it wasn't a user problem so worth a retry if a
 				// better candidate can be found.
+				this.executorCache.remove(cacheKey, evaluationContext);
 				this.cachedExecutor = null;
 			}
 		}
 
 		// either there was no accessor or it no longer existed
 		executorToUse = findAccessorForMethod(this.name, argumentTypes, value, evaluationContext);
-		this.cachedExecutor = new CachedMethodExecutor(
-				executorToUse, (value instanceof Class ? (Class<?>) value : null), targetType, argumentTypes);
+		this.cachedExecutor = executorToUse;
+		if (cacheKey != null) {
+			this.executorCache.put(cacheKey, executorToUse, evaluationContext);
+		}
 		try {
 			return executorToUse.execute(evaluationContext, value, arguments);
 		}
@@ -168,22 +190,11 @@ public class MethodReference extends SpelNodeImpl {
 		return Collections.unmodifiableList(descriptors);
 	}
 
-	private MethodExecutor getCachedExecutor(EvaluationContext evaluationContext, Object value,
-			TypeDescriptor target, List<TypeDescriptor> argumentTypes) {
-
+	private boolean isCachingPossible(EvaluationContext evaluationContext) {
 		List<MethodResolver> methodResolvers = evaluationContext.getMethodResolvers();
-		if (methodResolvers == null || methodResolvers.size() != 1 ||
-				!(methodResolvers.get(0) instanceof ReflectiveMethodResolver)) {
-			// Not a default ReflectiveMethodResolver - don't know whether caching is valid
-			return null;
-		}
-
-		CachedMethodExecutor executorToCheck = this.cachedExecutor;
-		if (executorToCheck != null && executorToCheck.isSuitable(value, target, argumentTypes)) {
-			return executorToCheck.get();
-		}
-		this.cachedExecutor = null;
-		return null;
+		// Only for a default ReflectiveMethodResolver - don't know whether caching is valid otherwise
+		return (methodResolvers != null && methodResolvers.size() == 1 &&
+				methodResolvers.get(0) instanceof ReflectiveMethodResolver);
 	}
 
 	private MethodExecutor findAccessorForMethod(String name, List<TypeDescriptor> argumentTypes,
@@ -229,9 +240,9 @@ public class MethodReference extends SpelNodeImpl {
 	}
 
 	private void updateExitTypeDescriptor() {
-		CachedMethodExecutor executorToCheck = this.cachedExecutor;
-		if (executorToCheck != null && executorToCheck.get() instanceof ReflectiveMethodExecutor) {
-			Method method = ((ReflectiveMethodExecutor) executorToCheck.get()).getMethod();
+		MethodExecutor executorToCheck = this.cachedExecutor;
+		if (executorToCheck instanceof ReflectiveMethodExecutor) {
+			Method method = ((ReflectiveMethodExecutor) executorToCheck).getMethod();
 			this.exitTypeDescriptor = CodeFlow.toDescriptor(method.getReturnType());
 		}
 	}
@@ -256,8 +267,8 @@ public class MethodReference extends SpelNodeImpl {
 	 */
 	@Override
 	public boolean isCompilable() {
-		CachedMethodExecutor executorToCheck = this.cachedExecutor;
-		if (executorToCheck == null || !(executorToCheck.get() instanceof ReflectiveMethodExecutor)) {
+		MethodExecutor executorToCheck = this.cachedExecutor;
+		if (!(executorToCheck instanceof ReflectiveMethodExecutor)) {
 			return false;
 		}
 
@@ -267,7 +278,7 @@ public class MethodReference extends SpelNodeImpl {
 			}
 		}
 
-		ReflectiveMethodExecutor executor = (ReflectiveMethodExecutor) executorToCheck.get();
+		ReflectiveMethodExecutor executor = (ReflectiveMethodExecutor) executorToCheck;
 		if (executor.didArgumentConversionOccur()) {
 			return false;
 		}
@@ -282,12 +293,12 @@ public class MethodReference extends SpelNodeImpl {
 	
 	@Override
 	public void generateCode(MethodVisitor mv, CodeFlow cf) {
-		CachedMethodExecutor executorToCheck = this.cachedExecutor;
-		if (executorToCheck == null || !(executorToCheck.get() instanceof ReflectiveMethodExecutor)) {
+		MethodExecutor executorToCheck = this.cachedExecutor;
+		if (!(executorToCheck instanceof ReflectiveMethodExecutor)) {
 			throw new IllegalStateException("No applicable cached executor found: " + executorToCheck);
 		}
 
-		ReflectiveMethodExecutor methodExecutor = (ReflectiveMethodExecutor)executorToCheck.get();
+		ReflectiveMethodExecutor methodExecutor = (ReflectiveMethodExecutor) executorToCheck;
 		Method method = methodExecutor.getMethod();
 		boolean isStaticMethod = Modifier.isStatic(method.getModifiers());
 		String descriptor = cf.lastDescriptor();
@@ -300,21 +311,19 @@ public class MethodReference extends SpelNodeImpl {
 			CodeFlow.insertBoxIfNecessary(mv, descriptor.charAt(0));
 		}
 
-		boolean itf = method.getDeclaringClass().isInterface();
-		String methodDeclaringClassSlashedDescriptor = null;
-		if (Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
-			methodDeclaringClassSlashedDescriptor = method.getDeclaringClass().getName().replace('.', '/');
-		}
-		else {
-			methodDeclaringClassSlashedDescriptor = methodExecutor.getPublicDeclaringClass().getName().replace('.', '/');			
+		Class<?> methodDeclaringClass = method.getDeclaringClass();
+		if (!Modifier.isPublic(methodDeclaringClass.getModifiers())) {
+			methodDeclaringClass = methodExecutor.getPublicDeclaringClass();
 		}
+		boolean itf = methodDeclaringClass.isInterface();
+		String methodDeclaringClassSlashedDescriptor = methodDeclaringClass.getName().replace('.', '/');
 		if (!isStaticMethod) {
 			if (descriptor == null || !descriptor.substring(1).equals(methodDeclaringClassSlashedDescriptor)) {
 				CodeFlow.insertCheckCast(mv, "L"+ methodDeclaringClassSlashedDescriptor);
 			}
 		}
 		generateCodeForArguments(mv, cf, method, children);		
-		mv.visitMethodInsn(isStaticMethod ? INVOKESTATIC : INVOKEVIRTUAL,
+		mv.visitMethodInsn(isStaticMethod ? INVOKESTATIC : (itf ? INVOKEINTERFACE : INVOKEVIRTUAL),
 				methodDeclaringClassSlashedDescriptor, method.getName(), CodeFlow.createSignatureDescriptor(method), itf);
 		cf.pushDescriptor(this.exitTypeDescriptor);
 	}
@@ -357,9 +366,13 @@ public class MethodReference extends SpelNodeImpl {
 	}
 
 
-	private static class CachedMethodExecutor {
+	/**
+	 * Key for cached method executors: the method name (for sharing across nodes),
+	 * the receiver type and the argument types of an invocation.
+	 */
+	private static final class ExecutorCacheKey implements ResolutionCache.Key {
 
-		private final MethodExecutor methodExecutor;
+		private final String name;
 
 		private final Class<?> staticClass;
 
@@ -367,21 +380,43 @@ public class MethodReference extends SpelNodeImpl {
 
 		private final List<TypeDescriptor> argumentTypes;
 
-		public CachedMethodExecutor(MethodExecutor methodExecutor, Class<?> staticClass,
-				TypeDescriptor target, List<TypeDescriptor> argumentTypes) {
-			this.methodExecutor = methodExecutor;
-			this.staticClass = staticClass;
+		public ExecutorCacheKey(String name, Object value, TypeDescriptor target, List<TypeDescriptor> argumentTypes) {
+			this.name = name;
+			this.staticClass = (value instanceof Class ? (Class<?>) value : null);
 			this.target = target;
 			this.argumentTypes = argumentTypes;
 		}
 
-		public boolean isSuitable(Object value, TypeDescriptor target, List<TypeDescriptor> argumentTypes) {
-			return ((this.staticClass == null || this.staticClass.equals(value)) &&
-					this.target.equals(target) && this.argumentTypes.equals(argumentTypes));
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ExecutorCacheKey)) {
+				return false;
+			}
+			ExecutorCacheKey otherKey = (ExecutorCacheKey) other;
+			return (this.name.equals(otherKey.name) && this.staticClass == otherKey.staticClass &&
+					this.target.equals(otherKey.target) && this.argumentTypes.equals(otherKey.argumentTypes));
 		}
 
-		public MethodExecutor get() {
-			return this.methodExecutor;
+		@Override
+		public int hashCode() {
+			return (this.name.hashCode() * 31 + this.target.hashCode()) * 31 + this.argumentTypes.hashCode();
+		}
+
+		@Override
+		public boolean isUnderneathClassLoader(ClassLoader classLoader) {
+			if (ResolutionCache.isUnderneathClassLoader(this.staticClass, classLoader) ||
+					ResolutionCache.isUnderneathClassLoader(this.target.getType(), classLoader)) {
+				return true;
+			}
+			for (TypeDescriptor argumentType : this.argumentTypes) {
+				if (argumentType != null && ResolutionCache.isUnderneathClassLoader(argumentType.getType(), classLoader)) {
+					return true;
+				}
+			}
+			return false;
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,9 +19,11 @@ package org.springframework.expression.spel.ast;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Operation;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -57,6 +59,7 @@ public class OpInc extends Operator {
 		Object value = typedValue.getValue();
 		TypedValue returnValue = typedValue;
 		TypedValue newValue = null;
+		this.exitTypeDescriptor = null;
 
 		if (value instanceof Number) {
 			Number op1 = (Number) value;
@@ -64,18 +67,22 @@ public class OpInc extends Operator {
 				newValue = new TypedValue(((BigDecimal) op1).add(BigDecimal.ONE), typedValue.getTypeDescriptor());
 			}
 			else if (op1 instanceof Double) {
+				this.exitTypeDescriptor = "D";
 				newValue = new TypedValue(op1.doubleValue() + 1.0d, typedValue.getTypeDescriptor());
 			}
 			else if (op1 instanceof Float) {
+				this.exitTypeDescriptor = "F";
 				newValue = new TypedValue(op1.floatValue() + 1.0f, typedValue.getTypeDescriptor());
 			}
 			else if (op1 instanceof BigInteger) {
 				newValue = new TypedValue(((BigInteger) op1).add(BigInteger.ONE), typedValue.getTypeDescriptor());
 			}
 			else if (op1 instanceof Long) {
+				this.exitTypeDescriptor = "J";
 				newValue = new TypedValue(op1.longValue() + 1L, typedValue.getTypeDescriptor());
 			}
 			else if (op1 instanceof Integer) {
+				this.exitTypeDescriptor = "I";
 				newValue = new TypedValue(op1.intValue() + 1, typedValue.getTypeDescriptor());
 			}
 			else if (op1 instanceof Short) {
@@ -136,4 +143,55 @@ public class OpInc extends Operator {
 		return null;
 	}
 
+	/**
+	 * Only variables holding an int, long, float or double are incremented
+	 * in compiled form, e.g. {@code #count++}.
+	 */
+	@Override
+	public boolean isCompilable() {
+		return (this.exitTypeDescriptor != null && getLeftOperand() instanceof VariableReference &&
+				((VariableReference) getLeftOperand()).isVariable());
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		VariableReference variable = (VariableReference) getLeftOperand();
+		char type = this.exitTypeDescriptor.charAt(0);
+		boolean wide = (type == 'J' || type == 'D');
+		variable.generateLookupCode(mv, cf);
+		CodeFlow.insertUnboxInsns(mv, type, "Ljava/lang/Object");
+		if (this.postfix) {
+			mv.visitInsn(wide ? DUP2 : DUP);
+		}
+		switch (type) {
+			case 'I':
+				mv.visitInsn(ICONST_1);
+				mv.visitInsn(IADD);
+				break;
+			case 'J':
+				mv.visitInsn(LCONST_1);
+				mv.visitInsn(LADD);
+				break;
+			case 'F':
+				mv.visitInsn(FCONST_1);
+				mv.visitInsn(FADD);
+				break;
+			case 'D':
+				mv.visitInsn(DCONST_1);
+				mv.visitInsn(DADD);
+				break;
+			default:
+				throw new IllegalStateException(
+						"Unrecognized exit type descriptor: '" + this.exitTypeDescriptor + "'");
+		}
+		if (!this.postfix) {
+			mv.visitInsn(wide ? DUP2 : DUP);
+		}
+		CodeFlow.insertBoxIfNecessary(mv, type);
+		int newValue = cf.nextFreeVariableId();
+		mv.visitVarInsn(ASTORE, newValue);
+		variable.generateSetValueCode(mv, cf, newValue);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
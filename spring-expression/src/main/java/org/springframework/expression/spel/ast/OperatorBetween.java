@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,8 +18,11 @@ package org.springframework.expression.spel.ast;
 
 import java.util.List;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypeComparator;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -63,7 +66,10 @@ public class OperatorBetween extends Operator {
 		Object high = list.get(1);
 		TypeComparator comp = state.getTypeComparator();
 		try {
-			return BooleanTypedValue.forValue(comp.compare(left, low) >= 0 && comp.compare(left, high) <= 0);
+			BooleanTypedValue result =
+					BooleanTypedValue.forValue(comp.compare(left, low) >= 0 && comp.compare(left, high) <= 0);
+			this.exitTypeDescriptor = "Z";
+			return result;
 		}
 		catch (SpelEvaluationException ex) {
 			ex.setPosition(getStartPosition());
@@ -71,4 +77,74 @@ public class OperatorBetween extends Operator {
 		}
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return (this.exitTypeDescriptor != null &&
+				getLeftOperand().isCompilable() && getRightOperand().isCompilable());
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		cf.enterCompilationScope();
+		getLeftOperand().generateCode(mv, cf);
+		CodeFlow.insertBoxIfNecessary(mv, cf.lastDescriptor());
+		cf.exitCompilationScope();
+		int left = cf.nextFreeVariableId();
+		mv.visitVarInsn(ASTORE, left);
+
+		cf.enterCompilationScope();
+		getRightOperand().generateCode(mv, cf);
+		cf.exitCompilationScope();
+		mv.visitTypeInsn(CHECKCAST, "java/util/List");
+		int list = cf.nextFreeVariableId();
+		mv.visitVarInsn(ASTORE, list);
+
+		Label validList = new Label();
+		mv.visitVarInsn(ALOAD, list);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "size", "()I", true);
+		mv.visitInsn(ICONST_2);
+		mv.visitJumpInsn(IF_ICMPEQ, validList);
+		mv.visitTypeInsn(NEW, "org/springframework/expression/spel/SpelEvaluationException");
+		mv.visitInsn(DUP);
+		CodeFlow.insertOptimalLoad(mv, getRightOperand().getStartPosition());
+		mv.visitFieldInsn(GETSTATIC, "org/springframework/expression/spel/SpelMessage",
+				SpelMessage.BETWEEN_RIGHT_OPERAND_MUST_BE_TWO_ELEMENT_LIST.name(),
+				"Lorg/springframework/expression/spel/SpelMessage;");
+		mv.visitInsn(ICONST_0);
+		mv.visitTypeInsn(ANEWARRAY, "java/lang/Object");
+		mv.visitMethodInsn(INVOKESPECIAL, "org/springframework/expression/spel/SpelEvaluationException", "<init>",
+				"(ILorg/springframework/expression/spel/SpelMessage;[Ljava/lang/Object;)V", false);
+		mv.visitInsn(ATHROW);
+		mv.visitLabel(validList);
+
+		cf.loadEvaluationContext(mv);
+		mv.visitMethodInsn(INVOKEINTERFACE, "org/springframework/expression/EvaluationContext",
+				"getTypeComparator", "()Lorg/springframework/expression/TypeComparator;", true);
+		int comparator = cf.nextFreeVariableId();
+		mv.visitVarInsn(ASTORE, comparator);
+
+		Label notBetween = new Label();
+		Label end = new Label();
+		generateComparison(mv, comparator, left, list, 0);
+		mv.visitJumpInsn(IFLT, notBetween);
+		generateComparison(mv, comparator, left, list, 1);
+		mv.visitJumpInsn(IFGT, notBetween);
+		mv.visitInsn(ICONST_1);
+		mv.visitJumpInsn(GOTO, end);
+		mv.visitLabel(notBetween);
+		mv.visitInsn(ICONST_0);
+		mv.visitLabel(end);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
+	private void generateComparison(MethodVisitor mv, int comparator, int left, int list, int index) {
+		mv.visitVarInsn(ALOAD, comparator);
+		mv.visitVarInsn(ALOAD, left);
+		mv.visitVarInsn(ALOAD, list);
+		CodeFlow.insertOptimalLoad(mv, index);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "get", "(I)Ljava/lang/Object;", true);
+		mv.visitMethodInsn(INVOKEINTERFACE, "org/springframework/expression/TypeComparator", "compare",
+				"(Ljava/lang/Object;Ljava/lang/Object;)I", true);
+	}
+
 }
@@ -22,7 +22,11 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -81,6 +85,7 @@ public class OperatorMatches extends Operator {
 				this.patternCache.putIfAbsent(rightString, pattern);
 			}
 			Matcher matcher = pattern.matcher(leftString);
+			this.exitTypeDescriptor = "Z";
 			return BooleanTypedValue.forValue(matcher.matches());
 		}
 		catch (PatternSyntaxException ex) {
@@ -88,4 +93,99 @@ public class OperatorMatches extends Operator {
 		}
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return (this.exitTypeDescriptor != null &&
+				"Ljava/lang/String".equals(getLeftOperand().exitTypeDescriptor) &&
+				getLeftOperand().isCompilable() && getRightOperand().isCompilable());
+	}
+
+	/**
+	 * A literal regex is compiled once into a static field of the generated class,
+	 * any other regex is looked up in a pattern cache held in a static field.
+	 */
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		cf.enterCompilationScope();
+		getLeftOperand().generateCode(mv, cf);
+		cf.exitCompilationScope();
+		int input = cf.nextFreeVariableId();
+		mv.visitVarInsn(ASTORE, input);
+
+		final String clazzName = cf.getClassname();
+		SpelNodeImpl rightOp = getRightOperand();
+		if (rightOp instanceof StringLiteral) {
+			final String fieldName = "pattern$" + cf.nextFieldId();
+			final String regex = (String) ((StringLiteral) rightOp).getLiteralValue().getValue();
+			cf.registerNewField(new CodeFlow.FieldAdder() {
+				public void generateField(ClassWriter cw, CodeFlow codeflow) {
+					cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, fieldName, "Ljava/util/regex/Pattern;", null, null);
+				}
+			});
+			cf.registerNewClinit(new CodeFlow.ClinitAdder() {
+				public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+					mv.visitLdcInsn(regex);
+					mv.visitMethodInsn(INVOKESTATIC, "java/util/regex/Pattern", "compile",
+							"(Ljava/lang/String;)Ljava/util/regex/Pattern;", false);
+					mv.visitFieldInsn(PUTSTATIC, clazzName, fieldName, "Ljava/util/regex/Pattern;");
+				}
+			});
+			mv.visitFieldInsn(GETSTATIC, clazzName, fieldName, "Ljava/util/regex/Pattern;");
+		}
+		else {
+			final String fieldName = "patternCache$" + cf.nextFieldId();
+			cf.registerNewField(new CodeFlow.FieldAdder() {
+				public void generateField(ClassWriter cw, CodeFlow codeflow) {
+					cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, fieldName,
+							"Ljava/util/concurrent/ConcurrentHashMap;", null, null);
+				}
+			});
+			cf.registerNewClinit(new CodeFlow.ClinitAdder() {
+				public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+					mv.visitTypeInsn(NEW, "java/util/concurrent/ConcurrentHashMap");
+					mv.visitInsn(DUP);
+					mv.visitMethodInsn(INVOKESPECIAL, "java/util/concurrent/ConcurrentHashMap", "<init>", "()V", false);
+					mv.visitFieldInsn(PUTSTATIC, clazzName, fieldName, "Ljava/util/concurrent/ConcurrentHashMap;");
+				}
+			});
+
+			cf.enterCompilationScope();
+			rightOp.generateCode(mv, cf);
+			if (!"Ljava/lang/String".equals(cf.lastDescriptor())) {
+				mv.visitTypeInsn(CHECKCAST, "java/lang/String");
+			}
+			cf.exitCompilationScope();
+			int regex = cf.nextFreeVariableId();
+			int pattern = cf.nextFreeVariableId();
+			mv.visitVarInsn(ASTORE, regex);
+			mv.visitFieldInsn(GETSTATIC, clazzName, fieldName, "Ljava/util/concurrent/ConcurrentHashMap;");
+			mv.visitVarInsn(ALOAD, regex);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ConcurrentHashMap", "get",
+					"(Ljava/lang/Object;)Ljava/lang/Object;", false);
+			mv.visitTypeInsn(CHECKCAST, "java/util/regex/Pattern");
+			mv.visitVarInsn(ASTORE, pattern);
+			Label cached = new Label();
+			mv.visitVarInsn(ALOAD, pattern);
+			mv.visitJumpInsn(IFNONNULL, cached);
+			mv.visitVarInsn(ALOAD, regex);
+			mv.visitMethodInsn(INVOKESTATIC, "java/util/regex/Pattern", "compile",
+					"(Ljava/lang/String;)Ljava/util/regex/Pattern;", false);
+			mv.visitVarInsn(ASTORE, pattern);
+			mv.visitFieldInsn(GETSTATIC, clazzName, fieldName, "Ljava/util/concurrent/ConcurrentHashMap;");
+			mv.visitVarInsn(ALOAD, regex);
+			mv.visitVarInsn(ALOAD, pattern);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/concurrent/ConcurrentHashMap", "putIfAbsent",
+					"(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", false);
+			mv.visitInsn(POP);
+			mv.visitLabel(cached);
+			mv.visitVarInsn(ALOAD, pattern);
+		}
+
+		mv.visitVarInsn(ALOAD, input);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/regex/Pattern", "matcher",
+				"(Ljava/lang/CharSequence;)Ljava/util/regex/Matcher;", false);
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/regex/Matcher", "matches", "()Z", false);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
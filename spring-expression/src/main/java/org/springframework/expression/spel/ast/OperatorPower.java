@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,9 +19,12 @@ package org.springframework.expression.spel.ast;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Operation;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.util.NumberUtils;
 
@@ -46,6 +49,7 @@ public class OperatorPower extends Operator {
 
 		Object leftOperand = leftOp.getValueInternal(state).getValue();
 		Object rightOperand = rightOp.getValueInternal(state).getValue();
+		this.exitTypeDescriptor = null;
 
 		if (leftOperand instanceof Number && rightOperand instanceof Number) {
 			Number leftNumber = (Number) leftOperand;
@@ -60,14 +64,22 @@ public class OperatorPower extends Operator {
 				return new TypedValue(leftBigInteger.pow(rightNumber.intValue()));
 			}
 			else if (leftNumber instanceof Double || rightNumber instanceof Double) {
+				this.exitTypeDescriptor = "D";
 				return new TypedValue(Math.pow(leftNumber.doubleValue(), rightNumber.doubleValue()));
 			}
 			else if (leftNumber instanceof Float || rightNumber instanceof Float) {
+				this.exitTypeDescriptor = "D";
 				return new TypedValue(Math.pow(leftNumber.floatValue(), rightNumber.floatValue()));
 			}
 
 			double d = Math.pow(leftNumber.doubleValue(), rightNumber.doubleValue());
-			if (d > Integer.MAX_VALUE || leftNumber instanceof Long || rightNumber instanceof Long) {
+			if (leftNumber instanceof Long || rightNumber instanceof Long) {
+				this.exitTypeDescriptor = "J";
+				return new TypedValue((long) d);
+			}
+			// The result type depends on the magnitude of the result
+			this.exitTypeDescriptor = "Ljava/lang/Number";
+			if (d > Integer.MAX_VALUE) {
 				return new TypedValue((long) d);
 			}
 			else {
@@ -78,4 +90,56 @@ public class OperatorPower extends Operator {
 		return state.operate(Operation.POWER, leftOperand, rightOperand);
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return (this.exitTypeDescriptor != null &&
+				getLeftOperand().isCompilable() && getRightOperand().isCompilable() &&
+				CodeFlow.isPrimitiveOrUnboxableSupportedNumber(getLeftOperand().exitTypeDescriptor) &&
+				CodeFlow.isPrimitiveOrUnboxableSupportedNumber(getRightOperand().exitTypeDescriptor));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		String leftDesc = getLeftOperand().exitTypeDescriptor;
+		String rightDesc = getRightOperand().exitTypeDescriptor;
+		char leftType = CodeFlow.toPrimitiveTargetDesc(leftDesc);
+		char rightType = CodeFlow.toPrimitiveTargetDesc(rightDesc);
+		// Mirror the operand conversions of the interpreted evaluation
+		char operandType = (leftType != 'D' && rightType != 'D' && (leftType == 'F' || rightType == 'F') ? 'F' : 'D');
+
+		getLeftOperand().generateCode(mv, cf);
+		CodeFlow.insertNumericUnboxOrPrimitiveTypeCoercion(mv, leftDesc, operandType);
+		if (operandType == 'F') {
+			mv.visitInsn(F2D);
+		}
+		cf.enterCompilationScope();
+		getRightOperand().generateCode(mv, cf);
+		cf.exitCompilationScope();
+		CodeFlow.insertNumericUnboxOrPrimitiveTypeCoercion(mv, rightDesc, operandType);
+		if (operandType == 'F') {
+			mv.visitInsn(F2D);
+		}
+		mv.visitMethodInsn(INVOKESTATIC, "java/lang/Math", "pow", "(DD)D", false);
+
+		if ("J".equals(this.exitTypeDescriptor)) {
+			mv.visitInsn(D2L);
+		}
+		else if ("Ljava/lang/Number".equals(this.exitTypeDescriptor)) {
+			Label intResult = new Label();
+			Label end = new Label();
+			mv.visitInsn(DUP2);
+			mv.visitLdcInsn((double) Integer.MAX_VALUE);
+			mv.visitInsn(DCMPL);
+			mv.visitJumpInsn(IFLE, intResult);
+			mv.visitInsn(D2L);
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Long", "valueOf", "(J)Ljava/lang/Long;", false);
+			mv.visitJumpInsn(GOTO, end);
+			mv.visitLabel(intResult);
+			mv.visitInsn(D2I);
+			mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+			mv.visitLabel(end);
+		}
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -22,8 +22,11 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -44,6 +47,10 @@ public class Projection extends SpelNodeImpl {
 
 	private final boolean nullSafe;
 
+	// Whether the last evaluation was against a map rather than an Iterable,
+	// determining the bytecode generated on compilation
+	private boolean mapOperand;
+
 
 	public Projection(boolean nullSafe, int pos, SpelNodeImpl expression) {
 		super(pos, expression);
@@ -70,6 +77,8 @@ public class Projection extends SpelNodeImpl {
 		// and value, and they can be referenced in the operation
 		// eg. {'a':'y','b':'n'}.![value=='y'?key:null]" == ['a', null]
 		if (operand instanceof Map) {
+			this.mapOperand = true;
+			this.exitTypeDescriptor = "Ljava/util/List";
 			Map<?, ?> mapData = (Map<?, ?>) operand;
 			List<Object> result = new ArrayList<Object>();
 			for (Map.Entry<?, ?> entry : mapData.entrySet()) {
@@ -89,6 +98,9 @@ public class Projection extends SpelNodeImpl {
 		if (operand instanceof Iterable || operandIsArray) {
 			Iterable<?> data = (operand instanceof Iterable ?
 					(Iterable<?>) operand : Arrays.asList(ObjectUtils.toObjectArray(operand)));
+			this.mapOperand = false;
+			// Projection on arrays is not compiled
+			this.exitTypeDescriptor = (operandIsArray ? null : "Ljava/util/List");
 
 			List<Object> result = new ArrayList<Object>();
 			int idx = 0;
@@ -138,6 +150,75 @@ public class Projection extends SpelNodeImpl {
 		return "![" + getChild(0).toStringAST() + "]";
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return (this.exitTypeDescriptor != null && this.children[0].isCompilable());
+	}
+
+	/**
+	 * Generate a loop over the elements of the Iterable (or the entries of the map)
+	 * on the stack, collecting the result of the projection for each of them.
+	 */
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		Label end = new Label();
+		if (cf.lastDescriptor() == null) {
+			cf.loadTarget(mv);
+		}
+		if (this.nullSafe) {
+			Label notNull = new Label();
+			mv.visitInsn(DUP);
+			mv.visitJumpInsn(IFNONNULL, notNull);
+			mv.visitInsn(POP);
+			mv.visitInsn(ACONST_NULL);
+			mv.visitJumpInsn(GOTO, end);
+			mv.visitLabel(notNull);
+		}
+		if (this.mapOperand) {
+			mv.visitTypeInsn(CHECKCAST, "java/util/Map");
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "entrySet", "()Ljava/util/Set;", true);
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Set", "iterator", "()Ljava/util/Iterator;", true);
+		}
+		else {
+			mv.visitTypeInsn(CHECKCAST, "java/lang/Iterable");
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/lang/Iterable", "iterator", "()Ljava/util/Iterator;", true);
+		}
+		int iterator = cf.nextFreeVariableId();
+		mv.visitVarInsn(ASTORE, iterator);
+		int element = cf.nextFreeVariableId();
+		int result = cf.nextFreeVariableId();
+		mv.visitTypeInsn(NEW, "java/util/ArrayList");
+		mv.visitInsn(DUP);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/util/ArrayList", "<init>", "()V", false);
+		mv.visitVarInsn(ASTORE, result);
+
+		Label loop = new Label();
+		Label loopEnd = new Label();
+		mv.visitLabel(loop);
+		mv.visitVarInsn(ALOAD, iterator);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "hasNext", "()Z", true);
+		mv.visitJumpInsn(IFEQ, loopEnd);
+		mv.visitVarInsn(ALOAD, iterator);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "next", "()Ljava/lang/Object;", true);
+		mv.visitVarInsn(ASTORE, element);
+		mv.visitVarInsn(ALOAD, result);
+
+		cf.enterCompilationScope();
+		cf.enterActiveContextObjectScope(element);
+		this.children[0].generateCode(mv, cf);
+		CodeFlow.insertBoxIfNecessary(mv, cf.lastDescriptor());
+		cf.exitActiveContextObjectScope();
+		cf.exitCompilationScope();
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "add", "(Ljava/lang/Object;)Z", true);
+		mv.visitInsn(POP);
+		mv.visitJumpInsn(GOTO, loop);
+
+		mv.visitLabel(loopEnd);
+		mv.visitVarInsn(ALOAD, result);
+		mv.visitLabel(end);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 	private Class<?> determineCommonType(Class<?> oldType, Class<?> newType) {
 		if (oldType == null) {
 			return newType;
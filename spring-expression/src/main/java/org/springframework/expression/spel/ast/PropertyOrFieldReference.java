@@ -31,6 +31,7 @@ import org.springframework.expression.TypedValue;
 import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.CompilablePropertyAccessor;
 import org.springframework.expression.spel.ExpressionState;
+import org.springframework.expression.spel.InlineCacheStatistics;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
 import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
@@ -49,8 +50,12 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 
 	private final String name;
 
+	// The accessor used by the most recent read, determining compilation
 	private volatile PropertyAccessor cachedReadAccessor;
 
+	private final InlineCache<ReadAccessorCacheKey, PropertyAccessor> readAccessorCache =
+			new InlineCache<ReadAccessorCacheKey, PropertyAccessor>();
+
 	private volatile PropertyAccessor cachedWriteAccessor;
 
 
@@ -69,6 +74,15 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 		return this.name;
 	}
 
+	/**
+	 * Return the hit and miss statistics of the cache of read accessors
+	 * that this node keeps per receiver type.
+	 * @since 4.2.4
+	 */
+	public InlineCacheStatistics getInlineCacheStatistics() {
+		return this.readAccessorCache.getStatistics();
+	}
+
 
 	@Override
 	public ValueRef getValueRef(ExpressionState state) throws EvaluationException {
@@ -182,15 +196,23 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 			return TypedValue.NULL;
 		}
 
-		PropertyAccessor accessorToUse = this.cachedReadAccessor;
-		if (accessorToUse != null) {
-			try {
-				return accessorToUse.read(evalContext, contextObject.getValue(), name);
-			}
-			catch (Exception ex) {
-				// This is OK - it may have gone stale due to a class change,
-				// let's try to get a new one and call it before giving up...
-				this.cachedReadAccessor = null;
+		ReadAccessorCacheKey cacheKey = (targetObject != null ? new ReadAccessorCacheKey(targetObject, name) : null);
+		if (cacheKey != null) {
+			PropertyAccessor accessorToUse = this.readAccessorCache.get(cacheKey, evalContext);
+			if (accessorToUse != null) {
+				try {
+					TypedValue result = accessorToUse.read(evalContext, targetObject, name);
+					if (this.cachedReadAccessor != accessorToUse) {
+						this.cachedReadAccessor = accessorToUse;
+					}
+					return result;
+				}
+				catch (Exception ex) {
+					// This is OK - it may have gone stale due to a class change,
+					// let's try to get a new one and call it before giving up...
+					this.readAccessorCache.remove(cacheKey, evalContext);
+					this.cachedReadAccessor = null;
+				}
 			}
 		}
 
@@ -208,6 +230,9 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 									evalContext, contextObject.getValue(), name);
 						}
 						this.cachedReadAccessor = accessor;
+						if (cacheKey != null) {
+							this.readAccessorCache.put(cacheKey, accessor, evalContext);
+						}
 						return accessor.read(evalContext, contextObject.getValue(), name);
 					}
 				}
@@ -351,6 +376,49 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 	}
 
 
+	/**
+	 * Key for cached read accessors: the type of the receiver, distinguishing
+	 * static access on a {@link Class} receiver from access on an instance.
+	 */
+	private static final class ReadAccessorCacheKey implements ResolutionCache.Key {
+
+		private final Class<?> type;
+
+		private final boolean staticAccess;
+
+		private final String name;
+
+		public ReadAccessorCacheKey(Object target, String name) {
+			this.staticAccess = (target instanceof Class);
+			this.type = (this.staticAccess ? (Class<?>) target : target.getClass());
+			this.name = name;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ReadAccessorCacheKey)) {
+				return false;
+			}
+			ReadAccessorCacheKey otherKey = (ReadAccessorCacheKey) other;
+			return (this.type == otherKey.type && this.staticAccess == otherKey.staticAccess &&
+					this.name.equals(otherKey.name));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.type.hashCode() * 31 + this.name.hashCode() + (this.staticAccess ? 1 : 0);
+		}
+
+		@Override
+		public boolean isUnderneathClassLoader(ClassLoader classLoader) {
+			return ResolutionCache.isUnderneathClassLoader(this.type, classLoader);
+		}
+	}
+
+
 	private static class AccessorLValue implements ValueRef {
 
 		private final PropertyOrFieldReference ref;
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.ast;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Resolution cache shared by all megamorphic {@link InlineCache InlineCaches}
+ * that are evaluated against the same {@link EvaluationContext}.
+ *
+ * <p>A cache remembers the property accessors and method resolvers of its context
+ * at the time of creation and is discarded as soon as those change. Caches are
+ * held for as long as their context is reachable; entries that refer to the types
+ * of a given ClassLoader can be released through {@link #clearClassLoader}.
+ *
+ * @since 4.2.4
+ */
+public final class ResolutionCache {
+
+	/**
+	 * The maximum number of entries held per evaluation context.
+	 */
+	static final int MAX_ENTRIES = 256;
+
+	/** Caches per context, held weakly: contexts are usually compared by identity */
+	private static final Map<EvaluationContext, ResolutionCache> caches =
+			new WeakHashMap<EvaluationContext, ResolutionCache>(16);
+
+
+	private final List<PropertyAccessor> propertyAccessors;
+
+	private final List<MethodResolver> methodResolvers;
+
+	private final Map<Object, Object> entries = new ConcurrentHashMap<Object, Object>(64);
+
+	private volatile boolean discarded;
+
+
+	private ResolutionCache(EvaluationContext evaluationContext) {
+		this.propertyAccessors = copy(evaluationContext.getPropertyAccessors());
+		this.methodResolvers = copy(evaluationContext.getMethodResolvers());
+	}
+
+
+	Object get(Object key) {
+		return this.entries.get(key);
+	}
+
+	void put(Object key, Object value) {
+		if (this.entries.size() < MAX_ENTRIES) {
+			this.entries.put(key, value);
+		}
+	}
+
+	void remove(Object key) {
+		this.entries.remove(key);
+	}
+
+	boolean isValidFor(EvaluationContext evaluationContext) {
+		return (!this.discarded &&
+				ObjectUtils.nullSafeEquals(this.propertyAccessors, evaluationContext.getPropertyAccessors()) &&
+				ObjectUtils.nullSafeEquals(this.methodResolvers, evaluationContext.getMethodResolvers()));
+	}
+
+	private boolean usesTypesUnderneath(ClassLoader classLoader) {
+		return (anyTypeUnderneath(this.propertyAccessors, classLoader) ||
+				anyTypeUnderneath(this.methodResolvers, classLoader));
+	}
+
+	private void removeEntriesUnderneath(ClassLoader classLoader) {
+		for (Iterator<Object> it = this.entries.keySet().iterator(); it.hasNext();) {
+			Object key = it.next();
+			if (!(key instanceof Key) || ((Key) key).isUnderneathClassLoader(classLoader)) {
+				it.remove();
+			}
+		}
+	}
+
+
+	/**
+	 * Obtain the shared cache for the given context, if any.
+	 * @return the cache, or {@code null} if none exists yet or if the context's
+	 * property accessors or method resolvers have changed in the meantime
+	 */
+	static ResolutionCache getIfPresent(EvaluationContext evaluationContext) {
+		ResolutionCache cache;
+		synchronized (caches) {
+			cache = caches.get(evaluationContext);
+		}
+		return (cache != null && cache.isValidFor(evaluationContext) ? cache : null);
+	}
+
+	/**
+	 * Obtain the shared cache for the given context, creating a new one if none
+	 * exists yet or if the context's property accessors or method resolvers
+	 * have changed in the meantime.
+	 */
+	static ResolutionCache forContext(EvaluationContext evaluationContext) {
+		synchronized (caches) {
+			ResolutionCache cache = caches.get(evaluationContext);
+			if (cache == null || !cache.isValidFor(evaluationContext)) {
+				cache = new ResolutionCache(evaluationContext);
+				caches.put(evaluationContext, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * Remove all cached resolutions for types that have been loaded by the given
+	 * ClassLoader or one of its children, as well as the caches of contexts with
+	 * property accessors or method resolvers from there, so that they do not keep
+	 * the ClassLoader alive, e.g. on shutdown of a web application.
+	 * @param classLoader the ClassLoader to clear the caches for
+	 */
+	public static void clearClassLoader(ClassLoader classLoader) {
+		if (classLoader == null) {
+			return;
+		}
+		synchronized (caches) {
+			for (Iterator<ResolutionCache> it = caches.values().iterator(); it.hasNext();) {
+				ResolutionCache cache = it.next();
+				if (cache.usesTypesUnderneath(classLoader)) {
+					// Nodes may still hold on to it: make sure they stop using it
+					cache.discarded = true;
+					cache.entries.clear();
+					it.remove();
+				}
+				else {
+					cache.removeEntriesUnderneath(classLoader);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check whether the given type has been loaded by the given ClassLoader
+	 * or one of its children.
+	 * @param type the type to check (may be {@code null})
+	 * @param classLoader the ClassLoader to check for
+	 */
+	static boolean isUnderneathClassLoader(Class<?> type, ClassLoader classLoader) {
+		if (type == null) {
+			return false;
+		}
+		ClassLoader classLoaderToCheck = type.getClassLoader();
+		while (classLoaderToCheck != null) {
+			if (classLoaderToCheck == classLoader) {
+				return true;
+			}
+			classLoaderToCheck = classLoaderToCheck.getParent();
+		}
+		return false;
+	}
+
+	private static boolean anyTypeUnderneath(List<?> elements, ClassLoader classLoader) {
+		if (elements != null) {
+			for (Object element : elements) {
+				if (element != null && isUnderneathClassLoader(element.getClass(), classLoader)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static <T> List<T> copy(List<T> list) {
+		return (list != null ? new ArrayList<T>(list) : null);
+	}
+
+
+	/**
+	 * Implemented by the keys of shared cache entries, so that entries can be
+	 * released per ClassLoader. Entries with other keys are always released.
+	 */
+	interface Key {
+
+		/**
+		 * Return whether any of the types that this key refers to has been
+		 * loaded by the given ClassLoader or one of its children.
+		 */
+		boolean isUnderneathClassLoader(ClassLoader classLoader);
+	}
+
+}
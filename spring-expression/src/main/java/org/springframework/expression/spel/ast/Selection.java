@@ -23,8 +23,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -57,6 +60,10 @@ public class Selection extends SpelNodeImpl {
 
 	private final boolean nullSafe;
 
+	// Whether the last evaluation was against a map rather than an Iterable,
+	// determining the bytecode generated on compilation
+	private boolean mapOperand;
+
 
 	public Selection(boolean nullSafe, int variant, int pos, SpelNodeImpl expression) {
 		super(pos, expression);
@@ -78,6 +85,8 @@ public class Selection extends SpelNodeImpl {
 		SpelNodeImpl selectionCriteria = this.children[0];
 
 		if (operand instanceof Map) {
+			this.mapOperand = true;
+			this.exitTypeDescriptor = "Ljava/util/Map";
 			Map<?, ?> mapdata = (Map<?, ?>) operand;
 			// TODO don't lose generic info for the new map
 			Map<Object, Object> result = new HashMap<Object, Object>();
@@ -127,6 +136,14 @@ public class Selection extends SpelNodeImpl {
 		if (operand instanceof Iterable || ObjectUtils.isArray(operand)) {
 			Iterable<?> data = (operand instanceof Iterable ?
 					(Iterable<?>) operand : Arrays.asList(ObjectUtils.toObjectArray(operand)));
+			this.mapOperand = false;
+			if (operand instanceof Iterable) {
+				this.exitTypeDescriptor = (this.variant == ALL ? "Ljava/util/List" : "Ljava/lang/Object");
+			}
+			else {
+				// Selection on arrays is not compiled
+				this.exitTypeDescriptor = null;
+			}
 
 			List<Object> result = new ArrayList<Object>();
 			int index = 0;
@@ -200,4 +217,148 @@ public class Selection extends SpelNodeImpl {
 		return sb.append(getChild(0).toStringAST()).append("]").toString();
 	}
 
+	@Override
+	public boolean isCompilable() {
+		SpelNodeImpl selectionCriteria = this.children[0];
+		return (this.exitTypeDescriptor != null && selectionCriteria.isCompilable() &&
+				CodeFlow.isBooleanCompatible(selectionCriteria.exitTypeDescriptor));
+	}
+
+	/**
+	 * Generate a loop over the elements of the Iterable (or the entries of the map)
+	 * on the stack, evaluating the selection criteria against each of them.
+	 */
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		Label end = new Label();
+		if (cf.lastDescriptor() == null) {
+			cf.loadTarget(mv);
+		}
+		if (this.nullSafe) {
+			Label notNull = new Label();
+			mv.visitInsn(DUP);
+			mv.visitJumpInsn(IFNONNULL, notNull);
+			mv.visitInsn(POP);
+			mv.visitInsn(ACONST_NULL);
+			mv.visitJumpInsn(GOTO, end);
+			mv.visitLabel(notNull);
+		}
+		if (this.mapOperand) {
+			mv.visitTypeInsn(CHECKCAST, "java/util/Map");
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "entrySet", "()Ljava/util/Set;", true);
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Set", "iterator", "()Ljava/util/Iterator;", true);
+		}
+		else {
+			mv.visitTypeInsn(CHECKCAST, "java/lang/Iterable");
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/lang/Iterable", "iterator", "()Ljava/util/Iterator;", true);
+		}
+		int iterator = cf.nextFreeVariableId();
+		mv.visitVarInsn(ASTORE, iterator);
+		int element = cf.nextFreeVariableId();
+
+		// ALL collects the matching elements, LAST keeps track of the last one
+		int result = cf.nextFreeVariableId();
+		if (this.variant == ALL) {
+			String resultType = (this.mapOperand ? "java/util/HashMap" : "java/util/ArrayList");
+			mv.visitTypeInsn(NEW, resultType);
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, resultType, "<init>", "()V", false);
+			mv.visitVarInsn(ASTORE, result);
+		}
+		else if (this.variant == LAST) {
+			mv.visitInsn(ACONST_NULL);
+			mv.visitVarInsn(ASTORE, result);
+		}
+
+		Label loop = new Label();
+		Label loopEnd = new Label();
+		mv.visitLabel(loop);
+		mv.visitVarInsn(ALOAD, iterator);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "hasNext", "()Z", true);
+		mv.visitJumpInsn(IFEQ, loopEnd);
+		mv.visitVarInsn(ALOAD, iterator);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "next", "()Ljava/lang/Object;", true);
+		mv.visitVarInsn(ASTORE, element);
+
+		cf.enterCompilationScope();
+		cf.enterActiveContextObjectScope(element);
+		this.children[0].generateCode(mv, cf);
+		String criteriaDescriptor = cf.lastDescriptor();
+		if (!"Z".equals(criteriaDescriptor)) {
+			CodeFlow.insertUnboxInsns(mv, 'Z', criteriaDescriptor);
+		}
+		cf.exitActiveContextObjectScope();
+		cf.exitCompilationScope();
+		mv.visitJumpInsn(IFEQ, loop);
+
+		if (this.variant == ALL) {
+			mv.visitVarInsn(ALOAD, result);
+			if (this.mapOperand) {
+				generatePutEntryCode(mv, element);
+			}
+			else {
+				mv.visitVarInsn(ALOAD, element);
+				mv.visitMethodInsn(INVOKEINTERFACE, "java/util/List", "add", "(Ljava/lang/Object;)Z", true);
+				mv.visitInsn(POP);
+			}
+		}
+		else if (this.variant == LAST) {
+			mv.visitVarInsn(ALOAD, element);
+			mv.visitVarInsn(ASTORE, result);
+		}
+		else {
+			if (this.mapOperand) {
+				generateSingleEntryMapCode(mv, element);
+			}
+			else {
+				mv.visitVarInsn(ALOAD, element);
+			}
+			mv.visitJumpInsn(GOTO, end);
+		}
+		mv.visitJumpInsn(GOTO, loop);
+
+		mv.visitLabel(loopEnd);
+		if (this.variant == ALL) {
+			mv.visitVarInsn(ALOAD, result);
+		}
+		else if (this.variant == LAST && this.mapOperand) {
+			Label found = new Label();
+			mv.visitVarInsn(ALOAD, result);
+			mv.visitJumpInsn(IFNONNULL, found);
+			mv.visitInsn(ACONST_NULL);
+			mv.visitJumpInsn(GOTO, end);
+			mv.visitLabel(found);
+			generateSingleEntryMapCode(mv, result);
+		}
+		else if (this.variant == LAST) {
+			// null if there was no match, or if the last match was null
+			mv.visitVarInsn(ALOAD, result);
+		}
+		else {
+			mv.visitInsn(ACONST_NULL);
+		}
+		mv.visitLabel(end);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
+	private void generateSingleEntryMapCode(MethodVisitor mv, int entry) {
+		mv.visitTypeInsn(NEW, "java/util/HashMap");
+		mv.visitInsn(DUP);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/util/HashMap", "<init>", "()V", false);
+		mv.visitInsn(DUP);
+		generatePutEntryCode(mv, entry);
+	}
+
+	private void generatePutEntryCode(MethodVisitor mv, int entry) {
+		mv.visitVarInsn(ALOAD, entry);
+		mv.visitTypeInsn(CHECKCAST, "java/util/Map$Entry");
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map$Entry", "getKey", "()Ljava/lang/Object;", true);
+		mv.visitVarInsn(ALOAD, entry);
+		mv.visitTypeInsn(CHECKCAST, "java/util/Map$Entry");
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map$Entry", "getValue", "()Ljava/lang/Object;", true);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "put",
+				"(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", true);
+		mv.visitInsn(POP);
+	}
+
 }
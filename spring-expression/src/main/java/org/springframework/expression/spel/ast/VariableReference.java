@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -65,7 +65,9 @@ public class VariableReference extends SpelNodeImpl {
 	@Override
 	public TypedValue getValueInternal(ExpressionState state) throws SpelEvaluationException {
 		if (this.name.equals(THIS)) {
-			return state.getActiveContextObject();
+			TypedValue result = state.getActiveContextObject();
+			this.exitTypeDescriptor = toPublicDescriptor(result.getValue());
+			return result;
 		}
 		if (this.name.equals(ROOT)) {
 			TypedValue result = state.getRootContextObject();
@@ -73,19 +75,22 @@ public class VariableReference extends SpelNodeImpl {
 			return result;
 		}
 		TypedValue result = state.lookupVariable(this.name);
-		Object value = result.getValue();
+		this.exitTypeDescriptor = toPublicDescriptor(result.getValue());
+		// a null value will mean either the value was null or the variable was not found
+		return result;
+	}
+
+	private String toPublicDescriptor(Object value) {
 		if (value == null || !Modifier.isPublic(value.getClass().getModifiers())) {
 			// If the type is not public then when generateCode produces a checkcast to it
 			// then an IllegalAccessError will occur.
 			// If resorting to Object isn't sufficient, the hierarchy could be traversed for 
 			// the first public type.
-			this.exitTypeDescriptor = "Ljava/lang/Object";
+			return "Ljava/lang/Object";
 		}
 		else {
-			this.exitTypeDescriptor = CodeFlow.toDescriptorFromObject(value);
+			return CodeFlow.toDescriptorFromObject(value);
 		}
-		// a null value will mean either the value was null or the variable was not found
-		return result;
 	}
 
 	@Override
@@ -100,6 +105,14 @@ public class VariableReference extends SpelNodeImpl {
 
 	@Override
 	public boolean isWritable(ExpressionState expressionState) throws SpelEvaluationException {
+		return isVariable();
+	}
+
+	/**
+	 * Return whether this reference denotes a variable in the evaluation context,
+	 * as opposed to {@code #this} or {@code #root}.
+	 */
+	boolean isVariable() {
 		return !(this.name.equals(THIS) || this.name.equals(ROOT));
 	}
 
@@ -147,14 +160,36 @@ public class VariableReference extends SpelNodeImpl {
 		if (this.name.equals(ROOT)) {
 			mv.visitVarInsn(ALOAD,1);
 		}
+		else if (this.name.equals(THIS)) {
+			cf.loadTarget(mv);
+		}
 		else {
-			mv.visitVarInsn(ALOAD, 2);
-			mv.visitLdcInsn(name);
-			mv.visitMethodInsn(INVOKEINTERFACE, "org/springframework/expression/EvaluationContext", "lookupVariable", "(Ljava/lang/String;)Ljava/lang/Object;",true);
+			generateLookupCode(mv, cf);
 		}
 		CodeFlow.insertCheckCast(mv,this.exitTypeDescriptor);
 		cf.pushDescriptor(this.exitTypeDescriptor);
 	}
 
+	/**
+	 * Generate the bytecode to look up this variable in the evaluation context,
+	 * leaving its value on the stack as {@code java.lang.Object}.
+	 */
+	void generateLookupCode(MethodVisitor mv, CodeFlow cf) {
+		cf.loadEvaluationContext(mv);
+		mv.visitLdcInsn(this.name);
+		mv.visitMethodInsn(INVOKEINTERFACE, "org/springframework/expression/EvaluationContext", "lookupVariable", "(Ljava/lang/String;)Ljava/lang/Object;",true);
+	}
+
+	/**
+	 * Generate the bytecode to set this variable in the evaluation context to the
+	 * value held in the specified local variable.
+	 */
+	void generateSetValueCode(MethodVisitor mv, CodeFlow cf, int valueVariableId) {
+		cf.loadEvaluationContext(mv);
+		mv.visitLdcInsn(this.name);
+		mv.visitVarInsn(ALOAD, valueVariableId);
+		mv.visitMethodInsn(INVOKEINTERFACE, "org/springframework/expression/EvaluationContext", "setVariable", "(Ljava/lang/String;Ljava/lang/Object;)V", true);
+	}
+
 
 }
@@ -0,0 +1,506 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.standard;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.CompiledExpression;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.SpelNodeImpl;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link SpelExpressionParser} that keeps a bounded registry of the expressions it has
+ * parsed, keyed by expression string and {@link ParserContext}, and hands out the same
+ * {@link Expression} instance for repeated requests. Components of the same kind that
+ * share a parser through {@link #getSharedInstance(Class, SpelParserConfiguration)}
+ * therefore parse - and, depending on the {@link org.springframework.expression.spel.SpelCompilerMode
+ * compiler mode} of the configuration, compile - each expression only once.
+ *
+ * <p>A compiled expression is specific to the types it has been evaluated against.
+ * Shared instances are therefore registered per family of components, and callers
+ * that evaluate the same expression string against different root or argument types
+ * are expected to {@link #parseExpression(String, ParserContext, Object) parse it
+ * within a scope} identifying those types.
+ *
+ * <p>If a {@link #setCompilationExecutor compilation executor} is specified, expressions
+ * are not compiled on the thread that evaluates them. Instead, each expression is queued
+ * for compilation once it has been interpreted {@link #setCompilationThreshold a number
+ * of times}, and the executor compiles queued expressions in batches, generating one class
+ * per batch rather than one class per expression.
+ *
+ * <p>Expressions obtained from this parser are shared and must therefore be evaluated
+ * against an explicitly given {@link org.springframework.expression.EvaluationContext}
+ * rather than through a default context set on the expression itself.
+ *
+ * @since 4.2.4
+ * @see SpelCompiler#compile(List)
+ */
+public class CachingSpelExpressionParser extends SpelExpressionParser {
+
+	/** Default maximum number of cached expressions: 1024 */
+	public static final int DEFAULT_CACHE_LIMIT = 1024;
+
+	/** Default number of interpretations before background compilation: 100 */
+	public static final int DEFAULT_COMPILATION_THRESHOLD = 100;
+
+	/** Default maximum number of expressions compiled into one class: 32 */
+	public static final int DEFAULT_COMPILATION_BATCH_SIZE = 32;
+
+	private static final Log logger = LogFactory.getLog(CachingSpelExpressionParser.class);
+
+	private static final Map<SharedInstanceKey, CachingSpelExpressionParser> sharedInstances =
+			new ConcurrentHashMap<SharedInstanceKey, CachingSpelExpressionParser>(16);
+
+
+	private final SpelParserConfiguration configuration;
+
+	private final ConcurrentReferenceHashMap<ExpressionKey, Expression> expressionCache;
+
+	private volatile Executor compilationExecutor;
+
+	private volatile int compilationThreshold = DEFAULT_COMPILATION_THRESHOLD;
+
+	private volatile int compilationBatchSize = DEFAULT_COMPILATION_BATCH_SIZE;
+
+	private final Queue<QueuedCompilation> compilationQueue = new ConcurrentLinkedQueue<QueuedCompilation>();
+
+	private final AtomicBoolean compilationTaskScheduled = new AtomicBoolean();
+
+
+	/**
+	 * Create a parser with default settings.
+	 */
+	public CachingSpelExpressionParser() {
+		this(new SpelParserConfiguration());
+	}
+
+	/**
+	 * Create a parser with the specified configuration.
+	 * @param configuration custom configuration options
+	 */
+	public CachingSpelExpressionParser(SpelParserConfiguration configuration) {
+		this(configuration, DEFAULT_CACHE_LIMIT);
+	}
+
+	/**
+	 * Create a parser with the specified configuration.
+	 * @param configuration custom configuration options
+	 * @param cacheLimit the maximum number of expressions to keep
+	 */
+	public CachingSpelExpressionParser(SpelParserConfiguration configuration, int cacheLimit) {
+		super(configuration);
+		Assert.isTrue(cacheLimit > 0, "Cache limit must be positive");
+		this.configuration = configuration;
+		// The limit applies per segment: fewer segments for small limits
+		this.expressionCache = new ConcurrentReferenceHashMap<ExpressionKey, Expression>(Math.min(cacheLimit, 256),
+				0.75f, Math.min(cacheLimit, 16), ConcurrentReferenceHashMap.ReferenceType.SOFT, cacheLimit);
+	}
+
+
+	/**
+	 * Specify the executor to compile expressions on, in the background and in batches.
+	 * <p>Default is none, compiling expressions on the evaluating thread as determined
+	 * by the {@link org.springframework.expression.spel.SpelCompilerMode compiler mode}.
+	 * Expressions are never compiled if the compiler mode is {@code OFF}.
+	 */
+	public void setCompilationExecutor(Executor compilationExecutor) {
+		this.compilationExecutor = compilationExecutor;
+	}
+
+	/**
+	 * Return the executor to compile expressions on, if any.
+	 */
+	public Executor getCompilationExecutor() {
+		return this.compilationExecutor;
+	}
+
+	/**
+	 * Specify the number of times an expression is interpreted before it gets
+	 * queued for background compilation. Default is 100.
+	 * @see #setCompilationExecutor
+	 */
+	public void setCompilationThreshold(int compilationThreshold) {
+		Assert.isTrue(compilationThreshold > 0, "Compilation threshold must be positive");
+		this.compilationThreshold = compilationThreshold;
+	}
+
+	/**
+	 * Return the number of times an expression is interpreted before it gets
+	 * queued for background compilation.
+	 */
+	public int getCompilationThreshold() {
+		return this.compilationThreshold;
+	}
+
+	/**
+	 * Specify the maximum number of expressions to compile into one generated class.
+	 * Default is 32.
+	 * @see #setCompilationExecutor
+	 */
+	public void setCompilationBatchSize(int compilationBatchSize) {
+		Assert.isTrue(compilationBatchSize > 0, "Compilation batch size must be positive");
+		this.compilationBatchSize = compilationBatchSize;
+	}
+
+	/**
+	 * Return the maximum number of expressions to compile into one generated class.
+	 */
+	public int getCompilationBatchSize() {
+		return this.compilationBatchSize;
+	}
+
+	/**
+	 * Return the number of expressions currently held in the registry.
+	 */
+	public int getCacheSize() {
+		return this.expressionCache.size();
+	}
+
+	/**
+	 * Return the number of parse requests served from the registry.
+	 */
+	public long getCacheHitCount() {
+		return this.expressionCache.getHitCount();
+	}
+
+	/**
+	 * Return the number of parse requests that required actual parsing.
+	 */
+	public long getCacheMissCount() {
+		return this.expressionCache.getMissCount();
+	}
+
+
+	@Override
+	public Expression parseExpression(String expressionString, ParserContext context) throws ParseException {
+		return parseExpression(expressionString, context, null);
+	}
+
+	/**
+	 * Parse the expression string, sharing the resulting {@link Expression} only with
+	 * requests for the same scope.
+	 * @param expressionString the raw expression string to parse
+	 * @param context a context for influencing this expression parsing routine (optional)
+	 * @param scope the scope to share the expression within, typically identifying the
+	 * root and argument types it is evaluated against (may be {@code null})
+	 * @return an evaluator for the parsed expression
+	 * @throws ParseException an exception occurred during parsing
+	 */
+	public Expression parseExpression(String expressionString, ParserContext context, Object scope)
+			throws ParseException {
+
+		ExpressionKey key = new ExpressionKey(expressionString, context, scope);
+		Expression expression = this.expressionCache.get(key);
+		if (expression == null) {
+			expression = super.parseExpression(expressionString, context);
+			Expression existing = this.expressionCache.putIfAbsent(key, expression);
+			if (existing != null) {
+				expression = existing;
+			}
+		}
+		return expression;
+	}
+
+	@Override
+	protected SpelExpression doParseExpression(String expressionString, ParserContext context) throws ParseException {
+		SpelExpression expression = super.doParseExpression(expressionString, context);
+		expression.setBackgroundCompiler(this);
+		return expression;
+	}
+
+	/**
+	 * Return whether expressions are to be compiled in the background,
+	 * i.e. whether a compilation executor has been specified.
+	 */
+	boolean isBackgroundCompilation() {
+		return (this.compilationExecutor != null);
+	}
+
+	/**
+	 * Queue the given expression for background compilation, making sure that
+	 * a compilation task is pending on the executor.
+	 */
+	void scheduleCompilation(SpelExpression expression) {
+		// Without a configured compiler ClassLoader, compile against the evaluating thread's one
+		ClassLoader classLoader = this.configuration.getCompilerClassLoader();
+		if (classLoader == null) {
+			classLoader = ClassUtils.getDefaultClassLoader();
+		}
+		this.compilationQueue.add(new QueuedCompilation(expression, classLoader));
+		Executor executor = this.compilationExecutor;
+		if (executor != null && this.compilationTaskScheduled.compareAndSet(false, true)) {
+			try {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						compileQueuedExpressions();
+					}
+				});
+			}
+			catch (RejectedExecutionException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("SpEL: background compilation rejected - compiling on calling thread", ex);
+				}
+				compileQueuedExpressions();
+			}
+		}
+	}
+
+	private void compileQueuedExpressions() {
+		// Expressions queued from now on require another task
+		this.compilationTaskScheduled.set(false);
+		List<SpelExpression> batch = new ArrayList<SpelExpression>();
+		ClassLoader batchClassLoader = null;
+		QueuedCompilation queued;
+		while ((queued = this.compilationQueue.poll()) != null) {
+			if (!batch.isEmpty() && queued.classLoader != batchClassLoader) {
+				compileBatch(batch, batchClassLoader);
+				batch.clear();
+			}
+			batch.add(queued.expression);
+			batchClassLoader = queued.classLoader;
+			if (batch.size() >= this.compilationBatchSize) {
+				compileBatch(batch, batchClassLoader);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			compileBatch(batch, batchClassLoader);
+		}
+	}
+
+	private void compileBatch(List<SpelExpression> expressions, ClassLoader classLoader) {
+		List<SpelNodeImpl> asts = new ArrayList<SpelNodeImpl>(expressions.size());
+		for (SpelExpression expression : expressions) {
+			asts.add(expression.getAstNode());
+		}
+		List<CompiledExpression> compiledAsts = null;
+		try {
+			SpelCompiler compiler = SpelCompiler.getCompiler(classLoader);
+			compiledAsts = compiler.compile(asts);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("SpEL: failed to compile batch of " + asts.size() + " expressions", ex);
+			}
+		}
+		for (int i = 0; i < expressions.size(); i++) {
+			expressions.get(i).backgroundCompilationCompleted(compiledAsts != null ? compiledAsts.get(i) : null);
+		}
+	}
+
+
+	/**
+	 * Return the parser shared by all components of the given family that use
+	 * the default configuration.
+	 * @param family the type of component to share the parser between
+	 * @return the shared parser instance
+	 * @see #getSharedInstance(Class, SpelParserConfiguration)
+	 */
+	public static CachingSpelExpressionParser getSharedInstance(Class<?> family) {
+		return getSharedInstance(family, new SpelParserConfiguration());
+	}
+
+	/**
+	 * Return the parser shared by all components of the given family that use an
+	 * equal configuration, creating it with default settings if necessary.
+	 * <p>Shared instances are held until {@link #clearClassLoader cleared} for the
+	 * ClassLoader of their family or of their configuration's
+	 * {@link SpelParserConfiguration#getCompilerClassLoader() compiler ClassLoader}.
+	 * @param family the type of component to share the parser between
+	 * @param configuration the parser configuration
+	 * @return the shared parser instance
+	 */
+	public static CachingSpelExpressionParser getSharedInstance(Class<?> family, SpelParserConfiguration configuration) {
+		Assert.notNull(family, "Family must not be null");
+		Assert.notNull(configuration, "SpelParserConfiguration must not be null");
+		SharedInstanceKey key = new SharedInstanceKey(family, configuration);
+		synchronized (sharedInstances) {
+			CachingSpelExpressionParser parser = sharedInstances.get(key);
+			if (parser == null) {
+				parser = new CachingSpelExpressionParser(configuration);
+				sharedInstances.put(key, parser);
+			}
+			return parser;
+		}
+	}
+
+	/**
+	 * Remove all shared instances whose family or compiler ClassLoader is the given
+	 * ClassLoader or one of its children, so that they do not keep it alive, e.g. on
+	 * shutdown of a web application that uses Spring classes from a common ClassLoader.
+	 * <p>Does nothing if this class has been loaded by the given ClassLoader or one of its
+	 * children, in which case the shared instances go away along with this class.
+	 * @param classLoader the ClassLoader to clear the shared instances for
+	 */
+	public static void clearClassLoader(ClassLoader classLoader) {
+		if (classLoader == null ||
+				isUnderneathClassLoader(CachingSpelExpressionParser.class.getClassLoader(), classLoader)) {
+			return;
+		}
+		synchronized (sharedInstances) {
+			for (Iterator<SharedInstanceKey> it = sharedInstances.keySet().iterator(); it.hasNext();) {
+				SharedInstanceKey key = it.next();
+				if (isUnderneathClassLoader(key.family.getClassLoader(), classLoader) ||
+						isUnderneathClassLoader(key.configuration.getCompilerClassLoader(), classLoader)) {
+					it.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check whether the given ClassLoader is underneath the given parent,
+	 * that is, whether the parent is within the candidate's hierarchy.
+	 * @param candidate the candidate ClassLoader to check
+	 * @param parent the parent ClassLoader to check for
+	 */
+	private static boolean isUnderneathClassLoader(ClassLoader candidate, ClassLoader parent) {
+		if (candidate == parent) {
+			return true;
+		}
+		if (candidate == null) {
+			return false;
+		}
+		ClassLoader classLoaderToCheck = candidate;
+		while (classLoaderToCheck != null) {
+			classLoaderToCheck = classLoaderToCheck.getParent();
+			if (classLoaderToCheck == parent) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * An expression queued for background compilation, along with the ClassLoader
+	 * to compile it against.
+	 */
+	private static final class QueuedCompilation {
+
+		final SpelExpression expression;
+
+		final ClassLoader classLoader;
+
+		public QueuedCompilation(SpelExpression expression, ClassLoader classLoader) {
+			this.expression = expression;
+			this.classLoader = classLoader;
+		}
+	}
+
+
+	/**
+	 * Registry key: the expression string plus the relevant state of the ParserContext,
+	 * within the scope given by the caller.
+	 */
+	private static final class ExpressionKey {
+
+		private final String expressionString;
+
+		private final boolean template;
+
+		private final String prefix;
+
+		private final String suffix;
+
+		private final Object scope;
+
+		public ExpressionKey(String expressionString, ParserContext context, Object scope) {
+			this.expressionString = expressionString;
+			this.template = (context != null && context.isTemplate());
+			this.prefix = (this.template ? context.getExpressionPrefix() : null);
+			this.suffix = (this.template ? context.getExpressionSuffix() : null);
+			this.scope = scope;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ExpressionKey)) {
+				return false;
+			}
+			ExpressionKey otherKey = (ExpressionKey) other;
+			return (ObjectUtils.nullSafeEquals(this.expressionString, otherKey.expressionString) &&
+					this.template == otherKey.template &&
+					ObjectUtils.nullSafeEquals(this.prefix, otherKey.prefix) &&
+					ObjectUtils.nullSafeEquals(this.suffix, otherKey.suffix) &&
+					ObjectUtils.nullSafeEquals(this.scope, otherKey.scope));
+		}
+
+		@Override
+		public int hashCode() {
+			return (ObjectUtils.nullSafeHashCode(this.expressionString) * 29 +
+					ObjectUtils.nullSafeHashCode(this.prefix)) * 29 + ObjectUtils.nullSafeHashCode(this.scope);
+		}
+	}
+
+
+	/**
+	 * Key for a shared instance: the component family plus the parser configuration.
+	 */
+	private static final class SharedInstanceKey {
+
+		private final Class<?> family;
+
+		private final SpelParserConfiguration configuration;
+
+		public SharedInstanceKey(Class<?> family, SpelParserConfiguration configuration) {
+			this.family = family;
+			this.configuration = configuration;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof SharedInstanceKey)) {
+				return false;
+			}
+			SharedInstanceKey otherKey = (SharedInstanceKey) other;
+			return (this.family == otherKey.family && this.configuration.equals(otherKey.configuration));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.family.hashCode() * 29 + this.configuration.hashCode();
+		}
+	}
+
+}
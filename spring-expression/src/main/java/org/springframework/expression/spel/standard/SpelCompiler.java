@@ -19,8 +19,12 @@ package org.springframework.expression.spel.standard;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.reflect.Constructor;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -28,6 +32,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
 import org.springframework.asm.MethodVisitor;
 import org.springframework.asm.Opcodes;
 import org.springframework.expression.Expression;
@@ -69,6 +74,12 @@ public class SpelCompiler implements Opcodes {
 
 	private static final Log logger = LogFactory.getLog(SpelCompiler.class);
 
+	private static final String EVALUATION_METHOD_DESCRIPTOR =
+			"(Ljava/lang/Object;Lorg/springframework/expression/EvaluationContext;)Ljava/lang/Object;";
+
+	private static final String[] EVALUATION_METHOD_EXCEPTIONS =
+			new String[] {"org/springframework/expression/EvaluationException"};
+
 	// A compiler is created for each classloader, it manages a child class loader of that
 	// classloader and the child is used to load the compiled expressions.
 	private static final Map<ClassLoader, SpelCompiler> compilers =
@@ -119,6 +130,62 @@ public class SpelCompiler implements Opcodes {
 		return null;
 	}
 
+	/**
+	 * Attempt compilation of the supplied expressions into a single generated class,
+	 * reducing the number of classes to define (and the metaspace they occupy) compared
+	 * to compiling the expressions one by one. Each expression is checked for being
+	 * compilable first; those that are not are left out of the batch.
+	 * @param expressions the expressions to compile
+	 * @return the compiled expressions in the order of the supplied expressions, with
+	 * {@code null} for each expression that could not be compiled
+	 * @since 4.2.4
+	 */
+	public List<CompiledExpression> compile(List<SpelNodeImpl> expressions) {
+		List<SpelNodeImpl> batch = new ArrayList<SpelNodeImpl>(expressions.size());
+		for (SpelNodeImpl expression : expressions) {
+			if (expression.isCompilable()) {
+				batch.add(expression);
+			}
+			else if (logger.isDebugEnabled()) {
+				logger.debug("SpEL: unable to compile " + expression.toStringAST());
+			}
+		}
+
+		Map<SpelNodeImpl, CompiledExpression> compiled = new IdentityHashMap<SpelNodeImpl, CompiledExpression>();
+		if (batch.size() == 1) {
+			compiled.put(batch.get(0), compile(batch.get(0)));
+		}
+		else if (!batch.isEmpty()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("SpEL: compiling batch of " + batch.size() + " expressions");
+			}
+			Class<? extends CompiledExpression> clazz = null;
+			while (clazz == null && !batch.isEmpty()) {
+				// Leave out any expression that opts out during code generation and try again
+				List<SpelNodeImpl> optedOut = new ArrayList<SpelNodeImpl>(1);
+				clazz = createBatchClass(batch, optedOut);
+				batch.removeAll(optedOut);
+			}
+			if (clazz != null) {
+				try {
+					Constructor<? extends CompiledExpression> ctor = clazz.getConstructor(int.class);
+					for (int i = 0; i < batch.size(); i++) {
+						compiled.put(batch.get(i), ctor.newInstance(i));
+					}
+				}
+				catch (Throwable ex) {
+					throw new IllegalStateException("Failed to instantiate CompiledExpression", ex);
+				}
+			}
+		}
+
+		List<CompiledExpression> result = new ArrayList<CompiledExpression>(expressions.size());
+		for (SpelNodeImpl expression : expressions) {
+			result.add(compiled.get(expression));
+		}
+		return result;
+	}
+
 	private int getNextSuffix() {
 		return this.suffixId.incrementAndGet();
 	}
@@ -148,12 +215,106 @@ public class SpelCompiler implements Opcodes {
 		mv.visitEnd();
 
 		// Create getValue() method
-		mv = cw.visitMethod(ACC_PUBLIC, "getValue",
-				"(Ljava/lang/Object;Lorg/springframework/expression/EvaluationContext;)Ljava/lang/Object;", null,
-				new String[ ]{"org/springframework/expression/EvaluationException"});
+		CodeFlow cf = new CodeFlow(clazzName, cw);
+		if (!generateEvaluationMethod(cw, "getValue", expressionToCompile, cf)) {
+			return null;
+		}
+		cw.visitEnd();
+
+		cf.finish();
+
+		byte[] data = cw.toByteArray();
+		// TODO need to make this conditionally occur based on a debug flag
+		// dump(expressionToCompile.toStringAST(), clazzName, data);
+		return (Class<? extends CompiledExpression>) this.ccl.defineClass(clazzName.replaceAll("/", "."), data);
+	}
+
+	/**
+	 * Generate a class that encapsulates several compiled expressions and define it.
+	 * Each expression gets its own evaluation method; instances are created with the
+	 * index of the expression to evaluate, which getValue() dispatches on.
+	 * @param expressionsToCompile the expressions to be compiled
+	 * @param optedOut to be populated with an expression that opted out of compilation
+	 * during code generation, if any
+	 * @return the expression class, or {@code null} if an expression opted out
+	 */
+	@SuppressWarnings("unchecked")
+	private Class<? extends CompiledExpression> createBatchClass(
+			List<SpelNodeImpl> expressionsToCompile, List<SpelNodeImpl> optedOut) {
+
+		String clazzName = "spel/Ex" + getNextSuffix();
+		ClassWriter cw = new ExpressionClassWriter();
+		cw.visit(V1_5, ACC_PUBLIC, clazzName, null, "org/springframework/expression/spel/CompiledExpression", null);
+		cw.visitField(ACC_PRIVATE | ACC_FINAL, "index", "I", null, null).visitEnd();
+
+		// Create constructor taking the index of the expression
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "(I)V", null, null);
 		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "org/springframework/expression/spel/CompiledExpression",
+				"<init>", "()V", false);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ILOAD, 1);
+		mv.visitFieldInsn(PUTFIELD, clazzName, "index", "I");
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(2, 2);
+		mv.visitEnd();
 
+		// Create one evaluation method per expression, sharing fields and static initializer
 		CodeFlow cf = new CodeFlow(clazzName, cw);
+		for (int i = 0; i < expressionsToCompile.size(); i++) {
+			cf.beginMethod();
+			if (!generateEvaluationMethod(cw, "evaluate" + i, expressionsToCompile.get(i), cf)) {
+				optedOut.add(expressionsToCompile.get(i));
+				return null;
+			}
+		}
+
+		// Create getValue() method, dispatching to the evaluation method for the index
+		mv = cw.visitMethod(ACC_PUBLIC, "getValue", EVALUATION_METHOD_DESCRIPTOR, null, EVALUATION_METHOD_EXCEPTIONS);
+		mv.visitCode();
+		Label[] labels = new Label[expressionsToCompile.size()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = new Label();
+		}
+		Label unknownIndex = new Label();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, clazzName, "index", "I");
+		mv.visitTableSwitchInsn(0, labels.length - 1, unknownIndex, labels);
+		for (int i = 0; i < labels.length; i++) {
+			mv.visitLabel(labels[i]);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitMethodInsn(INVOKEVIRTUAL, clazzName, "evaluate" + i, EVALUATION_METHOD_DESCRIPTOR, false);
+			mv.visitInsn(ARETURN);
+		}
+		mv.visitLabel(unknownIndex);
+		mv.visitTypeInsn(NEW, "java/lang/IllegalStateException");
+		mv.visitInsn(DUP);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalStateException", "<init>", "()V", false);
+		mv.visitInsn(ATHROW);
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+		cw.visitEnd();
+
+		cf.finish();
+
+		byte[] data = cw.toByteArray();
+		return (Class<? extends CompiledExpression>) this.ccl.defineClass(clazzName.replaceAll("/", "."), data);
+	}
+
+	/**
+	 * Generate a method evaluating the given expression, with the signature of
+	 * {@link CompiledExpression#getValue(Object, org.springframework.expression.EvaluationContext)}.
+	 * @return {@code false} if the decision was to opt out of compilation during code generation
+	 */
+	private boolean generateEvaluationMethod(ClassWriter cw, String methodName,
+			SpelNodeImpl expressionToCompile, CodeFlow cf) {
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, methodName, EVALUATION_METHOD_DESCRIPTOR, null,
+				EVALUATION_METHOD_EXCEPTIONS);
+		mv.visitCode();
 
 		// Ask the expression AST to generate the body of the method
 		try {
@@ -164,7 +325,7 @@ public class SpelCompiler implements Opcodes {
 				logger.debug(expressionToCompile.getClass().getSimpleName() +
 						".generateCode opted out of compilation: " + ex.getMessage());
 			}
-			return null;
+			return false;
 		}
 
 		CodeFlow.insertBoxIfNecessary(mv, cf.lastDescriptor());
@@ -175,14 +336,7 @@ public class SpelCompiler implements Opcodes {
 
 		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
 		mv.visitEnd();
-		cw.visitEnd();
-
-		cf.finish();
-
-		byte[] data = cw.toByteArray();
-		// TODO need to make this conditionally occur based on a debug flag
-		// dump(expressionToCompile.toStringAST(), clazzName, data);
-		return (Class<? extends CompiledExpression>) this.ccl.defineClass(clazzName.replaceAll("/", "."), data);
+		return true;
 	}
 
 
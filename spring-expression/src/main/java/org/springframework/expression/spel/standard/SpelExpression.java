@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,11 +24,14 @@ import org.springframework.expression.TypedValue;
 import org.springframework.expression.common.ExpressionUtils;
 import org.springframework.expression.spel.CompiledExpression;
 import org.springframework.expression.spel.ExpressionState;
+import org.springframework.expression.spel.InlineCacheStatistics;
 import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
 import org.springframework.expression.spel.SpelNode;
 import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.MethodReference;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
 import org.springframework.expression.spel.ast.SpelNodeImpl;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.Assert;
@@ -61,7 +64,13 @@ public class SpelExpression implements Expression {
 	private EvaluationContext evaluationContext;
 
 	// Holds the compiled form of the expression (if it has been compiled)
-	private CompiledExpression compiledAst;
+	private volatile CompiledExpression compiledAst;
+
+	// The parser that compiles this expression in the background, if any
+	private CachingSpelExpressionParser backgroundCompiler;
+
+	// Whether this expression is currently queued for background compilation
+	private volatile boolean compilationScheduled = false;
 
 	// Count of many times as the expression been interpreted - can trigger compilation
 	// when certain limit reached
@@ -109,8 +118,8 @@ public class SpelExpression implements Expression {
 		Object result;
 		if (this.compiledAst != null) {
 			try {
-				TypedValue contextRoot = evaluationContext == null ? null : evaluationContext.getRootObject();
-				return this.compiledAst.getValue(contextRoot == null ? null : contextRoot.getValue(), evaluationContext);
+				TypedValue contextRoot = getEvaluationContext().getRootObject();
+				return this.compiledAst.getValue(contextRoot == null ? null : contextRoot.getValue(), getEvaluationContext());
 			}
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
@@ -135,7 +144,7 @@ public class SpelExpression implements Expression {
 		Object result;
 		if (this.compiledAst != null) {
 			try {
-				return this.compiledAst.getValue(rootObject, evaluationContext);
+				return this.compiledAst.getValue(rootObject, getEvaluationContext());
 			}
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
@@ -160,8 +169,8 @@ public class SpelExpression implements Expression {
 	public <T> T getValue(Class<T> expectedResultType) throws EvaluationException {
 		if (this.compiledAst != null) {
 			try {
-				TypedValue contextRoot = evaluationContext == null ? null : evaluationContext.getRootObject();
-				Object result = this.compiledAst.getValue(contextRoot == null ? null : contextRoot.getValue(), evaluationContext);
+				TypedValue contextRoot = getEvaluationContext().getRootObject();
+				Object result = this.compiledAst.getValue(contextRoot == null ? null : contextRoot.getValue(), getEvaluationContext());
 				if (expectedResultType == null) {
 					return (T)result;
 				}
@@ -192,7 +201,7 @@ public class SpelExpression implements Expression {
 	public <T> T getValue(Object rootObject, Class<T> expectedResultType) throws EvaluationException {
 		if (this.compiledAst != null) {
 			try {
-				Object result = this.compiledAst.getValue(rootObject, null);
+				Object result = this.compiledAst.getValue(rootObject, getEvaluationContext());
 				if (expectedResultType == null) {
 					return (T)result;
 				}
@@ -432,7 +441,14 @@ public class SpelExpression implements Expression {
 		this.interpretedCount++;
 		SpelCompilerMode compilerMode = expressionState.getConfiguration().getCompilerMode();
 		if (compilerMode != SpelCompilerMode.OFF) {
-			if (compilerMode == SpelCompilerMode.IMMEDIATE) {
+			if (this.backgroundCompiler != null && this.backgroundCompiler.isBackgroundCompilation()) {
+				if (!this.compilationScheduled &&
+						this.interpretedCount >= this.backgroundCompiler.getCompilationThreshold()) {
+					this.compilationScheduled = true;
+					this.backgroundCompiler.scheduleCompilation(this);
+				}
+			}
+			else if (compilerMode == SpelCompilerMode.IMMEDIATE) {
 				if (this.interpretedCount > 1) {
 					compileExpression();
 				}
@@ -473,6 +489,37 @@ public class SpelExpression implements Expression {
 		return (this.compiledAst != null);
 	}
 
+	/**
+	 * Hand compilation of this expression over to the given parser, which compiles
+	 * it asynchronously once the parser's compilation threshold has been reached.
+	 */
+	void setBackgroundCompiler(CachingSpelExpressionParser backgroundCompiler) {
+		this.backgroundCompiler = backgroundCompiler;
+	}
+
+	/**
+	 * Return the root node of the Abstract Syntax Tree, for compilation.
+	 */
+	SpelNodeImpl getAstNode() {
+		return this.ast;
+	}
+
+	/**
+	 * Callback from background compilation: use the given compiled form from now on
+	 * or, if {@code null}, count another failed attempt and keep interpreting.
+	 */
+	void backgroundCompilationCompleted(CompiledExpression compiledAst) {
+		if (compiledAst != null) {
+			this.compiledAst = compiledAst;
+		}
+		else {
+			this.failedAttempts++;
+			this.interpretedCount = 0;
+		}
+		// Allow for scheduling again, unless compilation keeps failing
+		this.compilationScheduled = (this.failedAttempts > FAILED_ATTEMPTS_THRESHOLD);
+	}
+
 	/**
 	 * Cause an expression to revert to being interpreted if it has been using a compiled
 	 * form. It also resets the compilation attempt failure count (an expression is normally no
@@ -484,6 +531,29 @@ public class SpelExpression implements Expression {
 		this.failedAttempts = 0;
 	}
 
+	/**
+	 * Return the combined hit and miss statistics of the inline caches that the
+	 * property, field and method references in this expression keep of their
+	 * resolved accessors and executors.
+	 * @since 4.2.4
+	 */
+	public InlineCacheStatistics getInlineCacheStatistics() {
+		return collectInlineCacheStatistics(this.ast, new InlineCacheStatistics(0, 0, 0, 0, 0));
+	}
+
+	private InlineCacheStatistics collectInlineCacheStatistics(SpelNode node, InlineCacheStatistics statistics) {
+		if (node instanceof PropertyOrFieldReference) {
+			statistics = statistics.combine(((PropertyOrFieldReference) node).getInlineCacheStatistics());
+		}
+		else if (node instanceof MethodReference) {
+			statistics = statistics.combine(((MethodReference) node).getInlineCacheStatistics());
+		}
+		for (int i = 0; i < node.getChildCount(); i++) {
+			statistics = collectInlineCacheStatistics(node.getChild(i), statistics);
+		}
+		return statistics;
+	}
+
 	/**
 	 * Return the Abstract Syntax Tree for the expression.
 	 */
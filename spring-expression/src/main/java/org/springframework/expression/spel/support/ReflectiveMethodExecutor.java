@@ -87,7 +87,10 @@ public class ReflectiveMethodExecutor implements MethodExecutor {
 		}
 		Class<?>[] ifcs = clazz.getInterfaces();
 		for (Class<?> ifc: ifcs) {
-			discoverPublicClass(method, ifc);
+			Class<?> publicClass = discoverPublicClass(method, ifc);
+			if (publicClass != null) {
+				return publicClass;
+			}
 		}
 		if (clazz.getSuperclass() != null) {
 			return discoverPublicClass(method, clazz.getSuperclass());
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.ast.ResolutionCache;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the inline caches of property, field and method references,
+ * as exposed through {@link SpelExpression#getInlineCacheStatistics()}.
+ */
+public class InlineCacheTests {
+
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+
+	private final List<Shape> shapes = Arrays.asList(new Circle(), new Square(), new Triangle(),
+			new Pentagon(), new Hexagon(), new Octagon());
+
+	private StandardEvaluationContext context;
+
+
+	@Before
+	public void setUp() {
+		this.context = new StandardEvaluationContext();
+	}
+
+
+	@Test
+	public void polymorphicPropertyReference() {
+		SpelExpression expression = (SpelExpression) this.parser.parseExpression("#shape.name");
+		evaluateForShapes(expression, 3);
+		InlineCacheStatistics statistics = expression.getInlineCacheStatistics();
+		assertEquals(0, statistics.getHitCount());
+		assertEquals(3, statistics.getMissCount());
+
+		evaluateForShapes(expression, 3);
+		statistics = expression.getInlineCacheStatistics();
+		assertEquals(3, statistics.getHitCount());
+		assertEquals(3, statistics.getMissCount());
+		assertEquals(0.5, statistics.getHitRatio(), 0);
+		assertEquals(1, statistics.getCacheCount());
+		assertEquals(0, statistics.getMegamorphicCacheCount());
+	}
+
+	@Test
+	public void megamorphicMethodReference() {
+		SpelExpression expression = (SpelExpression) this.parser.parseExpression("#shape.getCorners(#shape.name)");
+		evaluateForShapes(expression, this.shapes.size());
+		evaluateForShapes(expression, this.shapes.size());
+		InlineCacheStatistics statistics = expression.getInlineCacheStatistics();
+		assertEquals(2, statistics.getCacheCount());
+		assertEquals(2, statistics.getMegamorphicCacheCount());
+		assertEquals(2 * 4, statistics.getHitCount());
+		assertEquals(2 * 2, statistics.getSharedHitCount());
+		assertEquals(2 * 6, statistics.getMissCount());
+	}
+
+	@Test
+	public void sharedCacheAcrossExpressions() {
+		SpelExpression expression = (SpelExpression) this.parser.parseExpression("#shape.name");
+		evaluateForShapes(expression, this.shapes.size());
+
+		// Once megamorphic, the last shape is served from the cache filled by the first expression
+		SpelExpression other = (SpelExpression) this.parser.parseExpression("#shape.name");
+		evaluateForShapes(other, this.shapes.size());
+		InlineCacheStatistics statistics = other.getInlineCacheStatistics();
+		assertEquals(5, statistics.getMissCount());
+		assertEquals(1, statistics.getSharedHitCount());
+		assertEquals(1, statistics.getMegamorphicCacheCount());
+	}
+
+	@Test
+	public void sharedCacheNotUsedAcrossContexts() {
+		SpelExpression expression = (SpelExpression) this.parser.parseExpression("#shape.name");
+		this.context.addPropertyAccessor(new PrefixingNameAccessor("a:"));
+		for (Shape shape : this.shapes) {
+			this.context.setVariable("shape", shape);
+			String prefix = (shape instanceof Hexagon || shape instanceof Octagon ? "a:" : "");
+			assertEquals(prefix + shape.getName(), expression.getValue(this.context));
+		}
+
+		// Same accessor types, but differently configured instances
+		StandardEvaluationContext otherContext = new StandardEvaluationContext();
+		otherContext.addPropertyAccessor(new PrefixingNameAccessor("b:"));
+		Shape octagon = this.shapes.get(5);
+		otherContext.setVariable("shape", octagon);
+		assertEquals("b:" + octagon.getName(), expression.getValue(otherContext));
+		assertEquals(0, expression.getInlineCacheStatistics().getSharedHitCount());
+	}
+
+	@Test
+	public void sharedCacheClearedForClassLoader() {
+		SpelExpression expression = (SpelExpression) this.parser.parseExpression("#shape.name");
+		evaluateForShapes(expression, this.shapes.size());
+		ResolutionCache.clearClassLoader(getClass().getClassLoader());
+		evaluateForShapes(expression, this.shapes.size());
+
+		InlineCacheStatistics statistics = expression.getInlineCacheStatistics();
+		assertEquals(0, statistics.getSharedHitCount());
+		assertEquals(4, statistics.getHitCount());
+		assertEquals(6 + 2, statistics.getMissCount());
+	}
+
+	@Test
+	public void sharedCacheDiscardedOnAccessorChange() {
+		SpelExpression expression = (SpelExpression) this.parser.parseExpression("#shape.name");
+		evaluateForShapes(expression, this.shapes.size());
+		this.context.addPropertyAccessor(new UpperCaseNameAccessor());
+		for (int i = 4; i < this.shapes.size(); i++) {
+			Shape shape = this.shapes.get(i);
+			this.context.setVariable("shape", shape);
+			assertEquals(shape.getName().toUpperCase(), expression.getValue(this.context));
+		}
+		assertEquals(0, expression.getInlineCacheStatistics().getSharedHitCount());
+	}
+
+	@Test
+	public void staleEntryResolvedAgain() {
+		SpelExpression expression = (SpelExpression) this.parser.parseExpression("#shape.name");
+		FlakyAccessor accessor = new FlakyAccessor();
+		this.context.addPropertyAccessor(accessor);
+		evaluate(expression, new Circle());
+		accessor.failing = true;
+		evaluate(expression, new Circle());
+		InlineCacheStatistics statistics = expression.getInlineCacheStatistics();
+		assertEquals(1, statistics.getHitCount());
+		assertEquals(1, statistics.getMissCount());
+	}
+
+	@Test
+	public void staticAndInstanceAccessDistinguished() {
+		SpelExpression expression = (SpelExpression) this.parser.parseExpression("#shape.name");
+		this.context.setVariable("shape", Circle.class);
+		assertEquals(Circle.class.getName(), expression.getValue(this.context));
+		evaluate(expression, new Circle());
+		this.context.setVariable("shape", Circle.class);
+		assertEquals(Circle.class.getName(), expression.getValue(this.context));
+		assertEquals(2, expression.getInlineCacheStatistics().getMissCount());
+	}
+
+
+	private void evaluateForShapes(SpelExpression expression, int count) {
+		for (int i = 0; i < count; i++) {
+			evaluate(expression, this.shapes.get(i));
+		}
+	}
+
+	private void evaluate(SpelExpression expression, Shape shape) {
+		this.context.setVariable("shape", shape);
+		Object expected = (expression.getExpressionString().contains("getCorners") ?
+				shape.getCorners(shape.getName()) : shape.getName());
+		assertEquals(expected, expression.getValue(this.context));
+	}
+
+
+	public interface Shape {
+
+		String getName();
+
+		String getCorners(String name);
+	}
+
+
+	public static class Circle implements Shape {
+
+		@Override
+		public String getName() {
+			return "circle";
+		}
+
+		@Override
+		public String getCorners(String name) {
+			return name + ":0";
+		}
+	}
+
+
+	public static class Square implements Shape {
+
+		@Override
+		public String getName() {
+			return "square";
+		}
+
+		@Override
+		public String getCorners(String name) {
+			return name + ":4";
+		}
+	}
+
+
+	public static class Triangle implements Shape {
+
+		@Override
+		public String getName() {
+			return "triangle";
+		}
+
+		@Override
+		public String getCorners(String name) {
+			return name + ":3";
+		}
+	}
+
+
+	public static class Pentagon implements Shape {
+
+		@Override
+		public String getName() {
+			return "pentagon";
+		}
+
+		@Override
+		public String getCorners(String name) {
+			return name + ":5";
+		}
+	}
+
+
+	public static class Hexagon implements Shape {
+
+		@Override
+		public String getName() {
+			return "hexagon";
+		}
+
+		@Override
+		public String getCorners(String name) {
+			return name + ":6";
+		}
+	}
+
+
+	public static class Octagon implements Shape {
+
+		@Override
+		public String getName() {
+			return "octagon";
+		}
+
+		@Override
+		public String getCorners(String name) {
+			return name + ":8";
+		}
+	}
+
+
+	private static class UpperCaseNameAccessor implements PropertyAccessor {
+
+		@Override
+		public Class<?>[] getSpecificTargetClasses() {
+			return new Class<?>[] {Hexagon.class, Octagon.class};
+		}
+
+		@Override
+		public boolean canRead(EvaluationContext context, Object target, String name) {
+			return "name".equals(name);
+		}
+
+		@Override
+		public TypedValue read(EvaluationContext context, Object target, String name) {
+			return new TypedValue(((Shape) target).getName().toUpperCase());
+		}
+
+		@Override
+		public boolean canWrite(EvaluationContext context, Object target, String name) {
+			return false;
+		}
+
+		@Override
+		public void write(EvaluationContext context, Object target, String name, Object newValue) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+
+	private static class PrefixingNameAccessor implements PropertyAccessor {
+
+		private final String prefix;
+
+		public PrefixingNameAccessor(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Class<?>[] getSpecificTargetClasses() {
+			return new Class<?>[] {Hexagon.class, Octagon.class};
+		}
+
+		@Override
+		public boolean canRead(EvaluationContext context, Object target, String name) {
+			return "name".equals(name);
+		}
+
+		@Override
+		public TypedValue read(EvaluationContext context, Object target, String name) {
+			return new TypedValue(this.prefix + ((Shape) target).getName());
+		}
+
+		@Override
+		public boolean canWrite(EvaluationContext context, Object target, String name) {
+			return false;
+		}
+
+		@Override
+		public void write(EvaluationContext context, Object target, String name, Object newValue) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+
+	private static class FlakyAccessor implements PropertyAccessor {
+
+		boolean failing;
+
+		@Override
+		public Class<?>[] getSpecificTargetClasses() {
+			return new Class<?>[] {Circle.class};
+		}
+
+		@Override
+		public boolean canRead(EvaluationContext context, Object target, String name) {
+			return !this.failing;
+		}
+
+		@Override
+		public TypedValue read(EvaluationContext context, Object target, String name) throws AccessException {
+			if (this.failing) {
+				throw new AccessException("Stale");
+			}
+			return new TypedValue(((Shape) target).getName());
+		}
+
+		@Override
+		public boolean canWrite(EvaluationContext context, Object target, String name) {
+			return false;
+		}
+
+		@Override
+		public void write(EvaluationContext context, Object target, String name, Object newValue) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
@@ -18,8 +18,11 @@ package org.springframework.expression.spel;
 
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
@@ -28,6 +31,7 @@ import org.junit.Test;
 
 import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.AccessException;
+import org.springframework.expression.BeanResolver;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.TypedValue;
@@ -103,19 +107,20 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 	 * FunctionReference
 	 * InlineList
 	 * OpModulus
+	 * Selection
+	 * Projection
+	 * InlineMap
+	 * OpMatches
+	 * OpBetween
+	 * OpPower
+	 * BeanReference
+	 * Assign (to variables)
+	 * OpInc (of variables)
+	 * OpDec (of variables)
 	 *
 	 * Not yet compiled (some may never need to be):
-	 * Assign
-	 * BeanReference
 	 * Identifier
-	 * OpDec
-	 * OpBetween
-	 * OpMatches
-	 * OpPower
-	 * OpInc
-	 * Projection
 	 * QualifiedId
-	 * Selection
 	 */
 
 	@Test
@@ -4410,6 +4415,363 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 		assertEquals(3,expression.getValue(root));
 	}
 
+	@Test
+	public void selection() throws Exception {
+		Order order = new Order();
+
+		expression = parse("items.?[quantity > 2]");
+		assertEquals("b c", stringify(expression.getValue(order)));
+		assertCanCompile(expression);
+		assertEquals("b c", stringify(expression.getValue(order)));
+
+		expression = parse("items.^[quantity > 2]");
+		assertEquals("b", expression.getValue(order).toString());
+		assertCanCompile(expression);
+		assertEquals("b", expression.getValue(order).toString());
+
+		expression = parse("items.$[quantity > 2]");
+		assertEquals("c", expression.getValue(order).toString());
+		assertCanCompile(expression);
+		assertEquals("c", expression.getValue(order).toString());
+
+		expression = parse("items.^[quantity > 100]");
+		assertNull(expression.getValue(order));
+		assertCanCompile(expression);
+		assertNull(expression.getValue(order));
+
+		expression = parse("items.$[quantity > 100]");
+		assertNull(expression.getValue(order));
+		assertCanCompile(expression);
+		assertNull(expression.getValue(order));
+
+		expression = parse("items.?[quantity > 2].size()");
+		assertEquals(2, expression.getValue(order));
+		assertCanCompile(expression);
+		assertEquals(2, expression.getValue(order));
+
+		expression = parse("numbers.?[#this > 2]");
+		assertEquals("3 4", stringify(expression.getValue(order)));
+		assertCanCompile(expression);
+		assertEquals("3 4", stringify(expression.getValue(order)));
+
+		expression = parse("items.?[name.startsWith('b') or quantity < 5]");
+		assertEquals("a b", stringify(expression.getValue(order)));
+		assertCanCompile(expression);
+		assertEquals("a b", stringify(expression.getValue(order)));
+
+		// Nested selection, each criteria evaluated against its own element
+		expression = parse("items.?[history.?[#this > 3].size() > 1]");
+		assertEquals("c", stringify(expression.getValue(order)));
+		assertCanCompile(expression);
+		assertEquals("c", stringify(expression.getValue(order)));
+
+		// The index of an indexer is evaluated against the root object, not the element
+		expression = parse("items.?[#root.items[index] == #this]");
+		assertEquals("b", stringify(expression.getValue(order)));
+		assertCanCompile(expression);
+		assertEquals("b", stringify(expression.getValue(order)));
+
+		expression = parse("items?.?[quantity > 2]");
+		assertEquals("b c", stringify(expression.getValue(order)));
+		assertCanCompile(expression);
+		assertEquals("b c", stringify(expression.getValue(order)));
+		order.items = null;
+		assertNull(expression.getValue(order));
+		order = new Order();
+
+		expression = parse("stock.?[getValue() > 2]");
+		assertEquals("{b=5, c=10}", expression.getValue(order).toString());
+		assertCanCompile(expression);
+		assertEquals("{b=5, c=10}", expression.getValue(order).toString());
+
+		expression = parse("stock.^[getValue() > 2]");
+		assertEquals("{b=5}", expression.getValue(order).toString());
+		assertCanCompile(expression);
+		assertEquals("{b=5}", expression.getValue(order).toString());
+
+		expression = parse("stock.$[getValue() > 2]");
+		assertEquals("{c=10}", expression.getValue(order).toString());
+		assertCanCompile(expression);
+		assertEquals("{c=10}", expression.getValue(order).toString());
+
+		expression = parse("stock.$[getValue() > 100]");
+		assertNull(expression.getValue(order));
+		assertCanCompile(expression);
+		assertNull(expression.getValue(order));
+
+		// Selection on arrays is not compiled
+		expression = parse("itemArray.?[quantity > 2]");
+		assertEquals("b c", stringify(expression.getValue(order)));
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void projection() throws Exception {
+		Order order = new Order();
+
+		expression = parse("items.![name]");
+		assertEquals("a b c", stringify(expression.getValue(order)));
+		assertCanCompile(expression);
+		assertEquals("a b c", stringify(expression.getValue(order)));
+
+		expression = parse("items.![quantity * 2]");
+		assertEquals("2 10 20", stringify(expression.getValue(order)));
+		assertCanCompile(expression);
+		assertEquals("2 10 20", stringify(expression.getValue(order)));
+
+		expression = parse("items.?[quantity > 2].![name.toUpperCase()]");
+		assertEquals("B C", stringify(expression.getValue(order)));
+		assertCanCompile(expression);
+		assertEquals("B C", stringify(expression.getValue(order)));
+
+		expression = parse("stock.![getKey()]");
+		assertEquals("a b c", stringify(expression.getValue(order)));
+		assertCanCompile(expression);
+		assertEquals("a b c", stringify(expression.getValue(order)));
+
+		expression = parse("items?.![name]");
+		assertEquals("a b c", stringify(expression.getValue(order)));
+		assertCanCompile(expression);
+		assertEquals("a b c", stringify(expression.getValue(order)));
+		order.items = null;
+		assertNull(expression.getValue(order));
+		order = new Order();
+
+		// Projection on arrays is not compiled
+		expression = parse("itemArray.![name]");
+		assertEquals("a b c", stringify(expression.getValue(order)));
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void inlineMap() throws Exception {
+		expression = parse("{a:1,'b':'two',c:{d:true},e:{1,2}}");
+		Object map = expression.getValue();
+		assertEquals("{a=1, b=two, c={d=true}, e=[1, 2]}", map.toString());
+		assertCanCompile(expression);
+		map = expression.getValue();
+		assertEquals("{a=1, b=two, c={d=true}, e=[1, 2]}", map.toString());
+		try {
+			((Map<?, ?>) map).clear();
+			fail("Constant map should be unmodifiable");
+		}
+		catch (UnsupportedOperationException ex) {
+			// expected
+		}
+
+		expression = parse("{name:items[0].name,quantity:items[1].quantity + 1,'total':numbers.size()}");
+		Order order = new Order();
+		assertEquals("{name=a, quantity=6, total=4}", expression.getValue(order).toString());
+		assertCanCompile(expression);
+		assertEquals("{name=a, quantity=6, total=4}", expression.getValue(order).toString());
+
+		expression = parse("{a:1,b:2}['b']");
+		assertEquals(2, expression.getValue());
+		assertCanCompile(expression);
+		assertEquals(2, expression.getValue());
+	}
+
+	@Test
+	public void operatorMatches() throws Exception {
+		expression = parse("name matches '[a-c]+'");
+		assertTrue(expression.getValue(new Item("abc", 1), Boolean.class));
+		assertCanCompile(expression);
+		assertTrue(expression.getValue(new Item("abc", 1), Boolean.class));
+		assertFalse(expression.getValue(new Item("abd", 1), Boolean.class));
+
+		StandardEvaluationContext context = new StandardEvaluationContext(new Item("abc", 1));
+		context.setVariable("regex", "a.*");
+		expression = parse("name matches #regex");
+		assertTrue(expression.getValue(context, Boolean.class));
+		assertCanCompile(expression);
+		assertTrue(expression.getValue(context, Boolean.class));
+		context.setVariable("regex", "b.*");
+		assertFalse(expression.getValue(context, Boolean.class));
+		context.setVariable("regex", "a.*");
+		assertTrue(expression.getValue(context, Boolean.class));
+
+		expression = parse("items.?[name matches '[bc]'].size()");
+		assertEquals(2, expression.getValue(new Order()));
+		assertCanCompile(expression);
+		assertEquals(2, expression.getValue(new Order()));
+
+		// The left operand is converted to a String when interpreted
+		expression = parse("quantity matches '5'");
+		assertTrue(expression.getValue(new Item("a", 5), Boolean.class));
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void operatorBetween() throws Exception {
+		expression = parse("quantity between {1,5}");
+		assertTrue(expression.getValue(new Item("a", 5), Boolean.class));
+		assertCanCompile(expression);
+		assertTrue(expression.getValue(new Item("a", 5), Boolean.class));
+		assertTrue(expression.getValue(new Item("a", 1), Boolean.class));
+		assertFalse(expression.getValue(new Item("a", 0), Boolean.class));
+		assertFalse(expression.getValue(new Item("a", 6), Boolean.class));
+
+		expression = parse("name between {'b','d'}");
+		assertTrue(expression.getValue(new Item("c", 1), Boolean.class));
+		assertCanCompile(expression);
+		assertTrue(expression.getValue(new Item("c", 1), Boolean.class));
+		assertFalse(expression.getValue(new Item("a", 1), Boolean.class));
+
+		StandardEvaluationContext context = new StandardEvaluationContext(new Item("a", 5));
+		context.setVariable("range", Arrays.asList(1, 10));
+		expression = parse("quantity between #range");
+		assertTrue(expression.getValue(context, Boolean.class));
+		assertCanCompile(expression);
+		assertTrue(expression.getValue(context, Boolean.class));
+		context.setVariable("range", Arrays.asList(1, 2, 3));
+		try {
+			expression.getValue(context, Boolean.class);
+			fail("Should have failed on a list with three elements");
+		}
+		catch (SpelEvaluationException ex) {
+			assertEquals(SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION, ex.getMessageCode());
+			assertEquals(SpelMessage.BETWEEN_RIGHT_OPERAND_MUST_BE_TWO_ELEMENT_LIST,
+					((SpelEvaluationException) ex.getCause()).getMessageCode());
+		}
+	}
+
+	@Test
+	public void operatorPower() throws Exception {
+		expression = parse("2^3");
+		assertEquals(8, expression.getValue());
+		assertCanCompile(expression);
+		assertEquals(8, expression.getValue());
+
+		expression = parse("2.0d^3");
+		assertEquals(8.0d, expression.getValue());
+		assertCanCompile(expression);
+		assertEquals(8.0d, expression.getValue());
+
+		expression = parse("2.0f^2");
+		assertEquals(4.0d, expression.getValue());
+		assertCanCompile(expression);
+		assertEquals(4.0d, expression.getValue());
+
+		expression = parse("2L^3");
+		assertEquals(8L, expression.getValue());
+		assertCanCompile(expression);
+		assertEquals(8L, expression.getValue());
+
+		// Like the interpreter, switch to long once the result exceeds the int range
+		expression = parse("quantity^2");
+		assertEquals(25, expression.getValue(new Item("a", 5)));
+		assertCanCompile(expression);
+		assertEquals(25, expression.getValue(new Item("a", 5)));
+		assertEquals(2500000000L, expression.getValue(new Item("a", 50000)));
+
+		expression = parse("quantity^2 + 1");
+		assertEquals(26, expression.getValue(new Item("a", 5)));
+		assertCanCompile(expression);
+		assertEquals(26, expression.getValue(new Item("a", 5)));
+
+		expression = parse("new java.math.BigDecimal('2')^2");
+		assertEquals(new BigDecimal("4"), expression.getValue());
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void beanReference() throws Exception {
+		final Order order = new Order();
+		StandardEvaluationContext context = new StandardEvaluationContext();
+		context.setBeanResolver(new BeanResolver() {
+			@Override
+			public Object resolve(EvaluationContext context, String beanName) throws AccessException {
+				return ("order".equals(beanName) ? order : null);
+			}
+		});
+
+		expression = parse("@order.items.size()");
+		assertEquals(3, expression.getValue(context));
+		assertCanCompile(expression);
+		assertEquals(3, expression.getValue(context));
+
+		expression = parse("@missing");
+		assertNull(expression.getValue(context));
+		assertCanCompile(expression);
+		assertNull(expression.getValue(context));
+	}
+
+	@Test
+	public void assign() throws Exception {
+		StandardEvaluationContext context = new StandardEvaluationContext(new Order());
+		expression = parse("#total = items[1].quantity");
+		assertEquals(5, expression.getValue(context));
+		assertEquals(5, context.lookupVariable("total"));
+		assertCanCompile(expression);
+		context.setVariable("total", null);
+		assertEquals(5, expression.getValue(context));
+		assertEquals(5, context.lookupVariable("total"));
+
+		expression = parse("#label = items[0].name");
+		assertEquals("a", expression.getValue(context));
+		assertCanCompile(expression);
+		context.setVariable("label", null);
+		assertEquals("a", expression.getValue(context));
+		assertEquals("a", context.lookupVariable("label"));
+
+		expression = parse("(#total = 2 * 3) + 1");
+		assertEquals(7, expression.getValue(context));
+		assertCanCompile(expression);
+		assertEquals(7, expression.getValue(context));
+		assertEquals(6, context.lookupVariable("total"));
+
+		// Assignments to properties are not compiled
+		Item item = new Item("a", 1);
+		expression = parse("name = 'b'");
+		assertEquals("b", expression.getValue(item));
+		assertEquals("b", item.getName());
+		assertCantCompile(expression);
+	}
+
+	@Test
+	public void opIncAndOpDec() throws Exception {
+		StandardEvaluationContext context = new StandardEvaluationContext();
+		context.setVariable("count", 1);
+		expression = parse("#count++");
+		assertEquals(1, expression.getValue(context));
+		assertCanCompile(expression);
+		assertEquals(2, expression.getValue(context));
+		assertEquals(3, context.lookupVariable("count"));
+
+		expression = parse("++#count");
+		assertEquals(4, expression.getValue(context));
+		assertCanCompile(expression);
+		assertEquals(5, expression.getValue(context));
+		assertEquals(5, context.lookupVariable("count"));
+
+		context.setVariable("big", 10L);
+		expression = parse("#big--");
+		assertEquals(10L, expression.getValue(context));
+		assertCanCompile(expression);
+		assertEquals(9L, expression.getValue(context));
+		assertEquals(8L, context.lookupVariable("big"));
+
+		context.setVariable("ratio", 1.5d);
+		expression = parse("--#ratio");
+		assertEquals(0.5d, expression.getValue(context));
+		assertCanCompile(expression);
+		assertEquals(-0.5d, expression.getValue(context));
+		assertEquals(-0.5d, context.lookupVariable("ratio"));
+
+		context.setVariable("f", 1.0f);
+		expression = parse("#f++");
+		assertEquals(1.0f, expression.getValue(context));
+		assertCanCompile(expression);
+		assertEquals(2.0f, expression.getValue(context));
+		assertEquals(3.0f, context.lookupVariable("f"));
+
+		// Increments of properties are not compiled
+		Item item = new Item("a", 1);
+		expression = parse("quantity++");
+		assertEquals(1, expression.getValue(item));
+		assertEquals(2, item.getQuantity());
+		assertCantCompile(expression);
+	}
 
 	// helper methods
 
@@ -5341,4 +5703,80 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 		}
 	}
 
+	public static class Order {
+
+		public List<Item> items = new ArrayList<Item>(
+				Arrays.asList(new Item("a", 1), new Item("b", 5, 4, 2), new Item("c", 10, 4, 7)));
+
+		public Map<String, Integer> stock = new LinkedHashMap<String, Integer>();
+
+		public int index = 1;
+
+		public Order() {
+			this.stock.put("a", 1);
+			this.stock.put("b", 5);
+			this.stock.put("c", 10);
+		}
+
+		public List<Item> getItems() {
+			return this.items;
+		}
+
+		public Item[] getItemArray() {
+			return this.items.toArray(new Item[this.items.size()]);
+		}
+
+		public List<Integer> getNumbers() {
+			return Arrays.asList(1, 2, 3, 4);
+		}
+
+		public Map<String, Integer> getStock() {
+			return this.stock;
+		}
+
+		public int getIndex() {
+			return this.index;
+		}
+	}
+
+	public static class Item {
+
+		private String name;
+
+		private int quantity;
+
+		private final List<Integer> history;
+
+		public Item(String name, int quantity, Integer... history) {
+			this.name = name;
+			this.quantity = quantity;
+			this.history = Arrays.asList(history);
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getQuantity() {
+			return this.quantity;
+		}
+
+		public void setQuantity(int quantity) {
+			this.quantity = quantity;
+		}
+
+		public List<Integer> getHistory() {
+			return this.history;
+		}
+
+		@Override
+		public String toString() {
+			return this.name;
+		}
+	}
+
 }
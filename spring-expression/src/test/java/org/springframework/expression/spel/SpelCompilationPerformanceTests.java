@@ -16,11 +16,16 @@
 
 package org.springframework.expression.spel;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Ignore;
 import org.junit.Test;
 
+import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.spel.standard.SpelCompiler;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import static org.junit.Assert.*;
 
@@ -666,8 +671,107 @@ public class SpelCompilationPerformanceTests extends AbstractExpressionTests {
 		}
 	}
 
+	@Test
+	public void compilingSelection() throws Exception {
+		expression = parser.parseExpression("numbers.?[#this > 5]");
+		timeInterpretedAndCompiled("selection", expression, new StandardEvaluationContext(new NumberList()));
+	}
+
+	@Test
+	public void compilingProjection() throws Exception {
+		expression = parser.parseExpression("numbers.![#this * 2]");
+		timeInterpretedAndCompiled("projection", expression, new StandardEvaluationContext(new NumberList()));
+	}
+
+	@Test
+	public void compilingInlineMap() throws Exception {
+		expression = parser.parseExpression("{a:1,b:{c:'x',d:'y'}}['b']");
+		timeInterpretedAndCompiled("inline map", expression, new StandardEvaluationContext());
+	}
+
+	@Test
+	public void compilingOperatorMatches() throws Exception {
+		expression = parser.parseExpression("'someone@example.org' matches '[a-z]+@[a-z]+\\.org'");
+		timeInterpretedAndCompiled("matches", expression, new StandardEvaluationContext());
+	}
+
+	@Test
+	public void compilingOperatorBetween() throws Exception {
+		expression = parser.parseExpression("numbers.size() between {5,15}");
+		timeInterpretedAndCompiled("between", expression, new StandardEvaluationContext(new NumberList()));
+	}
+
+	@Test
+	public void compilingOperatorPower() throws Exception {
+		expression = parser.parseExpression("numbers.size()^2");
+		timeInterpretedAndCompiled("power", expression, new StandardEvaluationContext(new NumberList()));
+	}
+
+	@Test
+	public void compilingVariableAssignment() throws Exception {
+		expression = parser.parseExpression("#size = numbers.size()");
+		timeInterpretedAndCompiled("assignment", expression, new StandardEvaluationContext(new NumberList()));
+	}
+
+	public static class NumberList {
+
+		public List<Integer> numbers = new ArrayList<Integer>();
+
+		public NumberList() {
+			for (int i = 0; i < 10; i++) {
+				this.numbers.add(i);
+			}
+		}
+
+		public List<Integer> getNumbers() {
+			return this.numbers;
+		}
+	}
+
 	// ---
 
+	private void timeInterpretedAndCompiled(String title, Expression expression, EvaluationContext context) {
+		long interpretedTotal = 0, compiledTotal = 0, stime, etime;
+		Object interpretedResult = null, compiledResult = null;
+
+		// warmup
+		for (int i=0;i<count;i++) {
+			expression.getValue(context);
+		}
+
+		log("timing interpreted: ");
+		for (int iter=0;iter<iterations;iter++) {
+			stime = System.currentTimeMillis();
+			for (int i=0;i<count;i++) {
+				interpretedResult = expression.getValue(context);
+			}
+			etime = System.currentTimeMillis();
+			long interpretedSpeed = (etime - stime);
+			interpretedTotal+=interpretedSpeed;
+			log(interpretedSpeed+"ms ");
+		}
+		logln();
+
+		compile(expression);
+
+		log("timing compiled: ");
+		expression.getValue(context);
+		for (int iter=0;iter<iterations;iter++) {
+			stime = System.currentTimeMillis();
+			for (int i=0;i<count;i++) {
+				compiledResult = expression.getValue(context);
+			}
+			etime = System.currentTimeMillis();
+			long compiledSpeed = (etime - stime);
+			compiledTotal+=compiledSpeed;
+			log(compiledSpeed+"ms ");
+		}
+		logln();
+
+		assertEquals(interpretedResult, compiledResult);
+		reportPerformance(title, interpretedTotal, compiledTotal);
+	}
+
 	private void reportPerformance(String title, long interpretedTotal, long compiledTotal) {
 		double averageInterpreted = interpretedTotal/(iterations);
 		double averageCompiled = compiledTotal/(iterations);
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.standard;
+
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.CompiledExpression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.SpelNodeImpl;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CachingSpelExpressionParser} and batch compilation
+ * through {@link SpelCompiler#compile(List)}.
+ */
+public class CachingSpelExpressionParserTests {
+
+	private final StandardEvaluationContext context = new StandardEvaluationContext(new Person("Jane", 42));
+
+
+	@Test
+	public void sameExpressionForSameStringAndContext() {
+		CachingSpelExpressionParser parser = new CachingSpelExpressionParser();
+		Expression expression = parser.parseExpression("name");
+		assertSame(expression, parser.parseExpression("name"));
+		assertSame(expression, parser.parseExpression("name", (ParserContext) null));
+		assertEquals(1, parser.getCacheSize());
+		assertEquals(2, parser.getCacheHitCount());
+		assertEquals(1, parser.getCacheMissCount());
+	}
+
+	@Test
+	public void differentExpressionsForDifferentContexts() {
+		CachingSpelExpressionParser parser = new CachingSpelExpressionParser();
+		Expression plain = parser.parseExpression("name");
+		Expression template = parser.parseExpression("name", ParserContext.TEMPLATE_EXPRESSION);
+		Expression otherTemplate = parser.parseExpression("name", new TemplateParserContext("${", "}"));
+		assertNotSame(plain, template);
+		assertNotSame(template, otherTemplate);
+		assertSame(template, parser.parseExpression("name", new TemplateParserContext()));
+		assertEquals("Jane", plain.getValue(this.context));
+		assertEquals("name", template.getValue(this.context));
+		assertEquals(3, parser.getCacheSize());
+	}
+
+	@Test
+	public void boundedRegistry() {
+		CachingSpelExpressionParser parser = new CachingSpelExpressionParser(new SpelParserConfiguration(), 2);
+		parser.parseExpression("1");
+		parser.parseExpression("2");
+		parser.parseExpression("3");
+		parser.parseExpression("4");
+		assertTrue(parser.getCacheSize() <= 2);
+	}
+
+	@Test
+	public void differentExpressionsForDifferentScopes() {
+		CachingSpelExpressionParser parser = new CachingSpelExpressionParser();
+		Expression unscoped = parser.parseExpression("name");
+		Expression scoped = parser.parseExpression("name", null, Person.class);
+		assertNotSame(unscoped, scoped);
+		assertNotSame(scoped, parser.parseExpression("name", null, String.class));
+		assertSame(scoped, parser.parseExpression("name", null, Person.class));
+		assertSame(unscoped, parser.parseExpression("name", null, null));
+		assertEquals(3, parser.getCacheSize());
+	}
+
+	@Test
+	public void sharedInstancePerFamilyAndConfiguration() {
+		CachingSpelExpressionParser parser = CachingSpelExpressionParser.getSharedInstance(Person.class);
+		assertSame(parser, CachingSpelExpressionParser.getSharedInstance(Person.class));
+		assertSame(parser, CachingSpelExpressionParser.getSharedInstance(Person.class, new SpelParserConfiguration()));
+		assertNotSame(parser, CachingSpelExpressionParser.getSharedInstance(QueueingExecutor.class));
+		CachingSpelExpressionParser compilingParser = CachingSpelExpressionParser.getSharedInstance(
+				Person.class, new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null));
+		assertNotSame(parser, compilingParser);
+		assertSame(compilingParser, CachingSpelExpressionParser.getSharedInstance(
+				Person.class, new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null)));
+	}
+
+	@Test
+	public void sharedInstanceSurvivesGarbageCollection() {
+		int hashCode = System.identityHashCode(CachingSpelExpressionParser.getSharedInstance(Person.class));
+		System.gc();
+		assertEquals(hashCode, System.identityHashCode(CachingSpelExpressionParser.getSharedInstance(Person.class)));
+	}
+
+	@Test
+	public void sharedInstanceClearedForClassLoader() {
+		ClassLoader classLoader = new ClassLoader(getClass().getClassLoader()) {};
+		SpelParserConfiguration configuration = new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, classLoader);
+		CachingSpelExpressionParser parser = CachingSpelExpressionParser.getSharedInstance(Person.class, configuration);
+		CachingSpelExpressionParser otherParser = CachingSpelExpressionParser.getSharedInstance(Person.class);
+
+		CachingSpelExpressionParser.clearClassLoader(classLoader);
+		assertNotSame(parser, CachingSpelExpressionParser.getSharedInstance(Person.class, configuration));
+		assertSame(otherParser, CachingSpelExpressionParser.getSharedInstance(Person.class));
+	}
+
+	@Test
+	public void compiledOnEvaluatingThreadWithoutExecutor() throws Exception {
+		CachingSpelExpressionParser parser = new CachingSpelExpressionParser(
+				new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null));
+		SpelExpression expression = (SpelExpression) parser.parseExpression("name");
+		expression.getValue(this.context);
+		expression.getValue(this.context);
+		assertNotNull(getCompiledAst(expression));
+	}
+
+	@Test
+	public void backgroundCompilationInBatches() throws Exception {
+		CachingSpelExpressionParser parser = new CachingSpelExpressionParser(
+				new SpelParserConfiguration(SpelCompilerMode.MIXED, null));
+		QueueingExecutor executor = new QueueingExecutor();
+		parser.setCompilationExecutor(executor);
+		parser.setCompilationThreshold(2);
+
+		List<SpelExpression> expressions = new ArrayList<SpelExpression>();
+		for (String expressionString : Arrays.asList("name", "age + 1", "name.length() > 3")) {
+			SpelExpression expression = (SpelExpression) parser.parseExpression(expressionString);
+			for (int i = 0; i < 5; i++) {
+				expression.getValue(this.context);
+			}
+			assertNull(getCompiledAst(expression));
+			expressions.add(expression);
+		}
+		assertEquals(1, executor.tasks.size());
+
+		executor.runAll();
+		CompiledExpression compiledAst = getCompiledAst(expressions.get(0));
+		assertNotNull(compiledAst);
+		for (SpelExpression expression : expressions) {
+			assertSame(compiledAst.getClass(), getCompiledAst(expression).getClass());
+		}
+		assertEquals("Jane", expressions.get(0).getValue(this.context));
+		assertEquals(43, expressions.get(1).getValue(this.context));
+		assertEquals(true, expressions.get(2).getValue(this.context));
+	}
+
+	@Test
+	public void backgroundCompilationHonorsBatchSize() throws Exception {
+		CachingSpelExpressionParser parser = new CachingSpelExpressionParser(
+				new SpelParserConfiguration(SpelCompilerMode.MIXED, null));
+		QueueingExecutor executor = new QueueingExecutor();
+		parser.setCompilationExecutor(executor);
+		parser.setCompilationThreshold(1);
+		parser.setCompilationBatchSize(2);
+
+		SpelExpression first = (SpelExpression) parser.parseExpression("name");
+		SpelExpression second = (SpelExpression) parser.parseExpression("age");
+		SpelExpression third = (SpelExpression) parser.parseExpression("age * 2");
+		first.getValue(this.context);
+		second.getValue(this.context);
+		third.getValue(this.context);
+		executor.runAll();
+		assertSame(getCompiledAst(first).getClass(), getCompiledAst(second).getClass());
+		assertNotSame(getCompiledAst(first).getClass(), getCompiledAst(third).getClass());
+		assertEquals(84, third.getValue(this.context));
+	}
+
+	@Test
+	public void backgroundCompilationUsesEvaluatingThreadClassLoader() throws Exception {
+		CachingSpelExpressionParser parser = new CachingSpelExpressionParser(
+				new SpelParserConfiguration(SpelCompilerMode.MIXED, null));
+		QueueingExecutor executor = new QueueingExecutor();
+		parser.setCompilationExecutor(executor);
+		parser.setCompilationThreshold(1);
+
+		SpelExpression expression = (SpelExpression) parser.parseExpression("age + 2");
+		Thread currentThread = Thread.currentThread();
+		ClassLoader original = currentThread.getContextClassLoader();
+		ClassLoader evaluatingClassLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+		currentThread.setContextClassLoader(evaluatingClassLoader);
+		try {
+			expression.getValue(this.context);
+		}
+		finally {
+			currentThread.setContextClassLoader(original);
+		}
+		executor.runAll();
+		assertSame(evaluatingClassLoader, getCompiledAst(expression).getClass().getClassLoader().getParent());
+		assertEquals(44, expression.getValue(this.context));
+	}
+
+	@Test
+	public void noBackgroundCompilationWhenCompilerOff() throws Exception {
+		CachingSpelExpressionParser parser = new CachingSpelExpressionParser();
+		QueueingExecutor executor = new QueueingExecutor();
+		parser.setCompilationExecutor(executor);
+		parser.setCompilationThreshold(1);
+		SpelExpression expression = (SpelExpression) parser.parseExpression("name");
+		for (int i = 0; i < 5; i++) {
+			expression.getValue(this.context);
+		}
+		assertTrue(executor.tasks.isEmpty());
+		assertNull(getCompiledAst(expression));
+	}
+
+	@Test
+	public void batchCompilationSkipsExpressionsNotYetEvaluated() {
+		SpelExpressionParser parser = new SpelExpressionParser();
+		SpelExpression evaluated = parser.parseRaw("age - 2");
+		evaluated.getValue(this.context);
+		SpelExpression notEvaluated = parser.parseRaw("name");
+		SpelExpression literal = parser.parseRaw("'abc'");
+
+		List<CompiledExpression> compiledAsts = SpelCompiler.getCompiler(null).compile(
+				Arrays.<SpelNodeImpl>asList(evaluated.getAstNode(), notEvaluated.getAstNode(), literal.getAstNode()));
+		assertEquals(3, compiledAsts.size());
+		assertNotNull(compiledAsts.get(0));
+		assertNull(compiledAsts.get(1));
+		assertNotNull(compiledAsts.get(2));
+		assertSame(compiledAsts.get(0).getClass(), compiledAsts.get(2).getClass());
+	}
+
+
+	private CompiledExpression getCompiledAst(SpelExpression expression) throws Exception {
+		Field field = SpelExpression.class.getDeclaredField("compiledAst");
+		field.setAccessible(true);
+		return (CompiledExpression) field.get(expression);
+	}
+
+
+	private static class QueueingExecutor implements Executor {
+
+		final List<Runnable> tasks = new ArrayList<Runnable>();
+
+		@Override
+		public void execute(Runnable task) {
+			this.tasks.add(task);
+		}
+
+		void runAll() {
+			while (!this.tasks.isEmpty()) {
+				this.tasks.remove(0).run();
+			}
+		}
+	}
+
+
+	public static class Person {
+
+		private final String name;
+
+		private final int age;
+
+		public Person(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+	}
+
+}
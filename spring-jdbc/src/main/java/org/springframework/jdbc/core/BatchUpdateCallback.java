@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+/**
+ * Callback interface for streaming batch updates, notified with the update
+ * counts of each executed batch instead of having them collected for the
+ * whole operation.
+ *
+ * @since 4.2.4
+ * @see JdbcTemplate#batchUpdate(String, java.util.Iterator, int, ParameterizedPreparedStatementSetter, BatchUpdateCallback)
+ * @see BulkBatchUpdater
+ */
+public interface BatchUpdateCallback {
+
+	/**
+	 * Called after a batch has been executed.
+	 * <p>Note that this callback may be invoked concurrently when batches are
+	 * executed on several connections, see {@link BulkBatchUpdater#setConcurrency}.
+	 * @param batchIndex the zero-based index of the batch, in the order of the arguments
+	 * @param rowsAffected the numbers of rows affected by each update in the batch
+	 */
+	void batchExecuted(long batchIndex, int[] rowsAffected);
+
+}
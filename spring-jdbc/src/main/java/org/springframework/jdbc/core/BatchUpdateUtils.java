@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.jdbc.core;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -46,6 +47,43 @@ public abstract class BatchUpdateUtils {
 				});
 	}
 
+	/**
+	 * Execute a single batch for the given arguments, falling back to separate
+	 * updates if the JDBC driver does not support batch updates.
+	 * @since 4.2.4
+	 */
+	static <T> int[] executeBatch(PreparedStatement ps, List<T> batchArgs,
+			ParameterizedPreparedStatementSetter<T> pss, boolean batchSupported) throws SQLException {
+
+		if (batchSupported) {
+			for (T obj : batchArgs) {
+				pss.setValues(ps, obj);
+				ps.addBatch();
+			}
+			return ps.executeBatch();
+		}
+		int[] rowsAffected = new int[batchArgs.size()];
+		int i = 0;
+		for (T obj : batchArgs) {
+			pss.setValues(ps, obj);
+			rowsAffected[i++] = ps.executeUpdate();
+		}
+		return rowsAffected;
+	}
+
+	/**
+	 * Read the next batch of arguments from the given Iterator into the given List.
+	 * @return {@code true} if any arguments were read
+	 * @since 4.2.4
+	 */
+	static <T> boolean nextBatch(Iterator<T> batchArgs, int batchSize, List<T> batch) {
+		batch.clear();
+		while (batch.size() < batchSize && batchArgs.hasNext()) {
+			batch.add(batchArgs.next());
+		}
+		return !batch.isEmpty();
+	}
+
 	protected static void setStatementParameters(Object[] values, PreparedStatement ps, int[] columnTypes) throws SQLException {
 		int colIndex = 0;
 		for (Object value : values) {
@@ -20,6 +20,7 @@ import java.beans.PropertyDescriptor;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
@@ -65,7 +66,8 @@ import org.springframework.util.StringUtils;
  * will have been set to the primitive's default value instead of null.
  *
  * <p>Please note that this class is designed to provide convenience rather than high performance.
- * For best performance, consider using a custom {@link RowMapper} implementation.
+ * For best performance, consider using a custom {@link RowMapper} implementation or a
+ * {@link GeneratedBeanPropertyRowMapper}.
  *
  * @author Thomas Risberg
  * @author Juergen Hoeller
@@ -201,6 +203,24 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		}
 	}
 
+	/**
+	 * Return the bean property that the given column is mapped to.
+	 * @param column the column name as obtained from result set metadata
+	 * @return the corresponding property descriptor, or {@code null} if none
+	 * @since 4.2.4
+	 */
+	protected PropertyDescriptor getMappedProperty(String column) {
+		return this.mappedFields.get(lowerCaseName(column.replaceAll(" ", "")));
+	}
+
+	/**
+	 * Return the names of all bean properties that can be mapped.
+	 * @since 4.2.4
+	 */
+	protected Set<String> getMappedProperties() {
+		return Collections.unmodifiableSet(this.mappedProperties);
+	}
+
 	/**
 	 * Convert a name in camelCase to an underscored name in lower case.
 	 * Any upper case letters are converted to lower case with a preceding underscore.
@@ -261,36 +281,14 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 			String field = lowerCaseName(column.replaceAll(" ", ""));
 			PropertyDescriptor pd = this.mappedFields.get(field);
 			if (pd != null) {
-				try {
-					Object value = getColumnValue(rs, index, pd);
-					if (rowNumber == 0 && logger.isDebugEnabled()) {
-						logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
-								"' of type [" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "]");
-					}
-					try {
-						bw.setPropertyValue(pd.getName(), value);
-					}
-					catch (TypeMismatchException ex) {
-						if (value == null && this.primitivesDefaultedForNullValue) {
-							if (logger.isDebugEnabled()) {
-								logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
-										" and column '" + column + "' with null value when setting property '" +
-										pd.getName() + "' of type [" +
-										ClassUtils.getQualifiedName(pd.getPropertyType()) +
-										"] on object: " + mappedObject, ex);
-							}
-						}
-						else {
-							throw ex;
-						}
-					}
-					if (populatedProperties != null) {
-						populatedProperties.add(pd.getName());
-					}
+				Object value = getColumnValue(rs, index, pd);
+				if (rowNumber == 0 && logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
+							"' of type [" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "]");
 				}
-				catch (NotWritablePropertyException ex) {
-					throw new DataRetrievalFailureException(
-							"Unable to map column '" + column + "' to property '" + pd.getName() + "'", ex);
+				setPropertyValue(bw, pd, value, column, rowNumber);
+				if (populatedProperties != null) {
+					populatedProperties.add(pd.getName());
 				}
 			}
 			else {
@@ -310,6 +308,34 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return mappedObject;
 	}
 
+	/**
+	 * Set the given column value on the specified bean property, defaulting
+	 * primitives for {@code null} values if configured to do so.
+	 */
+	void setPropertyValue(BeanWrapper bw, PropertyDescriptor pd, Object value, String column, int rowNumber) {
+		try {
+			bw.setPropertyValue(pd.getName(), value);
+		}
+		catch (TypeMismatchException ex) {
+			if (value == null && this.primitivesDefaultedForNullValue) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
+							" and column '" + column + "' with null value when setting property '" +
+							pd.getName() + "' of type [" +
+							ClassUtils.getQualifiedName(pd.getPropertyType()) +
+							"] on object: " + bw.getWrappedInstance(), ex);
+				}
+			}
+			else {
+				throw ex;
+			}
+		}
+		catch (NotWritablePropertyException ex) {
+			throw new DataRetrievalFailureException(
+					"Unable to map column '" + column + "' to property '" + pd.getName() + "'", ex);
+		}
+	}
+
 	/**
 	 * Initialize the given BeanWrapper to be used for row mapping.
 	 * To be called for each row.
@@ -0,0 +1,513 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.sql.DataSource;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.support.JdbcAccessor;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.util.Assert;
+
+/**
+ * Executes a batch update for a stream of arguments of arbitrary size, such
+ * as a bulk load of millions of rows, without holding the arguments or the
+ * update counts for the whole operation.
+ *
+ * <p>Arguments are read from an {@link Iterator} in batches of the configured
+ * {@link #setBatchSize batch size}. Update counts are reported per batch
+ * through a {@link BatchUpdateCallback}. Work can be spread across several
+ * connections from the {@code DataSource}, see {@link #setConcurrency}, in
+ * which case batches are handed to workers run by a {@link TaskExecutor} while
+ * the calling thread keeps reading arguments.
+ *
+ * <p>Each connection is used with auto-commit switched off and committed every
+ * {@link #setCommitInterval commit interval} batches as well as once all of its
+ * batches have been executed. Note that this class obtains its own connections
+ * and hence does not participate in Spring-managed transactions. If a batch
+ * fails, no further batches are executed, uncommitted work is rolled back on
+ * all connections, and the first exception is rethrown translated into a
+ * {@link DataAccessException}; batches committed up to that point remain committed.
+ *
+ * <p>For batch updates that participate in the current transaction, use
+ * {@link JdbcTemplate#batchUpdate(String, Iterator, int, ParameterizedPreparedStatementSetter, BatchUpdateCallback)}.
+ *
+ * @since 4.2.4
+ * @see BatchUpdateCallback
+ */
+public class BulkBatchUpdater extends JdbcAccessor {
+
+	/** Default number of arguments per batch (1000) */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private int commitInterval = 0;
+
+	private int concurrency = 1;
+
+	private TaskExecutor taskExecutor;
+
+
+	/**
+	 * Construct a new BulkBatchUpdater for bean usage.
+	 * <p>Note: The DataSource has to be set before using the instance.
+	 * @see #setDataSource
+	 */
+	public BulkBatchUpdater() {
+	}
+
+	/**
+	 * Construct a new BulkBatchUpdater, given a DataSource to obtain connections from.
+	 * @param dataSource the JDBC DataSource to obtain connections from
+	 */
+	public BulkBatchUpdater(DataSource dataSource) {
+		setDataSource(dataSource);
+		afterPropertiesSet();
+	}
+
+
+	/**
+	 * Set the number of arguments to execute in a single batch.
+	 * <p>Default is 1000.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the number of arguments to execute in a single batch.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Set the number of batches after which to commit on each connection.
+	 * <p>Default is 0, committing only once all batches on a connection have
+	 * been executed.
+	 */
+	public void setCommitInterval(int commitInterval) {
+		Assert.isTrue(commitInterval >= 0, "Commit interval must not be negative");
+		this.commitInterval = commitInterval;
+	}
+
+	/**
+	 * Return the number of batches after which to commit on each connection.
+	 */
+	public int getCommitInterval() {
+		return this.commitInterval;
+	}
+
+	/**
+	 * Set the number of connections to execute batches on concurrently.
+	 * <p>Default is 1, executing all batches on a single connection in the
+	 * calling thread. With a higher value, each connection is used by a worker
+	 * run by the {@link #setTaskExecutor TaskExecutor}, and the order in which
+	 * batches are executed across connections is not defined.
+	 */
+	public void setConcurrency(int concurrency) {
+		Assert.isTrue(concurrency > 0, "Concurrency must be greater than 0");
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Return the number of connections to execute batches on concurrently.
+	 */
+	public int getConcurrency() {
+		return this.concurrency;
+	}
+
+	/**
+	 * Set the TaskExecutor to run workers with if the {@link #setConcurrency
+	 * concurrency} is greater than 1. The executor needs to be able to run that
+	 * many workers at the same time.
+	 * <p>By default, a {@link SimpleAsyncTaskExecutor} is used for each operation.
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Return the configured TaskExecutor, if any.
+	 */
+	public TaskExecutor getTaskExecutor() {
+		return this.taskExecutor;
+	}
+
+
+	/**
+	 * Execute the given SQL statement for all arguments read from the given Iterator.
+	 * @param sql the SQL statement to execute
+	 * @param batchArgs the Iterator to read the arguments from, e.g. obtained from a Stream
+	 * @param pss ParameterizedPreparedStatementSetter to use
+	 * @param callback the callback to notify with the numbers of rows affected
+	 * by each update in a batch (may be {@code null})
+	 * @return the number of arguments read from the Iterator
+	 * @throws DataAccessException if there is any problem issuing the update
+	 */
+	public <T> long batchUpdate(String sql, Iterator<T> batchArgs, ParameterizedPreparedStatementSetter<T> pss,
+			BatchUpdateCallback callback) throws DataAccessException {
+
+		Assert.notNull(sql, "SQL must not be null");
+		Assert.notNull(batchArgs, "Batch arguments must not be null");
+		Assert.notNull(pss, "ParameterizedPreparedStatementSetter must not be null");
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing bulk SQL batch update [" + sql + "] with a batch size of " + this.batchSize +
+					" on " + this.concurrency + " connection(s)");
+		}
+
+		Execution execution = new Execution();
+		long count;
+		try {
+			if (this.concurrency == 1) {
+				count = executeInline(sql, batchArgs, pss, callback, execution);
+			}
+			else {
+				count = executeConcurrently(sql, batchArgs, pss, callback, execution);
+			}
+		}
+		finally {
+			if (pss instanceof ParameterDisposer) {
+				((ParameterDisposer) pss).cleanupParameters();
+			}
+		}
+
+		Throwable failure = execution.getFailure();
+		if (failure instanceof SQLException) {
+			throw getExceptionTranslator().translate("BulkBatchUpdater", sql, (SQLException) failure);
+		}
+		else if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		else if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		else if (failure != null) {
+			throw new DataAccessResourceFailureException("Interrupted during bulk batch update", failure);
+		}
+		return count;
+	}
+
+	private <T> long executeInline(String sql, Iterator<T> batchArgs, ParameterizedPreparedStatementSetter<T> pss,
+			BatchUpdateCallback callback, Execution execution) {
+
+		Worker<T> worker = new Worker<T>(sql, pss, callback, execution, null, null);
+		long count = 0;
+		try {
+			worker.open();
+			List<T> args = new ArrayList<T>(this.batchSize);
+			long batchIndex = 0;
+			while (BatchUpdateUtils.nextBatch(batchArgs, this.batchSize, args)) {
+				worker.execute(new Batch<T>(batchIndex++, args));
+				count += args.size();
+			}
+		}
+		catch (Throwable ex) {
+			execution.fail(ex);
+		}
+		finally {
+			worker.complete();
+		}
+		return count;
+	}
+
+	private <T> long executeConcurrently(String sql, Iterator<T> batchArgs,
+			ParameterizedPreparedStatementSetter<T> pss, BatchUpdateCallback callback, Execution execution) {
+
+		TaskExecutor executor = (this.taskExecutor != null ? this.taskExecutor :
+				new SimpleAsyncTaskExecutor(getClass().getSimpleName() + "-"));
+		BlockingQueue<Batch<T>> queue = new ArrayBlockingQueue<Batch<T>>(this.concurrency * 2);
+		CountDownLatch completed = new CountDownLatch(this.concurrency);
+		int workers = 0;
+		long count = 0;
+		try {
+			for (; workers < this.concurrency; workers++) {
+				executor.execute(new Worker<T>(sql, pss, callback, execution, queue, completed));
+			}
+			List<T> args = new ArrayList<T>(this.batchSize);
+			long batchIndex = 0;
+			while (!execution.isFailed() && BatchUpdateUtils.nextBatch(batchArgs, this.batchSize, args)) {
+				Batch<T> batch = new Batch<T>(batchIndex++, args);
+				while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+					if (execution.isFailed()) {
+						break;
+					}
+				}
+				count += args.size();
+				args = new ArrayList<T>(this.batchSize);
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			execution.fail(ex);
+		}
+		catch (Throwable ex) {
+			execution.fail(ex);
+		}
+		finally {
+			// Workers keep draining the queue until they receive the end marker
+			boolean interrupted = Thread.interrupted();
+			for (int i = 0; i < this.concurrency; i++) {
+				if (i < workers) {
+					while (true) {
+						try {
+							queue.put(Batch.<T>endMarker());
+							break;
+						}
+						catch (InterruptedException ex) {
+							interrupted = true;
+						}
+					}
+				}
+				else {
+					completed.countDown();
+				}
+			}
+			while (true) {
+				try {
+					completed.await();
+					break;
+				}
+				catch (InterruptedException ex) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return count;
+	}
+
+
+	/**
+	 * Executes batches on a single connection, either directly or by taking
+	 * them from a queue when run by a TaskExecutor.
+	 */
+	private class Worker<T> implements Runnable {
+
+		private final String sql;
+
+		private final ParameterizedPreparedStatementSetter<T> pss;
+
+		private final BatchUpdateCallback callback;
+
+		private final Execution execution;
+
+		private final BlockingQueue<Batch<T>> queue;
+
+		private final CountDownLatch completed;
+
+		private Connection connection;
+
+		private boolean resetAutoCommit;
+
+		private PreparedStatement statement;
+
+		private boolean batchSupported;
+
+		private int uncommittedBatches;
+
+		public Worker(String sql, ParameterizedPreparedStatementSetter<T> pss, BatchUpdateCallback callback,
+				Execution execution, BlockingQueue<Batch<T>> queue, CountDownLatch completed) {
+
+			this.sql = sql;
+			this.pss = pss;
+			this.callback = callback;
+			this.execution = execution;
+			this.queue = queue;
+			this.completed = completed;
+		}
+
+		@Override
+		public void run() {
+			try {
+				try {
+					open();
+				}
+				catch (Throwable ex) {
+					this.execution.fail(ex);
+				}
+				Batch<T> batch = takeBatch();
+				while (!batch.isEndMarker()) {
+					if (!this.execution.isFailed()) {
+						try {
+							execute(batch);
+						}
+						catch (Throwable ex) {
+							this.execution.fail(ex);
+						}
+					}
+					batch = takeBatch();
+				}
+			}
+			finally {
+				complete();
+				this.completed.countDown();
+			}
+		}
+
+		private Batch<T> takeBatch() {
+			boolean interrupted = false;
+			try {
+				while (true) {
+					try {
+						return this.queue.take();
+					}
+					catch (InterruptedException ex) {
+						interrupted = true;
+						this.execution.fail(ex);
+					}
+				}
+			}
+			finally {
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		public void open() throws SQLException {
+			this.connection = getDataSource().getConnection();
+			if (this.connection.getAutoCommit()) {
+				this.connection.setAutoCommit(false);
+				this.resetAutoCommit = true;
+			}
+			this.statement = this.connection.prepareStatement(this.sql);
+			this.batchSupported = JdbcUtils.supportsBatchUpdates(this.connection);
+			if (!this.batchSupported) {
+				logger.warn("JDBC Driver does not support Batch updates; resorting to single statement execution");
+			}
+		}
+
+		public void execute(Batch<T> batch) throws SQLException {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Sending SQL batch update #" + (batch.index + 1) + " with " + batch.args.size() + " items");
+			}
+			int[] rowsAffected = BatchUpdateUtils.executeBatch(this.statement, batch.args, this.pss, this.batchSupported);
+			if (this.callback != null) {
+				this.callback.batchExecuted(batch.index, rowsAffected);
+			}
+			this.uncommittedBatches++;
+			if (this.uncommittedBatches == getCommitInterval()) {
+				this.connection.commit();
+				this.uncommittedBatches = 0;
+			}
+		}
+
+		/**
+		 * Commit or roll back outstanding work, depending on the outcome of the
+		 * whole execution, and release the connection.
+		 */
+		public void complete() {
+			if (this.connection == null) {
+				return;
+			}
+			try {
+				if (this.execution.isFailed()) {
+					this.connection.rollback();
+				}
+				else if (this.uncommittedBatches > 0) {
+					this.connection.commit();
+				}
+			}
+			catch (Throwable ex) {
+				this.execution.fail(ex);
+			}
+			finally {
+				JdbcUtils.closeStatement(this.statement);
+				if (this.resetAutoCommit) {
+					try {
+						this.connection.setAutoCommit(true);
+					}
+					catch (Throwable ex) {
+						logger.debug("Could not reset auto-commit on JDBC Connection", ex);
+					}
+				}
+				JdbcUtils.closeConnection(this.connection);
+				this.connection = null;
+			}
+		}
+	}
+
+
+	/**
+	 * A batch of arguments along with its index in the operation.
+	 */
+	private static class Batch<T> {
+
+		@SuppressWarnings("rawtypes")
+		private static final Batch END_MARKER = new Batch<Object>(-1, null);
+
+		final long index;
+
+		final List<T> args;
+
+		public Batch(long index, List<T> args) {
+			this.index = index;
+			this.args = args;
+		}
+
+		public boolean isEndMarker() {
+			return (this == END_MARKER);
+		}
+
+		@SuppressWarnings("unchecked")
+		public static <T> Batch<T> endMarker() {
+			return END_MARKER;
+		}
+	}
+
+
+	/**
+	 * State shared by all workers of a single operation.
+	 */
+	private static class Execution {
+
+		private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		public void fail(Throwable ex) {
+			this.failure.compareAndSet(null, ex);
+		}
+
+		public boolean isFailed() {
+			return (this.failure.get() != null);
+		}
+
+		public Throwable getFailure() {
+			return this.failure.get();
+		}
+	}
+
+}
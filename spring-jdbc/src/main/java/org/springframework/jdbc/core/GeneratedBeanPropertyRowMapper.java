@@ -0,0 +1,578 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyDescriptor;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.cglib.core.ReflectUtils;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * {@link BeanPropertyRowMapper} variant that generates a specialized class for
+ * each query shape, i.e. each combination of mapped class and result set columns,
+ * which instantiates the mapped class and calls its setters directly with the
+ * values obtained from the typed {@code ResultSet} getters. This avoids the
+ * {@link BeanWrapper} and type conversion overhead for every column of every row.
+ *
+ * <p>Result set metadata is inspected once per {@code ResultSet}, and generated
+ * classes are shared across mapper instances for the same query shape.
+ *
+ * <p>Properties of the following types are populated by the generated class:
+ * String, boolean, Boolean, byte, Byte, short, Short, int, Integer, long, Long,
+ * float, Float, double, Double, BigDecimal, {@code java.sql.Date},
+ * {@code java.sql.Time}, {@code java.sql.Timestamp}, {@code java.util.Date}
+ * and byte arrays. Values are retrieved as by
+ * {@link JdbcUtils#getResultSetValue(ResultSet, int, Class)}. Columns mapped to
+ * properties of any other type go through the reflective {@code BeanPropertyRowMapper}
+ * algorithm, including {@link #getColumnValue} and {@link #initBeanWrapper};
+ * those callbacks are not involved for the columns populated by generated code.
+ *
+ * <p>If a class cannot be generated or defined for a mapped class, e.g. because
+ * it is not visible from the mapped class's ClassLoader, this mapper falls back
+ * to the reflective algorithm for the query shape in question.
+ *
+ * @since 4.2.4
+ * @see BeanPropertyRowMapper
+ */
+public class GeneratedBeanPropertyRowMapper<T> extends BeanPropertyRowMapper<T> {
+
+	/**
+	 * Generated populator classes per mapped class, keyed by column mapping signature.
+	 * Generated classes refer to their mapped class, so they are held weakly as well:
+	 * they live as long as the mapped class's ClassLoader that they are defined in.
+	 */
+	private static final Map<Class<?>, Map<String, WeakReference<Class<?>>>> populatorClassCache =
+			new ConcurrentReferenceHashMap<Class<?>, Map<String, WeakReference<Class<?>>>>(64,
+					ConcurrentReferenceHashMap.ReferenceType.WEAK);
+
+	private static final AtomicInteger classSuffix = new AtomicInteger();
+
+	private static final Map<Class<?>, String> resultSetGetters = new HashMap<Class<?>, String>(32);
+
+	static {
+		resultSetGetters.put(String.class, "getString");
+		resultSetGetters.put(boolean.class, "getBoolean");
+		resultSetGetters.put(Boolean.class, "getBoolean");
+		resultSetGetters.put(byte.class, "getByte");
+		resultSetGetters.put(Byte.class, "getByte");
+		resultSetGetters.put(short.class, "getShort");
+		resultSetGetters.put(Short.class, "getShort");
+		resultSetGetters.put(int.class, "getInt");
+		resultSetGetters.put(Integer.class, "getInt");
+		resultSetGetters.put(long.class, "getLong");
+		resultSetGetters.put(Long.class, "getLong");
+		resultSetGetters.put(float.class, "getFloat");
+		resultSetGetters.put(Float.class, "getFloat");
+		resultSetGetters.put(double.class, "getDouble");
+		resultSetGetters.put(Double.class, "getDouble");
+		resultSetGetters.put(BigDecimal.class, "getBigDecimal");
+		resultSetGetters.put(java.sql.Date.class, "getDate");
+		resultSetGetters.put(java.sql.Time.class, "getTime");
+		resultSetGetters.put(java.sql.Timestamp.class, "getTimestamp");
+		resultSetGetters.put(java.util.Date.class, "getTimestamp");
+		resultSetGetters.put(byte[].class, "getBytes");
+	}
+
+
+	/** Mapping plans per list of column names */
+	private final Map<List<String>, MappingPlan> mappingPlanCache = new ConcurrentHashMap<List<String>, MappingPlan>(16);
+
+	/** The ResultSet most recently mapped, along with its plan */
+	private volatile CurrentResultSet currentResultSet;
+
+
+	/**
+	 * Create a new {@code GeneratedBeanPropertyRowMapper} for bean-style configuration.
+	 * @see #setMappedClass
+	 * @see #setCheckFullyPopulated
+	 */
+	public GeneratedBeanPropertyRowMapper() {
+	}
+
+	/**
+	 * Create a new {@code GeneratedBeanPropertyRowMapper}, accepting unpopulated
+	 * properties in the target bean.
+	 * @param mappedClass the class that each row should be mapped to
+	 */
+	public GeneratedBeanPropertyRowMapper(Class<T> mappedClass) {
+		super(mappedClass);
+	}
+
+	/**
+	 * Create a new {@code GeneratedBeanPropertyRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @param checkFullyPopulated whether we're strictly validating that
+	 * all bean properties have been mapped from corresponding database fields
+	 */
+	public GeneratedBeanPropertyRowMapper(Class<T> mappedClass, boolean checkFullyPopulated) {
+		super(mappedClass, checkFullyPopulated);
+	}
+
+
+	@Override
+	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+		Assert.state(getMappedClass() != null, "Mapped class was not specified");
+		MappingPlan plan = getMappingPlan(rs);
+		if (plan.populator == null) {
+			return super.mapRow(rs, rowNumber);
+		}
+		if (isCheckFullyPopulated() && !plan.fullyPopulated) {
+			throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
+					"necessary to populate object of class [" + getMappedClass().getName() + "]: " +
+					getMappedProperties());
+		}
+
+		Object instance = plan.populator.newInstance();
+		T mappedObject = (instance != null ? getMappedClass().cast(instance) : BeanUtils.instantiate(getMappedClass()));
+		plan.populator.populate(mappedObject, rs);
+
+		if (plan.reflectiveColumns.length > 0) {
+			BeanWrapper bw = PropertyAccessorFactory.forBeanPropertyAccess(mappedObject);
+			initBeanWrapper(bw);
+			for (int i = 0; i < plan.reflectiveColumns.length; i++) {
+				PropertyDescriptor pd = plan.reflectiveProperties[i];
+				int index = plan.reflectiveColumns[i];
+				Object value = getColumnValue(rs, index, pd);
+				setPropertyValue(bw, pd, value, plan.columnNames.get(index - 1), rowNumber);
+			}
+		}
+		return mappedObject;
+	}
+
+	private MappingPlan getMappingPlan(ResultSet rs) throws SQLException {
+		CurrentResultSet current = this.currentResultSet;
+		if (current != null && current.resultSet.get() == rs) {
+			return current.plan;
+		}
+		ResultSetMetaData rsmd = rs.getMetaData();
+		int columnCount = rsmd.getColumnCount();
+		List<String> columnNames = new ArrayList<String>(columnCount);
+		for (int index = 1; index <= columnCount; index++) {
+			columnNames.add(JdbcUtils.lookupColumnName(rsmd, index));
+		}
+		MappingPlan plan = this.mappingPlanCache.get(columnNames);
+		if (plan == null) {
+			plan = createMappingPlan(columnNames);
+			this.mappingPlanCache.put(columnNames, plan);
+		}
+		this.currentResultSet = new CurrentResultSet(rs, plan);
+		return plan;
+	}
+
+	private MappingPlan createMappingPlan(List<String> columnNames) {
+		Class<T> mappedClass = getMappedClass();
+		List<Integer> generatedColumns = new ArrayList<Integer>();
+		List<PropertyDescriptor> generatedProperties = new ArrayList<PropertyDescriptor>();
+		List<Integer> reflectiveColumns = new ArrayList<Integer>();
+		List<PropertyDescriptor> reflectiveProperties = new ArrayList<PropertyDescriptor>();
+		Set<String> populatedProperties = new HashSet<String>();
+
+		for (int index = 1; index <= columnNames.size(); index++) {
+			String column = columnNames.get(index - 1);
+			PropertyDescriptor pd = getMappedProperty(column);
+			if (pd == null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("No property found for column '" + column + "' of [" + mappedClass.getName() + "]");
+				}
+				continue;
+			}
+			Method writeMethod = pd.getWriteMethod();
+			boolean generated = resultSetGetters.containsKey(writeMethod.getParameterTypes()[0]);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
+						"' of type [" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "]" +
+						(generated ? "" : " through reflection"));
+			}
+			if (generated) {
+				generatedColumns.add(index);
+				generatedProperties.add(pd);
+			}
+			else {
+				reflectiveColumns.add(index);
+				reflectiveProperties.add(pd);
+			}
+			populatedProperties.add(pd.getName());
+		}
+
+		RowPopulator populator = null;
+		try {
+			Class<?> populatorClass = getPopulatorClass(mappedClass, generatedColumns, generatedProperties);
+			populator = (RowPopulator) populatorClass.newInstance();
+			populator.mapper = this;
+			populator.properties = generatedProperties.toArray(new PropertyDescriptor[generatedProperties.size()]);
+			populator.columnNames = columnNames;
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not generate row populator for [" + mappedClass.getName() +
+						"] - falling back to reflective mapping", ex);
+			}
+		}
+		return new MappingPlan(populator, columnNames, toIntArray(reflectiveColumns),
+				reflectiveProperties.toArray(new PropertyDescriptor[reflectiveProperties.size()]),
+				populatedProperties.equals(getMappedProperties()));
+	}
+
+	/**
+	 * Handle a {@code null} value for a primitive property, invoked by generated code.
+	 */
+	void handleNullValue(Object target, PropertyDescriptor pd, String column) {
+		if (isPrimitivesDefaultedForNullValue()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Defaulting primitive property '" + pd.getName() + "' of type [" +
+						ClassUtils.getQualifiedName(pd.getPropertyType()) + "] for column '" + column +
+						"' with null value on object: " + target);
+			}
+		}
+		else {
+			PropertyChangeEvent event = new PropertyChangeEvent(target, pd.getName(), null, null);
+			throw new TypeMismatchException(event, pd.getPropertyType());
+		}
+	}
+
+
+	private static Class<?> getPopulatorClass(Class<?> mappedClass, List<Integer> columns,
+			List<PropertyDescriptor> properties) throws Exception {
+
+		StringBuilder signature = new StringBuilder();
+		for (int i = 0; i < columns.size(); i++) {
+			Method writeMethod = properties.get(i).getWriteMethod();
+			signature.append(columns.get(i)).append(':').append(writeMethod.getName()).append(
+					Type.getMethodDescriptor(writeMethod)).append(';');
+		}
+		String key = signature.toString();
+
+		Map<String, WeakReference<Class<?>>> populatorClasses = populatorClassCache.get(mappedClass);
+		if (populatorClasses == null) {
+			populatorClasses = new ConcurrentHashMap<String, WeakReference<Class<?>>>(4);
+			populatorClassCache.put(mappedClass, populatorClasses);
+		}
+		WeakReference<Class<?>> populatorClassRef = populatorClasses.get(key);
+		Class<?> populatorClass = (populatorClassRef != null ? populatorClassRef.get() : null);
+		if (populatorClass == null) {
+			ClassLoader classLoader = mappedClass.getClassLoader();
+			Assert.state(classLoader != null, "Cannot define row populator for bootstrap class");
+			String className = mappedClass.getName() + "$$RowPopulator$$" + classSuffix.incrementAndGet();
+			byte[] bytes = new PopulatorClassGenerator(mappedClass, className, columns, properties).generate();
+			populatorClass = ReflectUtils.defineClass(className, bytes, classLoader);
+			populatorClasses.put(key, new WeakReference<Class<?>>(populatorClass));
+		}
+		return populatorClass;
+	}
+
+	private static int[] toIntArray(List<Integer> list) {
+		int[] result = new int[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = list.get(i);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Static factory method to create a new {@code GeneratedBeanPropertyRowMapper}
+	 * (with the mapped class specified only once).
+	 * @param mappedClass the class that each row should be mapped to
+	 */
+	public static <T> GeneratedBeanPropertyRowMapper<T> newInstance(Class<T> mappedClass) {
+		return new GeneratedBeanPropertyRowMapper<T>(mappedClass);
+	}
+
+
+	/**
+	 * Base class for generated row populators.
+	 * <p>For internal use only: this class is public since generated subclasses
+	 * are defined in the package of the mapped class.
+	 */
+	public static abstract class RowPopulator {
+
+		private GeneratedBeanPropertyRowMapper<?> mapper;
+
+		private PropertyDescriptor[] properties;
+
+		private List<String> columnNames;
+
+		/**
+		 * Create a new instance of the mapped class through its no-arg constructor.
+		 * @return the new instance, or {@code null} if the constructor is not accessible
+		 * from generated code
+		 */
+		public abstract Object newInstance();
+
+		/**
+		 * Populate the supported properties of the given instance from the current row.
+		 */
+		public abstract void populate(Object target, ResultSet rs) throws SQLException;
+
+		/**
+		 * Handle a {@code null} value for the primitive property at the given position.
+		 */
+		protected final void handleNullValue(Object target, int position, int columnIndex) {
+			this.mapper.handleNullValue(target, this.properties[position], this.columnNames.get(columnIndex - 1));
+		}
+	}
+
+
+	/**
+	 * Generates a {@link RowPopulator} subclass for a given mapped class and column mapping.
+	 */
+	private static class PopulatorClassGenerator implements Opcodes {
+
+		private static final String RESULT_SET = Type.getInternalName(ResultSet.class);
+
+		private static final String ROW_POPULATOR = Type.getInternalName(RowPopulator.class);
+
+		private final Class<?> mappedClass;
+
+		private final String mappedClassName;
+
+		private final String className;
+
+		private final List<Integer> columns;
+
+		private final List<PropertyDescriptor> properties;
+
+		public PopulatorClassGenerator(Class<?> mappedClass, String className, List<Integer> columns,
+				List<PropertyDescriptor> properties) {
+
+			this.mappedClass = mappedClass;
+			this.mappedClassName = Type.getInternalName(mappedClass);
+			this.className = className.replace('.', '/');
+			this.columns = columns;
+			this.properties = properties;
+		}
+
+		public byte[] generate() throws NoSuchMethodException {
+			ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+			cw.visit(V1_5, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, this.className, null, ROW_POPULATOR, null);
+
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKESPECIAL, ROW_POPULATOR, "<init>", "()V", false);
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+			mv.visitEnd();
+
+			mv = cw.visitMethod(ACC_PUBLIC, "newInstance", "()Ljava/lang/Object;", null, null);
+			mv.visitCode();
+			if (hasAccessibleDefaultConstructor()) {
+				mv.visitTypeInsn(NEW, this.mappedClassName);
+				mv.visitInsn(DUP);
+				mv.visitMethodInsn(INVOKESPECIAL, this.mappedClassName, "<init>", "()V", false);
+			}
+			else {
+				mv.visitInsn(ACONST_NULL);
+			}
+			mv.visitInsn(ARETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+
+			mv = cw.visitMethod(ACC_PUBLIC, "populate", "(Ljava/lang/Object;L" + RESULT_SET + ";)V", null,
+					new String[] {Type.getInternalName(SQLException.class)});
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, this.mappedClassName);
+			mv.visitVarInsn(ASTORE, 3);
+			for (int i = 0; i < this.columns.size(); i++) {
+				generatePropertyPopulation(mv, i);
+			}
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+
+			cw.visitEnd();
+			return cw.toByteArray();
+		}
+
+		private boolean hasAccessibleDefaultConstructor() {
+			if (Modifier.isAbstract(this.mappedClass.getModifiers()) ||
+					(this.mappedClass.isMemberClass() && !Modifier.isStatic(this.mappedClass.getModifiers()))) {
+				return false;
+			}
+			try {
+				Constructor<?> ctor = this.mappedClass.getDeclaredConstructor();
+				return !Modifier.isPrivate(ctor.getModifiers());
+			}
+			catch (NoSuchMethodException ex) {
+				return false;
+			}
+		}
+
+		// Local variables: 0 = this, 1 = target, 2 = ResultSet, 3 = typed target, 4 (and 5) = primitive value
+
+		private void generatePropertyPopulation(MethodVisitor mv, int position) throws NoSuchMethodException {
+			int columnIndex = this.columns.get(position);
+			Method writeMethod = this.properties.get(position).getWriteMethod();
+			Class<?> propertyType = writeMethod.getParameterTypes()[0];
+			Method getter = ResultSet.class.getMethod(resultSetGetters.get(propertyType), int.class);
+			Type valueType = Type.getType(getter.getReturnType());
+
+			if (!getter.getReturnType().isPrimitive()) {
+				mv.visitVarInsn(ALOAD, 3);
+				invokeGetter(mv, getter, columnIndex);
+				invokeSetter(mv, writeMethod);
+			}
+			else if (propertyType.isPrimitive()) {
+				Label setValue = new Label();
+				Label done = new Label();
+				invokeGetter(mv, getter, columnIndex);
+				mv.visitVarInsn(valueType.getOpcode(ISTORE), 4);
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET, "wasNull", "()Z", true);
+				mv.visitJumpInsn(IFEQ, setValue);
+				mv.visitVarInsn(ALOAD, 0);
+				mv.visitVarInsn(ALOAD, 1);
+				pushInt(mv, position);
+				pushInt(mv, columnIndex);
+				mv.visitMethodInsn(INVOKEVIRTUAL, ROW_POPULATOR, "handleNullValue", "(Ljava/lang/Object;II)V", false);
+				mv.visitJumpInsn(GOTO, done);
+				mv.visitLabel(setValue);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitVarInsn(valueType.getOpcode(ILOAD), 4);
+				invokeSetter(mv, writeMethod);
+				mv.visitLabel(done);
+			}
+			else {
+				Label boxValue = new Label();
+				Label setValue = new Label();
+				invokeGetter(mv, getter, columnIndex);
+				mv.visitVarInsn(valueType.getOpcode(ISTORE), 4);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET, "wasNull", "()Z", true);
+				mv.visitJumpInsn(IFEQ, boxValue);
+				mv.visitInsn(ACONST_NULL);
+				mv.visitJumpInsn(GOTO, setValue);
+				mv.visitLabel(boxValue);
+				mv.visitVarInsn(valueType.getOpcode(ILOAD), 4);
+				String wrapperName = Type.getInternalName(propertyType);
+				mv.visitMethodInsn(INVOKESTATIC, wrapperName, "valueOf",
+						"(" + valueType.getDescriptor() + ")L" + wrapperName + ";", false);
+				mv.visitLabel(setValue);
+				invokeSetter(mv, writeMethod);
+			}
+		}
+
+		private void invokeGetter(MethodVisitor mv, Method getter, int columnIndex) {
+			mv.visitVarInsn(ALOAD, 2);
+			pushInt(mv, columnIndex);
+			mv.visitMethodInsn(INVOKEINTERFACE, RESULT_SET, getter.getName(), Type.getMethodDescriptor(getter), true);
+		}
+
+		private void invokeSetter(MethodVisitor mv, Method writeMethod) {
+			mv.visitMethodInsn(INVOKEVIRTUAL, this.mappedClassName, writeMethod.getName(),
+					Type.getMethodDescriptor(writeMethod), false);
+			Type returnType = Type.getReturnType(writeMethod);
+			if (returnType.getSize() == 1) {
+				mv.visitInsn(POP);
+			}
+			else if (returnType.getSize() == 2) {
+				mv.visitInsn(POP2);
+			}
+		}
+
+		private static void pushInt(MethodVisitor mv, int value) {
+			if (value >= -1 && value <= 5) {
+				mv.visitInsn(ICONST_0 + value);
+			}
+			else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+				mv.visitIntInsn(BIPUSH, value);
+			}
+			else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+				mv.visitIntInsn(SIPUSH, value);
+			}
+			else {
+				mv.visitLdcInsn(value);
+			}
+		}
+	}
+
+
+	/**
+	 * Holder for the columns mapped by generated code and through reflection
+	 * for a given query shape.
+	 */
+	private static class MappingPlan {
+
+		/** Generated populator, or {@code null} if generation failed */
+		final RowPopulator populator;
+
+		final List<String> columnNames;
+
+		final int[] reflectiveColumns;
+
+		final PropertyDescriptor[] reflectiveProperties;
+
+		final boolean fullyPopulated;
+
+		public MappingPlan(RowPopulator populator, List<String> columnNames, int[] reflectiveColumns,
+				PropertyDescriptor[] reflectiveProperties, boolean fullyPopulated) {
+
+			this.populator = populator;
+			this.columnNames = Collections.unmodifiableList(columnNames);
+			this.reflectiveColumns = reflectiveColumns;
+			this.reflectiveProperties = reflectiveProperties;
+			this.fullyPopulated = fullyPopulated;
+		}
+	}
+
+
+	private static class CurrentResultSet {
+
+		final WeakReference<ResultSet> resultSet;
+
+		final MappingPlan plan;
+
+		public CurrentResultSet(ResultSet resultSet, MappingPlan plan) {
+			this.resultSet = new WeakReference<ResultSet>(resultSet);
+			this.plan = plan;
+		}
+	}
+
+}
@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -1047,6 +1048,65 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		});
 	}
 
+	/**
+	 * Execute multiple batches using the supplied SQL statement with the arguments
+	 * read from the given Iterator, one batch at a time. The arguments' values will
+	 * be set using the ParameterizedPreparedStatementSetter.
+	 * <p>In contrast to {@link #batchUpdate(String, Collection, int, ParameterizedPreparedStatementSetter)},
+	 * neither the arguments nor the update counts are held for the whole operation,
+	 * which makes this variant suitable for bulk loads of arbitrary size.
+	 * @param sql the SQL statement to execute
+	 * @param batchArgs the Iterator to read the arguments from, e.g. obtained from a Stream
+	 * @param batchSize batch size
+	 * @param pss ParameterizedPreparedStatementSetter to use
+	 * @param callback the callback to notify with the numbers of rows affected
+	 * by each update in a batch (may be {@code null})
+	 * @return the number of arguments read from the Iterator
+	 * @throws DataAccessException if there is any problem issuing the update
+	 * @since 4.2.4
+	 * @see BulkBatchUpdater
+	 */
+	public <T> long batchUpdate(String sql, final Iterator<T> batchArgs, final int batchSize,
+			final ParameterizedPreparedStatementSetter<T> pss, final BatchUpdateCallback callback)
+			throws DataAccessException {
+
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing streaming SQL batch update [" + sql + "] with a batch size of " + batchSize);
+		}
+		return execute(sql, new PreparedStatementCallback<Long>() {
+			@Override
+			public Long doInPreparedStatement(PreparedStatement ps) throws SQLException {
+				try {
+					boolean batchSupported = JdbcUtils.supportsBatchUpdates(ps.getConnection());
+					if (!batchSupported) {
+						logger.warn("JDBC Driver does not support Batch updates; resorting to single statement execution");
+					}
+					List<T> batch = new ArrayList<T>(batchSize);
+					long count = 0;
+					long batchIndex = 0;
+					while (BatchUpdateUtils.nextBatch(batchArgs, batchSize, batch)) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Sending SQL batch update #" + (batchIndex + 1) + " with " + batch.size() + " items");
+						}
+						int[] rowsAffected = BatchUpdateUtils.executeBatch(ps, batch, pss, batchSupported);
+						if (callback != null) {
+							callback.batchExecuted(batchIndex, rowsAffected);
+						}
+						count += batch.size();
+						batchIndex++;
+					}
+					return count;
+				}
+				finally {
+					if (pss instanceof ParameterDisposer) {
+						((ParameterDisposer) pss).cleanupParameters();
+					}
+				}
+			}
+		});
+	}
+
 	//-------------------------------------------------------------------------
 	// Methods dealing with callable statements
 	//-------------------------------------------------------------------------
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,14 @@
 
 package org.springframework.jdbc.core.namedparam;
 
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.sql.DataSource;
 
 import org.springframework.dao.DataAccessException;
@@ -72,14 +77,7 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
 
 	/** Cache of original SQL String to ParsedSql representation */
-	@SuppressWarnings("serial")
-	private final Map<String, ParsedSql> parsedSqlCache =
-			new LinkedHashMap<String, ParsedSql>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<String, ParsedSql> eldest) {
-					return size() > getCacheLimit();
-				}
-			};
+	private final ParsedSqlCache parsedSqlCache = new ParsedSqlCache();
 
 
 	/**
@@ -127,6 +125,41 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return this.cacheLimit;
 	}
 
+	/**
+	 * Return the number of entries currently held in this template's SQL cache.
+	 * @since 4.2.4
+	 */
+	public int getCacheSize() {
+		return this.parsedSqlCache.size();
+	}
+
+	/**
+	 * Return the number of SQL statements that were found in this template's
+	 * SQL cache.
+	 * @since 4.2.4
+	 */
+	public long getCacheHitCount() {
+		return this.parsedSqlCache.hitCount.get();
+	}
+
+	/**
+	 * Return the number of SQL statements that had to be parsed because they
+	 * were not found in this template's SQL cache.
+	 * @since 4.2.4
+	 */
+	public long getCacheMissCount() {
+		return this.parsedSqlCache.missCount.get();
+	}
+
+	/**
+	 * Return the number of entries removed from this template's SQL cache
+	 * in order to stay within the {@link #setCacheLimit cache limit}.
+	 * @since 4.2.4
+	 */
+	public long getCacheEvictionCount() {
+		return this.parsedSqlCache.evictionCount.get();
+	}
+
 
 	@Override
 	public <T> T execute(String sql, SqlParameterSource paramSource, PreparedStatementCallback<T> action)
@@ -353,23 +386,107 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 
 	/**
 	 * Obtain a parsed representation of the given SQL statement.
-	 * <p>The default implementation uses an LRU cache with an upper limit
-	 * of 256 entries.
+	 * <p>The default implementation uses a concurrent cache with an upper limit
+	 * of 256 entries, evicting entries that have not been used recently.
 	 * @param sql the original SQL
 	 * @return a representation of the parsed SQL statement
 	 */
 	protected ParsedSql getParsedSql(String sql) {
-		if (getCacheLimit() <= 0) {
+		int cacheLimit = getCacheLimit();
+		if (cacheLimit <= 0) {
 			return NamedParameterUtils.parseSqlStatement(sql);
 		}
-		synchronized (this.parsedSqlCache) {
-			ParsedSql parsedSql = this.parsedSqlCache.get(sql);
-			if (parsedSql == null) {
-				parsedSql = NamedParameterUtils.parseSqlStatement(sql);
-				this.parsedSqlCache.put(sql, parsedSql);
+		ParsedSql parsedSql = this.parsedSqlCache.get(sql);
+		if (parsedSql == null) {
+			parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+			parsedSql = this.parsedSqlCache.put(sql, parsedSql, cacheLimit);
+		}
+		return parsedSql;
+	}
+
+
+	/**
+	 * Bounded cache of ParsedSql instances that does not lock on lookup.
+	 * <p>Eviction follows the CLOCK policy: entries are queued in insertion
+	 * order, and an entry that has been used since it was last considered
+	 * for eviction is given a second chance at the end of the queue.
+	 */
+	private static class ParsedSqlCache {
+
+		private final ConcurrentMap<String, CacheEntry> entries =
+				new ConcurrentHashMap<String, CacheEntry>(DEFAULT_CACHE_LIMIT);
+
+		private final Queue<String> evictionQueue = new ConcurrentLinkedQueue<String>();
+
+		private final AtomicInteger size = new AtomicInteger();
+
+		private final AtomicLong hitCount = new AtomicLong();
+
+		private final AtomicLong missCount = new AtomicLong();
+
+		private final AtomicLong evictionCount = new AtomicLong();
+
+		public ParsedSql get(String sql) {
+			CacheEntry entry = this.entries.get(sql);
+			if (entry == null) {
+				this.missCount.incrementAndGet();
+				return null;
+			}
+			if (!entry.referenced) {
+				entry.referenced = true;
+			}
+			this.hitCount.incrementAndGet();
+			return entry.parsedSql;
+		}
+
+		public ParsedSql put(String sql, ParsedSql parsedSql, int cacheLimit) {
+			CacheEntry existing = this.entries.putIfAbsent(sql, new CacheEntry(parsedSql));
+			if (existing != null) {
+				return existing.parsedSql;
+			}
+			this.evictionQueue.offer(sql);
+			if (this.size.incrementAndGet() > cacheLimit) {
+				evict(cacheLimit);
 			}
 			return parsedSql;
 		}
+
+		public int size() {
+			return this.size.get();
+		}
+
+		private void evict(int cacheLimit) {
+			while (this.size.get() > cacheLimit) {
+				String sql = this.evictionQueue.poll();
+				if (sql == null) {
+					return;
+				}
+				CacheEntry entry = this.entries.get(sql);
+				if (entry == null) {
+					continue;
+				}
+				if (entry.referenced) {
+					entry.referenced = false;
+					this.evictionQueue.offer(sql);
+				}
+				else if (this.entries.remove(sql, entry)) {
+					this.size.decrementAndGet();
+					this.evictionCount.incrementAndGet();
+				}
+			}
+		}
+	}
+
+
+	private static class CacheEntry {
+
+		private final ParsedSql parsedSql;
+
+		private volatile boolean referenced;
+
+		public CacheEntry(ParsedSql parsedSql) {
+			this.parsedSql = parsedSql;
+		}
 	}
 
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Tests for {@link BulkBatchUpdater}.
+ */
+public class BulkBatchUpdaterTests {
+
+	private static final String INSERT_SQL = "INSERT INTO item (id) VALUES (?)";
+
+	private static final ParameterizedPreparedStatementSetter<Integer> ID_SETTER =
+			(ps, argument) -> ps.setInt(1, argument);
+
+	private EmbeddedDatabase database;
+
+	private JdbcTemplate jdbcTemplate;
+
+
+	@Before
+	public void setUp() {
+		this.database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+		this.jdbcTemplate = new JdbcTemplate(this.database);
+		this.jdbcTemplate.execute("CREATE TABLE item (id INTEGER PRIMARY KEY)");
+	}
+
+	@After
+	public void tearDown() {
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void batchUpdateOnSingleConnection() {
+		BulkBatchUpdater updater = new BulkBatchUpdater(this.database);
+		updater.setBatchSize(100);
+		List<Long> batchIndexes = new ArrayList<>();
+
+		long count = updater.batchUpdate(INSERT_SQL, IntStream.range(0, 1050).iterator(), ID_SETTER,
+				(batchIndex, rowsAffected) -> {
+					batchIndexes.add(batchIndex);
+					assertEquals(batchIndex < 10 ? 100 : 50, rowsAffected.length);
+				});
+
+		assertEquals(1050, count);
+		assertEquals(11, batchIndexes.size());
+		for (int i = 0; i < batchIndexes.size(); i++) {
+			assertEquals(Long.valueOf(i), batchIndexes.get(i));
+		}
+		assertEquals(1050, countItems());
+	}
+
+	@Test
+	public void batchUpdateOnMultipleConnections() {
+		BulkBatchUpdater updater = new BulkBatchUpdater(this.database);
+		updater.setBatchSize(100);
+		updater.setConcurrency(4);
+		updater.setCommitInterval(2);
+		List<Long> batchIndexes = Collections.synchronizedList(new ArrayList<>());
+
+		long count = updater.batchUpdate(INSERT_SQL, IntStream.range(0, 5000).iterator(), ID_SETTER,
+				(batchIndex, rowsAffected) -> batchIndexes.add(batchIndex));
+
+		assertEquals(5000, count);
+		assertEquals(50, batchIndexes.size());
+		Collections.sort(batchIndexes);
+		for (int i = 0; i < batchIndexes.size(); i++) {
+			assertEquals(Long.valueOf(i), batchIndexes.get(i));
+		}
+		assertEquals(5000, countItems());
+	}
+
+	@Test
+	public void batchUpdateFailureRollsBackUncommittedBatches() {
+		this.jdbcTemplate.update("INSERT INTO item (id) VALUES (250)");
+		BulkBatchUpdater updater = new BulkBatchUpdater(this.database);
+		updater.setBatchSize(100);
+		updater.setCommitInterval(2);
+
+		try {
+			updater.batchUpdate(INSERT_SQL, IntStream.range(0, 1000).iterator(), ID_SETTER, null);
+			fail("Should have thrown DataIntegrityViolationException");
+		}
+		catch (DataIntegrityViolationException ex) {
+			// expected
+		}
+		// First two batches committed, third one rolled back, remaining ones never executed
+		assertEquals(201, countItems());
+	}
+
+	@Test
+	public void batchUpdateFailureOnMultipleConnections() {
+		this.jdbcTemplate.update("INSERT INTO item (id) VALUES (2500)");
+		BulkBatchUpdater updater = new BulkBatchUpdater(this.database);
+		updater.setBatchSize(100);
+		updater.setConcurrency(3);
+		AtomicInteger readCount = new AtomicInteger();
+		Iterator<Integer> ids = IntStream.range(0, 100000).peek(i -> readCount.incrementAndGet()).iterator();
+
+		try {
+			updater.batchUpdate(INSERT_SQL, ids, ID_SETTER, null);
+			fail("Should have thrown DataIntegrityViolationException");
+		}
+		catch (DataIntegrityViolationException ex) {
+			// expected
+		}
+		assertTrue("Arguments read after failure", readCount.get() < 100000);
+		assertEquals(1, countItems());
+	}
+
+	@Test
+	public void connectionReleasedWithAutoCommitRestored() throws SQLException {
+		DataSource dataSource = spy(this.database);
+		Connection[] connection = new Connection[1];
+		willAnswer(invocation -> connection[0] = spy((Connection) invocation.callRealMethod())).
+				given(dataSource).getConnection();
+
+		BulkBatchUpdater updater = new BulkBatchUpdater(dataSource);
+		assertEquals(10, updater.batchUpdate(INSERT_SQL, IntStream.range(0, 10).iterator(), ID_SETTER, null));
+
+		InOrder ordered = inOrder(connection[0]);
+		ordered.verify(connection[0]).setAutoCommit(false);
+		ordered.verify(connection[0]).commit();
+		ordered.verify(connection[0]).setAutoCommit(true);
+		ordered.verify(connection[0]).close();
+	}
+
+
+	private int countItems() {
+		return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Integer.class);
+	}
+
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.test.ConcretePerson;
+import org.springframework.jdbc.core.test.ExtendedPerson;
+import org.springframework.jdbc.core.test.Person;
+import org.springframework.jdbc.core.test.SpacePerson;
+import org.springframework.tests.Assume;
+import org.springframework.tests.TestGroup;
+import org.springframework.util.StopWatch;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Tests for {@link GeneratedBeanPropertyRowMapper}.
+ */
+public class GeneratedBeanPropertyRowMapperTests extends AbstractRowMapperTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+
+	@Test
+	public void staticQueryWithRowMapper() throws Exception {
+		Mock mock = new Mock();
+		List<Person> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new GeneratedBeanPropertyRowMapper<Person>(Person.class));
+		assertEquals(1, result.size());
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void mappingWithInheritance() throws Exception {
+		Mock mock = new Mock();
+		List<ConcretePerson> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new GeneratedBeanPropertyRowMapper<ConcretePerson>(ConcretePerson.class));
+		assertEquals(1, result.size());
+		verifyConcretePerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void mappingWithNoUnpopulatedFieldsFound() throws Exception {
+		Mock mock = new Mock();
+		List<ConcretePerson> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new GeneratedBeanPropertyRowMapper<ConcretePerson>(ConcretePerson.class, true));
+		assertEquals(1, result.size());
+		verifyConcretePerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void mappingWithUnpopulatedFieldsNotAccepted() throws Exception {
+		Mock mock = new Mock();
+		thrown.expect(InvalidDataAccessApiUsageException.class);
+		mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new GeneratedBeanPropertyRowMapper<ExtendedPerson>(ExtendedPerson.class, true));
+	}
+
+	@Test
+	public void mappingNullValue() throws Exception {
+		Mock mock = new Mock(MockType.TWO);
+		thrown.expect(TypeMismatchException.class);
+		mock.getJdbcTemplate().query(
+				"select name, null as age, birth_date, balance from people",
+				new GeneratedBeanPropertyRowMapper<Person>(Person.class));
+	}
+
+	@Test
+	public void mappingNullValueWithPrimitivesDefaulted() throws Exception {
+		GeneratedBeanPropertyRowMapper<Person> mapper = new GeneratedBeanPropertyRowMapper<Person>(Person.class);
+		mapper.setPrimitivesDefaultedForNullValue(true);
+		Mock mock = new Mock(MockType.TWO);
+		List<Person> result = mock.getJdbcTemplate().query(
+				"select name, null as age, birth_date, balance from people", mapper);
+		assertEquals(1, result.size());
+		assertEquals("Bubba", result.get(0).getName());
+		assertEquals(0, result.get(0).getAge());
+	}
+
+	@Test
+	public void queryWithSpaceInColumnName() throws Exception {
+		Mock mock = new Mock(MockType.THREE);
+		List<SpacePerson> result = mock.getJdbcTemplate().query(
+				"select last_name as \"Last Name\", age, birth_date, balance from people",
+				new GeneratedBeanPropertyRowMapper<SpacePerson>(SpacePerson.class));
+		assertEquals(1, result.size());
+		verifySpacePerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void mappingWrappersAndUnsupportedTypes() throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+		given(rs.getMetaData()).willReturn(rsmd);
+		given(rsmd.getColumnCount()).willReturn(5);
+		given(rsmd.getColumnLabel(1)).willReturn("ID");
+		given(rsmd.getColumnLabel(2)).willReturn("score");
+		given(rsmd.getColumnLabel(3)).willReturn("active");
+		given(rsmd.getColumnLabel(4)).willReturn("ranking");
+		given(rsmd.getColumnLabel(5)).willReturn("state");
+		given(rs.getLong(1)).willReturn(42L);
+		given(rs.getInt(2)).willReturn(0);
+		given(rs.getBoolean(3)).willReturn(true);
+		given(rs.getDouble(4)).willReturn(1.5d);
+		given(rs.getObject(5, State.class)).willReturn(State.ACTIVE);
+		given(rs.wasNull()).willReturn(false, true, false, false);
+
+		GeneratedBeanPropertyRowMapper<Item> mapper = GeneratedBeanPropertyRowMapper.newInstance(Item.class);
+		Item item = mapper.mapRow(rs, 0);
+		assertEquals(Long.valueOf(42L), item.getId());
+		assertNull(item.getScore());
+		assertTrue(item.isActive());
+		assertEquals(1.5d, item.getRanking(), 0d);
+		assertEquals(State.ACTIVE, item.getState());
+	}
+
+	@Test
+	public void metadataInspectedOncePerResultSet() throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+		given(rs.getMetaData()).willReturn(rsmd);
+		given(rsmd.getColumnCount()).willReturn(1);
+		given(rsmd.getColumnLabel(1)).willReturn("id");
+		given(rs.getLong(1)).willReturn(1L, 2L, 3L);
+
+		GeneratedBeanPropertyRowMapper<Item> mapper = GeneratedBeanPropertyRowMapper.newInstance(Item.class);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(Long.valueOf(i + 1), mapper.mapRow(rs, i).getId());
+		}
+		verify(rs, times(1)).getMetaData();
+	}
+
+	@Test
+	public void mappingPerformance() throws Exception {
+		Assume.group(TestGroup.PERFORMANCE);
+		int rowCount = 1000000;
+		ResultSet rs = createResultSetStub();
+		BeanPropertyRowMapper<Item> reflectiveMapper = BeanPropertyRowMapper.newInstance(Item.class);
+		GeneratedBeanPropertyRowMapper<Item> generatedMapper = GeneratedBeanPropertyRowMapper.newInstance(Item.class);
+
+		StopWatch sw = new StopWatch();
+		for (int round = 0; round < 2; round++) {
+			sw.start("reflective " + round);
+			for (int i = 0; i < rowCount; i++) {
+				reflectiveMapper.mapRow(rs, i);
+			}
+			sw.stop();
+			sw.start("generated " + round);
+			for (int i = 0; i < rowCount; i++) {
+				generatedMapper.mapRow(rs, i);
+			}
+			sw.stop();
+		}
+		System.out.println(sw.prettyPrint());
+		assertTrue("Generated mapping slower than reflective mapping: " + sw.prettyPrint(),
+				sw.getTaskInfo()[3].getTimeMillis() < sw.getTaskInfo()[2].getTimeMillis());
+	}
+
+	private ResultSet createResultSetStub() {
+		final String[] columns = {"id", "score", "active", "ranking"};
+		final ResultSetMetaData rsmd = (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getColumnCount": return columns.length;
+						case "getColumnLabel": return columns[(Integer) args[0] - 1];
+						default: return null;
+					}
+				});
+		return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getMetaData": return rsmd;
+						case "getLong": return 42L;
+						case "getInt": return 7;
+						case "getBoolean": return true;
+						case "getDouble": return 1.5d;
+						case "wasNull": return false;
+						case "getTimestamp": return new Timestamp(0);
+						case "getBigDecimal": return BigDecimal.ONE;
+						default: return null;
+					}
+				});
+	}
+
+
+	public enum State { ACTIVE, INACTIVE }
+
+
+	public static class Item {
+
+		private Long id;
+
+		private Integer score;
+
+		private boolean active;
+
+		private double ranking;
+
+		private State state;
+
+		public Long getId() {
+			return id;
+		}
+
+		public void setId(Long id) {
+			this.id = id;
+		}
+
+		public Integer getScore() {
+			return score;
+		}
+
+		public void setScore(Integer score) {
+			this.score = score;
+		}
+
+		public boolean isActive() {
+			return active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+
+		public double getRanking() {
+			return ranking;
+		}
+
+		public void setRanking(double ranking) {
+			this.ranking = ranking;
+		}
+
+		public State getState() {
+			return state;
+		}
+
+		public void setState(State state) {
+			this.state = state;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -823,6 +823,39 @@ public class JdbcTemplateTests {
 		verify(this.connection, atLeastOnce()).close();
 	}
 
+	@Test
+	public void testBatchUpdateWithIteratorOfObjects() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		final List<Integer> ids = Arrays.asList(100, 200, 300);
+		final int[] rowsAffected1 = new int[] { 1, 2 };
+		final int[] rowsAffected2 = new int[] { 3 };
+
+		given(this.preparedStatement.executeBatch()).willReturn(rowsAffected1, rowsAffected2);
+		mockDatabaseMetaData(true);
+
+		ParameterizedPreparedStatementSetter<Integer> setter = (ps, argument) -> ps.setInt(1, argument.intValue());
+		final List<int[]> actualRowsAffected = new ArrayList<>();
+		BatchUpdateCallback callback = (batchIndex, rowsAffected) -> {
+			assertEquals(actualRowsAffected.size(), batchIndex);
+			actualRowsAffected.add(rowsAffected);
+		};
+
+		JdbcTemplate template = new JdbcTemplate(this.dataSource, false);
+
+		assertEquals(3, template.batchUpdate(sql, ids.iterator(), 2, setter, callback));
+		assertEquals(2, actualRowsAffected.size());
+		assertSame(rowsAffected1, actualRowsAffected.get(0));
+		assertSame(rowsAffected2, actualRowsAffected.get(1));
+
+		verify(this.preparedStatement, times(3)).addBatch();
+		verify(this.preparedStatement, times(2)).executeBatch();
+		verify(this.preparedStatement).setInt(1, ids.get(0));
+		verify(this.preparedStatement).setInt(1, ids.get(1));
+		verify(this.preparedStatement).setInt(1, ids.get(2));
+		verify(this.preparedStatement).close();
+		verify(this.connection, atLeastOnce()).close();
+	}
+
 	@Test
 	public void testCouldntGetConnectionForOperationOrExceptionTranslator() throws SQLException {
 		SQLException sqlException = new SQLException("foo", "07xxx");
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -475,4 +475,34 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection, atLeastOnce()).close();
 	}
 
+	@Test
+	public void testParsedSqlCacheStatistics() throws Exception {
+		ParsedSql parsedSql = namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS);
+		assertSame(parsedSql, namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS));
+		assertSame(parsedSql, namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS));
+		namedParameterTemplate.getParsedSql(UPDATE_NAMED_PARAMETERS);
+
+		assertEquals(2, namedParameterTemplate.getCacheSize());
+		assertEquals(2, namedParameterTemplate.getCacheHitCount());
+		assertEquals(2, namedParameterTemplate.getCacheMissCount());
+		assertEquals(0, namedParameterTemplate.getCacheEvictionCount());
+	}
+
+	@Test
+	public void testParsedSqlCacheLimit() throws Exception {
+		namedParameterTemplate.setCacheLimit(2);
+		ParsedSql parsedSql = namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS);
+		namedParameterTemplate.getParsedSql(SELECT_NO_PARAMETERS);
+		assertSame(parsedSql, namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS));
+		namedParameterTemplate.getParsedSql(UPDATE_NAMED_PARAMETERS);
+
+		assertEquals(2, namedParameterTemplate.getCacheSize());
+		assertEquals(1, namedParameterTemplate.getCacheEvictionCount());
+		assertSame(parsedSql, namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS));
+
+		namedParameterTemplate.setCacheLimit(0);
+		assertNotSame(parsedSql, namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS));
+		assertEquals(2, namedParameterTemplate.getCacheHitCount());
+	}
+
 }
@@ -103,7 +103,7 @@ public abstract class AbstractNamedValueMethodArgumentResolver implements Handle
 
 		if (!ClassUtils.isAssignableValue(paramType, arg)) {
 			arg = this.conversionService.convert(
-					arg, TypeDescriptor.valueOf(arg.getClass()), new TypeDescriptor(parameter));
+					arg, TypeDescriptor.valueOf(arg.getClass()), TypeDescriptor.forMethodParameter(parameter));
 		}
 
 		handleResolvedValue(arg, namedValueInfo.name, parameter, message);
@@ -33,7 +33,7 @@ import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.PropertyAccessor;
 import org.springframework.expression.TypedValue;
 import org.springframework.expression.spel.SpelEvaluationException;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.standard.CachingSpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
@@ -74,7 +74,8 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 
 	private volatile boolean selectorHeaderInUse = false;
 
-	private final ExpressionParser expressionParser = new SpelExpressionParser();
+	// Selectors come from clients: use a bounded registry of our own, not the shared one
+	private final ExpressionParser expressionParser = new CachingSpelExpressionParser();
 
 	private final DestinationCache destinationCache = new DestinationCache();
 
@@ -506,7 +507,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	}
 
 
-	private static class SimpMessageHeaderPropertyAccessor implements PropertyAccessor {
+	static class SimpMessageHeaderPropertyAccessor implements PropertyAccessor {
 
 		@Override
 		public Class<?>[] getSpecificTargetClasses() {
@@ -0,0 +1,859 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.simp.broker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.standard.CachingSpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.Assert;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+
+/**
+ * Alternative to {@link DefaultSubscriptionRegistry} for brokers with a large
+ * number of subscriptions and a high rate of subscribe and unsubscribe calls.
+ *
+ * <p>Destination patterns are kept in a trie with one level per destination
+ * segment. Literal segments are looked up by key while wildcard segments
+ * ({@code *}, {@code ?}, {@code {var}} and {@code **}) are kept apart, so that
+ * resolving a destination only visits patterns that can possibly match it.
+ * Every candidate pattern is then checked with the configured
+ * {@link PathMatcher}, which keeps the results the same as with
+ * {@code DefaultSubscriptionRegistry}, provided that the
+ * {@link #setPathSeparator path separator} is the one used by the
+ * {@code PathMatcher}.
+ *
+ * <p>Finding subscriptions does not lock. Resolved destinations are cached up
+ * to the {@link #setCacheLimit cache limit}, evicting the least recently used
+ * destination beyond that limit, with each cache entry pointing to
+ * the matching patterns rather than to a copy of their subscriptions. Hence
+ * subscribing to or unsubscribing from an existing pattern does not touch the
+ * destination cache at all. A new literal pattern invalidates the cache entry
+ * for that destination only, while a new wildcard pattern checks the cached
+ * destinations against that pattern.
+ *
+ * <p>Like {@code DefaultSubscriptionRegistry}, this class supports a
+ * {@link #setSelectorHeaderName selector} header on subscription messages.
+ * Subscription ids are expected to be unique within a session: subscribing
+ * again with the same id replaces the previous subscription.
+ *
+ * @since 4.2.4
+ * @see SimpleBrokerMessageHandler#setSubscriptionRegistry
+ */
+public class DestinationTrieSubscriptionRegistry extends AbstractSubscriptionRegistry {
+
+	/** Default maximum number of entries for the destination cache: 1024 */
+	public static final int DEFAULT_CACHE_LIMIT = 1024;
+
+	private static final MultiValueMap<String, String> EMPTY_MAP = new LinkedMultiValueMap<String, String>(0);
+
+	private static final String DOUBLE_WILDCARD = "**";
+
+
+	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
+
+	private volatile PathMatcher pathMatcher = new AntPathMatcher();
+
+	private volatile boolean caseSensitive = true;
+
+	private volatile String pathSeparator = AntPathMatcher.DEFAULT_PATH_SEPARATOR;
+
+	private String selectorHeaderName = "selector";
+
+	private volatile boolean selectorHeaderInUse = false;
+
+	// Selectors come from clients: use a bounded registry of our own, not the shared one
+	private final ExpressionParser expressionParser = new CachingSpelExpressionParser();
+
+	private final Node root = new Node(null);
+
+	private final ConcurrentMap<String, SessionSubscriptions> sessions =
+			new ConcurrentHashMap<String, SessionSubscriptions>();
+
+	private final ConcurrentMap<String, Resolution> destinationCache =
+			new ConcurrentHashMap<String, Resolution>(DEFAULT_CACHE_LIMIT);
+
+	private final AtomicInteger destinationCacheSize = new AtomicInteger();
+
+	/** Destinations of the destination cache in access order, guarded by the cache lock */
+	private final LinkedHashMap<String, Resolution> destinationAccessOrder =
+			new LinkedHashMap<String, Resolution>(DEFAULT_CACHE_LIMIT, 0.75f, true);
+
+	private final ReentrantLock destinationCacheLock = new ReentrantLock();
+
+	/** Incremented whenever a pattern is added, for lookups racing with it */
+	private final AtomicLong patternVersion = new AtomicLong();
+
+	private final AtomicLong subscriptionCounter = new AtomicLong();
+
+	private final Object writeMonitor = new Object();
+
+
+	/**
+	 * Specify the maximum number of entries for the resolved destination cache.
+	 * Default is 1024.
+	 */
+	public void setCacheLimit(int cacheLimit) {
+		this.cacheLimit = cacheLimit;
+	}
+
+	/**
+	 * Return the maximum number of entries for the resolved destination cache.
+	 */
+	public int getCacheLimit() {
+		return this.cacheLimit;
+	}
+
+	/**
+	 * Specify the {@link PathMatcher} to use.
+	 * <p>Segments are split with the configured {@link #setPathSeparator
+	 * path separator} and compared trimmed, which matches the default
+	 * settings of {@link AntPathMatcher}. Case-insensitive matching is
+	 * detected from the given {@code PathMatcher}.
+	 */
+	public void setPathMatcher(PathMatcher pathMatcher) {
+		Assert.notNull(pathMatcher, "PathMatcher must not be null");
+		synchronized (this.writeMonitor) {
+			Assert.state(this.sessions.isEmpty(), "Cannot change the PathMatcher once subscriptions are registered");
+			this.pathMatcher = pathMatcher;
+			this.caseSensitive = !pathMatcher.match("A", "a");
+			clearDestinationCache();
+		}
+	}
+
+	/**
+	 * Return the configured {@link PathMatcher}.
+	 */
+	public PathMatcher getPathMatcher() {
+		return this.pathMatcher;
+	}
+
+	/**
+	 * Specify the separator between the segments of a destination, which must
+	 * be the same as the one used by the configured {@link PathMatcher}.
+	 * <p>Default is "/". Set this to "." along with an {@code AntPathMatcher}
+	 * configured with "." as well.
+	 */
+	public void setPathSeparator(String pathSeparator) {
+		Assert.hasLength(pathSeparator, "Path separator must not be empty");
+		synchronized (this.writeMonitor) {
+			Assert.state(this.sessions.isEmpty(), "Cannot change the path separator once subscriptions are registered");
+			this.pathSeparator = pathSeparator;
+			clearDestinationCache();
+		}
+	}
+
+	/**
+	 * Return the configured path separator.
+	 */
+	public String getPathSeparator() {
+		return this.pathSeparator;
+	}
+
+	/**
+	 * Configure the name of a selector header that a subscription message can
+	 * have in order to filter messages based on their headers.
+	 * <p>By default this is set to "selector".
+	 * @see DefaultSubscriptionRegistry#setSelectorHeaderName
+	 */
+	public void setSelectorHeaderName(String selectorHeaderName) {
+		Assert.notNull(selectorHeaderName);
+		this.selectorHeaderName = selectorHeaderName;
+	}
+
+	/**
+	 * Return the name for the selector header.
+	 */
+	public String getSelectorHeaderName() {
+		return this.selectorHeaderName;
+	}
+
+	/**
+	 * Return the number of destinations currently held in the resolved
+	 * destination cache.
+	 */
+	public int getDestinationCacheSize() {
+		return this.destinationCacheSize.get();
+	}
+
+
+	@Override
+	protected void addSubscriptionInternal(String sessionId, String subsId, String destination,
+			Message<?> message) {
+
+		Expression expression = null;
+		String selector = SimpMessageHeaderAccessor.getFirstNativeHeader(getSelectorHeaderName(), message.getHeaders());
+		if (selector != null) {
+			try {
+				expression = this.expressionParser.parseExpression(selector);
+				this.selectorHeaderInUse = true;
+				if (logger.isTraceEnabled()) {
+					logger.trace("Subscription selector: [" + selector + "]");
+				}
+			}
+			catch (Throwable ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to parse selector: " + selector, ex);
+				}
+			}
+		}
+
+		synchronized (this.writeMonitor) {
+			SessionSubscriptions session = this.sessions.get(sessionId);
+			if (session == null) {
+				session = new SessionSubscriptions();
+				this.sessions.put(sessionId, session);
+			}
+			Subscription existing = session.subscriptions.get(subsId);
+			if (existing != null) {
+				removeSubscription(existing);
+			}
+			PatternSubscriptions pattern = obtainPatternSubscriptions(destination);
+			Subscription subscription = new Subscription(this.subscriptionCounter.incrementAndGet(),
+					sessionId, subsId, pattern, expression);
+			session.subscriptions.put(subsId, subscription);
+			pattern.add(subscription);
+		}
+	}
+
+	@Override
+	protected void removeSubscriptionInternal(String sessionId, String subsId, Message<?> message) {
+		synchronized (this.writeMonitor) {
+			SessionSubscriptions session = this.sessions.get(sessionId);
+			if (session != null) {
+				Subscription subscription = session.subscriptions.remove(subsId);
+				if (subscription != null) {
+					removeSubscription(subscription);
+				}
+				if (session.subscriptions.isEmpty()) {
+					this.sessions.remove(sessionId);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void unregisterAllSubscriptions(String sessionId) {
+		synchronized (this.writeMonitor) {
+			SessionSubscriptions session = this.sessions.remove(sessionId);
+			if (session != null) {
+				for (Subscription subscription : session.subscriptions.values()) {
+					removeSubscription(subscription);
+				}
+			}
+		}
+	}
+
+	@Override
+	protected MultiValueMap<String, String> findSubscriptionsInternal(String destination, Message<?> message) {
+		Resolution resolution = this.destinationCache.get(destination);
+		if (resolution == null) {
+			resolution = resolveDestination(destination);
+		}
+		else {
+			touchCachedDestination(destination);
+		}
+		return filterSubscriptions(resolution.getSubscriptions(), message);
+	}
+
+	@Override
+	public String toString() {
+		return "DestinationTrieSubscriptionRegistry[cache[" + getDestinationCacheSize() + " destination(s)], " +
+				"registry[" + this.sessions.size() + " sessions]]";
+	}
+
+
+	// Write path, always invoked while holding the write monitor
+
+	private PatternSubscriptions obtainPatternSubscriptions(String pattern) {
+		Node node = this.root;
+		boolean literal = true;
+		for (String segment : tokenize(pattern)) {
+			if (isWildcardSegment(segment)) {
+				literal = false;
+				Node child = node.getWildcardChild(segment);
+				if (child == null) {
+					child = new Node(segment);
+					node.addWildcardChild(child);
+				}
+				node = child;
+			}
+			else {
+				String key = getSegmentKey(segment);
+				Node child = node.literalChildren.get(key);
+				if (child == null) {
+					child = new Node(key);
+					node.literalChildren.put(key, child);
+				}
+				node = child;
+			}
+		}
+		PatternSubscriptions subscriptions = node.patterns.get(pattern);
+		if (subscriptions == null) {
+			subscriptions = new PatternSubscriptions(pattern, node, literal);
+			node.patterns.put(pattern, subscriptions);
+			this.patternVersion.incrementAndGet();
+			invalidateDestinationCache(subscriptions);
+		}
+		return subscriptions;
+	}
+
+	private void removeSubscription(Subscription subscription) {
+		PatternSubscriptions pattern = subscription.getPattern();
+		pattern.remove(subscription);
+		if (pattern.isEmpty()) {
+			// Cached resolutions may keep pointing to the detached pattern: it is
+			// empty and a later subscription to the same pattern invalidates them.
+			pattern.node.patterns.remove(pattern.pattern);
+			pruneNodes(pattern.pattern);
+		}
+	}
+
+	private void pruneNodes(String pattern) {
+		List<Node> path = new ArrayList<Node>();
+		path.add(this.root);
+		Node node = this.root;
+		for (String segment : tokenize(pattern)) {
+			node = (isWildcardSegment(segment) ? node.getWildcardChild(segment) :
+					node.literalChildren.get(getSegmentKey(segment)));
+			if (node == null) {
+				return;
+			}
+			path.add(node);
+		}
+		for (int i = path.size() - 1; i > 0; i--) {
+			Node child = path.get(i);
+			if (!child.isEmpty()) {
+				return;
+			}
+			Node parent = path.get(i - 1);
+			if (!parent.literalChildren.remove(child.segment, child)) {
+				parent.removeWildcardChild(child);
+			}
+		}
+	}
+
+	private void invalidateDestinationCache(PatternSubscriptions pattern) {
+		if (pattern.literal) {
+			removeCachedDestination(getCanonicalDestination(pattern.pattern), null);
+		}
+		else {
+			for (Iterator<String> it = this.destinationCache.keySet().iterator(); it.hasNext();) {
+				String destination = it.next();
+				if (this.pathMatcher.match(pattern.pattern, destination)) {
+					removeCachedDestination(destination, null);
+				}
+			}
+		}
+	}
+
+	private void clearDestinationCache() {
+		this.destinationCacheLock.lock();
+		try {
+			this.destinationCache.clear();
+			this.destinationAccessOrder.clear();
+			this.destinationCacheSize.set(0);
+		}
+		finally {
+			this.destinationCacheLock.unlock();
+		}
+	}
+
+
+	// Read path, lock-free
+
+	private Resolution resolveDestination(String destination) {
+		long version = this.patternVersion.get();
+		String[] segments = tokenize(destination);
+		Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		collectNodes(this.root, segments, 0, nodes);
+
+		List<PatternSubscriptions> matches = new ArrayList<PatternSubscriptions>(nodes.size());
+		for (Node node : nodes) {
+			for (PatternSubscriptions pattern : node.patterns.values()) {
+				if (this.pathMatcher.match(pattern.pattern, destination)) {
+					matches.add(pattern);
+				}
+			}
+		}
+		Resolution resolution = new Resolution(matches.toArray(new PatternSubscriptions[matches.size()]));
+
+		if (destination.equals(getCanonicalDestination(destination))) {
+			cacheDestination(destination, resolution);
+			if (this.patternVersion.get() != version) {
+				removeCachedDestination(destination, resolution);
+			}
+		}
+		return resolution;
+	}
+
+	private void collectNodes(Node node, String[] segments, int index, Set<Node> result) {
+		if (index == segments.length) {
+			result.add(node);
+			for (Node child : node.wildcardChildren) {
+				// "**" matches no segment at all, "*" also matches a trailing separator
+				if (DOUBLE_WILDCARD.equals(child.segment)) {
+					collectNodes(child, segments, index, result);
+				}
+				else if ("*".equals(child.segment)) {
+					result.add(child);
+				}
+			}
+			return;
+		}
+		String segment = segments[index];
+		Node literalChild = node.literalChildren.get(getSegmentKey(segment));
+		if (literalChild != null) {
+			collectNodes(literalChild, segments, index + 1, result);
+		}
+		for (Node child : node.wildcardChildren) {
+			if (DOUBLE_WILDCARD.equals(child.segment)) {
+				for (int i = index; i <= segments.length; i++) {
+					collectNodes(child, segments, i, result);
+				}
+			}
+			else if (this.pathMatcher.match(child.segment, segment)) {
+				collectNodes(child, segments, index + 1, result);
+			}
+		}
+	}
+
+	private void cacheDestination(String destination, Resolution resolution) {
+		this.destinationCacheLock.lock();
+		try {
+			if (this.destinationCache.put(destination, resolution) == null) {
+				this.destinationCacheSize.incrementAndGet();
+			}
+			this.destinationAccessOrder.put(destination, resolution);
+			// Evict the least recently used destinations beyond the limit
+			Iterator<String> it = this.destinationAccessOrder.keySet().iterator();
+			while (this.destinationAccessOrder.size() > getCacheLimit() && it.hasNext()) {
+				String eldest = it.next();
+				if (!eldest.equals(destination)) {
+					it.remove();
+					if (this.destinationCache.remove(eldest) != null) {
+						this.destinationCacheSize.decrementAndGet();
+					}
+				}
+			}
+		}
+		finally {
+			this.destinationCacheLock.unlock();
+		}
+	}
+
+	/**
+	 * Remove the given destination from the cache, if it is still mapped to the
+	 * given resolution (or to any resolution, if {@code null}).
+	 */
+	private void removeCachedDestination(String destination, Resolution resolution) {
+		this.destinationCacheLock.lock();
+		try {
+			boolean removed = (resolution != null ? this.destinationCache.remove(destination, resolution) :
+					this.destinationCache.remove(destination) != null);
+			if (removed) {
+				this.destinationAccessOrder.remove(destination);
+				this.destinationCacheSize.decrementAndGet();
+			}
+		}
+		finally {
+			this.destinationCacheLock.unlock();
+		}
+	}
+
+	/**
+	 * Record an access to a cached destination for least-recently-used eviction.
+	 * Never blocks a lookup: if the cache lock is busy, this access goes unrecorded.
+	 */
+	private void touchCachedDestination(String destination) {
+		if (this.destinationCacheLock.tryLock()) {
+			try {
+				this.destinationAccessOrder.get(destination);
+			}
+			finally {
+				this.destinationCacheLock.unlock();
+			}
+		}
+	}
+
+	private MultiValueMap<String, String> filterSubscriptions(
+			MultiValueMap<String, String> allMatches, Message<?> message) {
+
+		if (!this.selectorHeaderInUse) {
+			return allMatches;
+		}
+		EvaluationContext context = null;
+		MultiValueMap<String, String> result = new LinkedMultiValueMap<String, String>(allMatches.size());
+		for (Map.Entry<String, List<String>> entry : allMatches.entrySet()) {
+			SessionSubscriptions session = this.sessions.get(entry.getKey());
+			if (session == null) {
+				continue;
+			}
+			for (String subId : entry.getValue()) {
+				Subscription subscription = session.subscriptions.get(subId);
+				if (subscription == null) {
+					continue;
+				}
+				Expression expression = subscription.getSelectorExpression();
+				if (expression == null) {
+					result.add(entry.getKey(), subId);
+					continue;
+				}
+				if (context == null) {
+					context = new StandardEvaluationContext(message);
+					context.getPropertyAccessors().add(new DefaultSubscriptionRegistry.SimpMessageHeaderPropertyAccessor());
+				}
+				try {
+					if (expression.getValue(context, boolean.class)) {
+						result.add(entry.getKey(), subId);
+					}
+				}
+				catch (SpelEvaluationException ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Failed to evaluate selector: " + ex.getMessage());
+					}
+				}
+				catch (Throwable ex) {
+					logger.debug("Failed to evaluate selector", ex);
+				}
+			}
+		}
+		return result;
+	}
+
+
+	// Segment handling
+
+	private String[] tokenize(String destination) {
+		return StringUtils.tokenizeToStringArray(destination, this.pathSeparator);
+	}
+
+	private boolean isWildcardSegment(String segment) {
+		return (segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('{') != -1);
+	}
+
+	private String getSegmentKey(String segment) {
+		return (this.caseSensitive ? segment : segment.toLowerCase(Locale.ENGLISH));
+	}
+
+	/**
+	 * Return the form of the given destination that literal patterns are
+	 * matched against: trimmed, non-empty segments (lower-cased for
+	 * case-insensitive matching) with leading and trailing separators kept.
+	 * Only destinations already in that form are cached, which allows a new
+	 * literal pattern to invalidate a single cache entry.
+	 */
+	private String getCanonicalDestination(String destination) {
+		String separator = this.pathSeparator;
+		String[] segments = tokenize(destination);
+		StringBuilder sb = new StringBuilder(destination.length());
+		if (destination.startsWith(separator)) {
+			sb.append(separator);
+		}
+		for (int i = 0; i < segments.length; i++) {
+			if (i > 0) {
+				sb.append(separator);
+			}
+			sb.append(getSegmentKey(segments[i]));
+		}
+		if (segments.length > 0 && destination.endsWith(separator)) {
+			sb.append(separator);
+		}
+		return sb.toString();
+	}
+
+
+	/**
+	 * A node in the destination trie, holding the patterns that end here.
+	 */
+	private static class Node {
+
+		private final String segment;
+
+		private final ConcurrentMap<String, Node> literalChildren = new ConcurrentHashMap<String, Node>(4);
+
+		private volatile Node[] wildcardChildren = new Node[0];
+
+		private final ConcurrentMap<String, PatternSubscriptions> patterns =
+				new ConcurrentHashMap<String, PatternSubscriptions>(1);
+
+		public Node(String segment) {
+			this.segment = segment;
+		}
+
+		public Node getWildcardChild(String segment) {
+			for (Node child : this.wildcardChildren) {
+				if (child.segment.equals(segment)) {
+					return child;
+				}
+			}
+			return null;
+		}
+
+		public void addWildcardChild(Node child) {
+			Node[] children = new Node[this.wildcardChildren.length + 1];
+			System.arraycopy(this.wildcardChildren, 0, children, 0, this.wildcardChildren.length);
+			children[this.wildcardChildren.length] = child;
+			this.wildcardChildren = children;
+		}
+
+		public void removeWildcardChild(Node child) {
+			List<Node> children = new ArrayList<Node>(this.wildcardChildren.length);
+			for (Node existing : this.wildcardChildren) {
+				if (existing != child) {
+					children.add(existing);
+				}
+			}
+			if (children.size() != this.wildcardChildren.length) {
+				this.wildcardChildren = children.toArray(new Node[children.size()]);
+			}
+		}
+
+		public boolean isEmpty() {
+			return (this.patterns.isEmpty() && this.literalChildren.isEmpty() && this.wildcardChildren.length == 0);
+		}
+	}
+
+
+	/**
+	 * The subscriptions for one destination pattern, in registration order,
+	 * with a lazily built snapshot that is replaced after every change.
+	 */
+	private static class PatternSubscriptions {
+
+		private final String pattern;
+
+		private final Node node;
+
+		private final boolean literal;
+
+		private final ConcurrentSkipListMap<Long, Subscription> subscriptions =
+				new ConcurrentSkipListMap<Long, Subscription>();
+
+		private volatile int modCount;
+
+		private volatile Snapshot snapshot;
+
+		public PatternSubscriptions(String pattern, Node node, boolean literal) {
+			this.pattern = pattern;
+			this.node = node;
+			this.literal = literal;
+		}
+
+		public void add(Subscription subscription) {
+			this.subscriptions.put(subscription.getOrder(), subscription);
+			this.modCount++;
+		}
+
+		public void remove(Subscription subscription) {
+			this.subscriptions.remove(subscription.getOrder());
+			this.modCount++;
+		}
+
+		public boolean isEmpty() {
+			return this.subscriptions.isEmpty();
+		}
+
+		public int getModCount() {
+			return this.modCount;
+		}
+
+		public Iterable<Subscription> getSubscriptions() {
+			return this.subscriptions.values();
+		}
+
+		public MultiValueMap<String, String> getSnapshot() {
+			Snapshot snapshot = this.snapshot;
+			int modCount = this.modCount;
+			if (snapshot == null || snapshot.modCounts[0] != modCount) {
+				LinkedMultiValueMap<String, String> map = new LinkedMultiValueMap<String, String>();
+				for (Subscription subscription : this.subscriptions.values()) {
+					map.add(subscription.getSessionId(), subscription.getId());
+				}
+				snapshot = new Snapshot(new int[] {modCount}, map);
+				this.snapshot = snapshot;
+			}
+			return snapshot.subscriptions;
+		}
+
+		@Override
+		public String toString() {
+			return "pattern[" + this.pattern + ", " + this.subscriptions.size() + " subscription(s)]";
+		}
+	}
+
+
+	/**
+	 * A resolved destination: the patterns matching it, plus a merged snapshot
+	 * of their subscriptions when there is more than one pattern.
+	 */
+	private static class Resolution {
+
+		private static final Comparator<Subscription> ORDER_COMPARATOR = new Comparator<Subscription>() {
+			@Override
+			public int compare(Subscription sub1, Subscription sub2) {
+				return (sub1.getOrder() < sub2.getOrder() ? -1 : (sub1.getOrder() == sub2.getOrder() ? 0 : 1));
+			}
+		};
+
+		private final PatternSubscriptions[] patterns;
+
+		private volatile Snapshot snapshot;
+
+		public Resolution(PatternSubscriptions[] patterns) {
+			this.patterns = patterns;
+		}
+
+		public MultiValueMap<String, String> getSubscriptions() {
+			if (this.patterns.length == 0) {
+				return EMPTY_MAP;
+			}
+			if (this.patterns.length == 1) {
+				return this.patterns[0].getSnapshot();
+			}
+			int[] modCounts = new int[this.patterns.length];
+			for (int i = 0; i < this.patterns.length; i++) {
+				modCounts[i] = this.patterns[i].getModCount();
+			}
+			Snapshot snapshot = this.snapshot;
+			if (snapshot == null || !snapshot.isCurrent(modCounts)) {
+				List<Subscription> subscriptions = new ArrayList<Subscription>();
+				for (PatternSubscriptions pattern : this.patterns) {
+					for (Subscription subscription : pattern.getSubscriptions()) {
+						subscriptions.add(subscription);
+					}
+				}
+				Collections.sort(subscriptions, ORDER_COMPARATOR);
+				LinkedMultiValueMap<String, String> map = new LinkedMultiValueMap<String, String>();
+				for (Subscription subscription : subscriptions) {
+					map.add(subscription.getSessionId(), subscription.getId());
+				}
+				snapshot = new Snapshot(modCounts, map);
+				this.snapshot = snapshot;
+			}
+			return snapshot.subscriptions;
+		}
+	}
+
+
+	/**
+	 * Subscriptions as of the given modification counts; never modified.
+	 */
+	private static class Snapshot {
+
+		private final int[] modCounts;
+
+		private final MultiValueMap<String, String> subscriptions;
+
+		public Snapshot(int[] modCounts, MultiValueMap<String, String> subscriptions) {
+			this.modCounts = modCounts;
+			this.subscriptions = subscriptions;
+		}
+
+		public boolean isCurrent(int[] modCounts) {
+			for (int i = 0; i < modCounts.length; i++) {
+				if (this.modCounts[i] != modCounts[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+
+	private static class SessionSubscriptions {
+
+		// subscriptionId -> Subscription
+		private final ConcurrentMap<String, Subscription> subscriptions =
+				new ConcurrentHashMap<String, Subscription>(4);
+	}
+
+
+	private static class Subscription {
+
+		private final long order;
+
+		private final String sessionId;
+
+		private final String id;
+
+		private final PatternSubscriptions pattern;
+
+		private final Expression selectorExpression;
+
+		public Subscription(long order, String sessionId, String id, PatternSubscriptions pattern,
+				Expression selectorExpression) {
+
+			this.order = order;
+			this.sessionId = sessionId;
+			this.id = id;
+			this.pattern = pattern;
+			this.selectorExpression = selectorExpression;
+		}
+
+		public long getOrder() {
+			return this.order;
+		}
+
+		public String getSessionId() {
+			return this.sessionId;
+		}
+
+		public String getId() {
+			return this.id;
+		}
+
+		public PatternSubscriptions getPattern() {
+			return this.pattern;
+		}
+
+		public Expression getSelectorExpression() {
+			return this.selectorExpression;
+		}
+
+		@Override
+		public String toString() {
+			return "subscription(id=" + this.id + ")";
+		}
+	}
+
+}
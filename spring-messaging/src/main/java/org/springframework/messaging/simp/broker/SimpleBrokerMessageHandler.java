@@ -83,8 +83,9 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 	 * Configure a custom SubscriptionRegistry to use for storing subscriptions.
 	 * <p><strong>Note</strong> that when a custom PathMatcher is configured via
 	 * {@link #setPathMatcher}, if the custom registry is not an instance of
-	 * {@link DefaultSubscriptionRegistry}, the provided PathMatcher is not used
-	 * and must be configured directly on the custom registry.
+	 * {@link DefaultSubscriptionRegistry} or {@link DestinationTrieSubscriptionRegistry},
+	 * the provided PathMatcher is not used and must be configured directly on
+	 * the custom registry.
 	 */
 	public void setSubscriptionRegistry(SubscriptionRegistry subscriptionRegistry) {
 		Assert.notNull(subscriptionRegistry, "SubscriptionRegistry must not be null");
@@ -97,6 +98,9 @@ public class SimpleBrokerMessageHandler extends AbstractBrokerMessageHandler {
 			if (this.subscriptionRegistry instanceof DefaultSubscriptionRegistry) {
 				((DefaultSubscriptionRegistry) this.subscriptionRegistry).setPathMatcher(this.pathMatcher);
 			}
+			else if (this.subscriptionRegistry instanceof DestinationTrieSubscriptionRegistry) {
+				((DestinationTrieSubscriptionRegistry) this.subscriptionRegistry).setPathMatcher(this.pathMatcher);
+			}
 		}
 	}
 
@@ -120,6 +120,9 @@ public abstract class AbstractMessageBrokerConfiguration implements ApplicationC
 		ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel(clientInboundChannelExecutor());
 		ChannelRegistration reg = getClientInboundChannelRegistration();
 		channel.setInterceptors(reg.getInterceptors());
+		if (reg.hasBatchedDispatch()) {
+			reg.getBatchedDispatchRegistration().configure(channel);
+		}
 		return channel;
 	}
 
@@ -153,6 +156,9 @@ public abstract class AbstractMessageBrokerConfiguration implements ApplicationC
 		ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel(clientOutboundChannelExecutor());
 		ChannelRegistration reg = getClientOutboundChannelRegistration();
 		channel.setInterceptors(reg.getInterceptors());
+		if (reg.hasBatchedDispatch()) {
+			reg.getBatchedDispatchRegistration().configure(channel);
+		}
 		return channel;
 	}
 
@@ -188,6 +194,9 @@ public abstract class AbstractMessageBrokerConfiguration implements ApplicationC
 				new ExecutorSubscribableChannel(brokerChannelExecutor()) : new ExecutorSubscribableChannel();
 		reg.setInterceptors(new ImmutableMessageChannelInterceptor());
 		channel.setInterceptors(reg.getInterceptors());
+		if (reg.hasBatchedDispatch()) {
+			reg.getBatchedDispatchRegistration().configure(channel);
+		}
 		return channel;
 	}
 
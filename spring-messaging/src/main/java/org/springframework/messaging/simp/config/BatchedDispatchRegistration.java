@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.simp.config;
+
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.ExecutorSubscribableChannel.OverflowPolicy;
+
+/**
+ * A registration class for customizing the batched dispatch mode of an
+ * {@link ExecutorSubscribableChannel}, in which messages are queued per
+ * subscriber and session and delivered in batches by the channel's executor.
+ *
+ * @since 4.2.4
+ * @see ExecutorSubscribableChannel#setBatchSize
+ */
+public class BatchedDispatchRegistration {
+
+	private int batchSize = 32;
+
+	private long orderingWindow = 0;
+
+	private int queueCapacity = Integer.MAX_VALUE;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	private String orderingHeaderName = SimpMessageHeaderAccessor.SESSION_ID_HEADER;
+
+
+	/**
+	 * Set the maximum number of messages delivered to a subscriber by a single
+	 * executor task.
+	 * <p>By default this is set to 32.
+	 */
+	public BatchedDispatchRegistration batchSize(int batchSize) {
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * Set the maximum time in milliseconds that a single executor task keeps
+	 * delivering messages before giving the thread back to the executor.
+	 * <p>By default this is set to 0, i.e. batches are limited by the
+	 * {@link #batchSize(int) batchSize} only.
+	 */
+	public BatchedDispatchRegistration orderingWindow(long orderingWindow) {
+		this.orderingWindow = orderingWindow;
+		return this;
+	}
+
+	/**
+	 * Set the maximum number of messages that can be queued for a subscriber
+	 * and session.
+	 * <p>By default this is set to {@code Integer.MAX_VALUE}.
+	 */
+	public BatchedDispatchRegistration queueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+		return this;
+	}
+
+	/**
+	 * Set what to do when a queue is full: block the sender, drop the oldest
+	 * queued message, or reject the new message.
+	 * <p>By default this is set to {@link OverflowPolicy#BLOCK}.
+	 * @see ExecutorSubscribableChannel#getDroppedCount()
+	 * @see ExecutorSubscribableChannel#getRejectedCount()
+	 */
+	public BatchedDispatchRegistration overflowPolicy(OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+		return this;
+	}
+
+	/**
+	 * Set the name of the header whose value messages are kept in order for.
+	 * <p>By default this is set to the session id header, so that messages are
+	 * delivered in order per session, while different sessions are served
+	 * concurrently.
+	 */
+	public BatchedDispatchRegistration orderingHeaderName(String orderingHeaderName) {
+		this.orderingHeaderName = orderingHeaderName;
+		return this;
+	}
+
+	protected void configure(ExecutorSubscribableChannel channel) {
+		channel.setBatchSize(this.batchSize);
+		channel.setOrderingWindow(this.orderingWindow);
+		channel.setQueueCapacity(this.queueCapacity);
+		channel.setOverflowPolicy(this.overflowPolicy);
+		channel.setOrderingHeaderName(this.orderingHeaderName);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,6 +34,8 @@ public class ChannelRegistration {
 
 	private TaskExecutorRegistration registration;
 
+	private BatchedDispatchRegistration batchedDispatchRegistration;
+
 	private final List<ChannelInterceptor> interceptors = new ArrayList<ChannelInterceptor>();
 
 
@@ -58,6 +60,20 @@ public class ChannelRegistration {
 		return this.registration;
 	}
 
+	/**
+	 * Deliver messages in batches per subscriber and session rather than
+	 * handing each message to the thread pool separately. This helps channels
+	 * with many small messages such as broadcasts to many clients, while
+	 * preserving the order of messages for each session.
+	 * @since 4.2.4
+	 */
+	public BatchedDispatchRegistration batchedDispatch() {
+		if (this.batchedDispatchRegistration == null) {
+			this.batchedDispatchRegistration = new BatchedDispatchRegistration();
+		}
+		return this.batchedDispatchRegistration;
+	}
+
 	/**
 	 * Configure interceptors for the message channel.
 	 */
@@ -81,6 +97,14 @@ public class ChannelRegistration {
 		return taskExecutor();
 	}
 
+	protected boolean hasBatchedDispatch() {
+		return (this.batchedDispatchRegistration != null);
+	}
+
+	protected BatchedDispatchRegistration getBatchedDispatchRegistration() {
+		return this.batchedDispatchRegistration;
+	}
+
 	protected boolean hasInterceptors() {
 		return !this.interceptors.isEmpty();
 	}
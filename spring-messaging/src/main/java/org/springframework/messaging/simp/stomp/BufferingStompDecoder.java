@@ -110,7 +110,9 @@ public class BufferingStompDecoder {
 	 * <p>If there was not enough data to parse the "content-length", or if there
 	 * is "content-length" header, every subsequent call to decode attempts to
 	 * parse again with all available data. Therefore the presence of a "content-length"
-	 * header helps to optimize the decoding of large messages.
+	 * header helps to optimize the decoding of large messages. Without it, a new
+	 * attempt is only made once the new data contains a null octet, i.e. could
+	 * complete the buffered frame.
 	 *
 	 * @param newBuffer a buffer containing new data to decode
 	 *
@@ -127,6 +129,12 @@ public class BufferingStompDecoder {
 			return Collections.<Message<byte[]>>emptyList();
 		}
 
+		// Every frame ends with a null octet: without one in the new data, the buffered
+		// frame cannot be complete yet, so don't copy all chunks together just to find out
+		if (getExpectedContentLength() == null && this.chunks.size() > 1 && !containsNullOctet(newBuffer)) {
+			return Collections.<Message<byte[]>>emptyList();
+		}
+
 		ByteBuffer bufferToDecode = assembleChunksAndReset();
 
 		MultiValueMap<String, String> headers = new LinkedMultiValueMap<String, String>();
@@ -155,6 +163,15 @@ public class BufferingStompDecoder {
 		}
 	}
 
+	private static boolean containsNullOctet(ByteBuffer buffer) {
+		for (int i = buffer.position(); i < buffer.limit(); i++) {
+			if (buffer.get(i) == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private ByteBuffer assembleChunksAndReset() {
 		ByteBuffer result;
 		if (this.chunks.size() == 1) {
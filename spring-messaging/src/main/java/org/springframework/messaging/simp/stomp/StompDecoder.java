@@ -16,7 +16,6 @@
 
 package org.springframework.messaging.simp.stomp;
 
-import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -41,6 +40,12 @@ import org.springframework.util.MultiValueMap;
  * partial content. The caller is then responsible for dealing with that
  * incomplete content by buffering until there is more input available.
  *
+ * <p>Frames are parsed in place: commands and common header names are matched
+ * against their interned {@code String} representations without decoding them,
+ * and header values are only unescaped when they contain escape sequences.
+ * Header values are still decoded into Strings for the native header map, and
+ * each payload is copied into its own {@code byte[]}.
+ *
  * @author Andy Wilkinson
  * @author Rossen Stoyanchev
  * @since 4.0
@@ -53,6 +58,32 @@ public class StompDecoder {
 
 	private static final Log logger = LogFactory.getLog(StompDecoder.class);
 
+	private static final StompCommand[] COMMANDS = StompCommand.values();
+
+	private static final byte[][] COMMAND_BYTES = new byte[COMMANDS.length][];
+
+	private static final String[] COMMON_HEADER_NAMES = new String[] {
+			StompHeaderAccessor.STOMP_DESTINATION_HEADER, StompHeaderAccessor.STOMP_CONTENT_TYPE_HEADER,
+			StompHeaderAccessor.STOMP_CONTENT_LENGTH_HEADER, StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER,
+			StompHeaderAccessor.STOMP_MESSAGE_ID_HEADER, StompHeaderAccessor.STOMP_ID_HEADER,
+			StompHeaderAccessor.STOMP_ACK_HEADER, StompHeaderAccessor.STOMP_RECEIPT_HEADER,
+			StompHeaderAccessor.STOMP_RECEIPT_ID_HEADER, StompHeaderAccessor.STOMP_HOST_HEADER,
+			StompHeaderAccessor.STOMP_ACCEPT_VERSION_HEADER, StompHeaderAccessor.STOMP_VERSION_HEADER,
+			StompHeaderAccessor.STOMP_HEARTBEAT_HEADER, StompHeaderAccessor.STOMP_LOGIN_HEADER,
+			StompHeaderAccessor.STOMP_PASSCODE_HEADER, StompHeaderAccessor.STOMP_MESSAGE_HEADER,
+			"transaction", "server", "session"};
+
+	private static final byte[][] COMMON_HEADER_NAME_BYTES = new byte[COMMON_HEADER_NAMES.length][];
+
+	static {
+		for (int i = 0; i < COMMANDS.length; i++) {
+			COMMAND_BYTES[i] = COMMANDS[i].name().getBytes(UTF8_CHARSET);
+		}
+		for (int i = 0; i < COMMON_HEADER_NAMES.length; i++) {
+			COMMON_HEADER_NAME_BYTES[i] = COMMON_HEADER_NAMES[i].getBytes(UTF8_CHARSET);
+		}
+	}
+
 
 	private MessageHeaderInitializer headerInitializer;
 
@@ -127,12 +158,16 @@ public class StompDecoder {
 		skipLeadingEol(buffer);
 		buffer.mark();
 
-		String command = readCommand(buffer);
-		if (command.length() > 0) {
+		int commandStart = buffer.position();
+		int commandLength = readLine(buffer);
+		if (commandLength < 0) {
+			commandLength = buffer.position() - commandStart;
+		}
+		if (commandLength > 0) {
 			StompHeaderAccessor headerAccessor = null;
 			byte[] payload = null;
 			if (buffer.remaining() > 0) {
-				StompCommand stompCommand = StompCommand.valueOf(command);
+				StompCommand stompCommand = readCommand(buffer, commandStart, commandLength);
 				headerAccessor = StompHeaderAccessor.create(stompCommand);
 				initHeaders(headerAccessor);
 				readHeaders(buffer, headerAccessor);
@@ -197,51 +232,116 @@ public class StompDecoder {
 		}
 	}
 
-	private String readCommand(ByteBuffer buffer) {
-		ByteArrayOutputStream command = new ByteArrayOutputStream(256);
-		while (buffer.remaining() > 0 && !tryConsumeEndOfLine(buffer)) {
-			command.write(buffer.get());
+	/**
+	 * Advance the buffer past the next EOL, or to its limit if there is none.
+	 * @return the number of bytes before the EOL, or -1 if no EOL was found
+	 */
+	private int readLine(ByteBuffer buffer) {
+		int start = buffer.position();
+		int limit = buffer.limit();
+		for (int i = start; i < limit; i++) {
+			byte b = buffer.get(i);
+			if (b == '\n') {
+				buffer.position(i + 1);
+				return i - start;
+			}
+			else if (b == '\r') {
+				if (i + 1 < limit && buffer.get(i + 1) == '\n') {
+					buffer.position(i + 2);
+					return i - start;
+				}
+				throw new StompConversionException("'\\r' must be followed by '\\n'");
+			}
+		}
+		buffer.position(limit);
+		return -1;
+	}
+
+	private StompCommand readCommand(ByteBuffer buffer, int start, int length) {
+		for (int i = 0; i < COMMANDS.length; i++) {
+			if (matches(buffer, start, length, COMMAND_BYTES[i])) {
+				return COMMANDS[i];
+			}
 		}
-		return new String(command.toByteArray(), UTF8_CHARSET);
+		return StompCommand.valueOf(decodeString(buffer, start, length));
 	}
 
 	private void readHeaders(ByteBuffer buffer, StompHeaderAccessor headerAccessor) {
 		while (true) {
-			ByteArrayOutputStream headerStream = new ByteArrayOutputStream(256);
-			boolean headerComplete = false;
-			while (buffer.hasRemaining()) {
-				if (tryConsumeEndOfLine(buffer)) {
-					headerComplete = true;
-					break;
+			int start = buffer.position();
+			int length = readLine(buffer);
+			if (length <= 0) {
+				break;
+			}
+			int colonIndex = indexOf(buffer, start, length, (byte) ':');
+			if (colonIndex <= 0) {
+				if (buffer.remaining() > 0) {
+					throw new StompConversionException("Illegal header: '" + decodeString(buffer, start, length) +
+							"'. A header must be of the form <name>:[<value>].");
 				}
-				headerStream.write(buffer.get());
 			}
-			if (headerStream.size() > 0 && headerComplete) {
-				String header = new String(headerStream.toByteArray(), UTF8_CHARSET);
-				int colonIndex = header.indexOf(':');
-				if (colonIndex <= 0) {
-					if (buffer.remaining() > 0) {
-						throw new StompConversionException("Illegal header: '" + header +
-								"'. A header must be of the form <name>:[<value>].");
-					}
+			else {
+				String headerName = readHeaderName(buffer, start, colonIndex);
+				String headerValue = readHeaderValue(buffer, start + colonIndex + 1, length - colonIndex - 1);
+				try {
+					headerAccessor.addNativeHeader(headerName, headerValue);
 				}
-				else {
-					String headerName = unescape(header.substring(0, colonIndex));
-					String headerValue = unescape(header.substring(colonIndex + 1));
-					try {
-						headerAccessor.addNativeHeader(headerName, headerValue);
-					}
-					catch (InvalidMimeTypeException ex) {
-						if (buffer.remaining() > 0) {
-							throw ex;
-						}
+				catch (InvalidMimeTypeException ex) {
+					if (buffer.remaining() > 0) {
+						throw ex;
 					}
 				}
 			}
-			else {
-				break;
+		}
+	}
+
+	private String readHeaderName(ByteBuffer buffer, int start, int length) {
+		for (int i = 0; i < COMMON_HEADER_NAMES.length; i++) {
+			if (matches(buffer, start, length, COMMON_HEADER_NAME_BYTES[i])) {
+				return COMMON_HEADER_NAMES[i];
 			}
 		}
+		return readHeaderValue(buffer, start, length);
+	}
+
+	private String readHeaderValue(ByteBuffer buffer, int start, int length) {
+		String value = decodeString(buffer, start, length);
+		return (indexOf(buffer, start, length, (byte) '\\') != -1 ? unescape(value) : value);
+	}
+
+	private String decodeString(ByteBuffer buffer, int start, int length) {
+		if (length == 0) {
+			return "";
+		}
+		if (buffer.hasArray()) {
+			return new String(buffer.array(), buffer.arrayOffset() + start, length, UTF8_CHARSET);
+		}
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = buffer.get(start + i);
+		}
+		return new String(bytes, UTF8_CHARSET);
+	}
+
+	private static boolean matches(ByteBuffer buffer, int start, int length, byte[] candidate) {
+		if (length != candidate.length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (buffer.get(start + i) != candidate[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int indexOf(ByteBuffer buffer, int start, int length, byte value) {
+		for (int i = 0; i < length; i++) {
+			if (buffer.get(start + i) == value) {
+				return i;
+			}
+		}
+		return -1;
 	}
 
 	/**
@@ -295,8 +395,7 @@ public class StompDecoder {
 
 		if (contentLength != null && contentLength >= 0) {
 			if (buffer.remaining() > contentLength) {
-				byte[] payload = new byte[contentLength];
-				buffer.get(payload);
+				byte[] payload = readBytes(buffer, contentLength);
 				if (buffer.get() != 0) {
 					throw new StompConversionException("Frame must be terminated with a null octet");
 				}
@@ -307,20 +406,26 @@ public class StompDecoder {
 			}
 		}
 		else {
-			ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
-			while (buffer.remaining() > 0) {
-				byte b = buffer.get();
-				if (b == 0) {
-					return payload.toByteArray();
-				}
-				else {
-					payload.write(b);
+			int start = buffer.position();
+			int limit = buffer.limit();
+			for (int i = start; i < limit; i++) {
+				if (buffer.get(i) == 0) {
+					byte[] payload = readBytes(buffer, i - start);
+					buffer.get();
+					return payload;
 				}
 			}
+			buffer.position(limit);
 		}
 		return null;
 	}
 
+	private byte[] readBytes(ByteBuffer buffer, int length) {
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return bytes;
+	}
+
 	/**
 	 * Try to read an EOL incrementing the buffer position if successful.
 	 * @return whether an EOL was consumed
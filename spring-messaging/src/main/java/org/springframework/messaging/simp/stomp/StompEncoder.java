@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,6 @@
 
 package org.springframework.messaging.simp.stomp;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -46,6 +43,16 @@ public final class StompEncoder  {
 
 	private static final byte COLON = ':';
 
+	private static final byte[][] COMMAND_BYTES = new byte[StompCommand.values().length][];
+
+	private static final byte[] CONTENT_LENGTH_BYTES = "content-length:".getBytes(StompDecoder.UTF8_CHARSET);
+
+	static {
+		for (StompCommand command : StompCommand.values()) {
+			COMMAND_BYTES[command.ordinal()] = command.name().getBytes(StompDecoder.UTF8_CHARSET);
+		}
+	}
+
 	private final Log logger = LogFactory.getLog(StompEncoder.class);
 
 
@@ -67,38 +74,26 @@ public final class StompEncoder  {
 	public byte[] encode(Map<String, Object> headers, byte[] payload) {
 		Assert.notNull(headers, "'headers' is required");
 		Assert.notNull(payload, "'payload' is required");
-
-		try {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream(128 + payload.length);
-			DataOutputStream output = new DataOutputStream(baos);
-
-			if (SimpMessageType.HEARTBEAT.equals(SimpMessageHeaderAccessor.getMessageType(headers))) {
-				if (logger.isTraceEnabled()) {
-					logger.trace("Encoding heartbeat");
-				}
-				output.write(StompDecoder.HEARTBEAT_PAYLOAD);
-			}
-			else {
-				StompCommand command = StompHeaderAccessor.getCommand(headers);
-				Assert.notNull(command, "Missing STOMP command: " + headers);
-				output.write(command.toString().getBytes(StompDecoder.UTF8_CHARSET));
-				output.write(LF);
-				writeHeaders(command, headers, payload, output);
-				output.write(LF);
-				writeBody(payload, output);
-				output.write((byte) 0);
+		if (SimpMessageType.HEARTBEAT.equals(SimpMessageHeaderAccessor.getMessageType(headers))) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Encoding heartbeat");
 			}
-
-			return baos.toByteArray();
-		}
-		catch (IOException ex) {
-			throw new StompConversionException("Failed to encode STOMP frame, headers=" + headers,  ex);
+			return StompDecoder.HEARTBEAT_PAYLOAD.clone();
 		}
+		StompCommand command = StompHeaderAccessor.getCommand(headers);
+		Assert.notNull(command, "Missing STOMP command: " + headers);
+
+		// Headers go through a small growable buffer, so that the frame can be allocated
+		// at its exact size and the payload copied once, directly into its final place
+		ArrayOutput output = new ArrayOutput(128);
+		output.write(COMMAND_BYTES[command.ordinal()]);
+		output.write(LF);
+		writeHeaders(command, headers, payload, output);
+		output.write(LF);
+		return output.toFrame(payload);
 	}
 
-	private void writeHeaders(StompCommand command, Map<String, Object> headers, byte[] payload, DataOutputStream output)
-			throws IOException {
-
+	private void writeHeaders(StompCommand command, Map<String, Object> headers, byte[] payload, ArrayOutput output) {
 		@SuppressWarnings("unchecked")
 		Map<String,List<String>> nativeHeaders =
 				(Map<String, List<String>>) headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
@@ -114,7 +109,6 @@ public final class StompEncoder  {
 		boolean shouldEscape = (command != StompCommand.CONNECT && command != StompCommand.CONNECTED);
 
 		for (Entry<String, List<String>> entry : nativeHeaders.entrySet()) {
-			byte[] key = encodeHeaderString(entry.getKey(), shouldEscape);
 			if (command.requiresContentLength() && "content-length".equals(entry.getKey())) {
 				continue;
 			}
@@ -124,23 +118,58 @@ public final class StompEncoder  {
 				values = Arrays.asList(StompHeaderAccessor.getPasscode(headers));
 			}
 			for (String value : values) {
-				output.write(key);
+				writeHeaderString(entry.getKey(), shouldEscape, output);
 				output.write(COLON);
-				output.write(encodeHeaderString(value, shouldEscape));
+				writeHeaderString(value, shouldEscape, output);
 				output.write(LF);
 			}
 		}
 		if (command.requiresContentLength()) {
 			int contentLength = payload.length;
-			output.write("content-length:".getBytes(StompDecoder.UTF8_CHARSET));
-			output.write(Integer.toString(contentLength).getBytes(StompDecoder.UTF8_CHARSET));
+			output.write(CONTENT_LENGTH_BYTES);
+			writeHeaderString(Integer.toString(contentLength), false, output);
 			output.write(LF);
 		}
 	}
 
-	private byte[] encodeHeaderString(String input, boolean escape) {
-		String inputToUse = (escape ? escape(input) : input);
-		return inputToUse.getBytes(StompDecoder.UTF8_CHARSET);
+	/**
+	 * Write the given header name or value, escaping it if necessary, without
+	 * creating intermediate strings for ASCII content.
+	 * <p>See STOMP Spec 1.2:
+	 * <a href="http://stomp.github.io/stomp-specification-1.2.html#Value_Encoding">"Value Encoding"</a>.
+	 */
+	private void writeHeaderString(String input, boolean escape, ArrayOutput output) {
+		for (int i = 0; i < input.length(); i++) {
+			char c = input.charAt(i);
+			if (c >= 0x80) {
+				String rest = input.substring(i);
+				output.write((escape ? escape(rest) : rest).getBytes(StompDecoder.UTF8_CHARSET));
+				return;
+			}
+			if (escape) {
+				if (c == '\\') {
+					output.write((byte) '\\');
+					output.write((byte) '\\');
+					continue;
+				}
+				else if (c == ':') {
+					output.write((byte) '\\');
+					output.write((byte) 'c');
+					continue;
+				}
+				else if (c == '\n') {
+					output.write((byte) '\\');
+					output.write((byte) 'n');
+					continue;
+				}
+				else if (c == '\r') {
+					output.write((byte) '\\');
+					output.write((byte) 'r');
+					continue;
+				}
+			}
+			output.write((byte) c);
+		}
 	}
 
 	/**
@@ -170,8 +199,46 @@ public final class StompEncoder  {
 		return sb.toString();
 	}
 
-	private void writeBody(byte[] payload, DataOutputStream output) throws IOException {
-		output.write(payload);
+	/**
+	 * Output to a growable byte array.
+	 */
+	private static class ArrayOutput {
+
+		private byte[] bytes;
+
+		private int count;
+
+		public ArrayOutput(int initialCapacity) {
+			this.bytes = new byte[initialCapacity];
+		}
+
+		public void write(byte b) {
+			ensureCapacity(1);
+			this.bytes[this.count++] = b;
+		}
+
+		public void write(byte[] bytes) {
+			ensureCapacity(bytes.length);
+			System.arraycopy(bytes, 0, this.bytes, this.count, bytes.length);
+			this.count += bytes.length;
+		}
+
+		private void ensureCapacity(int length) {
+			if (this.count + length > this.bytes.length) {
+				this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.count + length));
+			}
+		}
+
+		/**
+		 * Return the content written so far followed by the given payload
+		 * and the terminating null octet.
+		 */
+		public byte[] toFrame(byte[] payload) {
+			byte[] frame = new byte[this.count + payload.length + 1];
+			System.arraycopy(this.bytes, 0, frame, 0, this.count);
+			System.arraycopy(payload, 0, frame, this.count, payload.length);
+			return frame;
+		}
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,27 +18,91 @@ package org.springframework.messaging.support;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.SubscribableChannel;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 
 /**
  * A {@link SubscribableChannel} that sends messages to each of its subscribers.
  *
+ * <p>By default every message is handed to the executor separately for each
+ * subscriber. When a {@link #setBatchSize batch size} is configured along with
+ * an executor, messages are instead queued per subscriber and drained by a
+ * single task in batches. Queues can be further split by the value of an
+ * {@link #setOrderingHeaderName ordering header}, e.g. the session id, in which
+ * case messages with the same header value are handled in the order they were
+ * sent, while messages for different header values are handled concurrently.
+ * Each queue is bounded by the {@link #setQueueCapacity queue capacity}, and
+ * the {@link #setOverflowPolicy overflow policy} decides what happens when a
+ * queue is full.
+ *
  * @author Phillip Webb
  * @author Rossen Stoyanchev
  * @since 4.0
  */
 public class ExecutorSubscribableChannel extends AbstractSubscribableChannel {
 
+	/**
+	 * What to do when sending a message to a full subscriber queue in
+	 * batched dispatch mode.
+	 * @since 4.2.4
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Block the sending thread until the queue has room, or until the send
+		 * timeout expires, in which case the send fails.
+		 */
+		BLOCK,
+
+		/**
+		 * Drop the oldest queued message to make room for the new one.
+		 * If all room is taken by messages currently being handled, wait
+		 * for room up to the send timeout, as with {@link #BLOCK}.
+		 */
+		DROP_OLDEST,
+
+		/**
+		 * Fail the send right away.
+		 */
+		REJECT
+	}
+
+
 	private final Executor executor;
 
 	private final List<ExecutorChannelInterceptor> executorInterceptors = new ArrayList<ExecutorChannelInterceptor>(4);
 
+	private int batchSize = 0;
+
+	private long orderingWindow = 0;
+
+	private int queueCapacity = Integer.MAX_VALUE;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	private String orderingHeaderName;
+
+	private final ConcurrentMap<Object, DispatchQueue> dispatchQueues = new ConcurrentHashMap<Object, DispatchQueue>();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private final AtomicLong rejectedCount = new AtomicLong();
+
 
 	/**
 	 * Create a new {@link ExecutorSubscribableChannel} instance
@@ -63,6 +127,124 @@ public class ExecutorSubscribableChannel extends AbstractSubscribableChannel {
 		return this.executor;
 	}
 
+	/**
+	 * Set the maximum number of messages that a single executor task delivers
+	 * to a subscriber, which also switches this channel to batched dispatch.
+	 * <p>By default this is 0, i.e. every message is handed to the executor
+	 * separately. Batched dispatch requires an executor and is ignored otherwise.
+	 * @since 4.2.4
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the configured batch size.
+	 * @since 4.2.4
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Set the maximum time in milliseconds that a single executor task keeps
+	 * delivering queued messages to a subscriber before giving the thread
+	 * back to the executor, so that other queues get their turn.
+	 * <p>By default this is 0, i.e. batches are limited by the
+	 * {@link #setBatchSize batch size} only.
+	 * @since 4.2.4
+	 */
+	public void setOrderingWindow(long orderingWindow) {
+		this.orderingWindow = orderingWindow;
+	}
+
+	/**
+	 * Return the configured ordering window in milliseconds.
+	 * @since 4.2.4
+	 */
+	public long getOrderingWindow() {
+		return this.orderingWindow;
+	}
+
+	/**
+	 * Set the maximum number of messages that may be queued for a subscriber
+	 * (and ordering header value) in batched dispatch mode. A message counts
+	 * against the capacity until its handler returns, so this bounds queued
+	 * and in-flight messages together.
+	 * <p>By default this is {@code Integer.MAX_VALUE}.
+	 * @since 4.2.4
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity > 0, "Queue capacity must be greater than 0");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Return the configured queue capacity.
+	 * @since 4.2.4
+	 */
+	public int getQueueCapacity() {
+		return this.queueCapacity;
+	}
+
+	/**
+	 * Set the policy to apply when a queue reaches its
+	 * {@link #setQueueCapacity capacity} in batched dispatch mode.
+	 * <p>By default this is {@link OverflowPolicy#BLOCK}.
+	 * @since 4.2.4
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		Assert.notNull(overflowPolicy, "OverflowPolicy must not be null");
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Return the configured overflow policy.
+	 * @since 4.2.4
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+	/**
+	 * Set the name of a message header whose value further partitions the
+	 * queue of each subscriber in batched dispatch mode, for example
+	 * {@code "simpSessionId"}. Messages are handled in order within each
+	 * partition, and partitions are handled concurrently.
+	 * <p>By default this is not set and each subscriber has a single queue.
+	 * @since 4.2.4
+	 */
+	public void setOrderingHeaderName(String orderingHeaderName) {
+		this.orderingHeaderName = orderingHeaderName;
+	}
+
+	/**
+	 * Return the configured ordering header name, if any.
+	 * @since 4.2.4
+	 */
+	public String getOrderingHeaderName() {
+		return this.orderingHeaderName;
+	}
+
+	/**
+	 * Return the number of messages dropped with
+	 * {@link OverflowPolicy#DROP_OLDEST}.
+	 * @since 4.2.4
+	 */
+	public long getDroppedCount() {
+		return this.droppedCount.get();
+	}
+
+	/**
+	 * Return the number of sends that failed because of a full queue, either
+	 * with {@link OverflowPolicy#REJECT} or after a {@link OverflowPolicy#BLOCK}
+	 * timed out.
+	 * @since 4.2.4
+	 */
+	public long getRejectedCount() {
+		return this.rejectedCount.get();
+	}
+
 	@Override
 	public void setInterceptors(List<ChannelInterceptor> interceptors) {
 		super.setInterceptors(interceptors);
@@ -85,6 +267,9 @@ public class ExecutorSubscribableChannel extends AbstractSubscribableChannel {
 
 	@Override
 	public boolean sendInternal(Message<?> message, long timeout) {
+		if (this.executor != null && this.batchSize > 0) {
+			return dispatchInBatches(message, timeout);
+		}
 		for (MessageHandler handler : getSubscribers()) {
 			SendTask sendTask = new SendTask(message, handler);
 			if (this.executor == null) {
@@ -97,6 +282,43 @@ public class ExecutorSubscribableChannel extends AbstractSubscribableChannel {
 		return true;
 	}
 
+	private boolean dispatchInBatches(Message<?> message, long timeout) {
+		Object partition = (this.orderingHeaderName != null ? message.getHeaders().get(this.orderingHeaderName) : null);
+		boolean sent = true;
+		for (MessageHandler handler : getSubscribers()) {
+			Object key = (partition != null ? new DispatchKey(handler, partition) : handler);
+			if (!enqueue(key, handler, message, timeout)) {
+				sent = false;
+			}
+		}
+		return sent;
+	}
+
+	private boolean enqueue(Object key, MessageHandler handler, Message<?> message, long timeout) {
+		while (true) {
+			DispatchQueue queue = this.dispatchQueues.get(key);
+			if (queue == null) {
+				queue = new DispatchQueue(key, handler, this.queueCapacity);
+				DispatchQueue existing = this.dispatchQueues.putIfAbsent(key, queue);
+				if (existing != null) {
+					queue = existing;
+				}
+			}
+			if (!queue.acquire(timeout)) {
+				this.rejectedCount.incrementAndGet();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Queue for " + handler + " is full, rejecting " + message);
+				}
+				return false;
+			}
+			if (queue.add(message)) {
+				return true;
+			}
+			// The queue was retired after becoming empty: try again with a fresh one
+			queue.release();
+		}
+	}
+
 
 	/**
 	 * Invoke a MessageHandler with ExecutorChannelInterceptor's.
@@ -179,4 +401,171 @@ public class ExecutorSubscribableChannel extends AbstractSubscribableChannel {
 		}
 	}
 
+
+	/**
+	 * Key for a dispatch queue that is partitioned by an ordering header value.
+	 */
+	private static class DispatchKey {
+
+		private final MessageHandler handler;
+
+		private final Object partition;
+
+		public DispatchKey(MessageHandler handler, Object partition) {
+			this.handler = handler;
+			this.partition = partition;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof DispatchKey)) {
+				return false;
+			}
+			DispatchKey otherKey = (DispatchKey) other;
+			return (this.handler == otherKey.handler && ObjectUtils.nullSafeEquals(this.partition, otherKey.partition));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.handler.hashCode() * 29 + this.partition.hashCode();
+		}
+	}
+
+
+	/**
+	 * A bounded queue of messages for one subscriber (and ordering header value),
+	 * drained by at most one executor task at a time.
+	 */
+	private class DispatchQueue implements Runnable {
+
+		private final Object key;
+
+		private final MessageHandler handler;
+
+		private final Queue<Message<?>> messages = new ConcurrentLinkedQueue<Message<?>>();
+
+		private final Semaphore permits;
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		private boolean retired;
+
+		public DispatchQueue(Object key, MessageHandler handler, int capacity) {
+			this.key = key;
+			this.handler = handler;
+			this.permits = new Semaphore(capacity);
+		}
+
+		/**
+		 * Obtain room for one message according to the overflow policy.
+		 */
+		public boolean acquire(long timeout) {
+			if (this.permits.tryAcquire()) {
+				return true;
+			}
+			switch (overflowPolicy) {
+				case DROP_OLDEST:
+					// Take over the room of the dropped message
+					if (this.messages.poll() != null) {
+						droppedCount.incrementAndGet();
+						return true;
+					}
+					// Nothing queued to drop: all room is taken by messages being handled,
+					// so wait for one of them to complete rather than spinning
+					try {
+						if (timeout < 0) {
+							this.permits.acquire();
+							return true;
+						}
+						return this.permits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						return false;
+					}
+				case BLOCK:
+					try {
+						if (timeout < 0) {
+							this.permits.acquire();
+							return true;
+						}
+						return this.permits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						return false;
+					}
+				default:
+					return false;
+			}
+		}
+
+		public void release() {
+			this.permits.release();
+		}
+
+		public boolean add(Message<?> message) {
+			synchronized (this) {
+				if (this.retired) {
+					return false;
+				}
+				this.messages.add(message);
+			}
+			schedule();
+			return true;
+		}
+
+		private void schedule() {
+			if (this.scheduled.compareAndSet(false, true)) {
+				try {
+					executor.execute(this);
+				}
+				catch (RuntimeException ex) {
+					this.scheduled.set(false);
+					throw ex;
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			long deadline = (orderingWindow > 0 ? System.currentTimeMillis() + orderingWindow : Long.MAX_VALUE);
+			try {
+				for (int i = 0; i < batchSize; i++) {
+					Message<?> message = this.messages.poll();
+					if (message == null) {
+						break;
+					}
+					try {
+						new SendTask(message, this.handler).run();
+					}
+					catch (Exception ex) {
+						logger.error("Failed to dispatch " + message + " to " + this.handler, ex);
+					}
+					finally {
+						release();
+					}
+					if (orderingWindow > 0 && System.currentTimeMillis() > deadline) {
+						break;
+					}
+				}
+			}
+			finally {
+				synchronized (this) {
+					if (this.messages.isEmpty()) {
+						this.retired = true;
+						dispatchQueues.remove(this.key, this);
+					}
+				}
+				this.scheduled.set(false);
+				if (!this.retired) {
+					schedule();
+				}
+			}
+		}
+	}
+
 }
@@ -0,0 +1,407 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.messaging.simp.broker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.tests.Assume;
+import org.springframework.tests.TestGroup;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StopWatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test fixture for {@link DestinationTrieSubscriptionRegistry}.
+ */
+public class DestinationTrieSubscriptionRegistryTests {
+
+	private final DestinationTrieSubscriptionRegistry registry = new DestinationTrieSubscriptionRegistry();
+
+
+	@Test
+	public void registerSubscription() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/foo"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/foo"));
+		assertEquals(1, actual.size());
+		assertEquals(Collections.singletonList("subs01"), actual.get("sess01"));
+		assertEquals(0, this.registry.findSubscriptions(createMessage("/foo/bar")).size());
+		assertEquals(0, this.registry.findSubscriptions(createMessage("/fo")).size());
+	}
+
+	@Test
+	public void registerSubscriptionWithDestinationPattern() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/PRICE.STOCK.*.IBM"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic/PRICE.STOCK.NASDAQ.IBM"));
+		assertEquals(1, actual.size());
+		assertEquals(Collections.singletonList("subs01"), actual.get("sess01"));
+		assertEquals(0, this.registry.findSubscriptions(createMessage("/topic/PRICE.STOCK.NASDAQ.GOOG")).size());
+	}
+
+	@Test
+	public void registerSubscriptionWithDestinationPatternRegex() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/{exchange}/{ticker:(IBM|MSFT)}"));
+
+		assertEquals(1, this.registry.findSubscriptions(createMessage("/topic/NASDAQ/IBM")).size());
+		assertEquals(1, this.registry.findSubscriptions(createMessage("/topic/NYSE/MSFT")).size());
+		assertEquals(0, this.registry.findSubscriptions(createMessage("/topic/NASDAQ/VMW")).size());
+	}
+
+	@Test
+	public void registerSubscriptionWithDoubleWildcard() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/**"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "/topic/**/IBM"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/topic"));
+		assertEquals(Collections.singletonList("subs01"), actual.get("sess01"));
+
+		actual = this.registry.findSubscriptions(createMessage("/topic/IBM"));
+		assertEquals(Arrays.asList("subs01", "subs02"), actual.get("sess01"));
+
+		actual = this.registry.findSubscriptions(createMessage("/topic/NASDAQ/STOCK/IBM"));
+		assertEquals(Arrays.asList("subs01", "subs02"), actual.get("sess01"));
+
+		actual = this.registry.findSubscriptions(createMessage("/topic/NASDAQ/STOCK/GOOG"));
+		assertEquals(Collections.singletonList("subs01"), actual.get("sess01"));
+
+		assertEquals(0, this.registry.findSubscriptions(createMessage("/queue/IBM")).size());
+	}
+
+	@Test
+	public void registerSubscriptionWithTrailingWildcard() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/*"));
+
+		assertEquals(1, this.registry.findSubscriptions(createMessage("/topic/IBM")).size());
+		assertEquals(1, this.registry.findSubscriptions(createMessage("/topic/")).size());
+		assertEquals(0, this.registry.findSubscriptions(createMessage("/topic")).size());
+		assertEquals(0, this.registry.findSubscriptions(createMessage("/topic/NASDAQ/IBM")).size());
+	}
+
+	@Test  // SPR-11657
+	public void registerSubscriptionsWithSimpleAndPatternDestinations() {
+		String destNasdaqIbm = "/topic/PRICE.STOCK.NASDAQ.IBM";
+		Message<?> destNasdaqIbmMessage = createMessage(destNasdaqIbm);
+
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", destNasdaqIbm));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/PRICE.STOCK.*.IBM"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(destNasdaqIbmMessage);
+		assertEquals(1, actual.size());
+		assertEquals(Arrays.asList("subs02", "subs01"), actual.get("sess01"));
+
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", destNasdaqIbm));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs02", "/topic/PRICE.STOCK.NYSE.IBM"));
+
+		actual = this.registry.findSubscriptions(destNasdaqIbmMessage);
+		assertEquals(2, actual.size());
+		assertEquals(Arrays.asList("subs02", "subs01"), actual.get("sess01"));
+		assertEquals(Collections.singletonList("subs01"), actual.get("sess02"));
+
+		this.registry.unregisterAllSubscriptions("sess01");
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/PRICE.STOCK.*.IBM"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", destNasdaqIbm));
+
+		actual = this.registry.findSubscriptions(destNasdaqIbmMessage);
+		assertEquals(2, actual.size());
+		assertEquals(Arrays.asList("subs01", "subs02"), actual.get("sess01"));
+		assertEquals(Collections.singletonList("subs01"), actual.get("sess02"));
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess01", "subs02"));
+		this.registry.unregisterSubscription(unsubscribeMessage("sess01", "subs01"));
+		this.registry.unregisterSubscription(unsubscribeMessage("sess02", "subs01"));
+
+		actual = this.registry.findSubscriptions(destNasdaqIbmMessage);
+		assertEquals(0, actual.size());
+	}
+
+	@Test
+	public void registerPatternAfterDestinationCached() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/topic/NASDAQ/IBM"));
+		assertEquals(1, this.registry.findSubscriptions(createMessage("/topic/NASDAQ/IBM")).size());
+		assertEquals(0, this.registry.findSubscriptions(createMessage("/topic/NYSE/IBM")).size());
+		assertEquals(2, this.registry.getDestinationCacheSize());
+
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "/topic/*/IBM"));
+		assertEquals(0, this.registry.getDestinationCacheSize());
+		assertEquals(2, this.registry.findSubscriptions(createMessage("/topic/NASDAQ/IBM")).size());
+		assertEquals(1, this.registry.findSubscriptions(createMessage("/topic/NYSE/IBM")).size());
+
+		this.registry.registerSubscription(subscribeMessage("sess03", "subs01", "/topic/NYSE/IBM"));
+		assertEquals(1, this.registry.getDestinationCacheSize());
+		assertEquals(2, this.registry.findSubscriptions(createMessage("/topic/NASDAQ/IBM")).size());
+		assertEquals(2, this.registry.findSubscriptions(createMessage("/topic/NYSE/IBM")).size());
+	}
+
+	@Test
+	public void registerSameSubscriptionIdTwice() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/foo"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/bar"));
+
+		assertEquals(0, this.registry.findSubscriptions(createMessage("/foo")).size());
+		assertEquals(1, this.registry.findSubscriptions(createMessage("/bar")).size());
+
+		this.registry.unregisterSubscription(unsubscribeMessage("sess01", "subs01"));
+		assertEquals(0, this.registry.findSubscriptions(createMessage("/bar")).size());
+
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/bar"));
+		assertEquals(1, this.registry.findSubscriptions(createMessage("/bar")).size());
+	}
+
+	@Test
+	public void registerSubscriptionWithSelector() throws Exception {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/foo", "headers.foo == 'bar'"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "/foo"));
+
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+		accessor.setDestination("/foo");
+		accessor.setNativeHeader("foo", "bar");
+		Message<?> message = MessageBuilder.createMessage("", accessor.getMessageHeaders());
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(message);
+		assertEquals(Arrays.asList("subs01", "subs02"), actual.get("sess01"));
+
+		actual = this.registry.findSubscriptions(createMessage("/foo"));
+		assertEquals(Collections.singletonList("subs02"), actual.get("sess01"));
+	}
+
+	@Test
+	public void caseInsensitivePathMatcher() {
+		AntPathMatcher pathMatcher = new AntPathMatcher();
+		pathMatcher.setCaseSensitive(false);
+		this.registry.setPathMatcher(pathMatcher);
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/Topic/IBM"));
+
+		assertEquals(1, this.registry.findSubscriptions(createMessage("/topic/ibm")).size());
+
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "/TOPIC/ibm"));
+		assertEquals(2, this.registry.findSubscriptions(createMessage("/topic/ibm")).size());
+	}
+
+	@Test
+	public void dotSeparator() {
+		this.registry.setPathMatcher(new AntPathMatcher("."));
+		this.registry.setPathSeparator(".");
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "price.stock.*.ibm"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "price.**"));
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("price.stock.nasdaq.ibm"));
+		assertEquals(Arrays.asList("subs01", "subs02"), actual.get("sess01"));
+
+		actual = this.registry.findSubscriptions(createMessage("price.stock.nasdaq.goog"));
+		assertEquals(Collections.singletonList("subs02"), actual.get("sess01"));
+	}
+
+	@Test
+	public void unregisterAllSubscriptions() {
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs01", "/foo"));
+		this.registry.registerSubscription(subscribeMessage("sess01", "subs02", "/foo/*"));
+		this.registry.registerSubscription(subscribeMessage("sess02", "subs01", "/foo"));
+
+		this.registry.unregisterAllSubscriptions("sess01");
+
+		MultiValueMap<String, String> actual = this.registry.findSubscriptions(createMessage("/foo"));
+		assertEquals(1, actual.size());
+		assertEquals(Collections.singletonList("subs01"), actual.get("sess02"));
+		assertEquals(0, this.registry.findSubscriptions(createMessage("/foo/bar")).size());
+	}
+
+	@Test  // SPR-12665
+	public void findSubscriptionsReturnsMapSafeToIterate() throws Exception {
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/foo"));
+		this.registry.registerSubscription(subscribeMessage("sess2", "1", "/foo"));
+
+		MultiValueMap<String, String> subscriptions = this.registry.findSubscriptions(createMessage("/foo"));
+		assertEquals(2, subscriptions.size());
+
+		Iterator<Map.Entry<String, List<String>>> iterator = subscriptions.entrySet().iterator();
+		iterator.next();
+
+		this.registry.registerSubscription(subscribeMessage("sess3", "1", "/foo"));
+
+		iterator.next();
+		// no ConcurrentModificationException
+	}
+
+	@Test
+	public void cacheLimitExceeded() throws Exception {
+		this.registry.setCacheLimit(1);
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/foo"));
+		this.registry.registerSubscription(subscribeMessage("sess1", "2", "/bar"));
+
+		assertEquals(1, this.registry.findSubscriptions(createMessage("/foo")).size());
+		assertEquals(1, this.registry.findSubscriptions(createMessage("/bar")).size());
+		assertEquals(1, this.registry.getDestinationCacheSize());
+
+		this.registry.registerSubscription(subscribeMessage("sess2", "1", "/foo"));
+		this.registry.registerSubscription(subscribeMessage("sess2", "2", "/bar"));
+
+		assertEquals(2, this.registry.findSubscriptions(createMessage("/foo")).size());
+		assertEquals(2, this.registry.findSubscriptions(createMessage("/bar")).size());
+	}
+
+	@Test
+	public void cacheLimitEvictsLeastRecentlyUsed() throws Exception {
+		this.registry.setCacheLimit(2);
+		this.registry.registerSubscription(subscribeMessage("sess1", "1", "/**"));
+
+		this.registry.findSubscriptions(createMessage("/a"));
+		this.registry.findSubscriptions(createMessage("/b"));
+		this.registry.findSubscriptions(createMessage("/a"));
+		this.registry.findSubscriptions(createMessage("/c"));
+
+		Map<?, ?> cache = (Map<?, ?>) ReflectionUtils.getField(
+				ReflectionUtils.findField(DestinationTrieSubscriptionRegistry.class, "destinationCache"), this.registry);
+		assertEquals(2, this.registry.getDestinationCacheSize());
+		assertTrue(cache.containsKey("/a"));
+		assertFalse(cache.containsKey("/b"));
+		assertTrue(cache.containsKey("/c"));
+	}
+
+	@Test
+	public void sameResultsAsDefaultSubscriptionRegistry() {
+		DefaultSubscriptionRegistry defaultRegistry = new DefaultSubscriptionRegistry();
+		String[] segments = new String[] {"a", "b", "c", "*", "**", "{x}", "?"};
+		Random random = new Random(42);
+		List<String> destinations = new ArrayList<String>();
+
+		for (int i = 0; i < 2000; i++) {
+			StringBuilder pattern = new StringBuilder();
+			StringBuilder destination = new StringBuilder();
+			int length = 1 + random.nextInt(4);
+			for (int j = 0; j < length; j++) {
+				pattern.append("/").append(segments[random.nextInt(segments.length)]);
+				destination.append("/").append(segments[random.nextInt(3)]);
+			}
+			destinations.add(destination.toString());
+			String sessionId = "sess" + random.nextInt(20);
+			if (random.nextInt(4) == 0) {
+				String subscriptionId = "subs" + random.nextInt(i + 1);
+				this.registry.unregisterSubscription(unsubscribeMessage(sessionId, subscriptionId));
+				defaultRegistry.unregisterSubscription(unsubscribeMessage(sessionId, subscriptionId));
+			}
+			else {
+				String subscriptionId = "subs" + i;
+				this.registry.registerSubscription(subscribeMessage(sessionId, subscriptionId, pattern.toString()));
+				defaultRegistry.registerSubscription(subscribeMessage(sessionId, subscriptionId, pattern.toString()));
+			}
+			if (i % 10 == 0) {
+				for (String dest : destinations) {
+					Message<?> message = createMessage(dest);
+					MultiValueMap<String, String> expected = defaultRegistry.findSubscriptions(message);
+					MultiValueMap<String, String> actual = this.registry.findSubscriptions(message);
+					assertEquals(dest, expected.keySet(), actual.keySet());
+					for (String sessionKey : expected.keySet()) {
+						assertEquals(dest, sort(new ArrayList<String>(expected.get(sessionKey))),
+								sort(new ArrayList<String>(actual.get(sessionKey))));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void findSubscriptionsPerformance() {
+		Assume.group(TestGroup.PERFORMANCE);
+		for (int count : new int[] {10000, 100000, 1000000}) {
+			StopWatch stopWatch = new StopWatch(count + " subscriptions");
+			runPerformanceTest(new DefaultSubscriptionRegistry(), count, stopWatch);
+			runPerformanceTest(new DestinationTrieSubscriptionRegistry(), count, stopWatch);
+			System.out.println(stopWatch.prettyPrint());
+		}
+	}
+
+	private void runPerformanceTest(AbstractSubscriptionRegistry registry, int count, StopWatch stopWatch) {
+		String name = registry.getClass().getSimpleName();
+		int destinationCount = count / 10;
+
+		stopWatch.start(name + ": subscribe");
+		for (int i = 0; i < count; i++) {
+			String destination = (i % 100 == 0 ? "/topic/" + (i % destinationCount) + "/*" :
+					"/topic/" + (i % destinationCount) + "/price");
+			registry.registerSubscription(subscribeMessage("sess" + i, "subs" + i, destination));
+		}
+		stopWatch.stop();
+
+		stopWatch.start(name + ": find");
+		for (int i = 0; i < 100; i++) {
+			registry.findSubscriptions(createMessage("/topic/" + (i % destinationCount) + "/price"));
+		}
+		stopWatch.stop();
+
+		stopWatch.start(name + ": find with churn");
+		for (int i = 0; i < 100; i++) {
+			String sessionId = "sess" + (i * 7 % count);
+			registry.unregisterAllSubscriptions(sessionId);
+			registry.registerSubscription(subscribeMessage(sessionId, "subs", "/topic/" + (i % destinationCount) + "/price"));
+			registry.findSubscriptions(createMessage("/topic/" + (i % destinationCount) + "/price"));
+		}
+		stopWatch.stop();
+	}
+
+
+	private Message<?> createMessage(String destination) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+		accessor.setDestination(destination);
+		return MessageBuilder.createMessage("", accessor.getMessageHeaders());
+	}
+
+	private Message<?> subscribeMessage(String sessionId, String subscriptionId, String destination) {
+		return subscribeMessage(sessionId, subscriptionId, destination, null);
+	}
+
+	private Message<?> subscribeMessage(String sessionId, String subscriptionId, String dest, String selector) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+		accessor.setSessionId(sessionId);
+		accessor.setSubscriptionId(subscriptionId);
+		if (dest != null) {
+			accessor.setDestination(dest);
+		}
+		if (selector != null) {
+			accessor.setNativeHeader("selector", selector);
+		}
+		return MessageBuilder.createMessage("", accessor.getMessageHeaders());
+	}
+
+	private Message<?> unsubscribeMessage(String sessionId, String subscriptionId) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.UNSUBSCRIBE);
+		accessor.setSessionId(sessionId);
+		accessor.setSubscriptionId(subscriptionId);
+		return MessageBuilder.createMessage("", accessor.getMessageHeaders());
+	}
+
+	private List<String> sort(List<String> list) {
+		Collections.sort(list);
+		return list;
+	}
+
+}
@@ -46,6 +46,7 @@ import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.handler.invocation.HandlerMethodArgumentResolver;
 import org.springframework.messaging.handler.invocation.HandlerMethodReturnValueHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
@@ -191,6 +192,12 @@ public class MessageBrokerConfigurationTests {
 		assertEquals(21, taskExecutor.getCorePoolSize());
 		assertEquals(22, taskExecutor.getMaxPoolSize());
 		assertEquals(23, taskExecutor.getKeepAliveSeconds());
+
+		ExecutorSubscribableChannel executorChannel = (ExecutorSubscribableChannel) channel;
+		assertEquals(25, executorChannel.getBatchSize());
+		assertEquals(26, executorChannel.getQueueCapacity());
+		assertEquals(ExecutorSubscribableChannel.OverflowPolicy.DROP_OLDEST, executorChannel.getOverflowPolicy());
+		assertEquals(SimpMessageHeaderAccessor.SESSION_ID_HEADER, executorChannel.getOrderingHeaderName());
 	}
 
 	@Test
@@ -502,6 +509,8 @@ public class MessageBrokerConfigurationTests {
 		protected void configureClientOutboundChannel(ChannelRegistration registration) {
 			registration.setInterceptors(this.interceptor, this.interceptor);
 			registration.taskExecutor().corePoolSize(21).maxPoolSize(22).keepAliveSeconds(23).queueCapacity(24);
+			registration.batchedDispatch().batchSize(25).queueCapacity(26)
+					.overflowPolicy(ExecutorSubscribableChannel.OverflowPolicy.DROP_OLDEST);
 		}
 
 		@Override
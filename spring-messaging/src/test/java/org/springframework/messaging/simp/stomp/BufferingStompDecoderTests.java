@@ -141,6 +141,20 @@ public class BufferingStompDecoderTests {
 		assertNull(stompDecoder.getExpectedContentLength());
 	}
 
+	@Test
+	public void splitMessageNotReassembledBeforeNullOctet() throws InterruptedException {
+		BufferingStompDecoder stompDecoder = new BufferingStompDecoder(STOMP_DECODER, 128);
+		assertEquals(0, stompDecoder.decode(toByteBuffer("SEND\na:alpha\n")).size());
+		assertEquals(0, stompDecoder.decode(toByteBuffer("\nPayload")).size());
+		assertEquals(0, stompDecoder.decode(toByteBuffer(" with")).size());
+		assertEquals(26, stompDecoder.getBufferSize());
+
+		List<Message<byte[]>> messages = stompDecoder.decode(toByteBuffer(" body\0"));
+		assertEquals(1, messages.size());
+		assertEquals("Payload with body", new String(messages.get(0).getPayload()));
+		assertEquals(0, stompDecoder.getBufferSize());
+	}
+
 	@Test
 	public void oneFullAndOneSplitWithContentLengthExceedingBufferSize() throws InterruptedException {
 		BufferingStompDecoder stompDecoder = new BufferingStompDecoder(STOMP_DECODER, 128);
@@ -17,6 +17,8 @@
 package org.springframework.messaging.simp.stomp;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -310,6 +312,53 @@ public class StompCodecTests {
 				new Reactor2StompCodec().encoder().apply(frame).asString());
 	}
 
+	@Test
+	public void decodeFrameFromDirectBuffer() {
+		byte[] bytes = "SEND\ndestination:/f\\co\nx:\u00e9\n\nbody\0".getBytes(StandardCharsets.UTF_8);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes).flip();
+		List<Message<byte[]>> messages = new StompDecoder().decode(buffer);
+
+		assertEquals(1, messages.size());
+		StompHeaderAccessor headers = StompHeaderAccessor.wrap(messages.get(0));
+		assertEquals("/f:o", headers.getDestination());
+		assertEquals("\u00e9", headers.getFirstNativeHeader("x"));
+		assertEquals("body", new String(messages.get(0).getPayload(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void decodeFrameInternsCommonHeaderNames() {
+		Message<byte[]> frame = decode("SEND\ndestination:/foo\n\n\0");
+		StompHeaderAccessor headers = StompHeaderAccessor.wrap(frame);
+
+		assertSame(StompHeaderAccessor.STOMP_DESTINATION_HEADER,
+				headers.toNativeHeaderMap().keySet().iterator().next());
+	}
+
+	@Test
+	public void encodeFrameWithEscapedHeaders() {
+		StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.SEND);
+		headers.addNativeHeader("a:b", "\u00e9\n");
+		Message<byte[]> frame = MessageBuilder.createMessage("Message body".getBytes(), headers.getMessageHeaders());
+
+		assertEquals("SEND\na\\cb:\u00e9\\n\ncontent-length:12\n\nMessage body\0",
+				new String(new StompEncoder().encode(frame), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void encodeFrameWithLongHeaders() {
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			value.append("value-").append(i);
+		}
+		StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+		headers.addNativeHeader("long", value.toString());
+		Message<byte[]> frame = MessageBuilder.createMessage("Message body".getBytes(), headers.getMessageHeaders());
+
+		assertEquals("MESSAGE\nlong:" + value + "\ncontent-length:12\n\nMessage body\0",
+				new String(new StompEncoder().encode(frame), StandardCharsets.UTF_8));
+	}
+
 	private void assertIncompleteDecode(String partialFrame) {
 		Buffer buffer = Buffer.wrap(partialFrame);
 		assertNull(decode(buffer));
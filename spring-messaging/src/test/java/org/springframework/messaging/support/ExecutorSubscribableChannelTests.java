@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,9 @@
 
 package org.springframework.messaging.support;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
@@ -185,6 +188,159 @@ public class ExecutorSubscribableChannelTests {
 		assertTrue(interceptor.wasAfterHandledInvoked());
 	}
 
+	@Test
+	public void sendInBatches() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		ExecutorSubscribableChannel testChannel = new ExecutorSubscribableChannel(tasks::add);
+		testChannel.setBatchSize(2);
+		testChannel.subscribe(this.handler);
+
+		List<Message<?>> messages = createMessages(3, "sess1");
+		messages.forEach(testChannel::send);
+		assertEquals(1, tasks.size());
+		verify(this.handler, never()).handleMessage(any());
+
+		tasks.remove(0).run();
+		verify(this.handler).handleMessage(messages.get(0));
+		verify(this.handler).handleMessage(messages.get(1));
+		verify(this.handler, never()).handleMessage(messages.get(2));
+		assertEquals(1, tasks.size());
+
+		tasks.remove(0).run();
+		verify(this.handler).handleMessage(messages.get(2));
+		assertEquals(0, tasks.size());
+	}
+
+	@Test
+	public void sendInBatchesPreservesOrderPerPartition() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		ExecutorSubscribableChannel testChannel = new ExecutorSubscribableChannel(tasks::add);
+		testChannel.setBatchSize(10);
+		testChannel.setOrderingHeaderName("sessionId");
+		List<Object> received = new ArrayList<>();
+		testChannel.subscribe(message -> received.add(message.getPayload()));
+
+		List<Message<?>> messages1 = createMessages(3, "sess1");
+		List<Message<?>> messages2 = createMessages(3, "sess2");
+		for (int i = 0; i < 3; i++) {
+			testChannel.send(messages1.get(i));
+			testChannel.send(messages2.get(i));
+		}
+		assertEquals(2, tasks.size());
+
+		tasks.get(1).run();
+		tasks.get(0).run();
+		assertEquals(6, received.size());
+		assertEquals(messages2.get(0).getPayload(), received.get(0));
+		assertEquals(messages2.get(2).getPayload(), received.get(2));
+		assertEquals(messages1.get(0).getPayload(), received.get(3));
+		assertEquals(messages1.get(2).getPayload(), received.get(5));
+	}
+
+	@Test
+	public void sendInBatchesWithDropOldestPolicy() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		ExecutorSubscribableChannel testChannel = new ExecutorSubscribableChannel(tasks::add);
+		testChannel.setBatchSize(10);
+		testChannel.setQueueCapacity(2);
+		testChannel.setOverflowPolicy(ExecutorSubscribableChannel.OverflowPolicy.DROP_OLDEST);
+		testChannel.subscribe(this.handler);
+
+		List<Message<?>> messages = createMessages(3, "sess1");
+		for (Message<?> message : messages) {
+			assertTrue(testChannel.send(message));
+		}
+		tasks.remove(0).run();
+
+		verify(this.handler, never()).handleMessage(messages.get(0));
+		verify(this.handler).handleMessage(messages.get(1));
+		verify(this.handler).handleMessage(messages.get(2));
+		assertEquals(1, testChannel.getDroppedCount());
+	}
+
+	@Test
+	public void sendInBatchesWithDropOldestPolicyAndNothingQueued() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		ExecutorSubscribableChannel testChannel = new ExecutorSubscribableChannel(tasks::add);
+		testChannel.setBatchSize(10);
+		testChannel.setQueueCapacity(1);
+		testChannel.setOverflowPolicy(ExecutorSubscribableChannel.OverflowPolicy.DROP_OLDEST);
+		List<Message<?>> messages = createMessages(2, "sess1");
+		List<Boolean> results = new ArrayList<>();
+		testChannel.subscribe(message -> {
+			if (message == messages.get(0)) {
+				// The only room is held by the message being handled: nothing to drop
+				results.add(testChannel.send(messages.get(1), 10));
+			}
+		});
+
+		assertTrue(testChannel.send(messages.get(0)));
+		tasks.remove(0).run();
+
+		assertEquals(Collections.singletonList(false), results);
+		assertEquals(0, testChannel.getDroppedCount());
+		assertEquals(1, testChannel.getRejectedCount());
+	}
+
+	@Test
+	public void sendInBatchesWithRejectPolicy() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		ExecutorSubscribableChannel testChannel = new ExecutorSubscribableChannel(tasks::add);
+		testChannel.setBatchSize(10);
+		testChannel.setQueueCapacity(2);
+		testChannel.setOverflowPolicy(ExecutorSubscribableChannel.OverflowPolicy.REJECT);
+		testChannel.subscribe(this.handler);
+
+		List<Message<?>> messages = createMessages(3, "sess1");
+		assertTrue(testChannel.send(messages.get(0)));
+		assertTrue(testChannel.send(messages.get(1)));
+		assertFalse(testChannel.send(messages.get(2)));
+		assertEquals(1, testChannel.getRejectedCount());
+
+		tasks.remove(0).run();
+		verify(this.handler).handleMessage(messages.get(0));
+		verify(this.handler).handleMessage(messages.get(1));
+		verify(this.handler, never()).handleMessage(messages.get(2));
+		assertTrue(testChannel.send(messages.get(2)));
+	}
+
+	@Test
+	public void sendInBatchesWithBlockPolicyAndTimeout() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		ExecutorSubscribableChannel testChannel = new ExecutorSubscribableChannel(tasks::add);
+		testChannel.setBatchSize(10);
+		testChannel.setQueueCapacity(1);
+		testChannel.subscribe(this.handler);
+
+		List<Message<?>> messages = createMessages(2, "sess1");
+		assertTrue(testChannel.send(messages.get(0), 10));
+		assertFalse(testChannel.send(messages.get(1), 10));
+		assertEquals(1, testChannel.getRejectedCount());
+	}
+
+	@Test
+	public void sendInBatchesContinuesAfterFailure() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		ExecutorSubscribableChannel testChannel = new ExecutorSubscribableChannel(tasks::add);
+		testChannel.setBatchSize(10);
+		testChannel.subscribe(this.handler);
+
+		List<Message<?>> messages = createMessages(2, "sess1");
+		willThrow(new IllegalStateException()).given(this.handler).handleMessage(messages.get(0));
+		messages.forEach(testChannel::send);
+		tasks.remove(0).run();
+
+		verify(this.handler).handleMessage(messages.get(1));
+	}
+
+	private List<Message<?>> createMessages(int count, String sessionId) {
+		List<Message<?>> messages = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			messages.add(MessageBuilder.withPayload(sessionId + "-" + i).setHeader("sessionId", sessionId).build());
+		}
+		return messages;
+	}
+
 
 	private abstract static class AbstractTestInterceptor extends ChannelInterceptorAdapter
 			implements ExecutorChannelInterceptor {
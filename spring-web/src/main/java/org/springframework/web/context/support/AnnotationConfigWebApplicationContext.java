@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanNameGenerator;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.annotation.AnnotatedBeanDefinitionReader;
@@ -248,4 +249,18 @@ public class AnnotationConfigWebApplicationContext extends AbstractRefreshableWe
 		}
 	}
 
+	/**
+	 * This implementation adds the registered annotated classes and base packages
+	 * to the fingerprint.
+	 */
+	@Override
+	protected String determineBeanDefinitionSnapshotFingerprint(ConfigurableListableBeanFactory beanFactory) {
+		String fingerprint = super.determineBeanDefinitionSnapshotFingerprint(beanFactory);
+		if (fingerprint == null) {
+			return null;
+		}
+		return fingerprint + ";annotatedClasses=" + StringUtils.collectionToCommaDelimitedString(this.annotatedClasses) +
+				";basePackages=" + StringUtils.collectionToCommaDelimitedString(this.basePackages);
+	}
+
 }
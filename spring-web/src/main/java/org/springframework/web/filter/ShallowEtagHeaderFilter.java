@@ -16,9 +16,21 @@
 
 package org.springframework.web.filter;
 
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedList;
+import java.util.List;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
@@ -30,6 +42,9 @@ import org.springframework.http.HttpMethod;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.DigestUtils;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 import org.springframework.web.util.WebUtils;
 
@@ -43,6 +58,13 @@ import org.springframework.web.util.WebUtils;
  * (e.g. a {@link org.springframework.web.servlet.View}) is still rendered.
  * As such, this filter only saves bandwidth, not server performance.
  *
+ * <p>By default the complete response body is held in memory until the ETag
+ * has been computed. For large responses, a {@link #setContentBufferLimit
+ * content buffer limit} can be set, in which case the MD5 digest is updated
+ * as content is written, and content beyond the limit is either spilled to a
+ * temporary file or, by default, passed through to the response without an
+ * ETag.
+ *
  * @author Arjen Poutsma
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
@@ -66,6 +88,75 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 			ClassUtils.hasMethod(HttpServletResponse.class, "getHeader", String.class);
 
 
+	private int contentBufferLimit = -1;
+
+	private boolean spillToFile = false;
+
+	private File spillDirectory;
+
+
+	/**
+	 * Set the maximum number of response bytes to hold in memory. When set,
+	 * the ETag is computed incrementally from the content as it is written
+	 * rather than from the complete buffered body, and content beyond this
+	 * limit is handled according to {@link #setSpillToFile "spillToFile"}.
+	 * <p>In this mode {@link #generateETagHeaderValue} is not used; the ETag is
+	 * the same MD5-based value the default implementation would generate.
+	 * <p>By default this is set to -1 meaning the complete body is held in memory.
+	 * @since 4.2.4
+	 */
+	public void setContentBufferLimit(int contentBufferLimit) {
+		this.contentBufferLimit = contentBufferLimit;
+	}
+
+	/**
+	 * Return the configured content buffer limit.
+	 * @since 4.2.4
+	 */
+	public int getContentBufferLimit() {
+		return this.contentBufferLimit;
+	}
+
+	/**
+	 * Whether content beyond the {@link #setContentBufferLimit content buffer
+	 * limit} should be spilled to a temporary file so an ETag can still be
+	 * computed and a {@code 304} status sent for matching requests.
+	 * <p>By default this is set to {@code false} in which case buffered content
+	 * is written to the response once the limit is exceeded, and the remaining
+	 * content is passed through without an ETag.
+	 * @since 4.2.4
+	 */
+	public void setSpillToFile(boolean spillToFile) {
+		this.spillToFile = spillToFile;
+	}
+
+	/**
+	 * Return whether content beyond the content buffer limit is spilled to a file.
+	 * @since 4.2.4
+	 */
+	public boolean isSpillToFile() {
+		return this.spillToFile;
+	}
+
+	/**
+	 * Set the directory for temporary files when {@link #setSpillToFile
+	 * "spillToFile"} is enabled.
+	 * <p>By default the system's temporary directory is used.
+	 * @since 4.2.4
+	 */
+	public void setSpillDirectory(File spillDirectory) {
+		this.spillDirectory = spillDirectory;
+	}
+
+	/**
+	 * Return the directory for temporary files, if configured.
+	 * @since 4.2.4
+	 */
+	public File getSpillDirectory() {
+		return this.spillDirectory;
+	}
+
+
 	/**
 	 * The default value is "false" so that the filter may delay the generation of
 	 * an ETag until the last asynchronously dispatched thread.
@@ -81,16 +172,37 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 		HttpServletResponse responseToUse = response;
 		if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper)) {
-			responseToUse = new HttpStreamingAwareContentCachingResponseWrapper(response, request);
+			if (this.contentBufferLimit >= 0) {
+				responseToUse = new DigestingResponseWrapper(response, request,
+						this.contentBufferLimit, (this.spillToFile ? getSpillDirectoryToUse() : null));
+			}
+			else {
+				responseToUse = new HttpStreamingAwareContentCachingResponseWrapper(response, request);
+			}
 		}
 
 		filterChain.doFilter(request, responseToUse);
 
-		if (!isAsyncStarted(request) && !isContentCachingDisabled(request)) {
-			updateResponse(request, responseToUse);
+		if (!isAsyncStarted(request)) {
+			DigestingResponseWrapper digestingWrapper =
+					WebUtils.getNativeResponse(responseToUse, DigestingResponseWrapper.class);
+			try {
+				if (!isContentCachingDisabled(request)) {
+					updateResponse(request, responseToUse);
+				}
+			}
+			finally {
+				if (digestingWrapper != null) {
+					digestingWrapper.release();
+				}
+			}
 		}
 	}
 
+	private File getSpillDirectoryToUse() {
+		return (this.spillDirectory != null ? this.spillDirectory : new File(System.getProperty("java.io.tmpdir")));
+	}
+
 	private void updateResponse(HttpServletRequest request, HttpServletResponse response) throws IOException {
 		ContentCachingResponseWrapper responseWrapper =
 				WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
@@ -101,8 +213,16 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		if (rawResponse.isCommitted()) {
 			responseWrapper.copyBodyToResponse();
 		}
+		else if (responseWrapper instanceof DigestingResponseWrapper &&
+				((DigestingResponseWrapper) responseWrapper).isPassThrough()) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Response content exceeded the content buffer limit, not eligible for ETag");
+			}
+		}
 		else if (isEligibleForEtag(request, responseWrapper, statusCode, responseWrapper.getContentInputStream())) {
-			String responseETag = generateETagHeaderValue(responseWrapper.getContentInputStream());
+			String responseETag = (responseWrapper instanceof DigestingResponseWrapper ?
+					((DigestingResponseWrapper) responseWrapper).getETagHeaderValue() :
+					generateETagHeaderValue(responseWrapper.getContentInputStream()));
 			rawResponse.setHeader(HEADER_ETAG, responseETag);
 			String requestETag = request.getHeader(HEADER_IF_NONE_MATCH);
 			if (responseETag.equals(requestETag)) {
@@ -207,9 +327,298 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 			return (useRawResponse() ? getResponse().getWriter() : super.getWriter());
 		}
 
-		private boolean useRawResponse() {
+		protected boolean useRawResponse() {
 			return isContentCachingDisabled(this.request);
 		}
 	}
 
+
+	/**
+	 * Response wrapper that updates an MD5 digest as content is written, holding
+	 * content in memory up to a limit and then either spilling it to a temporary
+	 * file or passing it through to the response.
+	 */
+	private static class DigestingResponseWrapper extends HttpStreamingAwareContentCachingResponseWrapper {
+
+		private static final char[] HEX_CHARS =
+				{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+		private final int contentBufferLimit;
+
+		private final File spillDirectory;
+
+		private final MessageDigest digest;
+
+		private final FastByteArrayOutputStream content = new FastByteArrayOutputStream(1024);
+
+		private final ServletOutputStream outputStream = new DigestingServletOutputStream();
+
+		private PrintWriter writer;
+
+		private long contentSize;
+
+		private File spillFile;
+
+		private OutputStream spillOutputStream;
+
+		private final List<InputStream> spillInputStreams = new LinkedList<InputStream>();
+
+		private boolean passThrough;
+
+		private Integer contentLength;
+
+		public DigestingResponseWrapper(HttpServletResponse response, HttpServletRequest request,
+				int contentBufferLimit, File spillDirectory) {
+
+			super(response, request);
+			this.contentBufferLimit = contentBufferLimit;
+			this.spillDirectory = spillDirectory;
+			try {
+				this.digest = MessageDigest.getInstance("MD5");
+			}
+			catch (NoSuchAlgorithmException ex) {
+				throw new IllegalStateException("Could not find MessageDigest with algorithm \"MD5\"", ex);
+			}
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			return (useRawResponse() ? getResponse().getOutputStream() : this.outputStream);
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (useRawResponse()) {
+				return getResponse().getWriter();
+			}
+			if (this.writer == null) {
+				String characterEncoding = getCharacterEncoding();
+				this.writer = new DigestingPrintWriter(characterEncoding != null ?
+						characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING);
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (this.passThrough) {
+				getResponse().flushBuffer();
+			}
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			if (this.passThrough) {
+				getResponse().setContentLength(len);
+			}
+			this.contentLength = len;
+		}
+
+		// Overrides Servlet 3.1 setContentLengthLong(long) at runtime
+		@Override
+		public void setContentLengthLong(long len) {
+			if (len > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Content-Length exceeds ShallowEtagHeaderFilter's maximum (" +
+						Integer.MAX_VALUE + "): " + len);
+			}
+			setContentLength((int) len);
+		}
+
+		@Override
+		public void setBufferSize(int size) {
+		}
+
+		@Override
+		public void resetBuffer() {
+			if (this.passThrough) {
+				getResponse().resetBuffer();
+			}
+			resetContent();
+		}
+
+		@Override
+		public void reset() {
+			getResponse().reset();
+			resetContent();
+		}
+
+		public boolean isPassThrough() {
+			return this.passThrough;
+		}
+
+		public String getETagHeaderValue() {
+			byte[] bytes = this.digest.digest();
+			StringBuilder builder = new StringBuilder("\"0");
+			for (byte b : bytes) {
+				builder.append(HEX_CHARS[(b >>> 4) & 0xf]).append(HEX_CHARS[b & 0xf]);
+			}
+			return builder.append('"').toString();
+		}
+
+		@Override
+		public byte[] getContentAsByteArray() {
+			try {
+				return FileCopyUtils.copyToByteArray(getContentInputStream());
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to read spilled response content", ex);
+			}
+		}
+
+		@Override
+		public InputStream getContentInputStream() {
+			if (this.spillFile == null) {
+				return this.content.getInputStream();
+			}
+			try {
+				this.spillOutputStream.flush();
+				InputStream in = new FileInputStream(this.spillFile);
+				this.spillInputStreams.add(in);
+				return in;
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Failed to read spilled response content", ex);
+			}
+		}
+
+		@Override
+		public int getContentSize() {
+			return (int) Math.min(this.contentSize, Integer.MAX_VALUE);
+		}
+
+		@Override
+		protected void copyBodyToResponse(boolean complete) throws IOException {
+			if (this.contentSize > 0 && !this.passThrough) {
+				HttpServletResponse rawResponse = (HttpServletResponse) getResponse();
+				if ((complete || this.contentLength != null) && !rawResponse.isCommitted()) {
+					rawResponse.setContentLength(complete ? getContentSize() : this.contentLength);
+					this.contentLength = null;
+				}
+				if (this.spillFile != null) {
+					InputStream in = getContentInputStream();
+					try {
+						StreamUtils.copy(in, rawResponse.getOutputStream());
+					}
+					finally {
+						in.close();
+					}
+				}
+				else {
+					this.content.writeTo(rawResponse.getOutputStream());
+				}
+				resetContent();
+				if (complete) {
+					rawResponse.flushBuffer();
+				}
+			}
+		}
+
+		public void release() {
+			deleteSpillFile();
+		}
+
+		private void write(byte[] b, int off, int len) throws IOException {
+			if (this.passThrough) {
+				getResponse().getOutputStream().write(b, off, len);
+				return;
+			}
+			this.digest.update(b, off, len);
+			this.contentSize += len;
+			if (this.spillOutputStream != null) {
+				this.spillOutputStream.write(b, off, len);
+			}
+			else if (this.contentSize <= this.contentBufferLimit) {
+				this.content.write(b, off, len);
+			}
+			else if (this.spillDirectory != null) {
+				this.spillFile = File.createTempFile("etag", ".tmp", this.spillDirectory);
+				this.spillOutputStream = new BufferedOutputStream(new FileOutputStream(this.spillFile));
+				this.content.writeTo(this.spillOutputStream);
+				this.content.reset();
+				this.spillOutputStream.write(b, off, len);
+			}
+			else {
+				this.passThrough = true;
+				HttpServletResponse rawResponse = (HttpServletResponse) getResponse();
+				if (this.contentLength != null) {
+					rawResponse.setContentLength(this.contentLength);
+				}
+				this.content.writeTo(rawResponse.getOutputStream());
+				this.content.reset();
+				rawResponse.getOutputStream().write(b, off, len);
+			}
+		}
+
+		private void resetContent() {
+			this.digest.reset();
+			this.content.reset();
+			this.contentSize = 0;
+			deleteSpillFile();
+		}
+
+		private void deleteSpillFile() {
+			if (this.spillFile != null) {
+				for (InputStream in : this.spillInputStreams) {
+					closeQuietly(in);
+				}
+				this.spillInputStreams.clear();
+				closeQuietly(this.spillOutputStream);
+				if (!this.spillFile.delete()) {
+					this.spillFile.deleteOnExit();
+				}
+				this.spillFile = null;
+				this.spillOutputStream = null;
+			}
+		}
+
+		private void closeQuietly(Closeable closeable) {
+			try {
+				closeable.close();
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+		}
+
+
+		private class DigestingServletOutputStream extends ServletOutputStream {
+
+			@Override
+			public void write(int b) throws IOException {
+				write(new byte[] {(byte) b}, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				DigestingResponseWrapper.this.write(b, off, len);
+			}
+		}
+
+
+		private class DigestingPrintWriter extends PrintWriter {
+
+			public DigestingPrintWriter(String characterEncoding) throws UnsupportedEncodingException {
+				super(new OutputStreamWriter(outputStream, characterEncoding));
+			}
+
+			@Override
+			public void write(char buf[], int off, int len) {
+				super.write(buf, off, len);
+				super.flush();
+			}
+
+			@Override
+			public void write(String s, int off, int len) {
+				super.write(s, off, len);
+				super.flush();
+			}
+
+			@Override
+			public void write(int c) {
+				super.write(c);
+				super.flush();
+			}
+		}
+	}
+
 }
@@ -274,7 +274,7 @@ public class RequestParamMethodArgumentResolver extends AbstractNamedValueMethod
 			}
 		}
 		else {
-			builder.queryParam(name, formatUriValue(conversionService, new TypeDescriptor(parameter), value));
+			builder.queryParam(name, formatUriValue(conversionService, TypeDescriptor.forMethodParameter(parameter), value));
 		}
 	}
 
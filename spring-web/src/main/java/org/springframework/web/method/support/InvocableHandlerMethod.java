@@ -24,7 +24,8 @@ import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.GenericTypeResolver;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterNameDiscoverer;
-import org.springframework.util.ReflectionUtils;
+import org.springframework.core.invoke.CompilingMethodInvokerFactory;
+import org.springframework.core.invoke.MethodInvoker;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.support.SessionStatus;
 import org.springframework.web.bind.support.WebDataBinderFactory;
@@ -54,6 +55,8 @@ public class InvocableHandlerMethod extends HandlerMethod {
 
 	private ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
+	private MethodInvoker methodInvoker;
+
 
 	/**
 	 * Create an instance from a {@code HandlerMethod}.
@@ -217,9 +220,8 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	 * Invoke the handler method with the given argument values.
 	 */
 	protected Object doInvoke(Object... args) throws Exception {
-		ReflectionUtils.makeAccessible(getBridgedMethod());
 		try {
-			return getBridgedMethod().invoke(getBean(), args);
+			return getMethodInvoker().invoke(getBean(), args);
 		}
 		catch (IllegalArgumentException ex) {
 			assertTargetBean(getBridgedMethod(), getBean(), args);
@@ -244,6 +246,17 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		}
 	}
 
+	/**
+	 * Return the {@link MethodInvoker} for the bridged handler method, calling it
+	 * through a generated invoker class rather than reflection where possible.
+	 */
+	private MethodInvoker getMethodInvoker() {
+		if (this.methodInvoker == null) {
+			this.methodInvoker = CompilingMethodInvokerFactory.getSharedInstance().getMethodInvoker(getBridgedMethod());
+		}
+		return this.methodInvoker;
+	}
+
 	/**
 	 * Assert that the target bean class is an instance of the class where the given
 	 * method is declared. In some cases the actual controller instance at request-
@@ -19,7 +19,9 @@ package org.springframework.web.filter;
 import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletResponse;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import org.springframework.mock.web.test.MockHttpServletRequest;
 import org.springframework.mock.web.test.MockHttpServletResponse;
@@ -37,6 +39,9 @@ public class ShallowEtagHeaderFilterTests {
 
 	private final ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
 
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 
 	@Test
 	public void isEligibleForEtag() {
@@ -218,4 +223,96 @@ public class ShallowEtagHeaderFilterTests {
 		assertArrayEquals("Invalid content", responseBody, response.getContentAsByteArray());
 	}
 
+	@Test
+	public void filterMatchWithContentBufferLimit() throws Exception {
+		filter.setContentBufferLimit(1024);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		request.addHeader("If-None-Match", "\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			byte[] responseBody = "Hello World".getBytes("UTF-8");
+			filterResponse.getOutputStream().write(responseBody, 0, 5);
+			filterResponse.getOutputStream().write(responseBody, 5, responseBody.length - 5);
+			filterResponse.setContentLength(responseBody.length);
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertEquals("Invalid status", 304, response.getStatus());
+		assertEquals("Invalid ETag header", "\"0b10a8db164e0754105b7a99be72e3fe5\"", response.getHeader("ETag"));
+		assertFalse("Response has Content-Length header", response.containsHeader("Content-Length"));
+		assertArrayEquals("Invalid content", new byte[0], response.getContentAsByteArray());
+	}
+
+	@Test
+	public void filterNoMatchWithContentBufferLimit() throws Exception {
+		filter.setContentBufferLimit(1024);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			((HttpServletResponse) filterResponse).setStatus(HttpServletResponse.SC_OK);
+			FileCopyUtils.copy("Hello World", filterResponse.getWriter());
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertEquals("Invalid status", 200, response.getStatus());
+		assertEquals("Invalid ETag header", "\"0b10a8db164e0754105b7a99be72e3fe5\"", response.getHeader("ETag"));
+		assertEquals("Invalid Content-Length header", 11, response.getContentLength());
+		assertEquals("Invalid content", "Hello World", response.getContentAsString());
+	}
+
+	@Test
+	public void filterSpillsContentAboveContentBufferLimit() throws Exception {
+		filter.setContentBufferLimit(4);
+		filter.setSpillToFile(true);
+		filter.setSpillDirectory(temporaryFolder.getRoot());
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[] responseBody = "Hello World".getBytes("UTF-8");
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			for (byte b : responseBody) {
+				filterResponse.getOutputStream().write(b);
+			}
+			assertEquals(1, temporaryFolder.getRoot().list().length);
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertEquals("Invalid status", 200, response.getStatus());
+		assertEquals("Invalid ETag header", "\"0b10a8db164e0754105b7a99be72e3fe5\"", response.getHeader("ETag"));
+		assertEquals("Invalid Content-Length header", responseBody.length, response.getContentLength());
+		assertArrayEquals("Invalid content", responseBody, response.getContentAsByteArray());
+		assertEquals("Temporary file not deleted", 0, temporaryFolder.getRoot().list().length);
+
+		request.addHeader("If-None-Match", "\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		response = new MockHttpServletResponse();
+		filter.doFilter(request, response, filterChain);
+
+		assertEquals("Invalid status", 304, response.getStatus());
+		assertArrayEquals("Invalid content", new byte[0], response.getContentAsByteArray());
+		assertEquals("Temporary file not deleted", 0, temporaryFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void filterPassesThroughContentAboveContentBufferLimit() throws Exception {
+		filter.setContentBufferLimit(4);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		request.addHeader("If-None-Match", "\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[] responseBody = "Hello World".getBytes("UTF-8");
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.setContentLength(responseBody.length);
+			filterResponse.getOutputStream().write(responseBody, 0, 3);
+			filterResponse.getOutputStream().write(responseBody, 3, responseBody.length - 3);
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertEquals("Invalid status", 200, response.getStatus());
+		assertNull("Unexpected ETag header", response.getHeader("ETag"));
+		assertEquals("Invalid Content-Length header", responseBody.length, response.getContentLength());
+		assertArrayEquals("Invalid content", responseBody, response.getContentAsByteArray());
+	}
+
 }
@@ -22,8 +22,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -34,10 +37,12 @@ import javax.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.method.HandlerMethod;
@@ -88,6 +93,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 	private HandlerMethodMappingNamingStrategy<T> namingStrategy;
 
+	private boolean useLiteralPrefixIndex = true;
+
 	private final MappingRegistry mappingRegistry = new MappingRegistry();
 
 
@@ -121,6 +128,28 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		return this.namingStrategy;
 	}
 
+	/**
+	 * Whether to narrow down the mappings to check for a lookup path without
+	 * a direct match to those whose patterns start with literal segments
+	 * matching the lookup path (e.g. "/accounts/{id}" for "/accounts/42").
+	 * <p>Default is "true". The index is only used with an {@link AntPathMatcher}
+	 * and assumes "/"-separated patterns as returned from
+	 * {@link #getMappingPathPatterns}; switch this flag off for a subclass
+	 * that does not match on those patterns.
+	 * @since 4.2.4
+	 */
+	public void setUseLiteralPrefixIndex(boolean useLiteralPrefixIndex) {
+		this.useLiteralPrefixIndex = useLiteralPrefixIndex;
+	}
+
+	/**
+	 * Whether to use the literal prefix index for pattern lookups.
+	 * @since 4.2.4
+	 */
+	public boolean useLiteralPrefixIndex() {
+		return this.useLiteralPrefixIndex;
+	}
+
 	/**
 	 * Return a (read-only) map with all mappings and HandlerMethod's.
 	 */
@@ -351,8 +380,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			addMatchingMappings(directPathMatches, matches, request);
 		}
 		if (matches.isEmpty()) {
-			// No choice but to go through all mappings...
-			addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			// No choice but to go through all mappings that may apply to the lookup path...
+			addMatchingMappings(this.mappingRegistry.getMappingsByPattern(lookupPath), matches, request);
 		}
 
 		if (!matches.isEmpty()) {
@@ -463,6 +492,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final MultiValueMap<String, T> urlLookup = new LinkedMultiValueMap<String, T>();
 
+		private final LiteralPrefixIndex<T> prefixIndex = new LiteralPrefixIndex<T>();
+
 		private final Map<String, List<HandlerMethod>> nameLookup =
 				new ConcurrentHashMap<String, List<HandlerMethod>>();
 
@@ -487,6 +518,22 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.urlLookup.get(urlPath);
 		}
 
+		/**
+		 * Return the mappings that may match the given URL path, in registration
+		 * order. Not thread-safe.
+		 * <p>Unless the literal prefix index is switched off, this excludes all
+		 * mappings whose patterns all start with literal segments that differ
+		 * from the segments of the given path.
+		 * @see #acquireReadLock()
+		 * @see #setUseLiteralPrefixIndex
+		 */
+		public Collection<T> getMappingsByPattern(String urlPath) {
+			if (!useLiteralPrefixIndex() || !(getPathMatcher() instanceof AntPathMatcher)) {
+				return this.mappingLookup.keySet();
+			}
+			return this.prefixIndex.getCandidates(urlPath);
+		}
+
 		/**
 		 * Return handler methods by mapping name. Thread-safe for concurrent use.
 		 */
@@ -533,6 +580,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					this.urlLookup.add(url, mapping);
 				}
 
+				this.prefixIndex.add(mapping, getMappingPathPatterns(mapping));
+
 				String name = null;
 				if (getNamingStrategy() != null) {
 					name = getNamingStrategy().getName(handlerMethod, mapping);
@@ -620,6 +669,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					}
 				}
 
+				this.prefixIndex.remove(definition.getMapping(), getMappingPathPatterns(definition.getMapping()));
+
 				removeMappingName(definition);
 
 				this.corsLookup.remove(definition.getHandlerMethod());
@@ -654,6 +705,155 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	}
 
 
+	/**
+	 * A trie of mappings keyed by the literal leading segments of their path
+	 * patterns, excluding the last segment which may still be subject to
+	 * suffix pattern matching. A mapping is kept at the root if any of its
+	 * patterns does not start with a literal segment (or if it has no patterns),
+	 * so that it is a candidate for every lookup path.
+	 * <p>Segments are trimmed and lower-cased on both sides, which keeps the
+	 * candidates a superset of the actual matches also for an {@link AntPathMatcher}
+	 * with case-insensitive matching or token trimming.
+	 */
+	private static class LiteralPrefixIndex<T> {
+
+		private final Node<T> root = new Node<T>();
+
+		private final Map<T, Integer> registrationOrder = new HashMap<T, Integer>();
+
+		private int counter;
+
+		public void add(T mapping, Set<String> patterns) {
+			if (this.registrationOrder.containsKey(mapping)) {
+				return;
+			}
+			this.registrationOrder.put(mapping, this.counter++);
+			for (List<String> prefix : getLiteralPrefixes(patterns)) {
+				Node<T> node = this.root;
+				for (String segment : prefix) {
+					Node<T> child = node.children.get(segment);
+					if (child == null) {
+						child = new Node<T>();
+						node.children.put(segment, child);
+					}
+					node = child;
+				}
+				node.mappings.add(mapping);
+			}
+		}
+
+		public void remove(T mapping, Set<String> patterns) {
+			if (this.registrationOrder.remove(mapping) == null) {
+				return;
+			}
+			for (List<String> prefix : getLiteralPrefixes(patterns)) {
+				removeFromNode(this.root, prefix, 0, mapping);
+			}
+		}
+
+		private boolean removeFromNode(Node<T> node, List<String> prefix, int index, T mapping) {
+			if (index == prefix.size()) {
+				node.mappings.remove(mapping);
+			}
+			else {
+				Node<T> child = node.children.get(prefix.get(index));
+				if (child != null && removeFromNode(child, prefix, index + 1, mapping)) {
+					node.children.remove(prefix.get(index));
+				}
+			}
+			return (node.mappings.isEmpty() && node.children.isEmpty());
+		}
+
+		private Set<List<String>> getLiteralPrefixes(Set<String> patterns) {
+			Set<List<String>> prefixes = new LinkedHashSet<List<String>>(patterns.size());
+			for (String pattern : patterns) {
+				List<String> prefix = getLiteralPrefix(pattern);
+				if (prefix.isEmpty()) {
+					return Collections.singleton(prefix);
+				}
+				prefixes.add(prefix);
+			}
+			if (prefixes.isEmpty()) {
+				prefixes.add(Collections.<String>emptyList());
+			}
+			return prefixes;
+		}
+
+		private List<String> getLiteralPrefix(String pattern) {
+			if (!pattern.startsWith("/")) {
+				return Collections.emptyList();
+			}
+			String[] segments = StringUtils.tokenizeToStringArray(pattern, "/");
+			List<String> prefix = new ArrayList<String>(segments.length);
+			for (int i = 0; i < segments.length - 1; i++) {
+				String segment = segments[i];
+				if (segment.indexOf('*') != -1 || segment.indexOf('?') != -1 ||
+						segment.indexOf('{') != -1 || segment.indexOf('}') != -1) {
+					break;
+				}
+				prefix.add(segment.toLowerCase(Locale.ENGLISH));
+			}
+			return prefix;
+		}
+
+		/**
+		 * Return the mappings along the path of the trie that the segments of
+		 * the given lookup path lead to, in registration order.
+		 */
+		public List<T> getCandidates(String lookupPath) {
+			List<T> candidates = new ArrayList<T>(this.root.mappings);
+			Node<T> node = this.root;
+			int length = lookupPath.length();
+			int start = 0;
+			while (start < length) {
+				int end = lookupPath.indexOf('/', start);
+				if (end == -1) {
+					end = length;
+				}
+				String segment = lookupPath.substring(start, end).trim();
+				start = end + 1;
+				if (segment.isEmpty()) {
+					continue;
+				}
+				node = node.children.get(segment.toLowerCase(Locale.ENGLISH));
+				if (node == null) {
+					break;
+				}
+				candidates.addAll(node.mappings);
+			}
+			if (candidates.size() > 1) {
+				sortAndRemoveDuplicates(candidates);
+			}
+			return candidates;
+		}
+
+		private void sortAndRemoveDuplicates(List<T> candidates) {
+			Collections.sort(candidates, new Comparator<T>() {
+				@Override
+				public int compare(T mapping1, T mapping2) {
+					return registrationOrder.get(mapping1).compareTo(registrationOrder.get(mapping2));
+				}
+			});
+			T previous = null;
+			for (Iterator<T> it = candidates.iterator(); it.hasNext();) {
+				T candidate = it.next();
+				if (candidate == previous) {
+					it.remove();
+				}
+				previous = candidate;
+			}
+		}
+
+
+		private static class Node<T> {
+
+			private final Map<String, Node<T>> children = new HashMap<String, Node<T>>(4);
+
+			private final List<T> mappings = new ArrayList<T>(1);
+		}
+	}
+
+
 	private static class MappingRegistration<T> {
 
 		private final T mapping;
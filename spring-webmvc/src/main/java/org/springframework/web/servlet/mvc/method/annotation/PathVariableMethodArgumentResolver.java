@@ -133,7 +133,7 @@ public class PathVariableMethodArgumentResolver extends AbstractNamedValueMethod
 
 		PathVariable ann = parameter.getParameterAnnotation(PathVariable.class);
 		String name = (ann == null || StringUtils.isEmpty(ann.value()) ? parameter.getParameterName() : ann.value());
-		value = formatUriValue(conversionService, new TypeDescriptor(parameter), value);
+		value = formatUriValue(conversionService, TypeDescriptor.forMethodParameter(parameter), value);
 		uriVariables.put(name, value);
 	}
 
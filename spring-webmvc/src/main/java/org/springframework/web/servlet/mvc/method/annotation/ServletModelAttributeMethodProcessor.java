@@ -130,7 +130,7 @@ public class ServletModelAttributeMethodProcessor extends ModelAttributeMethodPr
 		ConversionService conversionService = binder.getConversionService();
 		if (conversionService != null) {
 			TypeDescriptor source = TypeDescriptor.valueOf(String.class);
-			TypeDescriptor target = new TypeDescriptor(methodParam);
+			TypeDescriptor target = TypeDescriptor.forMethodParameter(methodParam);
 			if (conversionService.canConvert(source, target)) {
 				return binder.convertIfNecessary(sourceValue, methodParam.getParameterType(), methodParam);
 			}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.IOException;
+
+/**
+ * Strategy to encode resource content with a given HTTP content coding,
+ * used by {@link InMemoryResourceResolver} to prepare compressed variants
+ * of resources.
+ *
+ * @since 4.2.4
+ * @see GzipContentEncoder
+ */
+public interface ContentEncoder {
+
+	/**
+	 * The content coding value produced by this encoder, e.g. "gzip", as
+	 * matched against the "Accept-Encoding" request header and returned
+	 * from {@link EncodedResource#getContentEncoding()}.
+	 */
+	String getContentEncoding();
+
+	/**
+	 * Encode the given resource content.
+	 * @param content the original content
+	 * @return the encoded content
+	 * @throws IOException in case of encoding errors
+	 */
+	byte[] encode(byte[] content) throws IOException;
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.util.Assert;
+
+/**
+ * A {@link ContentEncoder} for the "gzip" content coding.
+ *
+ * <p>Since content is encoded only once per resource, the best compression
+ * level is used by default.
+ *
+ * @since 4.2.4
+ */
+public class GzipContentEncoder implements ContentEncoder {
+
+	private int compressionLevel = Deflater.BEST_COMPRESSION;
+
+
+	/**
+	 * Set the compression level to use, from 1 (fastest) to 9 (best compression).
+	 * <p>By default this is set to {@link Deflater#BEST_COMPRESSION}.
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		Assert.isTrue(compressionLevel >= Deflater.BEST_SPEED && compressionLevel <= Deflater.BEST_COMPRESSION,
+				"Compression level must be between 1 and 9");
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Return the configured compression level.
+	 */
+	public int getCompressionLevel() {
+		return this.compressionLevel;
+	}
+
+
+	@Override
+	public String getContentEncoding() {
+		return "gzip";
+	}
+
+	@Override
+	public byte[] encode(byte[] content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2 + 32);
+		GZIPOutputStream gzip = new GZIPOutputStream(out) {
+			{
+				def.setLevel(compressionLevel);
+			}
+		};
+		gzip.write(content);
+		gzip.close();
+		return out.toByteArray();
+	}
+
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * A {@code ResourceResolver} that delegates to the chain to locate a resource
+ * and then serves its content from memory, encoded once with the first
+ * {@link ContentEncoder} whose content coding is accepted by the client
+ * (by default gzip only).
+ *
+ * <p>Content is read and encoded on first access and kept in a cache bounded
+ * by the total number of bytes held, see {@link #setCacheSizeLimit}, evicting
+ * the least recently used entries first. Every hit
+ * is validated against the {@link Resource#lastModified() lastModified} value
+ * of the resolved resource, so changed resources are re-read. Resources larger
+ * than the {@link #setResourceSizeLimit resource size limit} are not held in
+ * memory and returned as resolved by the chain.
+ *
+ * <p>Resources already encoded by a resolver further down the chain, e.g. by
+ * {@link GzipResourceResolver}, are held in memory as they are. When encoding
+ * does not make a resource smaller, the original content is used instead.
+ *
+ * <p>Returned resources are {@link org.springframework.core.io.ByteArrayResource
+ * ByteArrayResource} instances, which {@link ResourceHttpRequestHandler}
+ * writes to the response in a single call.
+ *
+ * <p>The resource returned depends on the content codings accepted by the
+ * client, which a {@link CachingResourceResolver} does not fully account for
+ * in its cache key. This resolver must therefore be placed before any
+ * {@code CachingResourceResolver} in the chain, which is enforced by
+ * {@link ResourceHttpRequestHandler}; since hits are served from memory
+ * and validated here, a caching resolver is not needed in front of it.
+ *
+ * @since 4.2.4
+ */
+public class InMemoryResourceResolver extends AbstractResourceResolver {
+
+	private static final Pattern ZERO_QUALITY_PATTERN = Pattern.compile("q=0(\\.0*)?");
+
+	private final List<ContentEncoder> contentEncoders = new ArrayList<ContentEncoder>(2);
+
+	private long cacheSizeLimit = 10 * 1024 * 1024;
+
+	private long resourceSizeLimit = 1024 * 1024;
+
+	private final Map<ContentKey, Content> contentCache = new ConcurrentHashMap<ContentKey, Content>(64);
+
+	/** Access-ordered view of the cache used for eviction, also the monitor for changes */
+	private final Map<ContentKey, Content> evictionQueue = new LinkedHashMap<ContentKey, Content>(64, 0.75f, true);
+
+	private long cacheSize;
+
+
+	public InMemoryResourceResolver() {
+		this.contentEncoders.add(new GzipContentEncoder());
+	}
+
+
+	/**
+	 * Configure the encoders to apply, in order of preference. An empty list
+	 * means resources are held in memory without encoding.
+	 * <p>By default a {@link GzipContentEncoder} is configured.
+	 */
+	public void setContentEncoders(List<ContentEncoder> contentEncoders) {
+		Assert.notNull(contentEncoders, "ContentEncoders must not be null");
+		this.contentEncoders.clear();
+		this.contentEncoders.addAll(contentEncoders);
+	}
+
+	/**
+	 * Return the configured encoders.
+	 */
+	public List<ContentEncoder> getContentEncoders() {
+		return this.contentEncoders;
+	}
+
+	/**
+	 * Set the maximum number of bytes to hold in memory across all resources
+	 * and encodings. When exceeded, the least recently used entries are evicted.
+	 * <p>By default this is set to 10M (i.e. 10 * 1024 * 1024).
+	 */
+	public void setCacheSizeLimit(long cacheSizeLimit) {
+		this.cacheSizeLimit = cacheSizeLimit;
+	}
+
+	/**
+	 * Return the configured cache size limit in bytes.
+	 */
+	public long getCacheSizeLimit() {
+		return this.cacheSizeLimit;
+	}
+
+	/**
+	 * Set the maximum size of an individual resource to hold in memory.
+	 * Larger resources are returned as resolved by the chain.
+	 * <p>By default this is set to 1M (i.e. 1024 * 1024).
+	 */
+	public void setResourceSizeLimit(long resourceSizeLimit) {
+		this.resourceSizeLimit = resourceSizeLimit;
+	}
+
+	/**
+	 * Return the configured resource size limit in bytes.
+	 */
+	public long getResourceSizeLimit() {
+		return this.resourceSizeLimit;
+	}
+
+	/**
+	 * Return the number of bytes currently held in memory.
+	 */
+	public long getCacheSize() {
+		synchronized (this.evictionQueue) {
+			return this.cacheSize;
+		}
+	}
+
+
+	@Override
+	protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		Resource resource = chain.resolveResource(request, requestPath, locations);
+		if (resource == null) {
+			return null;
+		}
+		try {
+			return getInMemoryResource(request, resource);
+		}
+		catch (IOException ex) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Cannot hold [" + resource + "] in memory", ex);
+			}
+			return resource;
+		}
+	}
+
+	@Override
+	protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+			ResourceResolverChain chain) {
+
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+
+	private Resource getInMemoryResource(HttpServletRequest request, Resource resource) throws IOException {
+		ContentEncoder encoder = (resource instanceof EncodedResource ? null : getContentEncoder(request));
+		ContentKey key = new ContentKey(resource, (encoder != null ? encoder.getContentEncoding() : null));
+		long lastModified = resource.lastModified();
+
+		Content content = this.contentCache.get(key);
+		if (content != null && content.getLastModified() == lastModified) {
+			synchronized (this.evictionQueue) {
+				// Mark as recently used
+				this.evictionQueue.get(key);
+			}
+			return content.getResource();
+		}
+
+		long length = resource.contentLength();
+		if (length < 0 || length > this.resourceSizeLimit) {
+			return resource;
+		}
+		content = createContent(resource, encoder, lastModified);
+		if (content.getSize() <= this.cacheSizeLimit) {
+			putContent(key, content);
+		}
+		return content.getResource();
+	}
+
+	private ContentEncoder getContentEncoder(HttpServletRequest request) {
+		if (request == null || this.contentEncoders.isEmpty()) {
+			return null;
+		}
+		String header = request.getHeader("Accept-Encoding");
+		if (!StringUtils.hasText(header)) {
+			return null;
+		}
+		List<String> accepted = new ArrayList<String>();
+		for (String token : StringUtils.tokenizeToStringArray(header.toLowerCase(Locale.ENGLISH), ",")) {
+			int index = token.indexOf(';');
+			String coding = (index != -1 ? token.substring(0, index).trim() : token);
+			if (index == -1 || !ZERO_QUALITY_PATTERN.matcher(token.substring(index + 1).replace(" ", "")).matches()) {
+				accepted.add(coding);
+			}
+		}
+		for (ContentEncoder encoder : this.contentEncoders) {
+			if (accepted.contains(encoder.getContentEncoding())) {
+				return encoder;
+			}
+		}
+		return null;
+	}
+
+	private Content createContent(Resource resource, ContentEncoder encoder, long lastModified)
+			throws IOException {
+
+		byte[] bytes = FileCopyUtils.copyToByteArray(resource.getInputStream());
+		if (resource instanceof EncodedResource) {
+			String contentEncoding = ((EncodedResource) resource).getContentEncoding();
+			return new Content(new InMemoryEncodedResource(resource, bytes, contentEncoding), bytes.length, lastModified);
+		}
+		if (encoder != null) {
+			byte[] encoded = encoder.encode(bytes);
+			if (encoded.length < bytes.length) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Encoded [" + resource + "] with " + encoder.getContentEncoding() +
+							" from " + bytes.length + " to " + encoded.length + " bytes");
+				}
+				Resource encodedResource = new InMemoryEncodedResource(resource, encoded, encoder.getContentEncoding());
+				return new Content(encodedResource, encoded.length, lastModified);
+			}
+		}
+		return new Content(new TransformedResource(resource, bytes), bytes.length, lastModified);
+	}
+
+	private void putContent(ContentKey key, Content content) {
+		synchronized (this.evictionQueue) {
+			Content previous = this.evictionQueue.remove(key);
+			if (previous != null) {
+				this.cacheSize -= previous.getSize();
+			}
+			this.evictionQueue.put(key, content);
+			this.contentCache.put(key, content);
+			this.cacheSize += content.getSize();
+			Iterator<Map.Entry<ContentKey, Content>> iterator = this.evictionQueue.entrySet().iterator();
+			while (this.cacheSize > this.cacheSizeLimit && iterator.hasNext()) {
+				Map.Entry<ContentKey, Content> entry = iterator.next();
+				iterator.remove();
+				this.contentCache.remove(entry.getKey());
+				this.cacheSize -= entry.getValue().getSize();
+				if (logger.isTraceEnabled()) {
+					logger.trace("Evicted [" + entry.getKey() + "] from in-memory resource cache");
+				}
+			}
+		}
+	}
+
+
+	private static class ContentKey {
+
+		private final Resource resource;
+
+		private final String contentEncoding;
+
+		public ContentKey(Resource resource, String contentEncoding) {
+			this.resource = resource;
+			this.contentEncoding = contentEncoding;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ContentKey)) {
+				return false;
+			}
+			ContentKey otherKey = (ContentKey) other;
+			return (this.resource.equals(otherKey.resource) &&
+					ObjectUtils.nullSafeEquals(this.contentEncoding, otherKey.contentEncoding));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.resource.hashCode() * 31 + ObjectUtils.nullSafeHashCode(this.contentEncoding);
+		}
+
+		@Override
+		public String toString() {
+			return this.resource + (this.contentEncoding != null ? " (" + this.contentEncoding + ")" : "");
+		}
+	}
+
+
+	private static class Content {
+
+		private final Resource resource;
+
+		private final long size;
+
+		private final long lastModified;
+
+		public Content(Resource resource, long size, long lastModified) {
+			this.resource = resource;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+
+		public Resource getResource() {
+			return this.resource;
+		}
+
+		public long getSize() {
+			return this.size;
+		}
+
+		public long getLastModified() {
+			return this.lastModified;
+		}
+	}
+
+
+	private static class InMemoryEncodedResource extends TransformedResource implements EncodedResource {
+
+		private final String contentEncoding;
+
+		public InMemoryEncodedResource(Resource original, byte[] encodedContent, String contentEncoding) {
+			super(original, encodedContent);
+			this.contentEncoding = contentEncoding;
+		}
+
+		@Override
+		public String getContentEncoding() {
+			return this.contentEncoding;
+		}
+	}
+
+}
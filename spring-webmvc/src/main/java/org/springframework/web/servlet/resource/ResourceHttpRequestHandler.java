@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.resource;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -27,6 +28,7 @@ import javax.activation.FileTypeMap;
 import javax.activation.MimetypesFileTypeMap;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponseWrapper;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -34,6 +36,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
@@ -100,6 +103,14 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 	private static final boolean jafPresent = ClassUtils.isPresent(
 			"javax.activation.FileTypeMap", ResourceHttpRequestHandler.class.getClassLoader());
 
+	private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+	private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+	private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+	private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
 
 	private final List<Resource> locations = new ArrayList<Resource>(4);
 
@@ -109,6 +120,8 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 
 	private CorsConfiguration corsConfiguration;
 
+	private boolean sendfileEnabled = false;
+
 
 	public ResourceHttpRequestHandler() {
 		super(METHOD_GET, METHOD_HEAD);
@@ -167,6 +180,30 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		return this.resourceTransformers;
 	}
 
+	/**
+	 * Whether to let the Servlet container write file-based resources directly
+	 * from the file system ("sendfile"), avoiding copying their content through
+	 * the response stream. This is supported by Tomcat's NIO and APR connectors,
+	 * which then transfer the file with {@code FileChannel#transferTo} or the
+	 * equivalent native call.
+	 * <p>Sendfile is used only when the container advertises support for it and
+	 * the response is not wrapped, since wrappers such as content caching
+	 * filters would not see the content. Otherwise content is streamed as usual.
+	 * <p>By default this is set to {@code false}.
+	 * @since 4.2.4
+	 */
+	public void setSendfileEnabled(boolean sendfileEnabled) {
+		this.sendfileEnabled = sendfileEnabled;
+	}
+
+	/**
+	 * Whether sendfile support is enabled.
+	 * @since 4.2.4
+	 */
+	public boolean isSendfileEnabled() {
+		return this.sendfileEnabled;
+	}
+
 	public void setCorsConfiguration(CorsConfiguration corsConfiguration) {
 		this.corsConfiguration = corsConfiguration;
 	}
@@ -183,9 +220,30 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 			logger.warn("Locations list is empty. No resources will be served unless a " +
 					"custom ResourceResolver is configured as an alternative to PathResourceResolver.");
 		}
+		checkResourceResolverOrder();
 		initAllowedLocations();
 	}
 
+	/**
+	 * Check that no {@link CachingResourceResolver} is configured in front of an
+	 * {@link InMemoryResourceResolver}, since the cache key of the former does not
+	 * reflect the content coding negotiated by the latter.
+	 * @since 4.2.4
+	 */
+	protected void checkResourceResolverOrder() {
+		boolean cachingResolverFound = false;
+		for (ResourceResolver resolver : getResourceResolvers()) {
+			if (resolver instanceof CachingResourceResolver) {
+				cachingResolverFound = true;
+			}
+			else if (resolver instanceof InMemoryResourceResolver && cachingResolverFound) {
+				throw new IllegalStateException("InMemoryResourceResolver must be configured before any " +
+						"CachingResourceResolver in the resolver chain: consider disabling the resource cache " +
+						"of the resource chain, since in-memory content is validated on every request");
+			}
+		}
+	}
+
 	/**
 	 * Look for a {@link org.springframework.web.servlet.resource.PathResourceResolver}
 	 * among the {@link #getResourceResolvers() resource resolvers} and configure
@@ -236,6 +294,11 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 			return;
 		}
 
+		// The content coding may depend on the Accept-Encoding header, also for 304 responses
+		if (resource instanceof EncodedResource || isContentEncodingNegotiated()) {
+			response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		}
+
 		// Header phase
 		if (new ServletWebRequest(request, response).checkNotModified(resource.lastModified())) {
 			logger.trace("Resource not modified - returning 304");
@@ -268,13 +331,29 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		if (request.getHeader(HttpHeaders.RANGE) == null) {
 			setETagHeader(request, response);
 			setHeaders(response, resource, mediaType);
-			writeContent(response, resource);
+			if (!writeContentWithSendfile(request, response, resource)) {
+				writeContent(response, resource);
+			}
 		}
 		else {
 			writePartialContent(request, response, resource, mediaType);
 		}
 	}
 
+	/**
+	 * Determine whether a configured resource resolver may return an encoded
+	 * variant of a resource depending on the {@code Accept-Encoding} header.
+	 */
+	private boolean isContentEncodingNegotiated() {
+		for (ResourceResolver resolver : getResourceResolvers()) {
+			if (resolver instanceof GzipResourceResolver || (resolver instanceof InMemoryResourceResolver &&
+					!((InMemoryResourceResolver) resolver).getContentEncoders().isEmpty())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	protected Resource getResource(HttpServletRequest request) throws IOException {
 		String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
 		if (path == null) {
@@ -455,6 +534,10 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 	 * @throws IOException in case of errors while writing the content
 	 */
 	protected void writeContent(HttpServletResponse response, Resource resource) throws IOException {
+		if (resource instanceof ByteArrayResource) {
+			response.getOutputStream().write(((ByteArrayResource) resource).getByteArray());
+			return;
+		}
 		try {
 			InputStream in = resource.getInputStream();
 			try {
@@ -477,6 +560,46 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		}
 	}
 
+	/**
+	 * Delegate writing the content of a file-based resource to the Servlet
+	 * container, if {@link #setSendfileEnabled sendfile} is enabled and
+	 * supported for the current request.
+	 * @param request current servlet request
+	 * @param response current servlet response
+	 * @param resource the identified resource (never {@code null})
+	 * @return {@code true} if the container will write the content, or
+	 * {@code false} if the content should be written to the response
+	 * @since 4.2.4
+	 */
+	protected boolean writeContentWithSendfile(HttpServletRequest request, HttpServletResponse response,
+			Resource resource) throws IOException {
+
+		if (!this.sendfileEnabled || response instanceof ServletResponseWrapper ||
+				!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE)) ||
+				resource instanceof ByteArrayResource) {
+			return false;
+		}
+		File file;
+		try {
+			file = resource.getFile();
+		}
+		catch (IOException ex) {
+			// not available in the file system, e.g. within a jar
+			return false;
+		}
+		long length = file.length();
+		if (length == 0) {
+			return false;
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Using sendfile for [" + file + "]");
+		}
+		request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath());
+		request.setAttribute(SENDFILE_START_ATTRIBUTE, 0L);
+		request.setAttribute(SENDFILE_END_ATTRIBUTE, length);
+		return true;
+	}
+
 	/**
 	 * Write parts of the resource as indicated by the request {@code Range} header.
 	 * @param request current servlet request
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,7 +30,7 @@ import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.PropertyAccessor;
 import org.springframework.expression.TypedValue;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.standard.CachingSpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.expression.spel.support.StandardTypeConverter;
 import org.springframework.util.ObjectUtils;
@@ -56,7 +56,7 @@ public class EvalTag extends HtmlEscapingAwareTag {
 			"org.springframework.web.servlet.tags.EVALUATION_CONTEXT";
 
 
-	private final ExpressionParser expressionParser = new SpelExpressionParser();
+	private final ExpressionParser expressionParser = CachingSpelExpressionParser.getSharedInstance(EvalTag.class);
 
 	private Expression expression;
 
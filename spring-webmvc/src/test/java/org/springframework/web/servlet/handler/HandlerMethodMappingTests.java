@@ -19,6 +19,8 @@ package org.springframework.web.servlet.handler;
 import static org.junit.Assert.*;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -100,6 +102,34 @@ public class HandlerMethodMappingTests {
 		this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/foo"));
 	}
 
+	@Test
+	public void patternMatchWithLiteralPrefix() throws Exception {
+		this.mapping.registerMapping("/accounts/{id}", this.handler, this.method1);
+		this.mapping.registerMapping("/users/{id}", this.handler, this.method2);
+		this.mapping.registerMapping("/*/{id}/orders", this.handler, this.method1);
+
+		List<String> candidates = new ArrayList<String>(
+				this.mapping.getMappingRegistry().getMappingsByPattern("/users/42"));
+		assertEquals(Arrays.asList("/users/{id}", "/*/{id}/orders"), candidates);
+
+		HandlerMethod result = this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/users/42"));
+		assertEquals(method2, result.getMethod());
+	}
+
+	@Test
+	public void patternMatchWithoutLiteralPrefixIndex() throws Exception {
+		this.mapping.setUseLiteralPrefixIndex(false);
+		this.mapping.registerMapping("/accounts/{id}", this.handler, this.method1);
+		this.mapping.registerMapping("/users/{id}", this.handler, this.method2);
+
+		List<String> candidates = new ArrayList<String>(
+				this.mapping.getMappingRegistry().getMappingsByPattern("/users/42"));
+		assertEquals(Arrays.asList("/accounts/{id}", "/users/{id}"), candidates);
+
+		HandlerMethod result = this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/users/42"));
+		assertEquals(method2, result.getMethod());
+	}
+
 	@Test
 	public void detectHandlerMethodsInAncestorContexts() {
 		StaticApplicationContext cxt = new StaticApplicationContext();
@@ -220,6 +250,18 @@ public class HandlerMethodMappingTests {
 		assertNull(this.mapping.getMappingRegistry().getCorsConfiguration(handlerMethod));
 	}
 
+	@Test
+	public void unregisterPatternMapping() throws Exception {
+		String key = "/accounts/{id}";
+
+		this.mapping.registerMapping(key, this.handler, this.method1);
+		assertNotNull(this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/accounts/42")));
+
+		this.mapping.unregisterMapping(key);
+		assertNull(this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/accounts/42")));
+		assertTrue(this.mapping.getMappingRegistry().getMappingsByPattern("/accounts/42").isEmpty());
+	}
+
 	@Test
 	public void getCorsConfigWithBeanNameHandler() throws Exception {
 
@@ -264,7 +306,7 @@ public class HandlerMethodMappingTests {
 
 		@Override
 		protected Set<String> getMappingPathPatterns(String key) {
-			return (this.pathMatcher.isPattern(key) ? Collections.<String>emptySet() : Collections.singleton(key));
+			return Collections.singleton(key);
 		}
 
 		@Override
@@ -29,6 +29,8 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -40,9 +42,13 @@ import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.mock.web.test.MockHttpServletRequest;
 import org.springframework.mock.web.test.MockHttpServletResponse;
+import org.springframework.tests.Assume;
+import org.springframework.tests.TestGroup;
 import org.springframework.ui.Model;
+import org.springframework.util.StopWatch;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.SessionAttributes;
 import org.springframework.web.context.support.StaticWebApplicationContext;
 import org.springframework.web.method.HandlerMethod;
@@ -274,6 +280,36 @@ public class RequestMappingHandlerAdapterTests {
 		testJsonp("!foo!bar", false);
 	}
 
+	@Test
+	public void argumentResolutionPerformance() throws Exception {
+		Assume.group(TestGroup.PERFORMANCE);
+		this.handlerAdapter.afterPropertiesSet();
+		HandlerMethod handlerMethod = handlerMethod(new ArgumentController(), "handle", int.class, List.class, Long.class);
+		this.request.setParameter("id", "42");
+		this.request.setParameter("names", new String[] {"a", "b", "c"});
+		this.request.setParameter("version", "7");
+		int iterations = 100000;
+
+		StopWatch sw = new StopWatch();
+		for (int round = 0; round < 2; round++) {
+			sw.start("uncached type metadata " + round);
+			for (int i = 0; i < iterations; i++) {
+				ResolvableType.clearCache();
+				TypeDescriptor.clearCache();
+				this.handlerAdapter.handle(this.request, new MockHttpServletResponse(), handlerMethod);
+			}
+			sw.stop();
+			sw.start("canonical type metadata " + round);
+			for (int i = 0; i < iterations; i++) {
+				this.handlerAdapter.handle(this.request, new MockHttpServletResponse(), handlerMethod);
+			}
+			sw.stop();
+		}
+		System.out.println(sw.prettyPrint());
+		assertTrue("Argument resolution slower with canonical type metadata: " + sw.prettyPrint(),
+				sw.getTaskInfo()[3].getTimeMillis() < sw.getTaskInfo()[2].getTimeMillis());
+	}
+
 	private HandlerMethod handlerMethod(Object handler, String methodName, Class<?>... paramTypes) throws Exception {
 		Method method = handler.getClass().getDeclaredMethod(methodName, paramTypes);
 		return new InvocableHandlerMethod(handler, method);
@@ -330,6 +366,15 @@ public class RequestMappingHandlerAdapterTests {
 	}
 
 
+	@SuppressWarnings("unused")
+	private static class ArgumentController {
+
+		public String handle(@RequestParam int id, @RequestParam List<String> names, @RequestParam Long version) {
+			return "view";
+		}
+	}
+
+
 	@SessionAttributes("attr1")
 	private static class SessionAttributeController {
 
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.util.FileCopyUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link InMemoryResourceResolver}.
+ */
+public class InMemoryResourceResolverTests {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private InMemoryResourceResolver inMemoryResolver;
+
+	private ResourceResolverChain chain;
+
+	private List<Resource> locations;
+
+	private MockHttpServletRequest request;
+
+
+	@Before
+	public void setUp() {
+		this.inMemoryResolver = new InMemoryResourceResolver();
+		List<ResourceResolver> resolvers = new ArrayList<ResourceResolver>();
+		resolvers.add(this.inMemoryResolver);
+		resolvers.add(new PathResourceResolver());
+		this.chain = new DefaultResourceResolverChain(resolvers);
+		this.locations = new ArrayList<Resource>();
+		this.locations.add(new ClassPathResource("test/", getClass()));
+		this.request = new MockHttpServletRequest();
+	}
+
+
+	@Test
+	public void resolveGzipEncoded() throws IOException {
+		this.request.addHeader("Accept-Encoding", "deflate, gzip");
+		Resource original = new ClassPathResource("test/main.css", getClass());
+		Resource resolved = this.chain.resolveResource(this.request, "main.css", this.locations);
+
+		assertTrue(resolved instanceof EncodedResource);
+		assertEquals("gzip", ((EncodedResource) resolved).getContentEncoding());
+		assertEquals("main.css", resolved.getFilename());
+		assertEquals(original.lastModified(), resolved.lastModified());
+		assertArrayEquals(FileCopyUtils.copyToByteArray(original.getInputStream()), gunzip(resolved));
+		assertTrue(resolved.contentLength() < original.contentLength());
+		assertSame(resolved, this.chain.resolveResource(this.request, "main.css", this.locations));
+	}
+
+	@Test
+	public void resolveNotEncoded() throws IOException {
+		Resource original = new ClassPathResource("test/main.css", getClass());
+		Resource resolved = this.chain.resolveResource(this.request, "main.css", this.locations);
+
+		assertFalse(resolved instanceof EncodedResource);
+		assertTrue(resolved instanceof ByteArrayResource);
+		assertArrayEquals(FileCopyUtils.copyToByteArray(original.getInputStream()),
+				((ByteArrayResource) resolved).getByteArray());
+		assertSame(resolved, this.chain.resolveResource(this.request, "main.css", this.locations));
+		assertEquals(original.contentLength(), this.inMemoryResolver.getCacheSize());
+	}
+
+	@Test
+	public void resolveWithEncodingNotAccepted() throws IOException {
+		this.request.addHeader("Accept-Encoding", "gzip;q=0, br");
+		Resource resolved = this.chain.resolveResource(this.request, "main.css", this.locations);
+
+		assertFalse(resolved instanceof EncodedResource);
+	}
+
+	@Test
+	public void resolveKeepsOriginalWhenEncodingIsLarger() throws IOException {
+		this.request.addHeader("Accept-Encoding", "gzip");
+		Resource resolved = this.chain.resolveResource(this.request, "foo.css", this.locations);
+
+		assertFalse(resolved instanceof EncodedResource);
+		assertEquals("h1 { color:red; }", new String(((ByteArrayResource) resolved).getByteArray(), "UTF-8"));
+	}
+
+	@Test
+	public void resolveWithCustomEncoder() throws IOException {
+		this.inMemoryResolver.setContentEncoders(Collections.<ContentEncoder>singletonList(new ContentEncoder() {
+			@Override
+			public String getContentEncoding() {
+				return "test";
+			}
+			@Override
+			public byte[] encode(byte[] content) {
+				return new byte[] {1};
+			}
+		}));
+		this.request.addHeader("Accept-Encoding", "gzip, test");
+		Resource resolved = this.chain.resolveResource(this.request, "main.css", this.locations);
+
+		assertEquals("test", ((EncodedResource) resolved).getContentEncoding());
+		assertEquals(1, resolved.contentLength());
+	}
+
+	@Test
+	public void resolveModifiedResource() throws IOException {
+		File file = this.folder.newFile("app.js");
+		FileCopyUtils.copy("var a = 1;".getBytes("UTF-8"), file);
+		file.setLastModified(file.lastModified() - 10000);
+		this.locations = Collections.<Resource>singletonList(new FileSystemResource(this.folder.getRoot().getPath() + "/"));
+
+		Resource resolved = this.chain.resolveResource(this.request, "app.js", this.locations);
+		assertEquals("var a = 1;", new String(((ByteArrayResource) resolved).getByteArray(), "UTF-8"));
+		assertSame(resolved, this.chain.resolveResource(this.request, "app.js", this.locations));
+
+		FileCopyUtils.copy("var a = 22;".getBytes("UTF-8"), file);
+		file.setLastModified(file.lastModified() + 10000);
+
+		resolved = this.chain.resolveResource(this.request, "app.js", this.locations);
+		assertEquals("var a = 22;", new String(((ByteArrayResource) resolved).getByteArray(), "UTF-8"));
+		assertEquals(11, this.inMemoryResolver.getCacheSize());
+	}
+
+	@Test
+	public void resourceSizeLimit() throws IOException {
+		this.inMemoryResolver.setResourceSizeLimit(10);
+		Resource resolved = this.chain.resolveResource(this.request, "foo.css", this.locations);
+
+		assertTrue(resolved instanceof ClassPathResource);
+		assertEquals(0, this.inMemoryResolver.getCacheSize());
+	}
+
+	@Test
+	public void cacheSizeLimit() throws IOException {
+		long fooSize = new ClassPathResource("test/foo.css", getClass()).contentLength();
+		long barSize = new ClassPathResource("test/bar.css", getClass()).contentLength();
+		this.inMemoryResolver.setCacheSizeLimit(fooSize + barSize - 1);
+
+		Resource foo = this.chain.resolveResource(this.request, "foo.css", this.locations);
+		assertEquals(fooSize, this.inMemoryResolver.getCacheSize());
+
+		this.chain.resolveResource(this.request, "bar.css", this.locations);
+		assertEquals(barSize, this.inMemoryResolver.getCacheSize());
+
+		assertNotSame(foo, this.chain.resolveResource(this.request, "foo.css", this.locations));
+		assertEquals(fooSize, this.inMemoryResolver.getCacheSize());
+	}
+
+
+	@Test
+	public void cacheSizeLimitEvictsLeastRecentlyUsed() throws IOException {
+		long fooSize = new ClassPathResource("test/foo.css", getClass()).contentLength();
+		long barSize = new ClassPathResource("test/bar.css", getClass()).contentLength();
+		long mainSize = new ClassPathResource("test/main.css", getClass()).contentLength();
+		this.inMemoryResolver.setCacheSizeLimit(fooSize + barSize + mainSize - 1);
+
+		Resource foo = this.chain.resolveResource(this.request, "foo.css", this.locations);
+		Resource bar = this.chain.resolveResource(this.request, "bar.css", this.locations);
+		assertSame(foo, this.chain.resolveResource(this.request, "foo.css", this.locations));
+
+		this.chain.resolveResource(this.request, "main.css", this.locations);
+		assertSame(foo, this.chain.resolveResource(this.request, "foo.css", this.locations));
+		assertNotSame(bar, this.chain.resolveResource(this.request, "bar.css", this.locations));
+	}
+
+	private byte[] gunzip(Resource resource) throws IOException {
+		byte[] bytes = ((ByteArrayResource) resource).getByteArray();
+		return FileCopyUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(bytes)));
+	}
+
+}
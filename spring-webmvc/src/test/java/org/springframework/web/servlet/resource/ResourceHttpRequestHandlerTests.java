@@ -31,11 +31,13 @@ import java.util.Locale;
 import java.util.TimeZone;
 
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 
 import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
@@ -288,6 +290,56 @@ public class ResourceHttpRequestHandlerTests {
 		assertEquals("test/", ((ClassPathResource) locations[0]).getPath());
 	}
 
+	@Test(expected = IllegalStateException.class)
+	public void inMemoryResolverAfterCachingResolver() throws Exception {
+		ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+		CachingResourceResolver cachingResolver = new CachingResourceResolver(new ConcurrentMapCache("resources"));
+		handler.setResourceResolvers(Arrays.<ResourceResolver>asList(
+				cachingResolver, new InMemoryResourceResolver(), new PathResourceResolver()));
+		handler.afterPropertiesSet();
+	}
+
+	@Test
+	public void inMemoryResolverBeforeCachingResolver() throws Exception {
+		ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+		CachingResourceResolver cachingResolver = new CachingResourceResolver(new ConcurrentMapCache("resources"));
+		handler.setResourceResolvers(Arrays.<ResourceResolver>asList(
+				new InMemoryResourceResolver(), cachingResolver, new PathResourceResolver()));
+		handler.afterPropertiesSet();
+	}
+
+	@Test
+	public void getResourceWithInMemoryResolver() throws Exception {
+		List<Resource> paths = new ArrayList<>(this.handler.getLocations());
+		this.handler = new ResourceHttpRequestHandler();
+		this.handler.setResourceResolvers(Arrays.<ResourceResolver>asList(
+				new InMemoryResourceResolver(), new PathResourceResolver()));
+		this.handler.setLocations(paths);
+		this.handler.setServletContext(new TestServletContext());
+		this.handler.afterPropertiesSet();
+
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "main.css");
+		this.request.addHeader("Accept-Encoding", "gzip");
+		this.handler.handleRequest(this.request, this.response);
+		assertEquals("gzip", this.response.getHeader("Content-Encoding"));
+		assertEquals("Accept-Encoding", this.response.getHeader("Vary"));
+
+		this.request = new MockHttpServletRequest("GET", "");
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "main.css");
+		this.response = new MockHttpServletResponse();
+		this.handler.handleRequest(this.request, this.response);
+		assertFalse(this.response.containsHeader("Content-Encoding"));
+		assertEquals("Accept-Encoding", this.response.getHeader("Vary"));
+	}
+
+	@Test
+	public void getResourceWithoutContentNegotiation() throws Exception {
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		this.request.addHeader("Accept-Encoding", "gzip");
+		this.handler.handleRequest(this.request, this.response);
+		assertFalse(this.response.containsHeader("Vary"));
+	}
+
 	@Test
 	public void notModified() throws Exception {
 		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
@@ -492,6 +544,50 @@ public class ResourceHttpRequestHandlerTests {
 		assertEquals(0, this.response.getContentLength());
 	}
 
+	@Test
+	public void writeContentFromByteArray() throws Exception {
+		this.handler.writeContent(this.response, new TransformedResource(
+				new ClassPathResource("test/foo.css", getClass()), "h1 { color:blue; }".getBytes("UTF-8")));
+
+		assertEquals("h1 { color:blue; }", this.response.getContentAsString());
+	}
+
+	@Test
+	public void getResourceWithSendfile() throws Exception {
+		this.handler.setSendfileEnabled(true);
+		this.request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		this.handler.handleRequest(this.request, this.response);
+
+		String path = new ClassPathResource("test/foo.css", getClass()).getFile().getAbsolutePath();
+		assertEquals(path, this.request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals(0L, this.request.getAttribute("org.apache.tomcat.sendfile.start"));
+		assertEquals(17L, this.request.getAttribute("org.apache.tomcat.sendfile.end"));
+		assertEquals(17, this.response.getContentLength());
+		assertEquals(0, this.response.getContentAsByteArray().length);
+	}
+
+	@Test
+	public void getResourceWithSendfileNotSupported() throws Exception {
+		this.handler.setSendfileEnabled(true);
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertNull(this.request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals("h1 { color:red; }", this.response.getContentAsString());
+	}
+
+	@Test
+	public void getResourceWithSendfileAndWrappedResponse() throws Exception {
+		this.handler.setSendfileEnabled(true);
+		this.request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		this.handler.handleRequest(this.request, new HttpServletResponseWrapper(this.response));
+
+		assertNull(this.request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals("h1 { color:red; }", this.response.getContentAsString());
+	}
+
 
 	private long dateHeaderAsLong(String responseHeaderName) throws Exception {
 		return dateFormat.parse(this.response.getHeader(responseHeaderName)).getTime();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.web.socket.adapter;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -118,6 +119,20 @@ public abstract class AbstractWebSocketSession<T> implements NativeWebSocketSess
 		}
 	}
 
+	/**
+	 * Send the given messages in order, allowing the underlying WebSocket
+	 * implementation to combine them into fewer network writes where it
+	 * supports batching.
+	 * <p>By default messages are sent one at a time.
+	 * @param messages the messages to send
+	 * @since 4.2.4
+	 */
+	public void sendMessages(List<WebSocketMessage<?>> messages) throws IOException {
+		for (WebSocketMessage<?> message : messages) {
+			sendMessage(message);
+		}
+	}
+
 	protected abstract void sendTextMessage(TextMessage message) throws IOException;
 
 	protected abstract void sendBinaryMessage(BinaryMessage message) throws IOException;
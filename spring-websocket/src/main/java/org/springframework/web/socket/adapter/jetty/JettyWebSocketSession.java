@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.jetty.websocket.api.BatchMode;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.extensions.ExtensionConfig;
 
@@ -35,6 +37,7 @@ import org.springframework.web.socket.PingMessage;
 import org.springframework.web.socket.PongMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.adapter.AbstractWebSocketSession;
 
@@ -183,6 +186,29 @@ public class JettyWebSocketSession extends AbstractWebSocketSession<Session> {
 		}
 	}
 
+	/**
+	 * Send the messages with batch mode turned on for the remote endpoint
+	 * and flush once all messages have been written.
+	 */
+	@Override
+	public void sendMessages(List<WebSocketMessage<?>> messages) throws IOException {
+		checkNativeSessionInitialized();
+		RemoteEndpoint remote = getNativeSession().getRemote();
+		BatchMode batchMode = remote.getBatchMode();
+		if (messages.size() < 2 || batchMode == BatchMode.ON) {
+			super.sendMessages(messages);
+			return;
+		}
+		remote.setBatchMode(BatchMode.ON);
+		try {
+			super.sendMessages(messages);
+			remote.flush();
+		}
+		finally {
+			remote.setBatchMode(batchMode);
+		}
+	}
+
 	@Override
 	protected void sendTextMessage(TextMessage message) throws IOException {
 		getNativeSession().getRemote().sendString(message.getPayload());
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import java.util.Map;
 import javax.websocket.CloseReason;
 import javax.websocket.CloseReason.CloseCodes;
 import javax.websocket.Extension;
+import javax.websocket.RemoteEndpoint;
 import javax.websocket.Session;
 
 import org.springframework.http.HttpHeaders;
@@ -35,6 +36,7 @@ import org.springframework.web.socket.PingMessage;
 import org.springframework.web.socket.PongMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.adapter.AbstractWebSocketSession;
 
@@ -192,6 +194,28 @@ public class StandardWebSocketSession extends AbstractWebSocketSession<Session>
 		}
 	}
 
+	/**
+	 * Send the messages with batching allowed on the basic remote endpoint
+	 * and flush the batch once all messages have been written.
+	 */
+	@Override
+	public void sendMessages(List<WebSocketMessage<?>> messages) throws IOException {
+		checkNativeSessionInitialized();
+		RemoteEndpoint.Basic remote = getNativeSession().getBasicRemote();
+		if (messages.size() < 2 || remote.getBatchingAllowed()) {
+			super.sendMessages(messages);
+			return;
+		}
+		remote.setBatchingAllowed(true);
+		try {
+			super.sendMessages(messages);
+			remote.flushBatch();
+		}
+		finally {
+			remote.setBatchingAllowed(false);
+		}
+	}
+
 	@Override
 	protected void sendTextMessage(TextMessage message) throws IOException {
 		getNativeSession().getBasicRemote().sendText(message.getPayload(), message.isLast());
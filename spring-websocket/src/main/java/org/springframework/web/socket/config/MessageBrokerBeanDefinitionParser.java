@@ -297,6 +297,10 @@ class MessageBrokerBeanDefinitionParser implements BeanDefinitionParser {
 			if (transportElem.hasAttribute("send-buffer-size")) {
 				handlerDef.getPropertyValues().add("sendBufferSizeLimit", transportElem.getAttribute("send-buffer-size"));
 			}
+			if (transportElem.hasAttribute("send-buffer-overflow-strategy")) {
+				String strategyRef = transportElem.getAttribute("send-buffer-overflow-strategy");
+				handlerDef.getPropertyValues().add("sendBufferOverflowStrategy", new RuntimeBeanReference(strategyRef));
+			}
 			Element factoriesElement = DomUtils.getChildElementByTagName(transportElem, "decorator-factories");
 			if (factoriesElement != null) {
 				ManagedList<Object> factories = extractBeanSubElements(factoriesElement, context);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -145,6 +145,15 @@ public class WebSocketMessageBrokerStats {
 		return (this.webSocketHandler != null ? this.webSocketHandler.getStatsInfo() : "null");
 	}
 
+	/**
+	 * Get stats about the send buffers of WebSocket sessions, i.e. queue depth,
+	 * send time against the send time limit, and discarded messages.
+	 * @since 4.2.4
+	 */
+	public String getWebSocketSendBufferStatsInfo() {
+		return (this.webSocketHandler != null ? this.webSocketHandler.getSendBufferStatsInfo() : "null");
+	}
+
 	/**
 	 * Get stats about STOMP-related WebSocket message processing.
 	 */
@@ -187,6 +196,7 @@ public class WebSocketMessageBrokerStats {
 
 	public String toString() {
 		return "WebSocketSession[" + getWebSocketSessionStatsInfo() + "]" +
+				", sendBuffer[" + getWebSocketSendBufferStatsInfo() + "]" +
 				", stompSubProtocol[" + getStompSubProtocolStatsInfo() + "]" +
 				", stompBrokerRelay[" + getStompBrokerRelayStatsInfo() + "]" +
 				", inboundChannel[" + getClientInboundExecutorStatsInfo() + "]" +
@@ -79,6 +79,10 @@ public class WebMvcStompEndpointRegistry implements StompEndpointRegistry {
 		if (transportRegistration.getSendBufferSizeLimit() != null) {
 			this.subProtocolWebSocketHandler.setSendBufferSizeLimit(transportRegistration.getSendBufferSizeLimit());
 		}
+		if (transportRegistration.getSendBufferOverflowStrategy() != null) {
+			this.subProtocolWebSocketHandler.setSendBufferOverflowStrategy(
+					transportRegistration.getSendBufferOverflowStrategy());
+		}
 
 		this.stompHandler = new StompSubProtocolHandler();
 		this.stompHandler.setUserSessionRegistry(userSessionRegistry);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.springframework.web.socket.handler.SendBufferOverflowStrategy;
 import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
 
 /**
@@ -36,6 +37,8 @@ public class WebSocketTransportRegistration {
 
 	private Integer sendBufferSizeLimit;
 
+	private SendBufferOverflowStrategy sendBufferOverflowStrategy;
+
 	private final List<WebSocketHandlerDecoratorFactory> decoratorFactories =
 			new ArrayList<WebSocketHandlerDecoratorFactory>(2);
 
@@ -157,6 +160,28 @@ public class WebSocketTransportRegistration {
 		return this.sendBufferSizeLimit;
 	}
 
+	/**
+	 * Configure a strategy to discard buffered messages, e.g. the oldest ones
+	 * or older messages for the same destination, when the
+	 * {@link #setSendBufferSizeLimit send buffer size limit} is exceeded.
+	 * The session is then closed only if the buffer remains over the limit.
+	 * <p>By default this is not set and the session is closed.
+	 * @since 4.2.4
+	 * @see org.springframework.web.socket.handler.DropOldestSendBufferOverflowStrategy
+	 * @see org.springframework.web.socket.messaging.StompConflatingSendBufferOverflowStrategy
+	 */
+	public WebSocketTransportRegistration setSendBufferOverflowStrategy(SendBufferOverflowStrategy strategy) {
+		this.sendBufferOverflowStrategy = strategy;
+		return this;
+	}
+
+	/**
+	 * Protected accessor for internal use.
+	 */
+	protected SendBufferOverflowStrategy getSendBufferOverflowStrategy() {
+		return this.sendBufferOverflowStrategy;
+	}
+
 	/**
 	 * Configure one or more factories to decorate the handler used to process
 	 * WebSocket messages. This may be useful in some advanced use cases, for
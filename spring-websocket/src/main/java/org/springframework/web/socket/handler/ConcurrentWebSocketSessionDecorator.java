@@ -17,9 +17,17 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -29,6 +37,7 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.AbstractWebSocketSession;
 
 /**
  * Wraps a {@link org.springframework.web.socket.WebSocketSession} and guarantees
@@ -39,6 +48,15 @@ import org.springframework.web.socket.WebSocketSession;
  * at that time the specified buffer size limit and send time limit will be checked
  * and the session closed if the limits are exceeded.
  *
+ * <p>A {@link SendBufferOverflowStrategy} may be configured to discard buffered
+ * messages instead, e.g. dropping the oldest ones or conflating messages by key,
+ * in which case the session is closed only if the buffer remains over the limit.
+ *
+ * <p>When the delegate is an {@link AbstractWebSocketSession}, messages that
+ * accumulated during a slow send are flushed together through
+ * {@link AbstractWebSocketSession#sendMessages(List)}, which lets the underlying
+ * container batch them into fewer network writes.
+ *
  * @author Rossen Stoyanchev
  * @since 4.0.3
  */
@@ -46,6 +64,8 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 
 	private static final Log logger = LogFactory.getLog(ConcurrentWebSocketSessionDecorator.class);
 
+	private static final int MAX_FLUSH_BATCH_SIZE = 64;
+
 
 	private final Queue<WebSocketMessage<?>> buffer = new LinkedBlockingQueue<WebSocketMessage<?>>();
 
@@ -53,11 +73,17 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 
 	private final int bufferSizeLimit;
 
+	private final SendBufferOverflowStrategy overflowStrategy;
+
+	private final AtomicLong discardedMessageCount = new AtomicLong();
+
 
 	private volatile long sendStartTime;
 
 	private final int sendTimeLimit;
 
+	private volatile long maxSendTime;
+
 
 	private volatile boolean limitExceeded;
 
@@ -68,11 +94,32 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 
 	private final Lock closeLock = new ReentrantLock();
 
+	// Guards removal from the buffer: held briefly while polling and while discarding,
+	// so that a discarded message cannot be polled for sending at the same time
+	private final Lock removalLock = new ReentrantLock();
+
 
 	public ConcurrentWebSocketSessionDecorator(WebSocketSession delegate, int sendTimeLimit, int bufferSizeLimit) {
+		this(delegate, sendTimeLimit, bufferSizeLimit, null);
+	}
+
+	/**
+	 * Create a new instance with a strategy to apply when the buffer size
+	 * limit is exceeded.
+	 * @param delegate the session to delegate to
+	 * @param sendTimeLimit the send time limit in milliseconds
+	 * @param bufferSizeLimit the buffer size limit in bytes
+	 * @param overflowStrategy the strategy for discarding buffered messages,
+	 * or {@code null} to close the session when the limit is exceeded
+	 * @since 4.2.4
+	 */
+	public ConcurrentWebSocketSessionDecorator(WebSocketSession delegate, int sendTimeLimit, int bufferSizeLimit,
+			SendBufferOverflowStrategy overflowStrategy) {
+
 		super(delegate);
 		this.sendTimeLimit = sendTimeLimit;
 		this.bufferSizeLimit = bufferSizeLimit;
+		this.overflowStrategy = overflowStrategy;
 	}
 
 
@@ -80,11 +127,53 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return this.bufferSize.get();
 	}
 
+	/**
+	 * Return the number of messages currently buffered.
+	 * @since 4.2.4
+	 */
+	public int getBufferedMessageCount() {
+		return this.buffer.size();
+	}
+
+	/**
+	 * Return the configured buffer size limit in bytes.
+	 * @since 4.2.4
+	 */
+	public int getBufferSizeLimit() {
+		return this.bufferSizeLimit;
+	}
+
+	/**
+	 * Return the total number of buffered messages discarded by the configured
+	 * {@link SendBufferOverflowStrategy}.
+	 * @since 4.2.4
+	 */
+	public long getDiscardedMessageCount() {
+		return this.discardedMessageCount.get();
+	}
+
 	public long getTimeSinceSendStarted() {
 		long start = this.sendStartTime;
 		return (start > 0 ? (System.currentTimeMillis() - start) : 0);
 	}
 
+	/**
+	 * Return the configured send time limit in milliseconds.
+	 * @since 4.2.4
+	 */
+	public int getSendTimeLimit() {
+		return this.sendTimeLimit;
+	}
+
+	/**
+	 * Return the longest time in milliseconds a completed send (or batch of
+	 * sends) has taken for this session.
+	 * @since 4.2.4
+	 */
+	public long getMaxSendTime() {
+		return this.maxSendTime;
+	}
+
 
 	public void sendMessage(WebSocketMessage<?> message) throws IOException {
 		if (isDisabled()) {
@@ -115,15 +204,24 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 	private boolean tryFlushMessageBuffer() throws IOException {
 		if (this.flushLock.tryLock()) {
 			try {
-				while (true) {
-					WebSocketMessage<?> messageToSend = this.buffer.poll();
-					if (messageToSend == null || isDisabled()) {
+				while (!isDisabled()) {
+					List<WebSocketMessage<?>> messagesToSend = pollMessages();
+					if (messagesToSend.isEmpty()) {
 						break;
 					}
-					this.bufferSize.addAndGet(messageToSend.getPayloadLength() * -1);
-					this.sendStartTime = System.currentTimeMillis();
-					getDelegate().sendMessage(messageToSend);
+					long start = System.currentTimeMillis();
+					this.sendStartTime = start;
+					if (messagesToSend.size() == 1) {
+						getDelegate().sendMessage(messagesToSend.get(0));
+					}
+					else {
+						((AbstractWebSocketSession<?>) getDelegate()).sendMessages(messagesToSend);
+					}
 					this.sendStartTime = 0;
+					long sendTime = System.currentTimeMillis() - start;
+					if (sendTime > this.maxSendTime) {
+						this.maxSendTime = sendTime;
+					}
 				}
 			}
 			finally {
@@ -135,6 +233,30 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		return false;
 	}
 
+	private List<WebSocketMessage<?>> pollMessages() {
+		this.removalLock.lock();
+		try {
+			WebSocketMessage<?> message = this.buffer.poll();
+			if (message == null) {
+				return Collections.emptyList();
+			}
+			this.bufferSize.addAndGet(message.getPayloadLength() * -1);
+			if (this.buffer.isEmpty() || !(getDelegate() instanceof AbstractWebSocketSession)) {
+				return Collections.<WebSocketMessage<?>>singletonList(message);
+			}
+			List<WebSocketMessage<?>> messages = new ArrayList<WebSocketMessage<?>>();
+			messages.add(message);
+			while (messages.size() < MAX_FLUSH_BATCH_SIZE && (message = this.buffer.poll()) != null) {
+				this.bufferSize.addAndGet(message.getPayloadLength() * -1);
+				messages.add(message);
+			}
+			return messages;
+		}
+		finally {
+			this.removalLock.unlock();
+		}
+	}
+
 	private void checkSessionLimits() throws IOException {
 		if (!isDisabled() && this.closeLock.tryLock()) {
 			try {
@@ -143,7 +265,7 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 							" (ms) exceeded the allowed limit " + this.sendTimeLimit;
 					sessionLimitReached(errorMessage, CloseStatus.SESSION_NOT_RELIABLE);
 				}
-				else if (this.bufferSize.get() > this.bufferSizeLimit) {
+				else if (this.bufferSize.get() > this.bufferSizeLimit && !applyOverflowStrategy()) {
 					String errorMessage = "The send buffer size " + this.bufferSize.get() + " bytes for " +
 							"session '" + getId() + " exceeded the allowed limit " + this.bufferSizeLimit;
 					sessionLimitReached(errorMessage,
@@ -156,6 +278,41 @@ public class ConcurrentWebSocketSessionDecorator extends WebSocketSessionDecorat
 		}
 	}
 
+	private boolean applyOverflowStrategy() {
+		if (this.overflowStrategy == null) {
+			return false;
+		}
+		List<WebSocketMessage<?>> bufferedMessages = new ArrayList<WebSocketMessage<?>>(this.buffer);
+		Collection<WebSocketMessage<?>> messagesToDiscard = this.overflowStrategy.selectMessagesToDiscard(
+				bufferedMessages, this.bufferSize.get(), this.bufferSizeLimit);
+		// Remove by identity in a single pass: messages with equal payloads may be buffered more than once
+		Set<WebSocketMessage<?>> discardSet =
+				Collections.newSetFromMap(new IdentityHashMap<WebSocketMessage<?>, Boolean>(messagesToDiscard.size()));
+		discardSet.addAll(messagesToDiscard);
+		int count = 0;
+		// Messages still found here cannot be polled concurrently, so each removal takes effect
+		this.removalLock.lock();
+		try {
+			for (Iterator<WebSocketMessage<?>> it = this.buffer.iterator(); it.hasNext() && count < discardSet.size();) {
+				WebSocketMessage<?> message = it.next();
+				if (discardSet.contains(message)) {
+					it.remove();
+					this.bufferSize.addAndGet(message.getPayloadLength() * -1);
+					count++;
+				}
+			}
+		}
+		finally {
+			this.removalLock.unlock();
+		}
+		this.discardedMessageCount.addAndGet(count);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Discarded " + count + " buffered messages for session id '" + getId() +
+					"', buffer size now " + this.bufferSize.get() + " bytes");
+		}
+		return (this.bufferSize.get() <= this.bufferSizeLimit);
+	}
+
 	private void sessionLimitReached(String reason, CloseStatus status) {
 		this.limitExceeded = true;
 		throw new SessionLimitExceededException(reason, status);
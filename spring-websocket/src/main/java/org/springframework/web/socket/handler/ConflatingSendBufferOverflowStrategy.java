@@ -0,0 +1,67 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.socket.handler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Set;
+
+import org.springframework.web.socket.WebSocketMessage;
+
+/**
+ * A {@link SendBufferOverflowStrategy} that conflates buffered messages by key:
+ * when several buffered messages share the same key, only the most recent one
+ * is kept, effectively letting a newer message replace the queued ones.
+ * Messages without a key are never discarded.
+ *
+ * <p>This is suitable for "latest value wins" traffic such as price updates
+ * where a slow client only needs the most recent value per destination.
+ *
+ * <p>Subclasses define the key through {@link #getConflationKey}.
+ *
+ * @since 4.2.4
+ */
+public abstract class ConflatingSendBufferOverflowStrategy implements SendBufferOverflowStrategy {
+
+	@Override
+	public Collection<WebSocketMessage<?>> selectMessagesToDiscard(List<WebSocketMessage<?>> bufferedMessages,
+			int bufferSize, int bufferSizeLimit) {
+
+		List<WebSocketMessage<?>> result = new ArrayList<WebSocketMessage<?>>();
+		Set<Object> keys = new HashSet<Object>();
+		ListIterator<WebSocketMessage<?>> iterator = bufferedMessages.listIterator(bufferedMessages.size());
+		while (iterator.hasPrevious()) {
+			WebSocketMessage<?> message = iterator.previous();
+			Object key = getConflationKey(message);
+			if (key != null && !keys.add(key)) {
+				result.add(message);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return the key under which the given message is conflated.
+	 * @param message the buffered message
+	 * @return the key, or {@code null} if the message must not be discarded
+	 */
+	protected abstract Object getConflationKey(WebSocketMessage<?> message);
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.socket.handler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.web.socket.WebSocketMessage;
+
+/**
+ * A {@link SendBufferOverflowStrategy} that discards the oldest buffered
+ * messages until the buffer is back within its size limit.
+ *
+ * @since 4.2.4
+ */
+public class DropOldestSendBufferOverflowStrategy implements SendBufferOverflowStrategy {
+
+	@Override
+	public Collection<WebSocketMessage<?>> selectMessagesToDiscard(List<WebSocketMessage<?>> bufferedMessages,
+			int bufferSize, int bufferSizeLimit) {
+
+		List<WebSocketMessage<?>> result = new ArrayList<WebSocketMessage<?>>();
+		for (WebSocketMessage<?> message : bufferedMessages) {
+			if (bufferSize <= bufferSizeLimit) {
+				break;
+			}
+			result.add(message);
+			bufferSize -= message.getPayloadLength();
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.socket.handler;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.web.socket.WebSocketMessage;
+
+/**
+ * Strategy invoked by {@link ConcurrentWebSocketSessionDecorator} when the
+ * messages buffered for a slow session exceed the configured buffer size limit.
+ *
+ * <p>An implementation selects buffered messages to discard. If the buffer is
+ * still over the limit after those messages are removed, the session is closed
+ * as it would be without a strategy.
+ *
+ * <p>Implementations are expected to be stateless and may be shared across
+ * sessions.
+ *
+ * @since 4.2.4
+ * @see DropOldestSendBufferOverflowStrategy
+ * @see ConflatingSendBufferOverflowStrategy
+ */
+public interface SendBufferOverflowStrategy {
+
+	/**
+	 * Select the buffered messages to discard.
+	 * @param bufferedMessages a snapshot of the buffered messages, oldest first
+	 * @param bufferSize the current buffer size in bytes
+	 * @param bufferSizeLimit the configured buffer size limit in bytes
+	 * @return the messages to discard, possibly empty but never {@code null}
+	 */
+	Collection<WebSocketMessage<?>> selectMessagesToDiscard(List<WebSocketMessage<?>> bufferedMessages,
+			int bufferSize, int bufferSizeLimit);
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.socket.messaging;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.handler.ConflatingSendBufferOverflowStrategy;
+
+/**
+ * A {@link ConflatingSendBufferOverflowStrategy} for STOMP sessions that
+ * conflates buffered MESSAGE frames by subscription id and destination, so a
+ * slow client receives only the most recent message for each subscription.
+ * All other frames are left in the buffer.
+ *
+ * @since 4.2.4
+ */
+public class StompConflatingSendBufferOverflowStrategy extends ConflatingSendBufferOverflowStrategy {
+
+	private static final Charset UTF8_CHARSET = Charset.forName("UTF-8");
+
+	private static final String MESSAGE_COMMAND_LINE = StompCommand.MESSAGE.name() + "\n";
+
+
+	@Override
+	protected Object getConflationKey(WebSocketMessage<?> message) {
+		String headers = getHeaderSection(message);
+		if (headers == null || !headers.startsWith(MESSAGE_COMMAND_LINE)) {
+			return null;
+		}
+		String destination = null;
+		String subscription = null;
+		int start = MESSAGE_COMMAND_LINE.length();
+		while (start < headers.length()) {
+			int end = headers.indexOf('\n', start);
+			end = (end != -1 ? end : headers.length());
+			int colon = headers.indexOf(':', start);
+			if (colon != -1 && colon < end) {
+				String name = headers.substring(start, colon);
+				if (destination == null && StompHeaderAccessor.STOMP_DESTINATION_HEADER.equals(name)) {
+					destination = headers.substring(colon + 1, end);
+				}
+				else if (subscription == null && StompHeaderAccessor.STOMP_SUBSCRIPTION_HEADER.equals(name)) {
+					subscription = headers.substring(colon + 1, end);
+				}
+			}
+			start = end + 1;
+		}
+		return (destination != null ? Arrays.asList(subscription, destination) : null);
+	}
+
+	private String getHeaderSection(WebSocketMessage<?> message) {
+		if (message instanceof TextMessage) {
+			String payload = ((TextMessage) message).getPayload();
+			int index = payload.indexOf("\n\n");
+			return (index != -1 ? payload.substring(0, index) : null);
+		}
+		else if (message instanceof BinaryMessage) {
+			ByteBuffer payload = ((BinaryMessage) message).getPayload();
+			for (int i = payload.position(); i < payload.limit() - 1; i++) {
+				if (payload.get(i) == '\n' && payload.get(i + 1) == '\n') {
+					byte[] bytes = new byte[i - payload.position()];
+					payload.duplicate().get(bytes);
+					return new String(bytes, UTF8_CHARSET);
+				}
+			}
+		}
+		return null;
+	}
+
+}
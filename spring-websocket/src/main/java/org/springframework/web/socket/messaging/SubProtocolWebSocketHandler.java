@@ -26,6 +26,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.logging.Log;
@@ -46,6 +47,7 @@ import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SendBufferOverflowStrategy;
 import org.springframework.web.socket.handler.SessionLimitExceededException;
 import org.springframework.web.socket.sockjs.transport.session.PollingSockJsSession;
 import org.springframework.web.socket.sockjs.transport.session.StreamingSockJsSession;
@@ -98,6 +100,8 @@ public class SubProtocolWebSocketHandler implements WebSocketHandler,
 
 	private int sendBufferSizeLimit = 512 * 1024;
 
+	private SendBufferOverflowStrategy sendBufferOverflowStrategy;
+
 	private volatile long lastSessionCheckTime = System.currentTimeMillis();
 
 	private final ReentrantLock sessionCheckLock = new ReentrantLock();
@@ -204,6 +208,26 @@ public class SubProtocolWebSocketHandler implements WebSocketHandler,
 		return sendBufferSizeLimit;
 	}
 
+	/**
+	 * Configure a strategy for discarding buffered messages of a slow session
+	 * once the {@link #setSendBufferSizeLimit send buffer size limit} is exceeded,
+	 * e.g. a {@link org.springframework.web.socket.handler.DropOldestSendBufferOverflowStrategy}
+	 * or a {@link StompConflatingSendBufferOverflowStrategy}.
+	 * <p>By default this is not set and such sessions are closed.
+	 * @since 4.2.4
+	 */
+	public void setSendBufferOverflowStrategy(SendBufferOverflowStrategy sendBufferOverflowStrategy) {
+		this.sendBufferOverflowStrategy = sendBufferOverflowStrategy;
+	}
+
+	/**
+	 * Return the configured {@link SendBufferOverflowStrategy}, if any.
+	 * @since 4.2.4
+	 */
+	public SendBufferOverflowStrategy getSendBufferOverflowStrategy() {
+		return this.sendBufferOverflowStrategy;
+	}
+
 	@Override
 	public boolean isAutoStartup() {
 		return true;
@@ -228,6 +252,41 @@ public class SubProtocolWebSocketHandler implements WebSocketHandler,
 		return this.stats.toString();
 	}
 
+	/**
+	 * Return a String describing the send buffers of the current sessions,
+	 * i.e. the deepest buffer, the longest send in progress and completed,
+	 * and the number of messages discarded by the
+	 * {@link #setSendBufferOverflowStrategy overflow strategy}.
+	 * @since 4.2.4
+	 */
+	public String getSendBufferStatsInfo() {
+		int bufferingCount = 0;
+		int maxMessageCount = 0;
+		int maxBufferSize = 0;
+		long maxTimeSinceSendStarted = 0;
+		long maxSendTime = 0;
+		long discardedCount = this.stats.getDiscardedMessageCount();
+		for (WebSocketSessionHolder holder : this.sessions.values()) {
+			if (!(holder.getSession() instanceof ConcurrentWebSocketSessionDecorator)) {
+				continue;
+			}
+			ConcurrentWebSocketSessionDecorator session = (ConcurrentWebSocketSessionDecorator) holder.getSession();
+			int messageCount = session.getBufferedMessageCount();
+			if (messageCount > 0) {
+				bufferingCount++;
+			}
+			maxMessageCount = Math.max(maxMessageCount, messageCount);
+			maxBufferSize = Math.max(maxBufferSize, session.getBufferSize());
+			maxTimeSinceSendStarted = Math.max(maxTimeSinceSendStarted, session.getTimeSinceSendStarted());
+			maxSendTime = Math.max(maxSendTime, session.getMaxSendTime());
+			discardedCount += session.getDiscardedMessageCount();
+		}
+		return bufferingCount + " buffering, max depth " + maxMessageCount + " messages (" +
+				maxBufferSize + " of " + getSendBufferSizeLimit() + " bytes), " +
+				"longest send in progress " + maxTimeSinceSendStarted + " ms, longest completed send " +
+				maxSendTime + " ms (limit " + getSendTimeLimit() + " ms), " + discardedCount + " discarded";
+	}
+
 
 	@Override
 	public final void start() {
@@ -269,7 +328,8 @@ public class SubProtocolWebSocketHandler implements WebSocketHandler,
 			return;
 		}
 		this.stats.incrementSessionCount(session);
-		session = new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit());
+		session = new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit(),
+				getSendBufferOverflowStrategy());
 		this.sessions.put(session.getId(), new WebSocketSessionHolder(session));
 		findProtocolHandler(session).afterSessionStarted(session, this.clientInboundChannel);
 	}
@@ -436,8 +496,13 @@ public class SubProtocolWebSocketHandler implements WebSocketHandler,
 		if (logger.isDebugEnabled()) {
 			logger.debug("Clearing session " + session.getId());
 		}
-		if (this.sessions.remove(session.getId()) != null) {
+		WebSocketSessionHolder holder = this.sessions.remove(session.getId());
+		if (holder != null) {
 			this.stats.decrementSessionCount(session);
+			if (holder.getSession() instanceof ConcurrentWebSocketSessionDecorator) {
+				this.stats.addDiscardedMessageCount(
+						((ConcurrentWebSocketSessionDecorator) holder.getSession()).getDiscardedMessageCount());
+			}
 		}
 		findProtocolHandler(session).afterSessionEnded(session, closeStatus, this.clientInboundChannel);
 	}
@@ -504,6 +569,8 @@ public class SubProtocolWebSocketHandler implements WebSocketHandler,
 
 		private final AtomicInteger transportError = new AtomicInteger();
 
+		private final AtomicLong discardedMessages = new AtomicLong();
+
 
 		public void incrementSessionCount(WebSocketSession session) {
 			getCountFor(session).incrementAndGet();
@@ -526,6 +593,14 @@ public class SubProtocolWebSocketHandler implements WebSocketHandler,
 			this.transportError.incrementAndGet();
 		}
 
+		public void addDiscardedMessageCount(long count) {
+			this.discardedMessages.addAndGet(count);
+		}
+
+		public long getDiscardedMessageCount() {
+			return this.discardedMessages.get();
+		}
+
 		private AtomicInteger getCountFor(WebSocketSession session) {
 			if (session instanceof PollingSockJsSession) {
 				return this.httpPolling;
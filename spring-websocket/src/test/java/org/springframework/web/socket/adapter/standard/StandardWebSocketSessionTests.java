@@ -15,15 +15,20 @@
 
 package org.springframework.web.socket.adapter.standard;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import javax.websocket.RemoteEndpoint;
 import javax.websocket.Session;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.handler.TestPrincipal;
 
 import static org.junit.Assert.*;
@@ -102,4 +107,24 @@ public class StandardWebSocketSessionTests {
 		verifyNoMoreInteractions(nativeSession);
 	}
 
+	@Test
+	public void sendMessagesInBatch() throws Exception {
+
+		RemoteEndpoint.Basic remote = Mockito.mock(RemoteEndpoint.Basic.class);
+		Session nativeSession = Mockito.mock(Session.class);
+		given(nativeSession.isOpen()).willReturn(true);
+		given(nativeSession.getBasicRemote()).willReturn(remote);
+
+		StandardWebSocketSession session = new StandardWebSocketSession(this.headers, this.attributes, null, null);
+		session.initializeNativeSession(nativeSession);
+		session.sendMessages(Arrays.<WebSocketMessage<?>>asList(new TextMessage("foo"), new TextMessage("bar")));
+
+		InOrder inOrder = inOrder(remote);
+		inOrder.verify(remote).setBatchingAllowed(true);
+		inOrder.verify(remote).sendText("foo", true);
+		inOrder.verify(remote).sendText("bar", true);
+		inOrder.verify(remote).flushBatch();
+		inOrder.verify(remote).setBatchingAllowed(false);
+	}
+
 }
@@ -55,6 +55,7 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.handler.DropOldestSendBufferOverflowStrategy;
 import org.springframework.web.socket.handler.TestWebSocketSession;
 import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
@@ -141,6 +142,7 @@ public class WebSocketMessageBrokerConfigurationSupportTests {
 
 		assertEquals(1024 * 1024, subWsHandler.getSendBufferSizeLimit());
 		assertEquals(25 * 1000, subWsHandler.getSendTimeLimit());
+		assertEquals(DropOldestSendBufferOverflowStrategy.class, subWsHandler.getSendBufferOverflowStrategy().getClass());
 
 		Map<String, SubProtocolHandler> handlerMap = subWsHandler.getProtocolHandlerMap();
 		StompSubProtocolHandler protocolHandler = (StompSubProtocolHandler) handlerMap.get("v12.stomp");
@@ -170,6 +172,8 @@ public class WebSocketMessageBrokerConfigurationSupportTests {
 		String actual = stats.toString();
 		String expected = "WebSocketSession\\[0 current WS\\(0\\)-HttpStream\\(0\\)-HttpPoll\\(0\\), " +
 				"0 total, 0 closed abnormally \\(0 connect failure, 0 send limit, 0 transport error\\)\\], " +
+				"sendBuffer\\[0 buffering, max depth 0 messages \\(0 of 1048576 bytes\\), longest send in progress 0 ms, " +
+				"longest completed send 0 ms \\(limit 25000 ms\\), 0 discarded\\], " +
 				"stompSubProtocol\\[processed CONNECT\\(0\\)-CONNECTED\\(0\\)-DISCONNECT\\(0\\)\\], " +
 				"stompBrokerRelay\\[null\\], " +
 				"inboundChannel\\[pool size = \\d, active threads = \\d, queued tasks = \\d, completed tasks = \\d\\], " +
@@ -236,6 +240,7 @@ public class WebSocketMessageBrokerConfigurationSupportTests {
 			registration.setMessageSizeLimit(128 * 1024);
 			registration.setSendTimeLimit(25 * 1000);
 			registration.setSendBufferSizeLimit(1024 * 1024);
+			registration.setSendBufferOverflowStrategy(new DropOldestSendBufferOverflowStrategy());
 		}
 
 		@Override
@@ -17,18 +17,28 @@
 package org.springframework.web.socket.handler;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.adapter.standard.StandardWebSocketSession;
 
 import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
 
 /**
  * Unit tests for
@@ -186,6 +196,130 @@ public class ConcurrentWebSocketSessionDecoratorTests {
 		}
 	}
 
+	@Test
+	public void sendBufferSizeExceededWithDropOldestStrategy() throws IOException, InterruptedException {
+
+		BlockingSession blockingSession = new BlockingSession();
+		blockingSession.setOpen(true);
+		CountDownLatch sentMessageLatch = blockingSession.getSentMessageLatch();
+
+		final ConcurrentWebSocketSessionDecorator concurrentSession = new ConcurrentWebSocketSessionDecorator(
+				blockingSession, 10 * 1000, 10, new DropOldestSendBufferOverflowStrategy());
+
+		sendInBackground(concurrentSession, new TextMessage("slow message"));
+		assertTrue(sentMessageLatch.await(5, TimeUnit.SECONDS));
+
+		concurrentSession.sendMessage(new TextMessage("1111"));
+		concurrentSession.sendMessage(new TextMessage("2222"));
+		concurrentSession.sendMessage(new TextMessage("3333"));
+
+		assertEquals(2, concurrentSession.getBufferedMessageCount());
+		assertEquals(8, concurrentSession.getBufferSize());
+		assertEquals(1, concurrentSession.getDiscardedMessageCount());
+		assertTrue(blockingSession.isOpen());
+	}
+
+	@Test
+	public void sendBufferSizeExceededWithConflatingStrategy() throws IOException, InterruptedException {
+
+		BlockingSession blockingSession = new BlockingSession();
+		blockingSession.setOpen(true);
+		CountDownLatch sentMessageLatch = blockingSession.getSentMessageLatch();
+
+		SendBufferOverflowStrategy strategy = new ConflatingSendBufferOverflowStrategy() {
+			@Override
+			protected Object getConflationKey(WebSocketMessage<?> message) {
+				String payload = ((TextMessage) message).getPayload();
+				return (payload.indexOf(':') != -1 ? payload.substring(0, payload.indexOf(':')) : null);
+			}
+		};
+
+		final ConcurrentWebSocketSessionDecorator concurrentSession =
+				new ConcurrentWebSocketSessionDecorator(blockingSession, 10 * 1000, 12, strategy);
+
+		sendInBackground(concurrentSession, new TextMessage("slow message"));
+		assertTrue(sentMessageLatch.await(5, TimeUnit.SECONDS));
+
+		concurrentSession.sendMessage(new TextMessage("a:1"));
+		concurrentSession.sendMessage(new TextMessage("b:1"));
+		concurrentSession.sendMessage(new TextMessage("---"));
+		concurrentSession.sendMessage(new TextMessage("a:2"));
+		concurrentSession.sendMessage(new TextMessage("a:3"));
+
+		assertEquals(3, concurrentSession.getBufferedMessageCount());
+		assertEquals(2, concurrentSession.getDiscardedMessageCount());
+		assertTrue(blockingSession.isOpen());
+
+		try {
+			concurrentSession.sendMessage(new TextMessage("-----"));
+			fail("Expected exception");
+		}
+		catch (SessionLimitExceededException ex) {
+			// buffer still over the limit after conflation
+		}
+	}
+
+	@Test
+	public void sendBufferedMessagesInBatch() throws Exception {
+
+		final CountDownLatch sendStartedLatch = new CountDownLatch(1);
+		final CountDownLatch releaseLatch = new CountDownLatch(1);
+
+		RemoteEndpoint.Basic remote = mock(RemoteEndpoint.Basic.class);
+		willAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				sendStartedLatch.countDown();
+				releaseLatch.await(5, TimeUnit.SECONDS);
+				return null;
+			}
+		}).given(remote).sendText("slow message", true);
+
+		Session nativeSession = mock(Session.class);
+		given(nativeSession.isOpen()).willReturn(true);
+		given(nativeSession.getBasicRemote()).willReturn(remote);
+
+		StandardWebSocketSession session = new StandardWebSocketSession(null, new HashMap<String, Object>(), null, null);
+		session.initializeNativeSession(nativeSession);
+
+		final ConcurrentWebSocketSessionDecorator concurrentSession =
+				new ConcurrentWebSocketSessionDecorator(session, 10 * 1000, 1024);
+
+		sendInBackground(concurrentSession, new TextMessage("slow message"));
+		assertTrue(sendStartedLatch.await(5, TimeUnit.SECONDS));
+
+		List<String> payloads = Arrays.asList("foo", "bar", "baz");
+		for (String payload : payloads) {
+			concurrentSession.sendMessage(new TextMessage(payload));
+		}
+		assertEquals(3, concurrentSession.getBufferedMessageCount());
+
+		releaseLatch.countDown();
+		verify(remote, timeout(5000)).setBatchingAllowed(false);
+
+		verify(remote).setBatchingAllowed(true);
+		for (String payload : payloads) {
+			verify(remote).sendText(payload, true);
+		}
+		verify(remote).flushBatch();
+		assertEquals(0, concurrentSession.getBufferSize());
+	}
+
+
+	private void sendInBackground(final ConcurrentWebSocketSessionDecorator session, final TextMessage message) {
+		Executors.newSingleThreadExecutor().submit(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					session.sendMessage(message);
+				}
+				catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+	}
+
 
 	private static class BlockingSession extends TestWebSocketSession {
 
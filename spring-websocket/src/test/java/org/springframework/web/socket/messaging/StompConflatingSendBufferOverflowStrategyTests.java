@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.socket.messaging;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link StompConflatingSendBufferOverflowStrategy}.
+ */
+public class StompConflatingSendBufferOverflowStrategyTests {
+
+	private final StompEncoder encoder = new StompEncoder();
+
+	private final StompConflatingSendBufferOverflowStrategy strategy = new StompConflatingSendBufferOverflowStrategy();
+
+
+	@Test
+	public void conflateBySubscriptionAndDestination() {
+		WebSocketMessage<?> price1 = textFrame(StompCommand.MESSAGE, "sub-0", "/topic/price.ABC", "1");
+		WebSocketMessage<?> price2 = textFrame(StompCommand.MESSAGE, "sub-0", "/topic/price.XYZ", "2");
+		WebSocketMessage<?> price3 = textFrame(StompCommand.MESSAGE, "sub-1", "/topic/price.ABC", "3");
+		WebSocketMessage<?> receipt = textFrame(StompCommand.RECEIPT, null, null, "");
+		WebSocketMessage<?> price4 = binaryFrame(StompCommand.MESSAGE, "sub-0", "/topic/price.ABC", "4");
+		WebSocketMessage<?> heartbeat = new TextMessage("\n");
+
+		List<WebSocketMessage<?>> buffered = Arrays.asList(price1, price2, price3, receipt, price4, heartbeat);
+		Collection<WebSocketMessage<?>> discarded = this.strategy.selectMessagesToDiscard(buffered, 1000, 100);
+
+		assertEquals(1, discarded.size());
+		assertSame(price1, discarded.iterator().next());
+	}
+
+	@Test
+	public void nothingToConflate() {
+		List<WebSocketMessage<?>> buffered = Arrays.<WebSocketMessage<?>>asList(
+				textFrame(StompCommand.MESSAGE, "sub-0", "/topic/a", "1"),
+				textFrame(StompCommand.MESSAGE, "sub-0", "/topic/b", "2"),
+				textFrame(StompCommand.ERROR, null, null, "3"));
+
+		assertTrue(this.strategy.selectMessagesToDiscard(buffered, 1000, 100).isEmpty());
+	}
+
+
+	private TextMessage textFrame(StompCommand command, String subscription, String destination, String body) {
+		return new TextMessage(encode(command, subscription, destination, body));
+	}
+
+	private BinaryMessage binaryFrame(StompCommand command, String subscription, String destination, String body) {
+		return new BinaryMessage(encode(command, subscription, destination, body));
+	}
+
+	private byte[] encode(StompCommand command, String subscription, String destination, String body) {
+		StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+		if (subscription != null) {
+			accessor.setSubscriptionId(subscription);
+		}
+		if (destination != null) {
+			accessor.setDestination(destination);
+		}
+		accessor.setMessageId("id-" + body);
+		Message<byte[]> message = MessageBuilder.createMessage(body.getBytes(), accessor.getMessageHeaders());
+		return this.encoder.encode(message);
+	}
+
+}